@@ -0,0 +1,55 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BenchmarkData makes reproducible tweet corpora and social networks for
+ * benchmarks.
+ */
+public class BenchmarkData {
+
+    /**
+     * Make a list of tweets with Zipf-distributed authors, mentions and
+     * hashtags, email addresses and bursty timestamps, as made by
+     * TweetGenerator with a rate of 10 tweets per second.
+     *
+     * @param seed
+     *            seed of the random choices; equal seeds give equal lists
+     * @param size
+     *            number of tweets
+     * @param users
+     *            number of distinct authors and mentioned users, requires > 0
+     * @return list of size tweets with ids 0..size-1
+     */
+    public static List<Tweet> tweets(long seed, int size, int users) {
+        List<Tweet> tweets = new ArrayList<>(size);
+        TweetGenerator generator = new TweetGenerator(seed, users, 1.0, 10);
+        for (int i = 0; i < size; i++) {
+            tweets.add(generator.next());
+        }
+        return tweets;
+    }
+
+    /**
+     * Make the social network in which each author follows the users they
+     * mention, without the other kinds of evidence of guessFollowsGraph().
+     *
+     * @param tweets
+     *            tweets providing the evidence
+     * @return social network as defined by SocialNetwork
+     */
+    public static Map<String, Set<String>> mentionGraph(List<Tweet> tweets) {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        for (Tweet tweet : tweets) {
+            Set<String> follows = followsGraph.computeIfAbsent(tweet.getAuthor(), author -> new HashSet<>());
+            MentionScanner.scan(tweet.getText(), follows);
+            follows.remove(tweet.getAuthor());
+        }
+        return followsGraph;
+    }
+}
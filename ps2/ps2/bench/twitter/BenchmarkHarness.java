@@ -0,0 +1,127 @@
+package twitter;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * BenchmarkHarness times an operation after a warmup, and reports its
+ * throughput and the bytes it allocates per invocation.
+ *
+ * Allocation is measured with the per-thread allocation counter of
+ * com.sun.management.ThreadMXBean, so operations must run on the calling
+ * thread; it is reported as NaN on JVMs without that counter.
+ */
+public class BenchmarkHarness {
+
+    /* Results are folded into sink so the JIT cannot drop the operations. */
+    private static volatile int sink;
+
+    private final long warmupNanos;
+    private final long measureNanos;
+
+    /**
+     * Make a harness.
+     *
+     * @param warmupMillis
+     *            time to run each operation before measuring it
+     * @param measureMillis
+     *            time to run each operation while measuring it, requires > 0
+     */
+    public BenchmarkHarness(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.measureNanos = measureMillis * 1_000_000L;
+    }
+
+    /**
+     * Measurement of one operation.
+     */
+    public static class Result {
+
+        private final String name;
+        private final int size;
+        private final long operations;
+        private final double opsPerSecond;
+        private final double bytesPerOp;
+
+        Result(String name, int size, long operations, double opsPerSecond, double bytesPerOp) {
+            this.name = name;
+            this.size = size;
+            this.operations = operations;
+            this.opsPerSecond = opsPerSecond;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        /**
+         * @return invocations of the operation per second
+         */
+        public double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        /**
+         * @return bytes allocated per invocation of the operation, or NaN if
+         *         allocation cannot be measured
+         */
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        @Override public String toString() {
+            return String.format("%-44s %9d %8d %14.2f %14.1f %14.1f", name, size, operations, opsPerSecond,
+                    1e9 / opsPerSecond / Math.max(size, 1), bytesPerOp);
+        }
+    }
+
+    /**
+     * @return a header line for the columns of Result.toString()
+     */
+    public static String header() {
+        return String.format("%-44s %9s %8s %14s %14s %14s", "benchmark", "tweets", "ops", "ops/s", "ns/tweet",
+                "bytes/op");
+    }
+
+    /**
+     * Measure an operation.
+     *
+     * @param name
+     *            name of the benchmark
+     * @param size
+     *            number of tweets the operation works on, for reporting
+     * @param operation
+     *            operation to measure; its result is consumed so that it is
+     *            not optimized away
+     * @return throughput and allocation of the operation
+     */
+    public Result measure(String name, int size, Supplier<?> operation) {
+        run(operation, warmupNanos);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long operations = run(operation, measureNanos);
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        double bytesPerOp = allocatedBefore < 0 ? Double.NaN : (double) allocated / operations;
+        return new Result(name, size, operations, operations * 1e9 / elapsed, bytesPerOp);
+    }
+
+    /* Runs operation at least once and until nanos have passed; returns the number of runs. */
+    private static long run(Supplier<?> operation, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long operations = 0;
+        do {
+            Object result = operation.get();
+            sink += result == null ? 0 : System.identityHashCode(result);
+            operations++;
+        } while (System.nanoTime() < deadline);
+        return operations;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,68 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares Extract.getMentionedUsers(), which uses MentionScanner, against the
+ * original implementation in ReferenceExtract.
+ *
+ * Usage: java -cp bin twitter.MentionScannerBenchmark [tweets] [rounds]
+ */
+public class MentionScannerBenchmark {
+
+    private static final String ALPHABET = "aB3_-@ .;";
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        checkSameResults(new Random(1), 200000);
+
+        List<Tweet> tweets = BenchmarkData.tweets(42, size, 5000);
+        System.out.printf("%d tweets, %d rounds%n", size, rounds);
+        for (int warmup = 0; warmup < 3; warmup++) {
+            time("reference", tweets, rounds, true);
+            time("scanner", tweets, rounds, false);
+        }
+    }
+
+    /**
+     * Check that the scanner finds the same mentions as the reference
+     * implementation on random texts drawn from a small alphabet of username
+     * characters, separators and '@'.
+     */
+    private static void checkSameResults(Random random, int count) {
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            List<Tweet> tweets = new ArrayList<>();
+            tweets.add(new Tweet(i, "alyssa", text.toString(), Instant.EPOCH));
+
+            Set<String> expected = ReferenceExtract.getMentionedUsers(tweets);
+            Set<String> actual = Extract.getMentionedUsers(tweets);
+            if (!expected.equals(actual)) {
+                throw new AssertionError("\"" + text + "\": expected " + expected + " but was " + actual);
+            }
+        }
+    }
+
+    private static void time(String name, List<Tweet> tweets, int rounds, boolean reference) {
+        long start = System.nanoTime();
+        int found = 0;
+        for (int round = 0; round < rounds; round++) {
+            Set<String> users = reference ? ReferenceExtract.getMentionedUsers(tweets)
+                    : Extract.getMentionedUsers(tweets);
+            found += users.size();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-10s %8.1f ns/tweet (%d mentions)%n", name,
+                (double) elapsed / rounds / tweets.size(), found / rounds);
+    }
+}
@@ -0,0 +1,91 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReferenceFilter keeps the original implementation of Filter, so that
+ * benchmarks can compare new engines against it and check that they produce
+ * the same results.
+ */
+public class ReferenceFilter {
+
+    /**
+     * Find tweets written by a particular user, as Filter.writtenBy().
+     *
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param username
+     *            Twitter username
+     * @return all and only the tweets in the list whose author is username,
+     *         in the same order as in the input list.
+     */
+    public static List<Tweet> writtenBy(List<Tweet> tweets, String username) {
+        List<Tweet> tweetsBy = new ArrayList<>();
+
+        for (Tweet tweet : tweets) {
+            if (tweet.getAuthor().equalsIgnoreCase(username)) {
+                tweetsBy.add(tweet);
+            }
+        }
+
+        return tweetsBy;
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, as Filter.inTimespan().
+     *
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param timespan
+     *            timespan
+     * @return all and only the tweets in the list that were sent during the timespan,
+     *         in the same order as in the input list.
+     */
+    public static List<Tweet> inTimespan(List<Tweet> tweets, Timespan timespan) {
+        List<Tweet> tweetsInTimeSpan = new ArrayList<>();
+
+        for (Tweet tweet : tweets) {
+            Instant timestamp = tweet.getTimestamp();
+
+            // If the tweet was sent during the timespan, add it to the result
+            if (timestamp.equals(timespan.getStart()) || (timestamp.isAfter(timespan.getStart()) &&
+                    timestamp.isBefore(timespan.getEnd())) || timestamp.equals(timespan.getEnd())) {
+                tweetsInTimeSpan.add(tweet);
+            }
+        }
+
+        return tweetsInTimeSpan;
+    }
+
+    /**
+     * Find tweets that contain certain words, as Filter.containing().
+     *
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param words
+     *            a list of words to search for in the tweets.
+     * @return all and only the tweets in the list whose text includes at least
+     *         one of the words, ignoring case, in the same order as in the input list.
+     */
+    public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
+        List<Tweet> tweetsWithWord = new ArrayList<>();
+
+        for (Tweet tweet : tweets) {
+            for (String word1 : words) {
+                String[] tweetWords = tweet.getText().split(" ");
+
+                for (String word2 : tweetWords) {
+                    if (word1.equalsIgnoreCase(word2)) {
+                        if (!tweetsWithWord.contains(tweet)) {
+                            tweetsWithWord.add(tweet);
+                        }
+                    }
+                }
+            }
+        }
+
+        return tweetsWithWord;
+    }
+}
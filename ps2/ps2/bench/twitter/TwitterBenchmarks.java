@@ -0,0 +1,243 @@
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * TwitterBenchmarks measures the throughput and allocation rate of the
+ * operations of the twitter package, and of the reference implementations
+ * they replaced, on corpora of increasing size.
+ *
+ * Usage: java -cp bin twitter.TwitterBenchmarks [-sizes=1000,100000,1000000]
+ *        [-filter=regex] [-warmup=millis] [-measure=millis] [-maxGraphTweets=n]
+ *
+ * Only benchmarks whose name matches the filter regex are run. The reference
+ * guessFollowsGraph() is cubic in practice, so follows-graph benchmarks only run
+ * on corpora of at most maxGraphTweets tweets.
+ */
+public class TwitterBenchmarks {
+
+    private static final List<String> WORDS = Arrays.asList("Rivest", "talk", "#MIT", "nothing", "here");
+    private static final List<String> WATCH_LIST = watchList(20000);
+
+    /* Benchmarks by name; each makes the operation to measure on a given corpus. */
+    private static final Map<String, Function<Corpus, Supplier<?>>> BENCHMARKS = new LinkedHashMap<>();
+    private static final Set<String> GRAPH_BENCHMARKS = new HashSet<>();
+
+    static {
+        add("Extract.getTimespan", corpus -> () -> Extract.getTimespan(corpus.tweets));
+        add("Extract.getTimespan[reference]", corpus -> () -> ReferenceExtract.getTimespan(corpus.tweets));
+        add("Extract.getMentionedUsers", corpus -> () -> Extract.getMentionedUsers(corpus.tweets));
+        add("Extract.getMentionedUsers[reference]", corpus -> () -> ReferenceExtract.getMentionedUsers(corpus.tweets));
+        add("Filter.writtenBy", corpus -> () -> Filter.writtenBy(corpus.tweets, corpus.author));
+        add("Filter.writtenBy[reference]", corpus -> () -> ReferenceFilter.writtenBy(corpus.tweets, corpus.author));
+        add("AuthorIndex.writtenBy", corpus -> {
+            AuthorIndex index = new AuthorIndex(corpus.tweets);
+            return () -> index.writtenBy(corpus.author);
+        });
+        add("Filter.inTimespan", corpus -> () -> Filter.inTimespan(corpus.tweets, corpus.timespan));
+        add("Filter.inTimespan[reference]", corpus -> () -> ReferenceFilter.inTimespan(corpus.tweets, corpus.timespan));
+        add("TimeIndex.inTimespan", corpus -> {
+            TimeIndex index = new TimeIndex(corpus.tweets);
+            return () -> index.inTimespan(corpus.timespan);
+        });
+        add("Filter.containing", corpus -> () -> Filter.containing(corpus.tweets, WORDS));
+        add("Filter.containing[reference]", corpus -> () -> ReferenceFilter.containing(corpus.tweets, WORDS));
+        add("Filter.containing[watch list]", corpus -> () -> Filter.containing(corpus.tweets, WATCH_LIST));
+        add("WordIndex.containing", corpus -> {
+            WordIndex index = new WordIndex(corpus.tweets);
+            return () -> index.containing(WORDS);
+        });
+        add("Filter.writtenBy+inTimespan+containing", corpus -> () -> Filter.containing(
+                Filter.inTimespan(Filter.writtenBy(corpus.tweets, corpus.author), corpus.timespan), WORDS));
+        add("LazyFilter.writtenBy+inTimespan+containing.limit(20)", corpus -> () -> LazyFilter.stream(corpus.tweets,
+                LazyFilter.isWrittenBy(corpus.author).and(LazyFilter.isInTimespan(corpus.timespan))
+                        .and(LazyFilter.isContaining(WORDS))).limit(20).collect(Collectors.toList()));
+        add("StandingQueryEngine.push[300 queries]", corpus -> () -> pushAll(corpus, 300));
+        add("StandingQueryEngine.push[30000 queries]", corpus -> () -> pushAll(corpus, 30000));
+        add("SlidingWindow.add", corpus -> () -> {
+            SlidingWindow window = new SlidingWindow(Duration.between(corpus.timespan.getStart(), corpus.timespan.getEnd()));
+            corpus.tweets.forEach(window::add);
+            return window.size();
+        });
+        add("TweetIndex.build", corpus -> () -> new TweetIndex(corpus.tweets).size());
+        add("TweetIndex.query", corpus -> {
+            TweetIndex index = new TweetIndex(corpus.tweets);
+            Query query = Query.and(Query.writtenBy(corpus.author), Query.inTimespan(corpus.timespan),
+                    Query.containing(WORDS));
+            return () -> index.query(query);
+        });
+        add("SocialNetwork.guessFollowsGraph", corpus -> () -> SocialNetwork.guessFollowsGraph(corpus.tweets));
+        add("IncrementalFollowsGraph.add[batches of 1000]", corpus -> () -> {
+            IncrementalFollowsGraph graph = new IncrementalFollowsGraph();
+            for (int start = 0; start < corpus.tweets.size(); start += 1000) {
+                graph.add(corpus.tweets.subList(start, Math.min(corpus.tweets.size(), start + 1000)));
+            }
+            return graph.edgeCount();
+        });
+        addGraph("SocialNetwork.guessFollowsGraph[reference]",
+                corpus -> () -> ReferenceSocialNetwork.guessFollowsGraph(corpus.tweets));
+        add("SocialNetwork.influencers", corpus -> {
+            Map<String, Set<String>> followsGraph = corpus.followsGraph();
+            return () -> SocialNetwork.influencers(followsGraph);
+        });
+        add("CsrGraph.influencers", corpus -> {
+            CsrGraph graph = CsrGraph.fromMap(corpus.followsGraph());
+            return () -> graph.influencers();
+        });
+        add("TopInfluencers.top[100]", corpus -> {
+            Map<String, Set<String>> followsGraph = corpus.followsGraph();
+            return () -> TopInfluencers.top(followsGraph, 100);
+        });
+        add("TopInfluencers.top[100, CsrGraph]", corpus -> {
+            CsrGraph graph = CsrGraph.fromMap(corpus.followsGraph());
+            return () -> TopInfluencers.top(graph, 100);
+        });
+        add("TopInfluencers.top[100, CsrGraph, parallel]", corpus -> {
+            CsrGraph graph = CsrGraph.fromMap(corpus.followsGraph());
+            return () -> TopInfluencers.top(graph, 100, true);
+        });
+        add("PageRank.rank", corpus -> {
+            PageRank engine = new PageRank(CsrGraph.fromMap(corpus.followsGraph()));
+            return () -> engine.rank(PageRank.DEFAULT_DAMPING, 1e-6, 100);
+        });
+        add("CsrGraph.fromMap", corpus -> {
+            Map<String, Set<String>> followsGraph = corpus.followsGraph();
+            return () -> CsrGraph.fromMap(followsGraph);
+        });
+        add("SocialNetwork.influencers[reference]", corpus -> {
+            Map<String, Set<String>> followsGraph = corpus.followsGraph();
+            return () -> ReferenceSocialNetwork.influencers(followsGraph);
+        });
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = { 1000, 100000, 1000000 };
+        Pattern filter = Pattern.compile(".*");
+        long warmupMillis = 1000;
+        long measureMillis = 2000;
+        int maxGraphTweets = 1000;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("-sizes=")) {
+                sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+            }
+            else if (arg.startsWith("-filter=")) {
+                filter = Pattern.compile(value);
+            }
+            else if (arg.startsWith("-warmup=")) {
+                warmupMillis = Long.parseLong(value);
+            }
+            else if (arg.startsWith("-measure=")) {
+                measureMillis = Long.parseLong(value);
+            }
+            else if (arg.startsWith("-maxGraphTweets=")) {
+                maxGraphTweets = Integer.parseInt(value);
+            }
+            else {
+                throw new IllegalArgumentException("unknown argument " + arg);
+            }
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmupMillis, measureMillis);
+        System.out.println(BenchmarkHarness.header());
+        for (int size : sizes) {
+            Corpus corpus = new Corpus(size);
+            for (Map.Entry<String, Function<Corpus, Supplier<?>>> benchmark : BENCHMARKS.entrySet()) {
+                String name = benchmark.getKey();
+                if (!filter.matcher(name).find()) {
+                    continue;
+                }
+                if (GRAPH_BENCHMARKS.contains(name) && size > maxGraphTweets) {
+                    System.out.println(String.format("%-44s %9d %8s", name, size, "skipped"));
+                    continue;
+                }
+                System.out.println(harness.measure(name, size, benchmark.getValue().apply(corpus)));
+            }
+        }
+    }
+
+    private static void add(String name, Function<Corpus, Supplier<?>> benchmark) {
+        BENCHMARKS.put(name, benchmark);
+    }
+
+    private static void addGraph(String name, Function<Corpus, Supplier<?>> benchmark) {
+        add(name, benchmark);
+        GRAPH_BENCHMARKS.add(name);
+    }
+
+    /* Subscribes writtenBy, containing and short inTimespan queries in turn, then pushes the corpus. */
+    private static int pushAll(Corpus corpus, int queries) {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        int[] matches = { 0 };
+        StandingQueryEngine.Listener counter = tweet -> matches[0]++;
+        for (int i = 0; i < queries; i++) {
+            switch (i % 3) {
+            case 0:
+                engine.writtenBy("user" + i, counter);
+                break;
+            case 1:
+                engine.containing(Arrays.asList(WATCH_LIST.get(i % WATCH_LIST.size())), counter);
+                break;
+            default:
+                Instant instant = corpus.tweets.get((int) ((long) i * corpus.tweets.size() / queries)).getTimestamp();
+                engine.inTimespan(new Timespan(instant, instant.plusSeconds(1)), counter);
+            }
+        }
+        for (Tweet tweet : corpus.tweets) {
+            engine.push(tweet);
+        }
+        return matches[0];
+    }
+
+    /* Returns count distinct made-up words, with the WORDS among them, as a large watch list. */
+    private static List<String> watchList(int count) {
+        List<String> words = new ArrayList<>(WORDS);
+        Random random = new Random(count);
+        while (words.size() < count) {
+            words.add("w" + Integer.toString(random.nextInt(1 << 30), 36));
+        }
+        return words;
+    }
+
+    /**
+     * Tweets and query arguments shared by the benchmarks of one size.
+     */
+    private static class Corpus {
+
+        private final List<Tweet> tweets;
+        private final String author;
+        private final Timespan timespan;
+        private Map<String, Set<String>> followsGraph = null;
+
+        Corpus(int size) {
+            int users = Math.max(10, size / 20);
+            this.tweets = BenchmarkData.tweets(42, size, users);
+            this.author = "USER1";
+            Timespan all = Extract.getTimespan(tweets);
+            Duration length = Duration.between(all.getStart(), all.getEnd());
+            Instant middle = all.getStart().plus(length.dividedBy(2));
+            this.timespan = new Timespan(middle, middle.plus(length.dividedBy(20))); // about 5% of the tweets
+        }
+
+        /* The follows graph is made on first use, before the operations that read it are measured. */
+        Map<String, Set<String>> followsGraph() {
+            if (followsGraph == null) {
+                followsGraph = BenchmarkData.mentionGraph(tweets);
+            }
+            return followsGraph;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AuthorIndex is an index of the authors of a list of tweets, built once and
+ * then queried any number of times in place of Filter.writtenBy().
+ *
+ * Authors are identified by their ids in a UsernameDictionary, so different
+ * spellings of a username are the same author. The index keeps the positions
+ * of the tweets of each author as a CompressedBitmap, built in one pass, so a
+ * query for an author with k tweets takes O(k) time.
+ * An AuthorIndex is immutable and safe for use by multiple threads, if its
+ * dictionary is not given new ids concurrently with its construction.
+ */
+public class AuthorIndex {
+
+    private static final CompressedBitmap NO_POSITIONS = new CompressedBitmap();
+
+    private final List<Tweet> tweets;
+    private final UsernameDictionary dictionary;
+    private final CompressedBitmap[] byAuthor;
+    private final int authorCount;
+    /* Rep invariant:
+     *    byAuthor.length <= dictionary.size()
+     *    byAuthor[a] is null or nonempty; if nonempty, it holds all and only
+     *        the positions of the tweets whose author has id a in dictionary
+     *    authorCount is the number of a with byAuthor[a] != null
+     * Abstraction function:
+     *    represents the index of the authors of tweets
+     * Thread safety argument:
+     *    all fields and bitmaps are never modified after construction, the
+     *    bitmaps are never returned to clients, and the dictionary is safe
+     *    for use by multiple threads
+     */
+
+    /**
+     * Make an index of the authors of tweets, with its own username
+     * dictionary.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method; the index
+     *            keeps a copy of the list
+     */
+    public AuthorIndex(List<Tweet> tweets) {
+        this(tweets, new UsernameDictionary());
+    }
+
+    /**
+     * Make an index of the authors of tweets.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method; the index
+     *            keeps a copy of the list
+     * @param dictionary
+     *            dictionary that assigns ids to the authors of the tweets;
+     *            it may be shared with other data structures.
+     */
+    public AuthorIndex(List<Tweet> tweets, UsernameDictionary dictionary) {
+        this(new ArrayList<>(tweets), dictionary, UserIds.authorIds(tweets, dictionary));
+    }
+
+    /*
+     * Make an index of the authors of tweets, given their ids in dictionary,
+     * as UserIds.authorIds(); tweets is kept without a copy, so the caller
+     * must not modify it.
+     */
+    AuthorIndex(List<Tweet> tweets, UsernameDictionary dictionary, int[] authorIds) {
+        this.tweets = tweets;
+        this.dictionary = dictionary;
+
+        this.byAuthor = new CompressedBitmap[dictionary.size()];
+        int authors = 0;
+        for (int i = 0; i < authorIds.length; i++) {
+            if (byAuthor[authorIds[i]] == null) {
+                byAuthor[authorIds[i]] = new CompressedBitmap();
+                authors++;
+            }
+            byAuthor[authorIds[i]].add(i);
+        }
+        for (CompressedBitmap list : byAuthor) {
+            if (list != null) {
+                list.runOptimize();
+            }
+        }
+        this.authorCount = authors;
+    }
+
+    /**
+     * @return number of tweets in the index
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return the dictionary that assigns ids to the authors of the tweets
+     */
+    public UsernameDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return number of distinct authors of the tweets, ignoring case
+     */
+    public int authorCount() {
+        return authorCount;
+    }
+
+    /**
+     * @return the distinct authors of the tweets, each as first spelled in
+     *         the dictionary, in order of their ids
+     */
+    public List<String> authors() {
+        List<String> authors = new ArrayList<>(authorCount);
+        for (int a = 0; a < byAuthor.length; a++) {
+            if (byAuthor[a] != null) {
+                authors.add(dictionary.displayName(a));
+            }
+        }
+        return authors;
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return number of tweets written by username
+     */
+    public int count(String username) {
+        return postingsOf(username).cardinality();
+    }
+
+    /**
+     * Find tweets written by a particular user, as Filter.writtenBy().
+     *
+     * @param username
+     *            Twitter username
+     * @return positions of all and only the tweets whose author is username,
+     *         in increasing order
+     */
+    public int[] positionsWrittenBy(String username) {
+        return postingsOf(username).toArray();
+    }
+
+    /**
+     * Find tweets written by a particular user, as Filter.writtenBy().
+     *
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return all and only the tweets in the index whose author is username,
+     *         in the same order as in the list the index was made from
+     */
+    public List<Tweet> writtenBy(String username) {
+        CompressedBitmap positions = postingsOf(username);
+        List<Tweet> found = new ArrayList<>(positions.cardinality());
+        positions.forEach(position -> found.add(tweets.get(position)));
+        return found;
+    }
+
+    /* Posting list of username, not to be modified. */
+    CompressedBitmap postingsOf(String username) {
+        int id = dictionary.lookup(username);
+        return id >= 0 && id < byAuthor.length && byAuthor[id] != null ? byAuthor[id] : NO_POSITIONS;
+    }
+}
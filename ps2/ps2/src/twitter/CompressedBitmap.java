@@ -0,0 +1,756 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * CompressedBitmap is a set of nonnegative ints, such as the positions of the
+ * tweets in a posting list, stored compactly in the style of Roaring bitmaps
+ * (Chambi, Lemire, Kaser and Godin, "Better bitmap performance with Roaring
+ * bitmaps", 2016).
+ *
+ * The ints are grouped by their high 16 bits into chunks of 65536 values, and
+ * each nonempty chunk is stored in the cheapest of three containers:
+ *   - an array container: the sorted low 16 bits, 2 bytes per element, for at
+ *     most ARRAY_MAX elements;
+ *   - a bitmap container: 65536 bits, 8 KB, for more elements;
+ *   - a run container: sorted runs of consecutive values, 4 bytes per run,
+ *     chosen by runOptimize() when it is smaller than the other two.
+ * Intersection, union and difference work chunk by chunk on matching chunks,
+ * with word-wide operations on bitmaps. Consecutive positions of tweets in
+ * time order compress to a few runs.
+ *
+ * A CompressedBitmap is mutable through add() and runOptimize() only; and(),
+ * or() and andNot() return new bitmaps. It is not safe for use by multiple
+ * threads while it is mutated.
+ */
+public class CompressedBitmap {
+
+    /** Largest number of elements of an array container. */
+    static final int ARRAY_MAX = 4096;
+
+    private static final int CHUNK_WORDS = 1 << 10;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size = 0;
+    /* Rep invariant:
+     *    0 <= size <= keys.length == containers.length
+     *    keys[0..size) is strictly increasing
+     *    containers[0..size) are nonempty; only run containers, which are
+     *        never modified, may be shared with other bitmaps
+     * Abstraction function:
+     *    represents the set of (keys[i] << 16 | v) for 0 <= i < size and every
+     *    low value v in containers[i]
+     */
+
+    /**
+     * Make an empty bitmap.
+     */
+    public CompressedBitmap() {
+    }
+
+    /**
+     * @param values
+     *            nonnegative ints, in any order, possibly repeated
+     * @return a bitmap holding values
+     */
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @param from
+     *            least value, requires 0 <= from
+     * @param to
+     *            value just past the greatest, requires from <= to
+     * @return a bitmap holding the values in [from..to), as runs
+     */
+    public static CompressedBitmap range(int from, int to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException("invalid range [" + from + ".." + to + ")");
+        }
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int key = from >>> 16; from < to; key++) {
+            int chunkEnd = (int) Math.min(to, ((long) key + 1) << 16);
+            bitmap.append((char) key, new RunContainer(new char[] { (char) from, (char) (chunkEnd - from - 1) }, 1));
+            from = chunkEnd;
+        }
+        return bitmap;
+    }
+
+    /**
+     * Add a value. Adding values in increasing order is fastest.
+     *
+     * @param value
+     *            a nonnegative int
+     */
+    public void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative value " + value);
+        }
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        if (size > 0 && keys[size - 1] == key) {
+            containers[size - 1] = containers[size - 1].add(low);
+            return;
+        }
+        int i = size > 0 && keys[size - 1] < key ? -size - 1 : Arrays.binarySearch(keys, 0, size, key);
+        if (i >= 0) {
+            containers[i] = containers[i].add(low);
+        }
+        else {
+            insert(-i - 1, key, new ArrayContainer(new char[] { low }, 1));
+        }
+    }
+
+    /**
+     * @param value
+     *            an int
+     * @return true iff value is in this set
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    /**
+     * @return number of elements of this set
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return true iff this set is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param that
+     *            a bitmap
+     * @return a new bitmap holding the intersection of this and that
+     */
+    public CompressedBitmap and(CompressedBitmap that) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < that.size) {
+            if (keys[i] < that.keys[j]) {
+                i++;
+            }
+            else if (keys[i] > that.keys[j]) {
+                j++;
+            }
+            else {
+                Container c = and(containers[i], that.containers[j]);
+                if (c != null) {
+                    result.append(keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param that
+     *            a bitmap
+     * @return a new bitmap holding the union of this and that
+     */
+    public CompressedBitmap or(CompressedBitmap that) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < that.size) {
+            if (j >= that.size || (i < size && keys[i] < that.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            }
+            else if (i >= size || keys[i] > that.keys[j]) {
+                result.append(that.keys[j], that.containers[j].copy());
+                j++;
+            }
+            else {
+                result.append(keys[i], or(containers[i], that.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param that
+     *            a bitmap
+     * @return a new bitmap holding the elements of this that are not in that
+     */
+    public CompressedBitmap andNot(CompressedBitmap that) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < that.size && that.keys[j] < keys[i]) {
+                j++;
+            }
+            Container c = j < that.size && that.keys[j] == keys[i]
+                    ? andNot(containers[i], that.containers[j])
+                    : containers[i].copy();
+            if (c != null) {
+                result.append(keys[i], c);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Union of many bitmaps, faster than or() one at a time.
+     *
+     * @param bitmaps
+     *            bitmaps, not modified by this method
+     * @return a new bitmap holding the union of bitmaps
+     */
+    public static CompressedBitmap or(Collection<CompressedBitmap> bitmaps) {
+        List<long[]> chunks = new ArrayList<>(); // { key, index in parts }, sorted by key below
+        List<Container> parts = new ArrayList<>();
+        for (CompressedBitmap bitmap : bitmaps) {
+            for (int i = 0; i < bitmap.size; i++) {
+                chunks.add(new long[] { bitmap.keys[i], parts.size() });
+                parts.add(bitmap.containers[i]);
+            }
+        }
+        chunks.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        CompressedBitmap result = new CompressedBitmap();
+        for (int from = 0; from < chunks.size();) {
+            int to = from + 1;
+            while (to < chunks.size() && chunks.get(to)[0] == chunks.get(from)[0]) {
+                to++;
+            }
+            Container first = parts.get((int) chunks.get(from)[1]);
+            if (to - from == 1) {
+                result.append((char) chunks.get(from)[0], first.copy());
+            }
+            else {
+                long[] words = new long[CHUNK_WORDS];
+                for (int k = from; k < to; k++) {
+                    parts.get((int) chunks.get(k)[1]).orInto(words);
+                }
+                result.append((char) chunks.get(from)[0], fromWords(words));
+            }
+            from = to;
+        }
+        return result;
+    }
+
+    /**
+     * Convert containers to run containers where that makes them smaller.
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].runOptimize();
+        }
+    }
+
+    /**
+     * Call a function on each element, in increasing order.
+     *
+     * @param action
+     *            function to call
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * @return the elements of this set, in increasing order
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count = containers[i].toArray(keys[i] << 16, values, count);
+        }
+        return values;
+    }
+
+    /**
+     * @return an estimate of the memory used by this bitmap, in bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 16 + 2 * 16 + keys.length * (2L + 4);
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    @Override public boolean equals(Object thatObject) {
+        if (!(thatObject instanceof CompressedBitmap)) {
+            return false;
+        }
+        return Arrays.equals(toArray(), ((CompressedBitmap) thatObject).toArray());
+    }
+
+    @Override public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override public String toString() {
+        return Arrays.toString(toArray()).replace('[', '{').replace(']', '}');
+    }
+
+    /* Appends a chunk after all others; key must be greater than every key. */
+    private void append(char key, Container container) {
+        insert(size, key, container);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            containers = Arrays.copyOf(containers, 2 * size);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    /* Returns the intersection of a and b as a new container, or null if it is empty. */
+    private static Container and(Container a, Container b) {
+        if (b instanceof ArrayContainer && !(a instanceof ArrayContainer)) {
+            return and(b, a);
+        }
+        if (a instanceof ArrayContainer) {
+            ArrayContainer array = (ArrayContainer) a;
+            char[] values = new char[array.cardinality];
+            int count = 0;
+            for (int i = 0; i < array.cardinality; i++) {
+                if (b.contains(array.values[i])) {
+                    values[count++] = array.values[i];
+                }
+            }
+            return count == 0 ? null : new ArrayContainer(values, count);
+        }
+        long[] words = a.toWords();
+        long[] other = b instanceof BitmapContainer ? ((BitmapContainer) b).words : b.toWords();
+        for (int i = 0; i < CHUNK_WORDS; i++) {
+            words[i] &= other[i];
+        }
+        return fromWords(words);
+    }
+
+    /* Returns the union of a and b as a new container. */
+    private static Container or(Container a, Container b) {
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer
+                && a.cardinality() + b.cardinality() <= ARRAY_MAX) {
+            ArrayContainer x = (ArrayContainer) a;
+            ArrayContainer y = (ArrayContainer) b;
+            char[] values = new char[x.cardinality + y.cardinality];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < x.cardinality || j < y.cardinality) {
+                if (j >= y.cardinality || (i < x.cardinality && x.values[i] < y.values[j])) {
+                    values[count++] = x.values[i++];
+                }
+                else if (i >= x.cardinality || x.values[i] > y.values[j]) {
+                    values[count++] = y.values[j++];
+                }
+                else {
+                    values[count++] = x.values[i++];
+                    j++;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+        long[] words = a.toWords();
+        b.orInto(words);
+        return fromWords(words);
+    }
+
+    /* Returns the elements of a that are not in b as a new container, or null if there are none. */
+    private static Container andNot(Container a, Container b) {
+        if (a instanceof ArrayContainer) {
+            ArrayContainer array = (ArrayContainer) a;
+            char[] values = new char[array.cardinality];
+            int count = 0;
+            for (int i = 0; i < array.cardinality; i++) {
+                if (!b.contains(array.values[i])) {
+                    values[count++] = array.values[i];
+                }
+            }
+            return count == 0 ? null : new ArrayContainer(values, count);
+        }
+        long[] words = a.toWords();
+        long[] other = b instanceof BitmapContainer ? ((BitmapContainer) b).words : b.toWords();
+        for (int i = 0; i < CHUNK_WORDS; i++) {
+            words[i] &= ~other[i];
+        }
+        return fromWords(words);
+    }
+
+    /* Returns a container holding the bits of words, owning words, or null if there are none. */
+    private static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality == 0) {
+            return null;
+        }
+        if (cardinality > ARRAY_MAX) {
+            return new BitmapContainer(words, cardinality);
+        }
+        char[] values = new char[cardinality];
+        int count = 0;
+        for (int i = 0; i < CHUNK_WORDS; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                values[count++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+            }
+        }
+        return new ArrayContainer(values, cardinality);
+    }
+
+    /**
+     * A nonempty set of values 0..65535, the low 16 bits of the elements of
+     * one chunk.
+     */
+    private static abstract class Container {
+
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        /* Returns a container with value added: this, modified, or a new container that replaces it. */
+        abstract Container add(char value);
+
+        /* Sets the bits of the values of this in words, an array of CHUNK_WORDS longs. */
+        abstract void orInto(long[] words);
+
+        /* Calls action on high | value for each value, in increasing order. */
+        abstract void forEach(int high, IntConsumer action);
+
+        /* Stores high | value for each value in out from offset on; returns the index past the last. */
+        abstract int toArray(int high, int[] out, int offset);
+
+        /* Returns this, or a smaller run container with the same values. */
+        abstract Container runOptimize();
+
+        abstract long sizeInBytes();
+
+        abstract Container copy();
+
+        /* Returns a new array of CHUNK_WORDS longs with the bits of the values of this. */
+        long[] toWords() {
+            long[] words = new long[CHUNK_WORDS];
+            orInto(words);
+            return words;
+        }
+
+        /* Returns the number of runs of consecutive values. */
+        int runCount() {
+            int[] runs = { 0 };
+            int[] previous = { -2 };
+            forEach(0, value -> {
+                if (value != previous[0] + 1) {
+                    runs[0]++;
+                }
+                previous[0] = value;
+            });
+            return runs[0];
+        }
+
+        /* Returns a run container with the values of this. */
+        RunContainer toRuns(int runCount) {
+            char[] runs = new char[2 * runCount];
+            int[] count = { 0 };
+            int[] previous = { -2 };
+            forEach(0, value -> {
+                if (value != previous[0] + 1) {
+                    runs[2 * count[0]] = (char) value;
+                    count[0]++;
+                }
+                else {
+                    runs[2 * count[0] - 1]++;
+                }
+                previous[0] = value;
+            });
+            return new RunContainer(runs, runCount);
+        }
+    }
+
+    private static class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+        /* Rep invariant: 0 < cardinality <= min(values.length, ARRAY_MAX), values[0..cardinality) increasing */
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override int cardinality() {
+            return cardinality;
+        }
+
+        @Override boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override Container add(char value) {
+            int i = values[cardinality - 1] < value ? -cardinality - 1 : Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                long[] words = toWords();
+                words[value >>> 6] |= 1L << value;
+                return new BitmapContainer(words, cardinality + 1);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, 2 * cardinality));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override void orInto(long[] words) {
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+        }
+
+        @Override void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        @Override int toArray(int high, int[] out, int offset) {
+            for (int i = 0; i < cardinality; i++) {
+                out[offset++] = high | values[i];
+            }
+            return offset;
+        }
+
+        @Override Container runOptimize() {
+            int runs = runCount();
+            if (4 * runs < 2 * cardinality) {
+                return toRuns(runs);
+            }
+            if (values.length > cardinality) {
+                values = Arrays.copyOf(values, cardinality);
+            }
+            return this;
+        }
+
+        @Override long sizeInBytes() {
+            return 16 + 16 + 2L * values.length;
+        }
+
+        @Override Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+    }
+
+    private static class BitmapContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+        /* Rep invariant: words.length == CHUNK_WORDS, cardinality == number of set bits > ARRAY_MAX */
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override int cardinality() {
+            return cardinality;
+        }
+
+        @Override boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override Container add(char value) {
+            if (!contains(value)) {
+                words[value >>> 6] |= 1L << value;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override void orInto(long[] target) {
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                target[i] |= words[i];
+            }
+        }
+
+        @Override long[] toWords() {
+            return words.clone();
+        }
+
+        @Override void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    action.accept(high | (i * 64 + Long.numberOfTrailingZeros(word)));
+                }
+            }
+        }
+
+        @Override int toArray(int high, int[] out, int offset) {
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    out[offset++] = high | (i * 64 + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return offset;
+        }
+
+        @Override Container runOptimize() {
+            int runs = 0;
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                long word = words[i];
+                // a run starts at each set bit whose lower neighbour is clear
+                long previous = (word << 1) | (i > 0 ? words[i - 1] >>> 63 : 0);
+                runs += Long.bitCount(word & ~previous);
+            }
+            return 4 * runs < 8 * CHUNK_WORDS ? toRuns(runs) : this;
+        }
+
+        @Override long sizeInBytes() {
+            return 16 + 16 + 8L * CHUNK_WORDS;
+        }
+
+        @Override Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+    }
+
+    private static class RunContainer extends Container {
+
+        private final char[] runs;
+        private final int runCount;
+        /* Rep invariant:
+         *    runCount > 0, runs.length == 2 * runCount
+         *    run i holds runs[2i] .. runs[2i] + runs[2i+1]; runs are in
+         *        increasing order, and separated by at least one missing value
+         */
+
+        RunContainer(char[] runs, int runCount) {
+            this.runs = runs;
+            this.runCount = runCount;
+        }
+
+        @Override int cardinality() {
+            int cardinality = 0;
+            for (int i = 0; i < runCount; i++) {
+                cardinality += runs[2 * i + 1] + 1;
+            }
+            return cardinality;
+        }
+
+        @Override boolean contains(char value) {
+            // find the last run that starts at or before value
+            int low = 0;
+            int high = runCount - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (runs[2 * middle] <= value) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle - 1;
+                }
+            }
+            return high >= 0 && value - runs[2 * high] <= runs[2 * high + 1];
+        }
+
+        @Override Container add(char value) {
+            if (contains(value)) {
+                return this;
+            }
+            long[] words = toWords();
+            words[value >>> 6] |= 1L << value;
+            return fromWords(words);
+        }
+
+        @Override void orInto(long[] words) {
+            for (int i = 0; i < runCount; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1]; // inclusive
+                int first = start >>> 6;
+                int last = end >>> 6;
+                long firstMask = -1L << start;
+                long lastMask = -1L >>> (63 - (end & 63));
+                if (first == last) {
+                    words[first] |= firstMask & lastMask;
+                }
+                else {
+                    words[first] |= firstMask;
+                    for (int w = first + 1; w < last; w++) {
+                        words[w] = -1L;
+                    }
+                    words[last] |= lastMask;
+                }
+            }
+        }
+
+        @Override void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < runCount; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1];
+                for (int value = start; value <= end; value++) {
+                    action.accept(high | value);
+                }
+            }
+        }
+
+        @Override int toArray(int high, int[] out, int offset) {
+            for (int i = 0; i < runCount; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1];
+                for (int value = start; value <= end; value++) {
+                    out[offset++] = high | value;
+                }
+            }
+            return offset;
+        }
+
+        @Override Container runOptimize() {
+            return this;
+        }
+
+        @Override long sizeInBytes() {
+            return 16 + 16 + 2L * runs.length;
+        }
+
+        @Override Container copy() {
+            return this; // never modified
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * CsrGraph is an immutable follows graph in compressed sparse row form: the
+ * users are numbered by a UsernameDictionary, and the users followed by the
+ * user with id u are targets[offsets[u]..offsets[u+1]), in increasing order.
+ * An edge costs 4 bytes, so a graph of 100M edges fits in well under 1 GB.
+ *
+ * As in SocialNetwork, usernames are not case sensitive, so converting a
+ * Map<String, Set<String>> merges keys, and follows, that are equal ignoring
+ * case into one user, and counts an edge between two users once.
+ * A CsrGraph is safe for use by multiple threads, if its dictionary is not
+ * given new ids concurrently with its construction.
+ */
+public class CsrGraph {
+
+    /* Fewest edges worth counting in a task of their own. */
+    private static final int MIN_PARALLEL_EDGES = 1 << 16;
+
+    private final UsernameDictionary dictionary;
+    private final BitSet users;
+    private final int[] offsets;
+    private final int[] targets;
+    /* Rep invariant:
+     *    offsets.length == n + 1 for some n <= dictionary.size(), offsets[0] == 0,
+     *        offsets is nondecreasing and offsets[n] == targets.length
+     *    targets[offsets[u]..offsets[u+1]) is strictly increasing, for each u < n
+     *    every element of targets is in [0..n) and in users
+     *    users has no element >= n, and has every u with offsets[u] < offsets[u+1]
+     * Abstraction function:
+     *    represents the graph whose users are the dictionary names of the ids
+     *    in users, in which the user with id u follows the users with ids
+     *    targets[offsets[u]..offsets[u+1])
+     * Thread safety argument:
+     *    all fields are never modified after construction, are never returned
+     *    to clients, and the dictionary is safe for use by multiple threads
+     */
+
+    private CsrGraph(UsernameDictionary dictionary, BitSet users, int[] offsets, int[] targets) {
+        this.dictionary = dictionary;
+        this.users = users;
+        this.offsets = offsets;
+        this.targets = targets;
+        checkRep();
+    }
+
+    private void checkRep() {
+        int n = offsets.length - 1;
+        assert n <= dictionary.size();
+        assert offsets[0] == 0 && offsets[n] == targets.length;
+        assert users.length() <= n;
+    }
+
+    /**
+     * Convert a follows graph to CSR form, with its own username dictionary.
+     *
+     * @param followsGraph
+     *            a social network as defined by SocialNetwork, not modified
+     *            by this method
+     * @return the same graph in CSR form
+     */
+    public static CsrGraph fromMap(Map<String, Set<String>> followsGraph) {
+        return fromMap(followsGraph, new UsernameDictionary());
+    }
+
+    /**
+     * Convert a follows graph to CSR form.
+     *
+     * @param followsGraph
+     *            a social network as defined by SocialNetwork, not modified
+     *            by this method
+     * @param dictionary
+     *            dictionary that gives each user of followsGraph an id,
+     *            adding users that have none yet; it may be shared with other
+     *            data structures.
+     * @return the same graph in CSR form
+     */
+    public static CsrGraph fromMap(Map<String, Set<String>> followsGraph, UsernameDictionary dictionary) {
+        // give ids to every user first, so that the rows can be counted by id
+        int edges = 0;
+        BitSet users = new BitSet();
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            users.set(dictionary.id(entry.getKey()));
+            for (String user : entry.getValue()) {
+                users.set(dictionary.id(user));
+            }
+            edges += entry.getValue().size();
+        }
+
+        int[] sources = new int[edges];
+        int[] edgeTargets = new int[edges];
+        int count = 0;
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            int source = dictionary.lookup(entry.getKey());
+            for (String user : entry.getValue()) {
+                sources[count] = source;
+                edgeTargets[count] = dictionary.lookup(user);
+                count++;
+            }
+        }
+        return fromEdges(dictionary, users, sources, edgeTargets, count);
+    }
+
+    /**
+     * Make a graph from a list of edges.
+     *
+     * @param dictionary
+     *            dictionary that numbers the users
+     * @param users
+     *            ids of the users of the graph, requires every id in sources
+     *            and targets; not modified by this method
+     * @param sources
+     *            ids of the followers, not modified by this method
+     * @param targets
+     *            ids of the followed users, not modified by this method; the
+     *            user with id sources[i] follows the user with id targets[i]
+     * @param count
+     *            number of edges, requires count <= sources.length, targets.length
+     * @return the graph of those users and edges, each edge counted once
+     */
+    static CsrGraph fromEdges(UsernameDictionary dictionary, BitSet users, int[] sources, int[] targets, int count) {
+        int n = users.length();
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[sources[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[next[sources[i]]++] = targets[i];
+        }
+
+        // sort each row and drop repeated edges, compacting the rows in place
+        int size = 0;
+        int rowStart = 0;
+        for (int u = 0; u < n; u++) {
+            int rowEnd = offsets[u + 1];
+            Arrays.sort(sorted, rowStart, rowEnd);
+            offsets[u] = size;
+            for (int i = rowStart; i < rowEnd; i++) {
+                if (i == rowStart || sorted[i] != sorted[i - 1]) {
+                    sorted[size++] = sorted[i];
+                }
+            }
+            rowStart = rowEnd;
+        }
+        offsets[n] = size;
+        return new CsrGraph(dictionary, (BitSet) users.clone(), offsets,
+                size == sorted.length ? sorted : Arrays.copyOf(sorted, size));
+    }
+
+    /**
+     * @return the dictionary that numbers the users of this graph
+     */
+    public UsernameDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return number of users in this graph
+     */
+    public int userCount() {
+        return users.cardinality();
+    }
+
+    /**
+     * @return number of edges in this graph
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @param id
+     *            an id of the dictionary
+     * @return true iff the user with that id is in this graph
+     */
+    public boolean isUser(int id) {
+        return id >= 0 && users.get(id);
+    }
+
+    /**
+     * @param id
+     *            id of a user in this graph
+     * @return number of users followed by that user
+     */
+    public int followingCount(int id) {
+        return isInRows(id) ? offsets[id + 1] - offsets[id] : 0;
+    }
+
+    /**
+     * @param id
+     *            id of a user in this graph
+     * @return ids of the users followed by that user, in increasing order
+     */
+    public int[] following(int id) {
+        return isInRows(id) ? Arrays.copyOfRange(targets, offsets[id], offsets[id + 1]) : new int[0];
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return a new set of the lower-case usernames of the users followed by
+     *         username; empty if username is not in this graph
+     */
+    public Set<String> following(String username) {
+        Set<String> follows = new HashSet<>();
+        for (int target : following(dictionary.lookup(username))) {
+            follows.add(dictionary.name(target));
+        }
+        return follows;
+    }
+
+    /**
+     * @return an array of length one more than the largest id of a user in
+     *         this graph, whose element i is the number of users who follow
+     *         the user with id i
+     */
+    public int[] followerCounts() {
+        int[] counts = new int[offsets.length - 1];
+        for (int target : targets) {
+            counts[target]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Count followers as followerCounts(), on all cores: each task counts a
+     * range of the edges into an array of its own, and the arrays are summed.
+     * There is at most one task per core, so the extra arrays take at most
+     * 4 bytes per user per core.
+     *
+     * @return the same as followerCounts()
+     */
+    public int[] parallelFollowerCounts() {
+        int n = offsets.length - 1;
+        int chunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                targets.length / MIN_PARALLEL_EDGES));
+        return IntStream.range(0, chunks).parallel().collect(() -> new int[n], (counts, chunk) -> {
+            int end = (int) ((long) (chunk + 1) * targets.length / chunks);
+            for (int i = (int) ((long) chunk * targets.length / chunks); i < end; i++) {
+                counts[targets[i]]++;
+            }
+        }, (counts, other) -> {
+            for (int id = 0; id < n; id++) {
+                counts[id] += other[id];
+            }
+        });
+    }
+
+    /**
+     * Find the people in this graph who have the greatest influence, as
+     * SocialNetwork.influencers().
+     *
+     * @return a list of the lower-case usernames of all the users in this
+     *         graph, in descending order of follower count, and in order of
+     *         id among equal counts
+     */
+    public List<String> influencers() {
+        int[] counts = followerCounts();
+        int maxCount = 0;
+        for (int count : counts) {
+            maxCount = Math.max(maxCount, count);
+        }
+
+        // Counting sort of the ids by follower count, in reverse order
+        int[] starts = new int[maxCount + 2];
+        for (int id = users.nextSetBit(0); id >= 0; id = users.nextSetBit(id + 1)) {
+            starts[maxCount - counts[id] + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        String[] sorted = new String[users.cardinality()];
+        for (int id = users.nextSetBit(0); id >= 0; id = users.nextSetBit(id + 1)) {
+            sorted[starts[maxCount - counts[id]]++] = dictionary.name(id);
+        }
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    /**
+     * @return the graph with the same users in which each user follows the
+     *         users who follow them in this graph
+     */
+    public CsrGraph transpose() {
+        int n = offsets.length - 1;
+        int[] sources = new int[targets.length];
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                sources[i] = u;
+            }
+        }
+        return fromEdges(dictionary, users, targets, sources, targets.length);
+    }
+
+    /**
+     * Convert this graph to the form used by SocialNetwork.
+     *
+     * @return a new map from the lower-case username of every user in this
+     *         graph to the set of lower-case usernames of the users they follow
+     */
+    public Map<String, Set<String>> toMap() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        for (int id = users.nextSetBit(0); id >= 0; id = users.nextSetBit(id + 1)) {
+            Set<String> follows = new HashSet<>();
+            for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                follows.add(dictionary.name(targets[i]));
+            }
+            followsGraph.put(dictionary.name(id), follows);
+        }
+        return followsGraph;
+    }
+
+    @Override public String toString() {
+        return "CsrGraph(" + userCount() + " users, " + edgeCount() + " edges)";
+    }
+
+    /* Offsets of the rows, not to be modified. */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /* Targets of the edges, row by row, not to be modified. */
+    int[] targets() {
+        return targets;
+    }
+
+    /* Number of rows, one more than the largest id of a user. */
+    int rowCount() {
+        return offsets.length - 1;
+    }
+
+    private boolean isInRows(int id) {
+        return id >= 0 && id < offsets.length - 1;
+    }
+}
@@ -65,33 +65,14 @@ public class Extract {
      */
     public static Set<String> getMentionedUsers(List<Tweet> tweets) {
         Set<String> users = new HashSet<>();
+        TweetTokenizer.Listener mentions = new TweetTokenizer.Listener() {
+            @Override public void mention(String text, int start, int end) {
+                users.add(MentionScanner.toLowerCase(text, start, end));
+            }
+        };
         
         for (Tweet tweet : tweets) {
-            String[] splitText = tweet.getText().split("@"); // Split tweet text around '@' characters
-            
-            for (int i = 0; i < splitText.length; i++) {               
-                if (i != 0) {
-                    String textBefore = splitText[i-1]; // Text before at-symbol
-                    String textAfter = splitText[i]; // Text after at-symbol
-                    boolean secondAtSign = false;
-                    
-                    if (i+1 != splitText.length && !textAfter.contains(" ")) {
-                        secondAtSign = true;
-                    }
-                   
-                    // If there is no such character before '@' or beginning of tweet and there is no second at-sign
-                    // and the mention doesn't start with an invalid character, it is a username mention 
-                    if ((textBefore.equals("") || textBefore.substring(textBefore.length()-1).matches("[^a-zA-Z0-9\\-_]")) && 
-                            !secondAtSign && textAfter.substring(0,1).matches("[a-zA-Z0-9\\-_]")) {
-                        // Split text around invalid character to get the username mention, 
-                        // need to add ';h' for String.split() to work
-                        String mention = (textAfter+";h").split("[^a-zA-Z0-9\\-_]")[0];  
-                        mention = mention.toLowerCase();
-                        
-                        users.add(mention);
-                    }
-                }          
-            }
+            TweetTokenizer.tokenize(tweet.getText(), mentions);
         }
         
         return users;
@@ -14,6 +14,9 @@ import java.util.List;
  */
 public class Filter {
 
+    // Matcher of the last word list given to containing(), reused while the list is unchanged
+    private static volatile CompiledWords lastWords = null;
+
     /**
      * Find tweets written by a particular user.
      * 
@@ -80,24 +83,44 @@ public class Filter {
      */
     public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
         List<Tweet> tweetsWithWord = new ArrayList<>();
+        KeywordMatcher matcher = matcher(words);
         
         for (Tweet tweet : tweets) {
-            for (String word1 : words) {
-                String[] tweetWords = tweet.getText().split(" ");
-                
-                for (String word2 : tweetWords) {
-                    if (word1.equalsIgnoreCase(word2)) {
-                        if (!tweetsWithWord.contains(tweet)) {
-                            tweetsWithWord.add(tweet);
-                        }
-                    }
-                }
+            // One pass over each tweet, whatever the number of words
+            if (matcher.matchesAny(tweet.getText())) {
+                tweetsWithWord.add(tweet);
             }
         }
         
         return tweetsWithWord;
     }
 
+    /* Returns a matcher for words, compiling it only if words differs from the last list. */
+    private static KeywordMatcher matcher(List<String> words) {
+        CompiledWords last = lastWords;
+        if (last != null && last.words.equals(words)) {
+            return last.matcher;
+        }
+        List<String> copy = new ArrayList<>(words);
+        KeywordMatcher matcher = new KeywordMatcher(copy);
+        lastWords = new CompiledWords(copy, matcher);
+        return matcher;
+    }
+
+    /**
+     * A word list and its matcher, immutable so that threads can share it.
+     */
+    private static class CompiledWords {
+
+        private final List<String> words;
+        private final KeywordMatcher matcher;
+
+        CompiledWords(List<String> words, KeywordMatcher matcher) {
+            this.words = words;
+            this.matcher = matcher;
+        }
+    }
+
     /* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
      * Redistribution of original or derived work requires explicit permission.
      * Don't post any of this code on the web or to a public Github repository.
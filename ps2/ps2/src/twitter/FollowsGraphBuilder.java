@@ -0,0 +1,157 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FollowsGraphBuilder guesses a follows graph from tweets, exactly as
+ * SocialNetwork.guessFollowsGraph() specifies it, in time roughly linear in
+ * the tweets plus the number of author pairs that share a hashtag.
+ *
+ * The graph it builds has a key for each distinct spelling of an author.
+ * Spellings that are equal ignoring case are one author, whose tweets are all
+ * of theirs. A spelling u follows:
+ *   - the users its author mentions, in lower case, except u itself spelled
+ *     exactly as u;
+ *   - every spelling of another author, or another spelling of its own
+ *     author, that has used more than one of the same hashtags as its author,
+ *     case-sensitively.
+ *
+ * The builder reads the tweets once, grouping them by case-folded author and
+ * collecting each author's mentions and hashtags. It then inverts the
+ * hashtags into a posting list of authors per hashtag, and for each author
+ * counts the hashtags shared with every other author by walking the posting
+ * lists of its own hashtags, in a counter array indexed by author.
+ */
+public class FollowsGraphBuilder {
+
+    // not meant to be instantiated
+    private FollowsGraphBuilder() {
+    }
+
+    /**
+     * Guess who might follow whom, as SocialNetwork.guessFollowsGraph().
+     *
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by
+     *            this method
+     * @return a new follows graph, as described above
+     */
+    public static Map<String, Set<String>> build(List<Tweet> tweets) {
+        // group by author, ignoring case
+        Map<String, Integer> groupOf = new HashMap<>();
+        List<Set<String>> spellings = new ArrayList<>();
+        List<Set<String>> mentions = new ArrayList<>();
+        List<Set<String>> hashtags = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            String author = tweet.getAuthor();
+            Integer group = groupOf.get(TweetTokenizer.foldCase(author, 0, author.length()));
+            if (group == null) {
+                group = spellings.size();
+                groupOf.put(TweetTokenizer.foldCase(author, 0, author.length()), group);
+                spellings.add(new LinkedHashSet<>());
+                mentions.add(new HashSet<>());
+                hashtags.add(new HashSet<>());
+            }
+            spellings.get(group).add(author);
+            Set<String> groupMentions = mentions.get(group);
+            Set<String> groupHashtags = hashtags.get(group);
+            TweetTokenizer.tokenize(tweet.getText(), new TweetTokenizer.Listener() {
+                @Override public void mention(String text, int start, int end) {
+                    groupMentions.add(MentionScanner.toLowerCase(text, start, end));
+                }
+
+                @Override public void hashtag(String text, int start, int end) {
+                    groupHashtags.add(text.substring(start, end));
+                }
+            });
+        }
+
+        int groups = spellings.size();
+        int[][] hashtagIds = new int[groups][];
+        int[][] postings = invert(hashtags, hashtagIds);
+
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        int[] shared = new int[groups];
+        int[] touched = new int[groups];
+        for (int g = 0; g < groups; g++) {
+            // count the hashtags shared with each other author
+            int touchedCount = 0;
+            for (int tag : hashtagIds[g]) {
+                for (int other : postings[tag]) {
+                    if (other != g && shared[other]++ == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                }
+            }
+            List<String> sharers = new ArrayList<>();
+            for (int i = 0; i < touchedCount; i++) {
+                int other = touched[i];
+                if (shared[other] > 1) {
+                    sharers.addAll(spellings.get(other));
+                }
+                shared[other] = 0;
+            }
+            boolean sharesWithItself = hashtagIds[g].length > 1;
+
+            for (String user : spellings.get(g)) {
+                Set<String> follows = new HashSet<>(mentions.get(g));
+                follows.remove(user);
+                follows.addAll(sharers);
+                if (sharesWithItself) {
+                    for (String spelling : spellings.get(g)) {
+                        if (!spelling.equals(user)) {
+                            follows.add(spelling);
+                        }
+                    }
+                }
+                followsGraph.put(user, follows);
+            }
+        }
+        return followsGraph;
+    }
+
+    /*
+     * Numbers the distinct hashtags of all groups, sets ids[g] to the numbers of
+     * the hashtags of group g, and returns the posting list of groups for each
+     * hashtag number, in increasing order.
+     */
+    private static int[][] invert(List<Set<String>> hashtags, int[][] ids) {
+        Map<String, Integer> numbers = new HashMap<>();
+        int[] counts = new int[16];
+        for (int g = 0; g < hashtags.size(); g++) {
+            ids[g] = new int[hashtags.get(g).size()];
+            int i = 0;
+            for (String hashtag : hashtags.get(g)) {
+                Integer number = numbers.get(hashtag);
+                if (number == null) {
+                    number = numbers.size();
+                    numbers.put(hashtag, number);
+                    if (number == counts.length) {
+                        counts = Arrays.copyOf(counts, 2 * number);
+                    }
+                }
+                counts[number]++;
+                ids[g][i++] = number;
+            }
+        }
+
+        int[][] postings = new int[numbers.size()][];
+        for (int tag = 0; tag < postings.length; tag++) {
+            postings[tag] = new int[counts[tag]];
+            counts[tag] = 0;
+        }
+        for (int g = 0; g < ids.length; g++) {
+            for (int tag : ids[g]) {
+                postings[tag][counts[tag]++] = g;
+            }
+        }
+        return postings;
+    }
+}
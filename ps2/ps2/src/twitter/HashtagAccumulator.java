@@ -0,0 +1,58 @@
+package twitter;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collector;
+
+/**
+ * HashtagAccumulator computes the hashtags used in tweets, in memory
+ * proportional to the number of distinct hashtags.
+ *
+ * A hashtag is a word of the tweet text (a nonempty sequence of nonspace
+ * characters bounded by space characters and the ends of the text) that starts
+ * with "#". Hashtags are case-sensitive and include any punctuation in the word,
+ * as in SocialNetwork.guessFollowsGraph().
+ */
+public class HashtagAccumulator implements TweetAccumulator<Set<String>, HashtagAccumulator> {
+
+    private final Set<String> hashtags = new HashSet<>();
+    private final TweetTokenizer.Listener finder = new TweetTokenizer.Listener() {
+        @Override public void hashtag(String text, int start, int end) {
+            hashtags.add(text.substring(start, end));
+        }
+    };
+    /* Rep invariant:
+     *    every element of hashtags starts with '#' and contains no space
+     * Abstraction function:
+     *    represents the hashtags used in the accumulated tweets
+     */
+
+    /**
+     * Make an accumulator with no tweets.
+     */
+    public HashtagAccumulator() {
+    }
+
+    /**
+     * @return a collector that computes the hashtags used in the tweets of a
+     *         stream
+     */
+    public static Collector<Tweet, HashtagAccumulator, Set<String>> collector() {
+        return TweetAccumulator.collector(HashtagAccumulator::new);
+    }
+
+    @Override public void accept(Tweet tweet) {
+        TweetTokenizer.tokenize(tweet.getText(), finder);
+    }
+
+    @Override public void merge(HashtagAccumulator other) {
+        hashtags.addAll(other.hashtags);
+    }
+
+    /**
+     * @return the set of hashtags used in the text of the accumulated tweets
+     */
+    @Override public Set<String> result() {
+        return new HashSet<>(hashtags);
+    }
+}
@@ -0,0 +1,381 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * IncrementalFollowsGraph keeps the follows graph guessed from a growing
+ * history of tweets up to date as batches of tweets are appended, so that the
+ * history never has to be read again.
+ *
+ * After any sequence of batches the graph equals
+ * FollowsGraphBuilder.build() of all their tweets, in order, which is
+ * SocialNetwork.guessFollowsGraph(). Every kind of evidence only grows with
+ * more tweets, so edges are only ever added, and add() reports them. For each
+ * author, ignoring case, the graph keeps their spellings, mentions and
+ * hashtags. For each hashtag it keeps the authors who used it, and for each
+ * pair of authors it keeps the number of hashtags they share, so a new
+ * hashtag of an author costs time in the number of other authors of it.
+ *
+ * Follower counts are kept in lower case, as TopInfluencers counts them:
+ * the follower count of a user is the number of distinct users, ignoring
+ * case, among the keys of the graph whose sets hold the user in any spelling.
+ * So a key that follows both "Bob" and "bob", or keys "Alyssa" and "alyssa"
+ * that both follow bob, count once.
+ * An IncrementalFollowsGraph is not safe for use by multiple threads.
+ */
+public class IncrementalFollowsGraph {
+
+    private static final long EMPTY = -1;
+
+    private final Map<String, Author> authors = new HashMap<>();
+    private final Map<String, List<Author>> hashtagAuthors = new HashMap<>();
+    private final PairCounts sharedHashtags = new PairCounts();
+    private final PairCounts followSpellings = new PairCounts();
+    private final Map<String, Set<String>> followsGraph = new HashMap<>();
+    private final UsernameDictionary dictionary = new UsernameDictionary();
+    private int[] followerCounts = new int[16];
+    private int edgeCount = 0;
+    private int tweetCount = 0;
+    /* Rep invariant:
+     *    authors maps the case-folded name of each author of the tweets added
+     *        to their Author, and the Authors have ids 0..authors.size()-1
+     *    hashtagAuthors.get(h) is the list of distinct Authors with hashtag h
+     *    the count of (a, b) in sharedHashtags is the number of hashtags
+     *        Authors with ids a < b have in common
+     *    b is in a.partners iff a != b and they have more than one hashtag in common
+     *    followsGraph is FollowsGraphBuilder.build() of the tweets added
+     *    edgeCount is the total size of the sets of followsGraph
+     *    every user of followsGraph has an id in dictionary, and every id of
+     *        dictionary is a user of followsGraph
+     *    the count of (f, u) in followSpellings is the number of edges of
+     *        followsGraph from a key with id f to a user with id u
+     *    followerCounts[u] is the number of f with a count of (f, u) in
+     *        followSpellings, for u < dictionary.size(), and 0 beyond
+     * Abstraction function:
+     *    represents the tweets added so far, and the follows graph guessed
+     *    from them
+     */
+
+    /**
+     * Make a graph of no tweets.
+     */
+    public IncrementalFollowsGraph() {
+    }
+
+    /**
+     * Append a batch of tweets to the history.
+     *
+     * @param batch
+     *            tweets to append, not modified by this method
+     * @return a new follows graph of the edges added to the graph by batch:
+     *         map[A] holds each user that A follows now but did not before;
+     *         users without new edges are not keys
+     */
+    public Map<String, Set<String>> add(List<Tweet> batch) {
+        Map<String, Set<String>> added = new HashMap<>();
+        for (Tweet tweet : batch) {
+            add(tweet, added);
+        }
+        return added;
+    }
+
+    private void add(Tweet tweet, Map<String, Set<String>> added) {
+        tweetCount++;
+        String spelling = tweet.getAuthor();
+        String folded = TweetTokenizer.foldCase(spelling, 0, spelling.length());
+        Author author = authors.get(folded);
+        if (author == null) {
+            author = new Author(authors.size());
+            authors.put(folded, author);
+        }
+        if (author.spellings.add(spelling)) {
+            addSpelling(author, spelling, added);
+        }
+
+        Author writer = author;
+        TweetTokenizer.tokenize(tweet.getText(), new TweetTokenizer.Listener() {
+            @Override public void mention(String text, int start, int end) {
+                String user = MentionScanner.toLowerCase(text, start, end);
+                if (writer.mentions.add(user)) {
+                    for (String follower : writer.spellings) {
+                        if (!follower.equals(user)) {
+                            addEdge(follower, user, added);
+                        }
+                    }
+                }
+            }
+
+            @Override public void hashtag(String text, int start, int end) {
+                String hashtag = text.substring(start, end);
+                if (writer.hashtags.add(hashtag)) {
+                    addHashtag(writer, hashtag, added);
+                }
+            }
+        });
+    }
+
+    /* Adds the edges of a new spelling of author, from the evidence so far. */
+    private void addSpelling(Author author, String spelling, Map<String, Set<String>> added) {
+        followsGraph.put(spelling, new HashSet<>());
+        dictionary.id(spelling);
+        for (String user : author.mentions) {
+            if (!user.equals(spelling)) {
+                addEdge(spelling, user, added);
+            }
+        }
+        Set<String> newSpelling = Collections.singleton(spelling);
+        for (Author partner : author.partners) {
+            addEdges(newSpelling, partner.spellings, added);
+            addEdges(partner.spellings, newSpelling, added);
+        }
+        if (author.hashtags.size() > 1) {
+            for (String other : author.spellings) {
+                if (!other.equals(spelling)) {
+                    addEdge(spelling, other, added);
+                    addEdge(other, spelling, added);
+                }
+            }
+        }
+    }
+
+    /* Adds the edges of a hashtag new to author. */
+    private void addHashtag(Author author, String hashtag, Map<String, Set<String>> added) {
+        if (author.hashtags.size() == 2) {
+            // the author's spellings now share more than one hashtag with each other
+            for (String follower : author.spellings) {
+                for (String user : author.spellings) {
+                    if (!follower.equals(user)) {
+                        addEdge(follower, user, added);
+                    }
+                }
+            }
+        }
+        List<Author> others = hashtagAuthors.computeIfAbsent(hashtag, key -> new ArrayList<>());
+        for (Author other : others) {
+            if (sharedHashtags.increment(Math.min(author.id, other.id), Math.max(author.id, other.id)) == 2) {
+                author.partners.add(other);
+                other.partners.add(author);
+                addEdges(author.spellings, other.spellings, added);
+                addEdges(other.spellings, author.spellings, added);
+            }
+        }
+        others.add(author);
+    }
+
+    /* Makes each of followers follow each of users, looking up each follower's sets once. */
+    private void addEdges(Set<String> followers, Set<String> users, Map<String, Set<String>> added) {
+        for (String follower : followers) {
+            Set<String> follows = followsGraph.get(follower);
+            Set<String> addedFollows = null;
+            for (String user : users) {
+                if (follows.add(user)) {
+                    if (addedFollows == null) {
+                        addedFollows = added.computeIfAbsent(follower, key -> new HashSet<>());
+                    }
+                    addedFollows.add(user);
+                    countFollower(follower, user);
+                }
+            }
+        }
+    }
+
+    private void addEdge(String follower, String user, Map<String, Set<String>> added) {
+        if (followsGraph.get(follower).add(user)) {
+            added.computeIfAbsent(follower, key -> new HashSet<>()).add(user);
+            countFollower(follower, user);
+        }
+    }
+
+    /* Counts a new edge, and a new follower of user unless another spelling of follower follows another spelling of user. */
+    private void countFollower(String follower, String user) {
+        edgeCount++;
+        int id = dictionary.id(user);
+        if (followSpellings.increment(dictionary.id(follower), id) > 1) {
+            return;
+        }
+        if (id >= followerCounts.length) {
+            followerCounts = Arrays.copyOf(followerCounts, Math.max(2 * followerCounts.length, id + 1));
+        }
+        followerCounts[id]++;
+    }
+
+    /**
+     * @return number of tweets added so far
+     */
+    public int tweetCount() {
+        return tweetCount;
+    }
+
+    /**
+     * @return number of edges in the graph
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return a new follows graph equal to
+     *         SocialNetwork.guessFollowsGraph() of the tweets added so far
+     */
+    public Map<String, Set<String>> getFollowsGraph() {
+        Map<String, Set<String>> copy = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            copy.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * @param username
+     *            a key of the graph, spelled exactly
+     * @return an unmodifiable view of the users that username follows, empty
+     *         if username is not a key of the graph
+     */
+    public Set<String> follows(String username) {
+        Set<String> follows = followsGraph.get(username);
+        return follows == null ? Collections.emptySet() : Collections.unmodifiableSet(follows);
+    }
+
+    /**
+     * @return the dictionary that numbers the users of the graph; it holds
+     *         exactly the users of the graph, and is not to be given new ids
+     */
+    public UsernameDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return number of distinct users, ignoring case, among the keys of the
+     *         graph that follow username in any spelling
+     */
+    public int followerCount(String username) {
+        int id = dictionary.lookup(username);
+        return id >= 0 && id < followerCounts.length ? followerCounts[id] : 0;
+    }
+
+    /**
+     * @return an array of length getDictionary().size() whose element i is
+     *         the follower count of the user with id i, as described above
+     */
+    public int[] followerCounts() {
+        return Arrays.copyOf(followerCounts, dictionary.size());
+    }
+
+    /**
+     * Find the k users of the graph with the most followers, as
+     * TopInfluencers.top(getFollowsGraph(), k), without copying the graph.
+     *
+     * @param k
+     *            number of users to return, requires k >= 0
+     * @return the min(k, n) lower-case usernames with the most followers, of
+     *         the n users in the graph, in descending order of follower count
+     *         and then in increasing order of username
+     * @throws IllegalArgumentException if k < 0
+     */
+    public List<String> influencers(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
+        return TopInfluencers.select(followerCounts(), id -> true, dictionary, k);
+    }
+
+    /**
+     * One author, ignoring case, of the tweets added so far.
+     */
+    private static class Author {
+
+        private final int id;
+        private final Set<String> spellings = new LinkedHashSet<>();
+        private final Set<String> mentions = new HashSet<>();
+        private final Set<String> hashtags = new HashSet<>();
+        private final List<Author> partners = new ArrayList<>();
+        /* Rep invariant:
+         *    spellings are the distinct spellings of the author in the tweets,
+         *        mentions the distinct lower-case users they mention, and
+         *        hashtags the distinct hashtags they used
+         */
+
+        Author(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * A positive counter for each of some ordered pairs of ids, in an
+     * open-addressing table with linear probing.
+     */
+    private static class PairCounts {
+
+        private long[] keys = newKeys(16);
+        private int[] counts = new int[16];
+        private int size = 0;
+        /* Rep invariant:
+         *    keys.length == counts.length, a power of two, > 2 * size
+         *    keys[i] is EMPTY or (a << 32 | b) for a pair (a, b) whose count is
+         *        counts[i] > 0, placed by linear probing from slot(keys[i])
+         *    size is the number of i with keys[i] != EMPTY
+         */
+
+        /* Adds one to the count of (a, b) and returns the new count. */
+        int increment(int a, int b) {
+            long key = (long) a << 32 | b;
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return ++counts[i];
+                }
+            }
+            if (2 * (size + 1) >= keys.length) {
+                grow();
+                mask = keys.length - 1;
+                i = slot(key, mask);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+            }
+            keys[i] = key;
+            counts[i] = 1;
+            size++;
+            return 1;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = newKeys(2 * oldKeys.length);
+            counts = new int[2 * oldKeys.length];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) {
+                    int i = slot(oldKeys[j], mask);
+                    while (keys[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    counts[i] = oldCounts[j];
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * KeywordMatcher finds which words of a tweet text are keywords from a fixed
+ * list, ignoring case, in one pass over the text, with a cost that depends on
+ * the length of the text and not on the number of keywords.
+ *
+ * The keywords are compiled once into a trie over case-folded characters,
+ * whose transitions are kept in one open-addressing hash table of primitive
+ * keys. A word of a text is a nonempty sequence of nonspace characters
+ * bounded by spaces and the ends of the text, as in Filter.containing(), so a
+ * match can only start at the start of a word and end at its end. The matcher
+ * walks the trie from the root at each word start and abandons the walk at
+ * the first character with no transition, skipping to the next space; every
+ * character of the text is read once. Because matches are anchored at word
+ * boundaries, the failure links of an Aho-Corasick automaton are never needed.
+ *
+ * Characters are folded as TweetTokenizer.foldCase(), so a word matches a
+ * keyword iff they are equal by String.equalsIgnoreCase().
+ * A KeywordMatcher is immutable and safe for use by multiple threads.
+ */
+public class KeywordMatcher {
+
+    /**
+     * Receives the words of a text that are keywords.
+     */
+    public interface Listener {
+
+        /**
+         * Receive a word text[start..end) that is equal, ignoring case, to the
+         * keyword with the given id.
+         */
+        void keyword(int id, String text, int start, int end);
+    }
+
+    private static final long EMPTY = -1;
+
+    private final List<String> keywords;
+    private final TransitionTable transitions;
+    private final int[] accepts;
+    /* Rep invariant:
+     *    keywords has no two elements equal ignoring case, and each is nonempty
+     *        with no space
+     *    state 0 is the root, and the states are [0..accepts.length)
+     *    transitions maps (s, c) to the state after state s on folded
+     *        character c, and is a tree rooted at 0
+     *    accepts[s] is the id of the keyword whose folding is spelled by the
+     *        path from the root to s, or -1 if there is none
+     * Abstraction function:
+     *    represents a matcher for the words equal, ignoring case, to keywords;
+     *    the id of keywords.get(i) is i
+     * Thread safety argument:
+     *    all fields are never modified after construction, and keywords is an
+     *    unmodifiable list
+     */
+
+    /**
+     * Make a matcher for a list of keywords.
+     *
+     * @param words
+     *            keywords, not modified by this method; a word that is empty
+     *            or has a space never matches, as in Filter.containing(), and a
+     *            word equal to an earlier one, ignoring case, has its id
+     */
+    public KeywordMatcher(Collection<String> words) {
+        List<String> distinct = new ArrayList<>();
+        TransitionTable table = new TransitionTable();
+        int[] acceptIds = { -1 };
+        int states = 1;
+        for (String word : words) {
+            if (word.isEmpty() || word.indexOf(' ') >= 0) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < word.length(); i++) {
+                char c = fold(word.charAt(i));
+                int next = table.get(state, c);
+                if (next < 0) {
+                    next = states++;
+                    if (next == acceptIds.length) {
+                        acceptIds = Arrays.copyOf(acceptIds, 2 * next);
+                    }
+                    acceptIds[next] = -1;
+                    table.put(state, c, next);
+                }
+                state = next;
+            }
+            if (acceptIds[state] < 0) {
+                acceptIds[state] = distinct.size();
+                distinct.add(word);
+            }
+        }
+        this.keywords = Collections.unmodifiableList(distinct);
+        this.transitions = table;
+        this.accepts = Arrays.copyOf(acceptIds, states);
+    }
+
+    /**
+     * @return number of distinct keywords, ignoring case
+     */
+    public int keywordCount() {
+        return keywords.size();
+    }
+
+    /**
+     * @param id
+     *            id of a keyword, requires 0 <= id < keywordCount()
+     * @return the keyword with that id, as first spelled in the list the
+     *         matcher was made from
+     */
+    public String keyword(int id) {
+        return keywords.get(id);
+    }
+
+    /**
+     * @param text
+     *            a text
+     * @return true iff text, represented as a sequence of words bounded by
+     *         spaces and its ends, includes at least one keyword, ignoring case
+     */
+    public boolean matchesAny(String text) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (text.charAt(i) == ' ') {
+                i++;
+                continue;
+            }
+            int state = 0;
+            while (i < length && text.charAt(i) != ' ') {
+                if (state >= 0) {
+                    state = transitions.get(state, fold(text.charAt(i)));
+                }
+                i++;
+            }
+            if (state >= 0 && accepts[state] >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param text
+     *            a text
+     * @param start
+     *            index of the first character of a span of text
+     * @param end
+     *            index just past the last character of the span
+     * @return the id of the keyword equal to text[start..end), ignoring case,
+     *         or -1 if there is none
+     */
+    public int idOf(String text, int start, int end) {
+        int state = 0;
+        for (int i = start; i < end && state >= 0; i++) {
+            state = transitions.get(state, fold(text.charAt(i)));
+        }
+        return state >= 0 ? accepts[state] : -1;
+    }
+
+    /**
+     * Report the words of a text that are keywords, in order of appearance.
+     *
+     * @param text
+     *            a text
+     * @param listener
+     *            receives every word of text that is a keyword, ignoring case
+     */
+    public void find(String text, Listener listener) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (text.charAt(i) == ' ') {
+                i++;
+                continue;
+            }
+            int start = i;
+            int state = 0;
+            while (i < length && text.charAt(i) != ' ') {
+                if (state >= 0) {
+                    state = transitions.get(state, fold(text.charAt(i)));
+                }
+                i++;
+            }
+            if (state >= 0 && accepts[state] >= 0) {
+                listener.keyword(accepts[state], text, start, i);
+            }
+        }
+    }
+
+    @Override public String toString() {
+        return "KeywordMatcher" + keywords;
+    }
+
+    /* Folds a character as TweetTokenizer.foldCase(). */
+    private static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Open-addressing hash table from (state, character) to state, with
+     * linear probing. It is modified only while the trie is built.
+     */
+    private static class TransitionTable {
+
+        private long[] keys = newKeys(16);
+        private int[] targets = new int[16];
+        private int size = 0;
+        /* Rep invariant:
+         *    keys.length == targets.length, a power of two, > 2 * size
+         *    keys[i] is EMPTY or (s << 16 | c) for a transition from state s
+         *        on c to state targets[i], placed by linear probing from
+         *        slot(keys[i])
+         *    size is the number of i with keys[i] != EMPTY
+         */
+
+        /* Returns the state after state on c, or -1 if there is none. */
+        int get(int state, char c) {
+            long key = (long) state << 16 | c;
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask);; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == key) {
+                    return targets[i];
+                }
+                if (k == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        /* Adds a transition from state on c to target; requires get(state, c) == -1. */
+        void put(int state, char c, int target) {
+            if (2 * (size + 1) >= keys.length) {
+                long[] oldKeys = keys;
+                int[] oldTargets = targets;
+                keys = newKeys(2 * oldKeys.length);
+                targets = new int[2 * oldKeys.length];
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != EMPTY) {
+                        insert(oldKeys[i], oldTargets[i]);
+                    }
+                }
+            }
+            insert((long) state << 16 | c, target);
+            size++;
+        }
+
+        private void insert(long key, int target) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            targets[i] = target;
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
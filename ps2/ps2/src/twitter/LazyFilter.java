@@ -0,0 +1,231 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * LazyFilter has lazy variants of the Filter operations. Instead of a new
+ * list, they return a Stream or Iterable view of the matching tweets of the
+ * input list, in the same order, which tests each tweet only when it is
+ * reached. So a caller that wants the first page of results, or a count,
+ * never builds a list of all of them:
+ *
+ *     LazyFilter.writtenBy(tweets, "alyssa").filter(LazyFilter.isContaining(words)).limit(20)
+ *
+ * Streams over a random-access list split into halves of the list for
+ * parallel streams. Views read the list as it is when their traversal starts,
+ * not when they are made, so tweets appended in between are included; the
+ * list must not be modified while a traversal is in progress.
+ */
+public class LazyFilter {
+
+    // not meant to be instantiated
+    private LazyFilter() {
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return a condition true of the tweets whose author is username, ignoring
+     *         case, as Filter.writtenBy()
+     */
+    public static Predicate<Tweet> isWrittenBy(String username) {
+        Objects.requireNonNull(username);
+        return tweet -> tweet.getAuthor().equalsIgnoreCase(username);
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return a condition true of the tweets sent during timespan, including
+     *         its ends, as Filter.inTimespan()
+     */
+    public static Predicate<Tweet> isInTimespan(Timespan timespan) {
+        Instant start = timespan.getStart();
+        Instant end = timespan.getEnd();
+        return tweet -> !tweet.getTimestamp().isBefore(start) && !tweet.getTimestamp().isAfter(end);
+    }
+
+    /**
+     * @param words
+     *            a list of words, each a nonempty sequence of nonspace
+     *            characters, not modified by this method
+     * @return a condition true of the tweets whose text includes at least one
+     *         of words, ignoring case, as Filter.containing(); it is safe for
+     *         use by multiple threads
+     */
+    public static Predicate<Tweet> isContaining(List<String> words) {
+        KeywordMatcher matcher = new KeywordMatcher(words);
+        return tweet -> matcher.matchesAny(tweet.getText());
+    }
+
+    /**
+     * Lazily find tweets written by a particular user.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method
+     * @param username
+     *            Twitter username
+     * @return a sequential stream of the tweets in the list whose author is
+     *         username, as Filter.writtenBy(), in the same order as in the list
+     */
+    public static Stream<Tweet> writtenBy(List<Tweet> tweets, String username) {
+        return stream(tweets, isWrittenBy(username));
+    }
+
+    /**
+     * Lazily find tweets that were sent during a particular timespan.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method
+     * @param timespan
+     *            timespan
+     * @return a sequential stream of the tweets in the list that were sent
+     *         during the timespan, as Filter.inTimespan(), in the same order as
+     *         in the list
+     */
+    public static Stream<Tweet> inTimespan(List<Tweet> tweets, Timespan timespan) {
+        return stream(tweets, isInTimespan(timespan));
+    }
+
+    /**
+     * Lazily find tweets that contain certain words.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method
+     * @param words
+     *            a list of words, each a nonempty sequence of nonspace characters
+     * @return a sequential stream of the tweets in the list whose text includes
+     *         at least one of the words, ignoring case, as Filter.containing(),
+     *         in the same order as in the list
+     */
+    public static Stream<Tweet> containing(List<Tweet> tweets, List<String> words) {
+        return stream(tweets, isContaining(words));
+    }
+
+    /**
+     * Lazily find tweets that match a condition.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method
+     * @param condition
+     *            condition on tweets, without side effects; requires safety
+     *            for use by multiple threads if the stream is made parallel
+     * @return a sequential stream of the tweets in the list for which
+     *         condition is true, in the same order as in the list
+     */
+    public static Stream<Tweet> stream(List<Tweet> tweets, Predicate<? super Tweet> condition) {
+        return StreamSupport.stream(spliterator(tweets, condition), false);
+    }
+
+    /**
+     * Lazily find tweets that match a condition.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method
+     * @param condition
+     *            condition on tweets, without side effects
+     * @return a view of the tweets in the list for which condition is true, in
+     *         the same order as in the list; each of its iterators traverses
+     *         the list from the start, and does not support remove()
+     */
+    public static Iterable<Tweet> iterable(List<Tweet> tweets, Predicate<? super Tweet> condition) {
+        Objects.requireNonNull(tweets);
+        Objects.requireNonNull(condition);
+        return () -> Spliterators.iterator(spliterator(tweets, condition));
+    }
+
+    private static Spliterator<Tweet> spliterator(List<Tweet> tweets, Predicate<? super Tweet> condition) {
+        if (tweets instanceof RandomAccess) {
+            return new MatchSpliterator(tweets, condition, 0, -1);
+        }
+        return tweets.stream().filter(condition).spliterator();
+    }
+
+    /**
+     * Traverses the tweets of a range of a random-access list that match a
+     * condition. It splits the range in half, so that parallel streams test
+     * parts of the list concurrently. The end of the range of a spliterator
+     * over a whole list is bound to the list's size when it is first used,
+     * as ArrayList's spliterator does.
+     */
+    private static class MatchSpliterator implements Spliterator<Tweet> {
+
+        private static final int MIN_SPLIT_SIZE = 1 << 10;
+
+        private final List<Tweet> tweets;
+        private final Predicate<? super Tweet> condition;
+        private int from;
+        private int to;
+        /* Rep invariant:
+         *    to == -1 and from == 0, or 0 <= from <= to <= tweets.size()
+         * Abstraction function:
+         *    represents the tweets of tweets[from..to) for which condition is
+         *    true, where to is tweets.size() at the first use if it is -1
+         */
+
+        MatchSpliterator(List<Tweet> tweets, Predicate<? super Tweet> condition, int from, int to) {
+            this.tweets = tweets;
+            this.condition = condition;
+            this.from = from;
+            this.to = to;
+        }
+
+        /* Returns the end of the range, binding it to the size of the list on first use. */
+        private int to() {
+            if (to < 0) {
+                to = tweets.size();
+            }
+            return to;
+        }
+
+        @Override public boolean tryAdvance(Consumer<? super Tweet> action) {
+            int end = to();
+            while (from < end) {
+                Tweet tweet = tweets.get(from++);
+                if (condition.test(tweet)) {
+                    action.accept(tweet);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override public void forEachRemaining(Consumer<? super Tweet> action) {
+            int end = to();
+            for (int i = from; i < end; i++) {
+                Tweet tweet = tweets.get(i);
+                if (condition.test(tweet)) {
+                    action.accept(tweet);
+                }
+            }
+            from = end;
+        }
+
+        @Override public Spliterator<Tweet> trySplit() {
+            if (to() - from < MIN_SPLIT_SIZE) {
+                return null;
+            }
+            int middle = (from + to) >>> 1;
+            MatchSpliterator prefix = new MatchSpliterator(tweets, condition, from, middle);
+            from = middle;
+            return prefix;
+        }
+
+        @Override public long estimateSize() {
+            return to() - from;
+        }
+
+        @Override public int characteristics() {
+            return ORDERED;
+        }
+    }
+}
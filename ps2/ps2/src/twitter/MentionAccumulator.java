@@ -0,0 +1,50 @@
+package twitter;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collector;
+
+/**
+ * MentionAccumulator computes the usernames mentioned in tweets, as
+ * Extract.getMentionedUsers(), in memory proportional to the number of
+ * distinct usernames.
+ */
+public class MentionAccumulator implements TweetAccumulator<Set<String>, MentionAccumulator> {
+
+    private final Set<String> users = new HashSet<>();
+    /* Rep invariant:
+     *    every element of users is a lower-case Twitter username
+     * Abstraction function:
+     *    represents the usernames mentioned in the accumulated tweets
+     */
+
+    /**
+     * Make an accumulator with no tweets.
+     */
+    public MentionAccumulator() {
+    }
+
+    /**
+     * @return a collector that computes the usernames mentioned in the tweets
+     *         of a stream
+     */
+    public static Collector<Tweet, MentionAccumulator, Set<String>> collector() {
+        return TweetAccumulator.collector(MentionAccumulator::new);
+    }
+
+    @Override public void accept(Tweet tweet) {
+        MentionScanner.scan(tweet.getText(), users);
+    }
+
+    @Override public void merge(MentionAccumulator other) {
+        users.addAll(other.users);
+    }
+
+    /**
+     * @return the set of usernames who are mentioned in the text of the
+     *         accumulated tweets, as defined by Extract.getMentionedUsers().
+     */
+    @Override public Set<String> result() {
+        return new HashSet<>(users);
+    }
+}
@@ -0,0 +1,185 @@
+package twitter;
+
+import java.util.Collection;
+
+/**
+ * MentionScanner finds username-mentions in tweet text in a single
+ * left-to-right pass, without regular expressions or intermediate strings.
+ *
+ * A username-mention is "@" followed by a Twitter username (as defined by
+ * Tweet.getAuthor()'s spec) that is not immediately preceded by a character
+ * valid in a Twitter username, so an email address like bitdiddle@mit.edu does
+ * NOT contain a mention of the username mit. As in Extract.getMentionedUsers(),
+ * an "@" whose text up to the next "@" contains no space is also treated as
+ * part of an address, unless only "@" characters follow that next "@".
+ */
+public class MentionScanner {
+
+    /* USERNAME_CHARS[c] is true iff c is a letter (A-Z or a-z), digit, underscore or hyphen. */
+    private static final boolean[] USERNAME_CHARS = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            USERNAME_CHARS[c] = true;
+            USERNAME_CHARS[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            USERNAME_CHARS[c] = true;
+        }
+        USERNAME_CHARS['_'] = true;
+        USERNAME_CHARS['-'] = true;
+    }
+
+    /**
+     * @param c
+     *            a character
+     * @return true iff c may appear in a Twitter username, i.e. c is a letter
+     *         (A-Z or a-z), digit, underscore ("_") or hyphen ("-").
+     */
+    public static boolean isUsernameChar(char c) {
+        return c < USERNAME_CHARS.length && USERNAME_CHARS[c];
+    }
+
+    /**
+     * Find the end of the username-mention that starts at a given "@".
+     *
+     * @param text
+     *            tweet text
+     * @param at
+     *            index of an "@" character in text
+     * @return the index just past the last character of the mentioned
+     *         username, so that the username is text[at+1..end), or -1 if the
+     *         "@" at index at does not start a username-mention.
+     */
+    public static int mentionEnd(String text, int at) {
+        assert text.charAt(at) == '@';
+
+        int length = text.length();
+        if (at > 0 && isUsernameChar(text.charAt(at - 1))) {
+            return -1; // preceded by a username character, e.g. an email address
+        }
+
+        int end = at + 1;
+        while (end < length && isUsernameChar(text.charAt(end))) {
+            end++;
+        }
+        if (end == at + 1 || looksLikeAddress(text, end)) {
+            return -1;
+        }
+
+        return end;
+    }
+
+    /**
+     * Add the usernames mentioned in a tweet text to a collection.
+     *
+     * @param text
+     *            tweet text
+     * @param mentions
+     *            collection that every username mentioned in text is added to,
+     *            in lower case and in order of appearance.
+     */
+    public static void scan(String text, Collection<? super String> mentions) {
+        scan(text, (mentionText, start, end) -> mentions.add(toLowerCase(mentionText, start, end)));
+    }
+
+    /**
+     * Find the usernames mentioned in a tweet text, without copying them.
+     *
+     * @param text
+     *            tweet text
+     * @param listener
+     *            receives the span of every username mentioned in text, in
+     *            order of appearance
+     */
+    public static void scan(String text, Listener listener) {
+        int at = text.indexOf('@');
+        while (at >= 0) {
+            int end = mentionEnd(text, at);
+            if (end >= 0) {
+                listener.mention(text, at + 1, end);
+                at = text.indexOf('@', end);
+            }
+            else {
+                at = text.indexOf('@', at + 1);
+            }
+        }
+    }
+
+    /**
+     * A receiver of the username-mentions found by scan().
+     */
+    public interface Listener {
+        /**
+         * Receive a username-mention; text[start..end) is the username, as
+         * spelled in the text.
+         */
+        void mention(String text, int start, int end);
+    }
+
+    /**
+     * Get a lower-case copy of a username in a text.
+     *
+     * @param text
+     *            text containing a username
+     * @param start
+     *            index of the first character of the username
+     * @param end
+     *            index just past the last character of the username,
+     *            requires start < end and every character of text[start..end)
+     *            is a username character.
+     * @return text[start..end) in lower case
+     */
+    public static String toLowerCase(String text, int start, int end) {
+        int firstUpper = start;
+        while (firstUpper < end && !isUpperCase(text.charAt(firstUpper))) {
+            firstUpper++;
+        }
+        if (firstUpper == end) {
+            return text.substring(start, end); // already lower case, copy once
+        }
+
+        char[] lower = new char[end - start];
+        text.getChars(start, end, lower, 0);
+        for (int i = firstUpper - start; i < lower.length; i++) {
+            if (isUpperCase(lower[i])) {
+                lower[i] = (char) (lower[i] + ('a' - 'A'));
+            }
+        }
+
+        return new String(lower);
+    }
+
+    /**
+     * Helper function to mentionEnd(). Checks whether the text following a
+     * username continues up to another "@" without a space, like the rest of
+     * an address such as "@alyssa@mit.edu".
+     *
+     * @param text
+     *            tweet text
+     * @param from
+     *            index just past a username
+     * @return true iff the next "@" at or after from comes before the next
+     *         space, and is followed by some character other than "@".
+     */
+    private static boolean looksLikeAddress(String text, int from) {
+        int length = text.length();
+        int i = from;
+        while (i < length && text.charAt(i) != ' ' && text.charAt(i) != '@') {
+            i++;
+        }
+        if (i == length || text.charAt(i) == ' ') {
+            return false;
+        }
+
+        // Only a trailing run of '@' characters doesn't make an address
+        while (i < length && text.charAt(i) == '@') {
+            i++;
+        }
+        return i < length;
+    }
+
+    private static boolean isUpperCase(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+}
@@ -0,0 +1,330 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * PageRank ranks the users of a follows graph by influence: a user is
+ * influential if influential users follow them. Scores are computed by power
+ * iteration over the followers graph in CSR form, and each iteration is split
+ * across cores with fork/join.
+ *
+ * In each iteration a user passes damping times their score, in equal parts,
+ * to the users they follow, and the rest of the total score is redistributed
+ * by the teleport distribution: all users equally, or for personalized
+ * PageRank, the seed users equally. The score of users who follow nobody is
+ * redistributed by the teleport distribution too, so the scores always sum to 1.
+ */
+public class PageRank {
+
+    /** Usual probability of following an edge rather than teleporting. */
+    public static final double DEFAULT_DAMPING = 0.85;
+
+    /* Fewest users worth updating in a task of their own. */
+    private static final int MIN_TASK_SIZE = 1 << 13;
+
+    private final CsrGraph graph;
+    private final CsrGraph followers;
+    private final int[] followingCounts;
+    private final ForkJoinPool pool;
+    /* Rep invariant:
+     *    followers is graph.transpose()
+     *    followingCounts[u] == graph.followingCount(u) for each u < graph.rowCount()
+     * Abstraction function:
+     *    represents the PageRank engine of graph, running on pool
+     * Thread safety argument:
+     *    all fields are immutable or never modified after construction, and
+     *    each call to rank() works on arrays of its own
+     */
+
+    /**
+     * Make a PageRank engine for a graph, running on the common fork/join pool.
+     *
+     * @param graph
+     *            follows graph to rank
+     */
+    public PageRank(CsrGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Make a PageRank engine for a graph.
+     *
+     * @param graph
+     *            follows graph to rank
+     * @param pool
+     *            pool that runs the iterations
+     */
+    public PageRank(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.followers = graph.transpose();
+        this.pool = pool;
+        int[] offsets = graph.offsets();
+        this.followingCounts = new int[graph.rowCount()];
+        for (int u = 0; u < followingCounts.length; u++) {
+            followingCounts[u] = offsets[u + 1] - offsets[u];
+        }
+    }
+
+    /**
+     * @return the graph ranked by this engine
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Run PageRank, teleporting to all users equally.
+     *
+     * @param damping
+     *            probability of following an edge, requires 0 <= damping < 1
+     * @param tolerance
+     *            iteration stops once the scores change by less than
+     *            tolerance in total, requires tolerance > 0
+     * @param maxIterations
+     *            iteration stops after this many iterations, requires
+     *            maxIterations >= 1
+     * @return the scores of the users
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public Result rank(double damping, double tolerance, int maxIterations) {
+        int n = graph.rowCount();
+        double[] teleport = new double[n];
+        int userCount = graph.userCount();
+        for (int u = 0; u < n; u++) {
+            teleport[u] = graph.isUser(u) ? 1.0 / userCount : 0;
+        }
+        return iterate(teleport, damping, tolerance, maxIterations);
+    }
+
+    /**
+     * Run personalized PageRank, teleporting to the seed users equally, so
+     * that the scores measure influence as seen from the seeds.
+     *
+     * @param seeds
+     *            usernames of the seed users; those not in the graph are ignored
+     * @param damping
+     *            probability of following an edge, requires 0 <= damping < 1
+     * @param tolerance
+     *            iteration stops once the scores change by less than
+     *            tolerance in total, requires tolerance > 0
+     * @param maxIterations
+     *            iteration stops after this many iterations, requires
+     *            maxIterations >= 1
+     * @return the scores of the users
+     * @throws IllegalArgumentException if a parameter is out of range, or
+     *         no seed is in the graph
+     */
+    public Result personalized(Collection<String> seeds, double damping, double tolerance, int maxIterations) {
+        int n = graph.rowCount();
+        boolean[] isSeed = new boolean[n];
+        int seedCount = 0;
+        for (String seed : seeds) {
+            int id = graph.getDictionary().lookup(seed);
+            if (graph.isUser(id) && !isSeed[id]) {
+                isSeed[id] = true;
+                seedCount++;
+            }
+        }
+        if (seedCount == 0) {
+            throw new IllegalArgumentException("no seed is in the graph: " + seeds);
+        }
+        double[] teleport = new double[n];
+        for (int u = 0; u < n; u++) {
+            teleport[u] = isSeed[u] ? 1.0 / seedCount : 0;
+        }
+        return iterate(teleport, damping, tolerance, maxIterations);
+    }
+
+    private Result iterate(double[] teleport, double damping, double tolerance, int maxIterations) {
+        if (!(damping >= 0 && damping < 1)) {
+            throw new IllegalArgumentException("damping not in [0, 1): " + damping);
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("tolerance not positive: " + tolerance);
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations not positive: " + maxIterations);
+        }
+
+        int n = teleport.length;
+        int[] offsets = followers.offsets();
+        int[] sources = followers.targets();
+        double[] scores = teleport.clone();
+        double[] next = new double[n];
+        double[] shares = new double[n];
+        int iterations = 0;
+        boolean converged = false;
+        while (iterations < maxIterations && !converged) {
+            double[] current = scores;
+            double[] updated = next;
+
+            // Each user's share for each user they follow, and the score of users who follow nobody
+            double dangling = pool.invoke(new RangeSum(0, n, (from, to) -> {
+                double sum = 0;
+                for (int u = from; u < to; u++) {
+                    if (followingCounts[u] > 0) {
+                        shares[u] = current[u] / followingCounts[u];
+                    }
+                    else {
+                        sum += current[u];
+                    }
+                }
+                return sum;
+            }));
+
+            // Gather the shares of each user's followers
+            double teleported = 1 - damping + damping * dangling;
+            double change = pool.invoke(new RangeSum(0, n, (from, to) -> {
+                double sum = 0;
+                for (int v = from; v < to; v++) {
+                    double gathered = 0;
+                    for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                        gathered += shares[sources[i]];
+                    }
+                    updated[v] = damping * gathered + teleported * teleport[v];
+                    sum += Math.abs(updated[v] - current[v]);
+                }
+                return sum;
+            }));
+
+            next = scores;
+            scores = updated;
+            iterations++;
+            converged = change < tolerance;
+        }
+        return new Result(graph, scores, iterations, converged);
+    }
+
+    /**
+     * A function of a range of user ids.
+     */
+    private interface RangeFunction {
+        /**
+         * @return the value for the ids from, inclusive, to to, exclusive
+         */
+        double apply(int from, int to);
+    }
+
+    /**
+     * Sums a RangeFunction over a range of user ids, splitting the range in
+     * halves down to MIN_TASK_SIZE users.
+     */
+    private static class RangeSum extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final RangeFunction function;
+
+        RangeSum(int from, int to, RangeFunction function) {
+            this.from = from;
+            this.to = to;
+            this.function = function;
+        }
+
+        @Override protected Double compute() {
+            if (to - from <= MIN_TASK_SIZE) {
+                return function.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeSum left = new RangeSum(from, middle, function);
+            left.fork();
+            double right = new RangeSum(middle, to, function).compute();
+            return left.join() + right;
+        }
+    }
+
+    /**
+     * Result is an immutable set of PageRank scores.
+     */
+    public static class Result {
+
+        private final CsrGraph graph;
+        private final double[] scores;
+        private final int iterations;
+        private final boolean converged;
+        /* Rep invariant:
+         *    scores.length == graph.rowCount(), scores[u] >= 0 for each u,
+         *        and scores[u] == 0 if !graph.isUser(u)
+         *    1 <= iterations
+         * Abstraction function:
+         *    represents the score scores[u] of the user with id u of graph,
+         *    found in iterations iterations, which converged iff converged
+         * Thread safety argument:
+         *    all fields are never modified after construction, and scores is
+         *    never returned to clients
+         */
+
+        private Result(CsrGraph graph, double[] scores, int iterations, boolean converged) {
+            this.graph = graph;
+            this.scores = scores;
+            this.iterations = iterations;
+            this.converged = converged;
+        }
+
+        /**
+         * @param username
+         *            Twitter username
+         * @return the score of username, 0 if username is not in the graph
+         */
+        public double score(String username) {
+            return score(graph.getDictionary().lookup(username));
+        }
+
+        /**
+         * @param id
+         *            id of a user
+         * @return the score of the user with that id, 0 if they are not in the graph
+         */
+        public double score(int id) {
+            return id >= 0 && id < scores.length ? scores[id] : 0;
+        }
+
+        /**
+         * @return a new array whose element i is the score of the user with id i
+         */
+        public double[] scores() {
+            return Arrays.copyOf(scores, scores.length);
+        }
+
+        /**
+         * @return number of iterations run
+         */
+        public int iterations() {
+            return iterations;
+        }
+
+        /**
+         * @return true iff the scores changed by less than the tolerance in
+         *         the last iteration
+         */
+        public boolean converged() {
+            return converged;
+        }
+
+        /**
+         * Find the users with the highest scores.
+         *
+         * @param k
+         *            number of users to return, requires k >= 0
+         * @return the min(k, n) lower-case usernames with the highest scores,
+         *         of the n users in the graph, in descending order of score
+         *         and then in increasing order of username
+         * @throws IllegalArgumentException if k < 0
+         */
+        public List<String> top(int k) {
+            if (k < 0) {
+                throw new IllegalArgumentException("negative k " + k);
+            }
+            UsernameDictionary dictionary = graph.getDictionary();
+            return TopInfluencers.select(scores.length, graph::isUser, dictionary, k, (a, b) -> scores[a] != scores[b]
+                    ? scores[a] > scores[b]
+                    : dictionary.name(a).compareTo(dictionary.name(b)) < 0);
+        }
+    }
+}
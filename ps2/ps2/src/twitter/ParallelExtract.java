@@ -0,0 +1,187 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ParallelExtract computes the same results as Extract, splitting large lists
+ * of tweets across the threads of a fork/join pool.
+ *
+ * Lists with fewer than SEQUENTIAL_THRESHOLD tweets are handled by Extract
+ * directly, so small inputs do not pay for forking tasks.
+ */
+public class ParallelExtract {
+
+    /**
+     * Number of tweets below which a list, or a split of a list, is processed
+     * sequentially.
+     */
+    public static final int SEQUENTIAL_THRESHOLD = 8192;
+
+    /**
+     * Get the time period spanned by tweets, as Extract.getTimespan().
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every tweet in the list.
+     */
+    public static Timespan getTimespan(List<Tweet> tweets) {
+        return getTimespan(tweets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get the time period spanned by tweets, as Extract.getTimespan().
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param pool
+     *            pool that runs the splits of the list
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every tweet in the list.
+     */
+    public static Timespan getTimespan(List<Tweet> tweets, ForkJoinPool pool) {
+        if (tweets.size() < SEQUENTIAL_THRESHOLD) {
+            return Extract.getTimespan(tweets);
+        }
+
+        Instant[] minMax = pool.invoke(new TimespanTask(randomAccess(tweets), 0, tweets.size()));
+        return new Timespan(minMax[0], minMax[1]);
+    }
+
+    /**
+     * Get usernames mentioned in a list of tweets, as Extract.getMentionedUsers().
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @return the set of usernames who are mentioned in the text of the tweets,
+     *         as defined by Extract.getMentionedUsers().
+     */
+    public static Set<String> getMentionedUsers(List<Tweet> tweets) {
+        return getMentionedUsers(tweets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get usernames mentioned in a list of tweets, as Extract.getMentionedUsers().
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param pool
+     *            pool that runs the splits of the list
+     * @return the set of usernames who are mentioned in the text of the tweets,
+     *         as defined by Extract.getMentionedUsers().
+     */
+    public static Set<String> getMentionedUsers(List<Tweet> tweets, ForkJoinPool pool) {
+        if (tweets.size() < SEQUENTIAL_THRESHOLD) {
+            return Extract.getMentionedUsers(tweets);
+        }
+
+        return pool.invoke(new MentionsTask(randomAccess(tweets), 0, tweets.size()));
+    }
+
+    /**
+     * Helper function to the parallel operations. Splits of a list are read by
+     * index, so lists without constant-time get() are copied first.
+     */
+    private static List<Tweet> randomAccess(List<Tweet> tweets) {
+        return tweets instanceof RandomAccess ? tweets : new ArrayList<>(tweets);
+    }
+
+    /**
+     * Finds the earliest and latest timestamp of tweets[from..to), returned
+     * as the array {earliest, latest}.
+     */
+    private static class TimespanTask extends RecursiveTask<Instant[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Tweet> tweets;
+        private final int from;
+        private final int to;
+
+        TimespanTask(List<Tweet> tweets, int from, int to) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected Instant[] compute() {
+            if (to - from < SEQUENTIAL_THRESHOLD) {
+                Instant start = tweets.get(from).getTimestamp();
+                Instant end = start;
+                for (int i = from + 1; i < to; i++) {
+                    Instant timestamp = tweets.get(i).getTimestamp();
+                    if (timestamp.isBefore(start)) {
+                        start = timestamp;
+                    }
+                    else if (timestamp.isAfter(end)) {
+                        end = timestamp;
+                    }
+                }
+                return new Instant[] { start, end };
+            }
+
+            int middle = (from + to) >>> 1;
+            TimespanTask left = new TimespanTask(tweets, from, middle);
+            left.fork();
+            Instant[] right = new TimespanTask(tweets, middle, to).compute();
+            Instant[] minMax = left.join();
+            if (right[0].isBefore(minMax[0])) {
+                minMax[0] = right[0];
+            }
+            if (right[1].isAfter(minMax[1])) {
+                minMax[1] = right[1];
+            }
+            return minMax;
+        }
+    }
+
+    /**
+     * Collects the usernames mentioned in tweets[from..to) into a set per
+     * split, and merges the sets of the two halves of a split.
+     */
+    private static class MentionsTask extends RecursiveTask<Set<String>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Tweet> tweets;
+        private final int from;
+        private final int to;
+
+        MentionsTask(List<Tweet> tweets, int from, int to) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected Set<String> compute() {
+            if (to - from < SEQUENTIAL_THRESHOLD) {
+                Set<String> users = new HashSet<>();
+                for (int i = from; i < to; i++) {
+                    MentionScanner.scan(tweets.get(i).getText(), users);
+                }
+                return users;
+            }
+
+            int middle = (from + to) >>> 1;
+            MentionsTask left = new MentionsTask(tweets, from, middle);
+            left.fork();
+            Set<String> right = new MentionsTask(tweets, middle, to).compute();
+            Set<String> users = left.join();
+
+            // Add the smaller set to the larger one
+            if (users.size() < right.size()) {
+                right.addAll(users);
+                return right;
+            }
+            users.addAll(right);
+            return users;
+        }
+    }
+}
@@ -0,0 +1,582 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Query is an immutable condition on tweets, evaluated against a TweetIndex.
+ * Queries are built from these conditions:
+ *   writtenBy(username)    the tweet's author is username, as Filter.writtenBy()
+ *   inTimespan(timespan)   the tweet was sent during timespan, as Filter.inTimespan()
+ *   containing(words)      the tweet has at least one of words, as Filter.containing()
+ *   mentioning(username)   the tweet mentions username, as Extract.getMentionedUsers()
+ *   withHashtag(hashtag)   the tweet has hashtag as a word, case-sensitively
+ * and combined with and(), or() and not().
+ *
+ * A query is evaluated as a CompressedBitmap of tweet positions, read straight
+ * from the posting lists of the index for simple conditions. To evaluate an and(), its
+ * parts are ordered by the number of tweets they are estimated to match, from
+ * the sizes of posting lists in the index. The most selective part is evaluated
+ * first; each later part then either intersects its own positions with the
+ * result so far, or, when few positions are left, is checked tweet by tweet on
+ * just those positions. Evaluation stops as soon as no positions are left.
+ */
+public abstract class Query {
+
+    /* Datatype definition:
+     *    Query = WrittenBy(username: String) + InTimespan(timespan: Timespan)
+     *          + Containing(words: List<String>) + Mentioning(username: String)
+     *          + WithHashtag(hashtag: String)
+     *          + And(parts: List<Query>) + Or(parts: List<Query>) + Not(part: Query)
+     */
+
+    /*
+     * Relative cost of checking one tweet for a condition, compared with
+     * reading one element of a posting list.
+     */
+    private static final int COMPARE_COST = 4;
+    private static final int TOKENIZE_COST = 64;
+
+    // prevent subclasses outside this class
+    private Query() {
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return a query matching the tweets whose author is username, ignoring case
+     */
+    public static Query writtenBy(String username) {
+        return new WrittenBy(username);
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return a query matching the tweets sent during timespan, including its ends
+     */
+    public static Query inTimespan(Timespan timespan) {
+        return new InTimespan(timespan);
+    }
+
+    /**
+     * @param words
+     *            words, each a nonempty sequence of nonspace characters
+     * @return a query matching the tweets whose text includes at least one of
+     *         words, ignoring case
+     */
+    public static Query containing(List<String> words) {
+        return new Containing(words);
+    }
+
+    /**
+     * @param words
+     *            words, each a nonempty sequence of nonspace characters
+     * @return a query matching the tweets whose text includes at least one of
+     *         words, ignoring case
+     */
+    public static Query containing(String... words) {
+        return new Containing(Arrays.asList(words));
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return a query matching the tweets that mention username, ignoring case
+     */
+    public static Query mentioning(String username) {
+        return new Mentioning(username);
+    }
+
+    /**
+     * @param hashtag
+     *            a word that starts with "#"
+     * @return a query matching the tweets that have hashtag as a word,
+     *         case-sensitively
+     * @throws IllegalArgumentException
+     *             if hashtag does not start with "#" or has a space
+     */
+    public static Query withHashtag(String hashtag) {
+        if (!hashtag.startsWith("#") || hashtag.indexOf(' ') >= 0) {
+            throw new IllegalArgumentException("not a hashtag: " + hashtag);
+        }
+        return new WithHashtag(hashtag);
+    }
+
+    /**
+     * @param parts
+     *            queries, at least one
+     * @return a query matching the tweets that match all of parts
+     * @throws IllegalArgumentException
+     *             if parts is empty
+     */
+    public static Query and(Query... parts) {
+        return new And(checkParts(parts));
+    }
+
+    /**
+     * @param parts
+     *            queries, at least one
+     * @return a query matching the tweets that match at least one of parts
+     * @throws IllegalArgumentException
+     *             if parts is empty
+     */
+    public static Query or(Query... parts) {
+        return new Or(checkParts(parts));
+    }
+
+    /**
+     * @param part
+     *            a query
+     * @return a query matching the tweets that don't match part
+     */
+    public static Query not(Query part) {
+        return new Not(Objects.requireNonNull(part));
+    }
+
+    /**
+     * @param index
+     *            index of tweets
+     * @return an estimate of the number of tweets in index that match this
+     *         query, between 0 and index.size()
+     */
+    abstract int estimate(TweetIndex index);
+
+    /**
+     * @param index
+     *            index of tweets
+     * @return the positions of all and only the tweets in index that match
+     *         this query; may be a posting list of index, not to be modified
+     */
+    abstract CompressedBitmap evaluate(TweetIndex index);
+
+    /**
+     * @param index
+     *            index of tweets
+     * @param position
+     *            position of a tweet in index
+     * @return true iff that tweet matches this query
+     */
+    abstract boolean matches(TweetIndex index, int position);
+
+    /**
+     * @return estimated cost of matches(), in units of reading one element of
+     *         a posting list
+     */
+    abstract int checkCost();
+
+    /**
+     * Keep from a set of positions only the tweets that match this query,
+     * either by evaluating it or by checking each position, whichever is
+     * estimated to be cheaper.
+     *
+     * @param index
+     *            index of tweets
+     * @param positions
+     *            positions of tweets in index, not modified by this method
+     * @param estimate
+     *            estimate(index)
+     * @return the positions in positions of tweets that match this query
+     */
+    CompressedBitmap restrict(TweetIndex index, CompressedBitmap positions, int estimate) {
+        if (cheaperToCheck(positions, estimate)) {
+            return check(index, positions);
+        }
+        return positions.and(evaluate(index));
+    }
+
+    /* Returns true iff checking each of positions is cheaper than reading about estimate postings. */
+    boolean cheaperToCheck(CompressedBitmap positions, int estimate) {
+        return (long) positions.cardinality() * checkCost() < estimate;
+    }
+
+    /* Returns the positions in positions of tweets that match this query, checking each one. */
+    CompressedBitmap check(TweetIndex index, CompressedBitmap positions) {
+        CompressedBitmap found = new CompressedBitmap();
+        positions.forEach(position -> {
+            if (matches(index, position)) {
+                found.add(position);
+            }
+        });
+        return found;
+    }
+
+    private static List<Query> checkParts(Query[] parts) {
+        if (parts.length == 0) {
+            throw new IllegalArgumentException("requires at least one query");
+        }
+        List<Query> list = new ArrayList<>(Arrays.asList(parts));
+        for (Query part : list) {
+            Objects.requireNonNull(part);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    private static class WrittenBy extends Query {
+
+        private final String username;
+
+        WrittenBy(String username) {
+            this.username = Objects.requireNonNull(username);
+        }
+
+        @Override int estimate(TweetIndex index) {
+            return index.getAuthorIndex().count(username);
+        }
+
+        @Override CompressedBitmap evaluate(TweetIndex index) {
+            return index.getAuthorIndex().postingsOf(username);
+        }
+
+        @Override boolean matches(TweetIndex index, int position) {
+            return index.get(position).getAuthor().equalsIgnoreCase(username);
+        }
+
+        @Override int checkCost() {
+            return COMPARE_COST;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof WrittenBy && ((WrittenBy) that).username.equalsIgnoreCase(username);
+        }
+
+        @Override public int hashCode() {
+            return TweetTokenizer.foldCase(username, 0, username.length()).hashCode();
+        }
+
+        @Override public String toString() {
+            return "writtenBy(" + username + ")";
+        }
+    }
+
+    private static class InTimespan extends Query {
+
+        private final Timespan timespan;
+
+        InTimespan(Timespan timespan) {
+            this.timespan = Objects.requireNonNull(timespan);
+        }
+
+        @Override int estimate(TweetIndex index) {
+            return index.getTimeIndex().count(timespan);
+        }
+
+        @Override CompressedBitmap evaluate(TweetIndex index) {
+            return index.getTimeIndex().postingsOf(timespan);
+        }
+
+        @Override boolean matches(TweetIndex index, int position) {
+            Instant timestamp = index.get(position).getTimestamp();
+            return !timestamp.isBefore(timespan.getStart()) && !timestamp.isAfter(timespan.getEnd());
+        }
+
+        @Override int checkCost() {
+            return COMPARE_COST;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof InTimespan && ((InTimespan) that).timespan.equals(timespan);
+        }
+
+        @Override public int hashCode() {
+            return timespan.hashCode();
+        }
+
+        @Override public String toString() {
+            return "inTimespan(" + timespan + ")";
+        }
+    }
+
+    private static class Containing extends Query {
+
+        private final List<String> words;
+        private final List<String> foldedWords;
+        private final KeywordMatcher matcher;
+
+        Containing(List<String> words) {
+            this.words = Collections.unmodifiableList(new ArrayList<>(words));
+            this.matcher = new KeywordMatcher(this.words);
+            List<String> folded = new ArrayList<>();
+            for (String word : words) {
+                folded.add(TweetTokenizer.foldCase(word, 0, word.length()));
+            }
+            this.foldedWords = folded;
+        }
+
+        @Override int estimate(TweetIndex index) {
+            long sum = 0;
+            for (String word : words) {
+                sum += index.getWordIndex().frequency(word);
+            }
+            return (int) Math.min(sum, index.size());
+        }
+
+        @Override CompressedBitmap evaluate(TweetIndex index) {
+            return index.getWordIndex().union(words);
+        }
+
+        @Override boolean matches(TweetIndex index, int position) {
+            return matcher.matchesAny(index.get(position).getText());
+        }
+
+        @Override int checkCost() {
+            return TOKENIZE_COST;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof Containing && ((Containing) that).foldedWords.equals(foldedWords);
+        }
+
+        @Override public int hashCode() {
+            return foldedWords.hashCode();
+        }
+
+        @Override public String toString() {
+            return "containing" + words;
+        }
+    }
+
+    private static class Mentioning extends Query {
+
+        private final String username;
+
+        Mentioning(String username) {
+            this.username = Objects.requireNonNull(username);
+        }
+
+        @Override int estimate(TweetIndex index) {
+            return index.mentionCount(username);
+        }
+
+        @Override CompressedBitmap evaluate(TweetIndex index) {
+            return index.mentionPostings(username);
+        }
+
+        @Override boolean matches(TweetIndex index, int position) {
+            return index.mentionPostings(username).contains(position);
+        }
+
+        @Override int checkCost() {
+            return COMPARE_COST;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof Mentioning && ((Mentioning) that).username.equalsIgnoreCase(username);
+        }
+
+        @Override public int hashCode() {
+            return TweetTokenizer.foldCase(username, 0, username.length()).hashCode();
+        }
+
+        @Override public String toString() {
+            return "mentioning(" + username + ")";
+        }
+    }
+
+    private static class WithHashtag extends Query {
+
+        private final String hashtag;
+
+        WithHashtag(String hashtag) {
+            this.hashtag = hashtag;
+        }
+
+        @Override int estimate(TweetIndex index) {
+            return index.hashtagCount(hashtag);
+        }
+
+        @Override CompressedBitmap evaluate(TweetIndex index) {
+            return index.hashtagPostings(hashtag);
+        }
+
+        @Override boolean matches(TweetIndex index, int position) {
+            return index.hashtagPostings(hashtag).contains(position);
+        }
+
+        @Override int checkCost() {
+            return COMPARE_COST;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof WithHashtag && ((WithHashtag) that).hashtag.equals(hashtag);
+        }
+
+        @Override public int hashCode() {
+            return hashtag.hashCode();
+        }
+
+        @Override public String toString() {
+            return "withHashtag(" + hashtag + ")";
+        }
+    }
+
+    private static class And extends Query {
+
+        private final List<Query> parts;
+
+        And(List<Query> parts) {
+            this.parts = parts;
+        }
+
+        @Override int estimate(TweetIndex index) {
+            int min = index.size();
+            for (Query part : parts) {
+                min = Math.min(min, part.estimate(index));
+            }
+            return min;
+        }
+
+        @Override CompressedBitmap evaluate(TweetIndex index) {
+            // most selective part first
+            int[] estimates = new int[parts.size()];
+            Integer[] order = new Integer[parts.size()];
+            for (int i = 0; i < parts.size(); i++) {
+                estimates[i] = parts.get(i).estimate(index);
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> estimates[i]));
+
+            CompressedBitmap positions = parts.get(order[0]).evaluate(index);
+            for (int i = 1; i < order.length && !positions.isEmpty(); i++) {
+                positions = parts.get(order[i]).restrict(index, positions, estimates[order[i]]);
+            }
+            return positions;
+        }
+
+        @Override boolean matches(TweetIndex index, int position) {
+            for (Query part : parts) {
+                if (!part.matches(index, position)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override int checkCost() {
+            int cost = 0;
+            for (Query part : parts) {
+                cost += part.checkCost();
+            }
+            return cost;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof And && ((And) that).parts.equals(parts);
+        }
+
+        @Override public int hashCode() {
+            return 31 * parts.hashCode() + 1;
+        }
+
+        @Override public String toString() {
+            return "and" + parts;
+        }
+    }
+
+    private static class Or extends Query {
+
+        private final List<Query> parts;
+
+        Or(List<Query> parts) {
+            this.parts = parts;
+        }
+
+        @Override int estimate(TweetIndex index) {
+            long sum = 0;
+            for (Query part : parts) {
+                sum += part.estimate(index);
+            }
+            return (int) Math.min(sum, index.size());
+        }
+
+        @Override CompressedBitmap evaluate(TweetIndex index) {
+            if (parts.size() == 1) {
+                return parts.get(0).evaluate(index);
+            }
+            List<CompressedBitmap> positions = new ArrayList<>(parts.size());
+            for (Query part : parts) {
+                positions.add(part.evaluate(index));
+            }
+            return CompressedBitmap.or(positions);
+        }
+
+        @Override boolean matches(TweetIndex index, int position) {
+            for (Query part : parts) {
+                if (part.matches(index, position)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override int checkCost() {
+            int cost = 0;
+            for (Query part : parts) {
+                cost += part.checkCost();
+            }
+            return cost;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof Or && ((Or) that).parts.equals(parts);
+        }
+
+        @Override public int hashCode() {
+            return 31 * parts.hashCode() + 2;
+        }
+
+        @Override public String toString() {
+            return "or" + parts;
+        }
+    }
+
+    private static class Not extends Query {
+
+        private final Query part;
+
+        Not(Query part) {
+            this.part = part;
+        }
+
+        @Override int estimate(TweetIndex index) {
+            return index.size() - part.estimate(index);
+        }
+
+        @Override CompressedBitmap evaluate(TweetIndex index) {
+            return CompressedBitmap.range(0, index.size()).andNot(part.evaluate(index));
+        }
+
+        @Override CompressedBitmap restrict(TweetIndex index, CompressedBitmap positions, int estimate) {
+            // remove the part's positions rather than intersect with their complement
+            if (cheaperToCheck(positions, part.estimate(index))) {
+                return check(index, positions);
+            }
+            return positions.andNot(part.evaluate(index));
+        }
+
+        @Override boolean matches(TweetIndex index, int position) {
+            return !part.matches(index, position);
+        }
+
+        @Override int checkCost() {
+            return part.checkCost();
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof Not && ((Not) that).part.equals(part);
+        }
+
+        @Override public int hashCode() {
+            return ~part.hashCode();
+        }
+
+        @Override public String toString() {
+            return "not(" + part + ")";
+        }
+    }
+}
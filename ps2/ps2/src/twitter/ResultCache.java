@@ -0,0 +1,220 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * ResultCache remembers the results of operations on versioned corpora of
+ * tweets, keyed on (corpus, operation, arguments, corpus version), and evicts
+ * the least recently used entry when it holds more than a maximum number.
+ * One cache may serve several corpora.
+ *
+ * Results are shared between all callers that ask for the same key, so they
+ * must be immutable; VersionedCorpus wraps its results to make them so.
+ * A ResultCache is safe for use by multiple threads. A result is computed
+ * without holding the cache's lock, so two threads that miss on the same key
+ * at once may both compute it; the first one stored is kept. A result
+ * computed for a version that was invalidated while it was computed is
+ * returned but not stored, since no caller could ask for it again.
+ */
+public class ResultCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Object> entries;
+    private final Map<Object, Long> invalidated = new WeakHashMap<>();
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    /* Rep invariant:
+     *    maxEntries > 0
+     *    entries.size() <= maxEntries, in order from least to most recently used
+     *    invalidated.get(c) is the largest version passed to invalidateBefore()
+     *        for corpus c, and entries has no key of c with an older version
+     *    hits, misses, evictions >= 0
+     * Abstraction function:
+     *    represents the cached results entries, with counts of the lookups
+     *    that found a result (hits) or did not (misses) and of the entries
+     *    evicted to stay within maxEntries
+     * Thread safety argument:
+     *    all fields are guarded by the lock of this cache
+     */
+
+    /**
+     * Make an empty cache.
+     *
+     * @param maxEntries
+     *            maximum number of results to keep, requires positive
+     * @throws IllegalArgumentException
+     *             if maxEntries is not positive
+     */
+    public ResultCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("requires maxEntries > 0, got " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                if (size() > ResultCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the result of an operation, computing and caching it on a miss.
+     *
+     * @param corpus
+     *            the corpus the operation reads, compared with equals(); a
+     *            VersionedCorpus passes itself
+     * @param operation
+     *            name of the operation; the same name must always give
+     *            results of the same type
+     * @param arguments
+     *            arguments of the operation, immutable values with equals()
+     *            and hashCode(), not modified by this method
+     * @param version
+     *            version of the corpus the operation reads
+     * @param compute
+     *            computes the result on a miss; it must be immutable
+     * @return the cached or computed result
+     */
+    public <T> T get(Object corpus, String operation, List<?> arguments, long version, Supplier<T> compute) {
+        Key key = new Key(corpus, operation, arguments, version);
+        synchronized (this) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cast(cached);
+            }
+            misses++;
+        }
+        T result = Objects.requireNonNull(compute.get());
+        synchronized (this) {
+            if (version < invalidated.getOrDefault(corpus, Long.MIN_VALUE)) {
+                return result; // invalidated while computing, so never asked for again
+            }
+            Object cached = entries.putIfAbsent(key, result);
+            return cached != null ? cast(cached) : result;
+        }
+    }
+
+    /**
+     * Remove the results computed for versions of a corpus before a given
+     * one, and do not store such results from now on.
+     *
+     * @param corpus
+     *            the corpus, compared with equals()
+     * @param version
+     *            the oldest version whose results are kept
+     * @return number of results removed
+     */
+    public synchronized int invalidateBefore(Object corpus, long version) {
+        invalidated.merge(corpus, version, Math::max);
+        int removed = 0;
+        for (Iterator<Key> keys = entries.keySet().iterator(); keys.hasNext();) {
+            Key key = keys.next();
+            if (key.version < version && key.corpus.equals(corpus)) {
+                keys.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Remove every result.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return number of results in the cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return maximum number of results the cache keeps
+     */
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return number of calls to get() that found a cached result
+     */
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    /**
+     * @return number of calls to get() that computed their result
+     */
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    /**
+     * @return number of results evicted to keep within maxEntries(); results
+     *         removed by invalidateBefore() or clear() are not counted
+     */
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    @Override public synchronized String toString() {
+        return "ResultCache(" + entries.size() + "/" + maxEntries + " entries, " + hits + " hits, " + misses
+                + " misses, " + evictions + " evictions)";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object result) {
+        return (T) result;
+    }
+
+    /**
+     * Immutable key of a cached result.
+     */
+    private static class Key {
+
+        private final Object corpus;
+        private final String operation;
+        private final List<Object> arguments;
+        private final long version;
+
+        Key(Object corpus, String operation, List<?> arguments, long version) {
+            this.corpus = Objects.requireNonNull(corpus);
+            this.operation = Objects.requireNonNull(operation);
+            this.arguments = Collections.unmodifiableList(new ArrayList<>(arguments));
+            this.version = version;
+        }
+
+        @Override public boolean equals(Object thatObject) {
+            if (!(thatObject instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) thatObject;
+            return version == that.version && corpus.equals(that.corpus) && operation.equals(that.operation)
+                    && arguments.equals(that.arguments);
+        }
+
+        @Override public int hashCode() {
+            return ((corpus.hashCode() * 31 + operation.hashCode()) * 31 + arguments.hashCode()) * 31
+                    + Long.hashCode(version);
+        }
+    }
+}
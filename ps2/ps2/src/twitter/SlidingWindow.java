@@ -0,0 +1,297 @@
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SlidingWindow holds the tweets of the last stretch of a stream, such as the
+ * last ten minutes, and keeps statistics of them up to date as tweets enter
+ * and expire, so that they can be read without rescanning the window.
+ *
+ * Tweets are added in nondecreasing time order to a ring buffer. When the
+ * newest time seen moves to t, every tweet sent before t minus the window
+ * length expires, from the oldest end of the buffer. Each tweet's mentions,
+ * hashtags and author are counted when it enters and uncounted when it
+ * expires, so getTimespan() and the counts of one user or hashtag take
+ * constant time, and getMentionedUsers() and hashtagCounts() take time in the
+ * number of distinct users or hashtags in the window.
+ *
+ * The follows graph of the window, SocialNetwork.guessFollowsGraph() of its
+ * tweets, is kept by a WindowFollowsGraph, which each tweet is added to when
+ * it enters and removed from when it expires; so followerCount() takes
+ * constant time and influencers() time in the number of users in the window.
+ * Users who leave the window give back their ids, so memory stays bounded by
+ * the busiest window, however long the stream.
+ * A SlidingWindow is not safe for use by multiple threads.
+ */
+public class SlidingWindow {
+
+    private final Duration length;
+    private Tweet[] tweets = new Tweet[16];
+    private String[][] mentions = new String[16][];
+    private String[][] hashtags = new String[16][];
+    private int head = 0;
+    private int size = 0;
+    private Instant newest = null;
+    private final Map<String, Integer> mentionCounts = new HashMap<>();
+    private final Map<String, Integer> hashtagCounts = new HashMap<>();
+    private final WindowFollowsGraph graph = new WindowFollowsGraph();
+    /* Rep invariant:
+     *    length is positive
+     *    tweets.length == mentions.length == hashtags.length, a power of two
+     *    0 <= head < tweets.length, 0 <= size <= tweets.length
+     *    the window is tweets[(head + i) % tweets.length] for 0 <= i < size,
+     *        oldest first, in nondecreasing time order, all sent at or after
+     *        newest minus length; the other elements of the arrays are null
+     *    mentions[j] and hashtags[j] are the distinct lower-case mentions and
+     *        the distinct hashtags of tweets[j]
+     *    newest is null iff no tweet has been added and advanceTo() has not
+     *        been called, and is at or after the time of every tweet in the window
+     *    mentionCounts.get(u) is the number of tweets in the window that
+     *        mention u, and hashtagCounts.get(h) the number that have
+     *        hashtag h; every value of these maps is positive
+     *    graph holds the tweets in the window, each added with its author,
+     *        mentions[j] and hashtags[j]
+     * Abstraction function:
+     *    represents the tweets sent during [newest - length, newest] that
+     *    were added, in order of addition
+     */
+
+    /**
+     * Make an empty window.
+     *
+     * @param length
+     *            length of time the window covers, requires positive
+     * @throws IllegalArgumentException
+     *             if length is zero or negative
+     */
+    public SlidingWindow(Duration length) {
+        if (length.isZero() || length.isNegative()) {
+            throw new IllegalArgumentException("window length must be positive: " + length);
+        }
+        this.length = length;
+    }
+
+    /**
+     * @return length of time the window covers
+     */
+    public Duration getLength() {
+        return length;
+    }
+
+    /**
+     * Add the next tweet of the stream, and expire the tweets sent more than
+     * the window length before it.
+     *
+     * @param tweet
+     *            a tweet sent at or after the newest time seen by this window
+     * @throws IllegalArgumentException
+     *             if tweet was sent before the newest time seen by this window
+     */
+    public void add(Tweet tweet) {
+        advanceTo(tweet.getTimestamp());
+        if (size == tweets.length) {
+            grow();
+        }
+        int slot = (head + size) & (tweets.length - 1);
+        tweets[slot] = tweet;
+        mentions[slot] = distinctMentions(tweet.getText());
+        hashtags[slot] = distinctHashtags(tweet.getText());
+        size++;
+        count(slot, 1);
+    }
+
+    /**
+     * Move the window forward in time, expiring the tweets sent more than
+     * the window length before a time.
+     *
+     * @param now
+     *            a time at or after the newest time seen by this window
+     * @throws IllegalArgumentException
+     *             if now is before the newest time seen by this window
+     */
+    public void advanceTo(Instant now) {
+        if (newest != null && now.isBefore(newest)) {
+            throw new IllegalArgumentException("time " + now + " is before the newest time seen " + newest);
+        }
+        newest = now;
+        Instant oldestKept = now.minus(length);
+        while (size > 0 && tweets[head].getTimestamp().isBefore(oldestKept)) {
+            count(head, -1);
+            tweets[head] = null;
+            mentions[head] = null;
+            hashtags[head] = null;
+            head = (head + 1) & (tweets.length - 1);
+            size--;
+        }
+    }
+
+    /**
+     * @return number of tweets in the window
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the tweets in the window, oldest first
+     */
+    public List<Tweet> tweets() {
+        List<Tweet> window = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            window.add(tweets[(head + i) & (tweets.length - 1)]);
+        }
+        return window;
+    }
+
+    /**
+     * Get the time period spanned by the tweets in the window, as
+     * Extract.getTimespan(), in constant time.
+     *
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every tweet in the window; from the epoch to the epoch if there
+     *         are none.
+     */
+    public Timespan getTimespan() {
+        if (size == 0) {
+            return new Timespan(Instant.EPOCH, Instant.EPOCH);
+        }
+        return new Timespan(tweets[head].getTimestamp(),
+                tweets[(head + size - 1) & (tweets.length - 1)].getTimestamp());
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return number of tweets in the window that mention username, ignoring case
+     */
+    public int mentionCount(String username) {
+        return mentionCounts.getOrDefault(lowerCase(username), 0);
+    }
+
+    /**
+     * Get usernames mentioned in the window, as Extract.getMentionedUsers().
+     *
+     * @return the set of usernames mentioned by the tweets in the window, in
+     *         lower case
+     */
+    public Set<String> getMentionedUsers() {
+        return new LinkedHashSet<>(mentionCounts.keySet());
+    }
+
+    /**
+     * @param hashtag
+     *            a word that starts with "#"
+     * @return number of tweets in the window that have hashtag as a word,
+     *         case-sensitively
+     */
+    public int hashtagCount(String hashtag) {
+        return hashtagCounts.getOrDefault(hashtag, 0);
+    }
+
+    /**
+     * @return map from each hashtag in the window, case-sensitively, to the
+     *         number of tweets in the window that have it
+     */
+    public Map<String, Integer> hashtagCounts() {
+        return Collections.unmodifiableMap(new HashMap<>(hashtagCounts));
+    }
+
+    /**
+     * @return a new follows graph equal to SocialNetwork.guessFollowsGraph()
+     *         of the tweets in the window
+     */
+    public Map<String, Set<String>> guessFollowsGraph() {
+        return graph.getFollowsGraph();
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return number of distinct users, ignoring case, among the authors of
+     *         tweets in the window who follow username in any spelling in
+     *         guessFollowsGraph()
+     */
+    public int followerCount(String username) {
+        return graph.followerCount(username);
+    }
+
+    /**
+     * Find the people in the window with the greatest influence, as
+     * TopInfluencers.top(guessFollowsGraph(), n) for the number n of users in
+     * guessFollowsGraph().
+     *
+     * @return a list of the distinct lower-case usernames of guessFollowsGraph(),
+     *         in descending order of followerCount(), and in alphabetical
+     *         order among equal counts
+     */
+    public List<String> influencers() {
+        return graph.influencers(Integer.MAX_VALUE);
+    }
+
+    /* Adds the tweet in slot to the counts and the graph if delta is 1, or removes it if -1. */
+    private void count(int slot, int delta) {
+        for (String user : mentions[slot]) {
+            add(mentionCounts, user, delta);
+        }
+        for (String hashtag : hashtags[slot]) {
+            add(hashtagCounts, hashtag, delta);
+        }
+        if (delta > 0) {
+            graph.add(tweets[slot].getAuthor(), mentions[slot], hashtags[slot]);
+        }
+        else {
+            graph.remove(tweets[slot].getAuthor(), mentions[slot], hashtags[slot]);
+        }
+    }
+
+    /* Adds delta to counts.get(key), removing key when its count drops to zero. */
+    private static void add(Map<String, Integer> counts, String key, int delta) {
+        counts.merge(key, delta, (count, change) -> count + change == 0 ? null : count + change);
+    }
+
+    /* Doubles the capacity of the ring buffer, moving the window to the start. */
+    private void grow() {
+        int capacity = 2 * tweets.length;
+        Tweet[] newTweets = new Tweet[capacity];
+        String[][] newMentions = new String[capacity][];
+        String[][] newHashtags = new String[capacity][];
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) & (tweets.length - 1);
+            newTweets[i] = tweets[slot];
+            newMentions[i] = mentions[slot];
+            newHashtags[i] = hashtags[slot];
+        }
+        tweets = newTweets;
+        mentions = newMentions;
+        hashtags = newHashtags;
+        head = 0;
+    }
+
+    private static String lowerCase(String username) {
+        return username.isEmpty() ? username : MentionScanner.toLowerCase(username, 0, username.length());
+    }
+
+    private static String[] distinctMentions(String text) {
+        Set<String> users = new LinkedHashSet<>();
+        MentionScanner.scan(text, users);
+        return users.toArray(new String[users.size()]);
+    }
+
+    private static String[] distinctHashtags(String text) {
+        Set<String> found = new LinkedHashSet<>();
+        TweetTokenizer.tokenize(text, new TweetTokenizer.Listener() {
+            @Override public void hashtag(String text, int start, int end) {
+                found.add(text.substring(start, end));
+            }
+        });
+        return found.toArray(new String[found.size()]);
+    }
+}
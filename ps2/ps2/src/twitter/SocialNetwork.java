@@ -6,7 +6,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -45,24 +44,8 @@ public class SocialNetwork {
      *         either authors or @-mentions in the list of tweets.
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
-        Map<String, Set<String>> followsGraph = new HashMap<>();
-        
-        Set<String> authors = new HashSet<>();
-        for (Tweet tweet : tweets) {
-            authors.add(tweet.getAuthor());          
-        }
-        
-        for (String user : authors) {
-            List<Tweet> tweetsBy = Filter.writtenBy(tweets, user); // get tweets written by user
-            
-            // Find mentions in tweets written by user and use as evidence for people the user follows
-            Set<String> follows = Extract.getMentionedUsers(tweetsBy);
-            follows.remove(user); // Do not include the user following himself 
-            follows.addAll(getUsersWithSharedHashtags(tweets, authors, tweetsBy, user));
-            followsGraph.put(user, follows);
-        }
-        
-        return followsGraph;
+        // Mentions, and authors sharing more than one hashtag, in one pass over the tweets
+        return FollowsGraphBuilder.build(tweets);
     }
 
     /**
@@ -102,75 +85,6 @@ public class SocialNetwork {
         return influencers;
     }
     
-    /**
-     * Helper function to guessFollowsGraph(). Gets users who share >1 hashtags
-     * with a user.
-     * 
-     * @param tweets
-     *            a list of tweets providing the evidence, not modified by this
-     *            method.
-     * @param authors
-     *            a list of all authors from the list of tweets
-     * @param tweetsByUser
-     *            a list of tweets by a particular user.
-     * @param user
-     *            a part
-     * @return Set of users who the user follows by evidence of shared hashtags
-     */
-    private static Set<String> getUsersWithSharedHashtags(List<Tweet> tweets, Set<String> authors,
-            List<Tweet> tweetsByUser, String user) {
-        
-        Set<String> follows = new HashSet<>();
-        
-        Set<String> hashtagsByUser = getHashtags(tweetsByUser);
-        Map<String, Set<String>> hashtagsByOthers = new HashMap<>();
-         
-        for (String author : authors) {
-            if (!author.equals(user)) {
-                List<Tweet> tweetsBy = Filter.writtenBy(tweets, author); 
-                hashtagsByOthers.put(author, getHashtags(tweetsBy));
-            }
-        }
-        
-        for (Map.Entry<String, Set<String>> entry: hashtagsByOthers.entrySet()) {
-            int hashtagMatches = 0;
-            for (String hashtag : hashtagsByUser) {
-                if (entry.getValue().contains(hashtag)) {
-                    hashtagMatches++;
-                }
-            }
-            
-            if (hashtagMatches > 1) {
-                follows.add(entry.getKey());
-            }
-        }
-        
-        return follows;
-    }
-    
-    /**
-     * Helper function to getUsersWithSharedHashtags(). Gets all hashtags from a user by the text in tweets.
-     * 
-     * @param tweets
-     *            a list of tweets from a user.
-     * @return a set of all hashtags from the tweets of that user.
-     */
-    private static Set<String> getHashtags (List<Tweet> tweets) {
-        Set<String> hashtags = new HashSet<>();
-        
-        for (Tweet tweet : tweets) {
-            String[] tweetWords = tweet.getText().split(" ");
-            
-            for (String word : tweetWords) {
-                if (word.startsWith("#")) {
-                    hashtags.add(word);
-                }
-            }
-        }
-        
-        return hashtags;
-    }
-
     /* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
      * Redistribution of original or derived work requires explicit permission.
      * Don't post any of this code on the web or to a public Github repository.
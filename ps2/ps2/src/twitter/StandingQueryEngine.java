@@ -0,0 +1,327 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * StandingQueryEngine matches a live stream of tweets against standing
+ * queries. Clients subscribe writtenBy, containing and inTimespan queries,
+ * with the meanings of the Filter operations, then push tweets one at a time;
+ * each subscription's listener is called with every pushed tweet that matches
+ * its query, once, until the subscription is cancelled.
+ *
+ * A pushed tweet is routed only to the queries it can match:
+ *   - writtenBy queries are kept in a table by case-folded author, so a tweet
+ *     looks up its own author;
+ *   - containing queries are kept in a table by case-folded word, so a tweet
+ *     looks up each of its own words;
+ *   - inTimespan queries wait in a queue ordered by start until the stream
+ *     reaches their start, then stay in a queue ordered by end until it passes
+ *     their end, so a tweet sees just the timespans that contain it.
+ * The cost of a push depends on the length of the tweet and the number of
+ * matches, not on the number of subscriptions. The timespan queues assume the
+ * tweets arrive in nondecreasing time order; a tweet older than the newest
+ * one pushed so far is matched against every timespan query instead.
+ *
+ * A StandingQueryEngine is safe for use by multiple threads. Listeners are
+ * called on the pushing thread, after the engine has released its lock, so
+ * a listener may subscribe or cancel; a subscription cancelled during a push
+ * may still receive that push's tweet.
+ */
+public class StandingQueryEngine {
+
+    /**
+     * Receives the tweets that match a standing query.
+     */
+    public interface Listener {
+
+        /**
+         * Receive a pushed tweet that matches the query.
+         */
+        void matched(Tweet tweet);
+    }
+
+    /**
+     * A standing query and its listener, registered with an engine until
+     * cancelled.
+     */
+    public static class Subscription {
+
+        private final StandingQueryEngine engine;
+        private final Listener listener;
+        private final String username;
+        private final List<String> words;
+        private final Timespan timespan;
+        private boolean active = true;
+        private long lastMatch = -1;
+        /* Rep invariant:
+         *    exactly one of username, words and timespan is non-null
+         *    lastMatch is the sequence number of the last push that matched
+         *        this subscription, or -1
+         * Abstraction function:
+         *    represents the standing query writtenBy(username), containing(words)
+         *    or inTimespan(timespan), delivering to listener while active
+         * Thread safety argument:
+         *    the mutable fields are guarded by the lock of engine
+         */
+
+        private Subscription(StandingQueryEngine engine, Listener listener, String username, List<String> words,
+                Timespan timespan) {
+            this.engine = engine;
+            this.listener = Objects.requireNonNull(listener);
+            this.username = username;
+            this.words = words;
+            this.timespan = timespan;
+        }
+
+        /**
+         * Stop delivering tweets to the listener. Has no effect if the
+         * subscription is already cancelled.
+         */
+        public void cancel() {
+            engine.cancel(this);
+        }
+
+        /**
+         * @return true iff this subscription has not been cancelled
+         */
+        public boolean isActive() {
+            synchronized (engine) {
+                return active;
+            }
+        }
+
+        @Override public String toString() {
+            String query = username != null ? "writtenBy(" + username + ")"
+                    : words != null ? "containing" + words : "inTimespan(" + timespan + ")";
+            return "Subscription(" + query + ")";
+        }
+    }
+
+    private static final Comparator<Subscription> BY_START =
+            Comparator.comparing(subscription -> subscription.timespan.getStart());
+    private static final Comparator<Subscription> BY_END =
+            Comparator.comparing(subscription -> subscription.timespan.getEnd());
+
+    private final Map<String, List<Subscription>> byAuthor = new HashMap<>();
+    private final Map<String, List<Subscription>> byWord = new HashMap<>();
+    private final Set<Subscription> timespans = new LinkedHashSet<>();
+    private final PriorityQueue<Subscription> pending = new PriorityQueue<>(BY_START);
+    private final PriorityQueue<Subscription> started = new PriorityQueue<>(BY_END);
+    private Instant newest = null;
+    private long pushes = 0;
+    private int subscriptionCount = 0;
+    /* Rep invariant:
+     *    byAuthor maps the folded username of each active writtenBy
+     *        subscription to a nonempty list of them
+     *    byWord maps each folded word of each active containing subscription
+     *        to a nonempty list of them, each listed once
+     *    timespans is the set of active inTimespan subscriptions
+     *    pending and started hold only subscriptions in timespans; each s in
+     *        timespans is in pending iff newest is null or s's start is after
+     *        newest, and otherwise in started iff s's end is at or after newest
+     *    pushes is the number of tweets pushed
+     *    subscriptionCount is the number of active subscriptions
+     * Abstraction function:
+     *    represents the active subscriptions, for a stream whose newest
+     *    tweet so far was sent at newest (null if none)
+     * Thread safety argument:
+     *    all fields are guarded by the lock of this engine, and listeners are
+     *    called without holding it
+     */
+
+    /**
+     * Subscribe to the tweets written by a user, as Filter.writtenBy().
+     *
+     * @param username
+     *            Twitter username
+     * @param listener
+     *            receives each pushed tweet whose author is username, ignoring case
+     * @return the new subscription
+     */
+    public synchronized Subscription writtenBy(String username, Listener listener) {
+        Subscription subscription = new Subscription(this, listener, Objects.requireNonNull(username), null, null);
+        byAuthor.computeIfAbsent(fold(username), author -> new ArrayList<>()).add(subscription);
+        subscriptionCount++;
+        return subscription;
+    }
+
+    /**
+     * Subscribe to the tweets that contain certain words, as Filter.containing().
+     *
+     * @param words
+     *            a list of words, each a nonempty sequence of nonspace
+     *            characters, not modified by this method
+     * @param listener
+     *            receives each pushed tweet whose text includes at least one
+     *            of the words, ignoring case
+     * @return the new subscription
+     */
+    public synchronized Subscription containing(List<String> words, Listener listener) {
+        List<String> copy = Collections.unmodifiableList(new ArrayList<>(words));
+        Subscription subscription = new Subscription(this, listener, null, copy, null);
+        for (String word : foldedWords(copy)) {
+            byWord.computeIfAbsent(word, w -> new ArrayList<>()).add(subscription);
+        }
+        subscriptionCount++;
+        return subscription;
+    }
+
+    /**
+     * Subscribe to the tweets sent during a timespan, as Filter.inTimespan().
+     *
+     * @param timespan
+     *            timespan
+     * @param listener
+     *            receives each pushed tweet that was sent during the timespan,
+     *            including its ends
+     * @return the new subscription
+     */
+    public synchronized Subscription inTimespan(Timespan timespan, Listener listener) {
+        Subscription subscription = new Subscription(this, listener, null, null, Objects.requireNonNull(timespan));
+        timespans.add(subscription);
+        pending.add(subscription);
+        startTimespans();
+        subscriptionCount++;
+        return subscription;
+    }
+
+    /**
+     * @return number of subscriptions that have not been cancelled
+     */
+    public synchronized int subscriptionCount() {
+        return subscriptionCount;
+    }
+
+    /**
+     * Match a tweet against the standing queries, and give it to the
+     * listener of each subscription it matches.
+     *
+     * @param tweet
+     *            the next tweet of the stream
+     */
+    public void push(Tweet tweet) {
+        List<Subscription> matches = new ArrayList<>();
+        synchronized (this) {
+            collectMatches(tweet, matches);
+        }
+        for (Subscription subscription : matches) {
+            subscription.listener.matched(tweet);
+        }
+    }
+
+    /* Adds to matches each active subscription that tweet matches, once. */
+    private void collectMatches(Tweet tweet, List<Subscription> matches) {
+        long push = pushes++;
+
+        List<Subscription> authors = byAuthor.get(fold(tweet.getAuthor()));
+        if (authors != null) {
+            for (Subscription subscription : authors) {
+                addMatch(subscription, push, matches);
+            }
+        }
+
+        if (!byWord.isEmpty()) {
+            TweetTokenizer.tokenize(tweet.getText(), new TweetTokenizer.Listener() {
+                @Override public void word(String text, int start, int end) {
+                    List<Subscription> subscriptions = byWord.get(TweetTokenizer.foldCase(text, start, end));
+                    if (subscriptions != null) {
+                        for (Subscription subscription : subscriptions) {
+                            addMatch(subscription, push, matches);
+                        }
+                    }
+                }
+            });
+        }
+
+        Instant timestamp = tweet.getTimestamp();
+        if (newest != null && timestamp.isBefore(newest)) {
+            // out of order: the queues only describe times at or after newest
+            for (Subscription subscription : timespans) {
+                if (!timestamp.isBefore(subscription.timespan.getStart())
+                        && !timestamp.isAfter(subscription.timespan.getEnd())) {
+                    addMatch(subscription, push, matches);
+                }
+            }
+            return;
+        }
+        newest = timestamp;
+        startTimespans();
+        while (!started.isEmpty() && started.peek().timespan.getEnd().isBefore(timestamp)) {
+            started.poll();
+        }
+        for (Subscription subscription : started) {
+            addMatch(subscription, push, matches);
+        }
+    }
+
+    /* Moves the pending timespans that start at or before newest to started. */
+    private void startTimespans() {
+        while (newest != null && !pending.isEmpty() && !pending.peek().timespan.getStart().isAfter(newest)) {
+            Subscription subscription = pending.poll();
+            if (!subscription.timespan.getEnd().isBefore(newest)) {
+                started.add(subscription);
+            }
+        }
+    }
+
+    private static void addMatch(Subscription subscription, long push, List<Subscription> matches) {
+        if (subscription.active && subscription.lastMatch != push) {
+            subscription.lastMatch = push;
+            matches.add(subscription);
+        }
+    }
+
+    private synchronized void cancel(Subscription subscription) {
+        if (!subscription.active) {
+            return;
+        }
+        subscription.active = false;
+        subscriptionCount--;
+        if (subscription.username != null) {
+            remove(byAuthor, fold(subscription.username), subscription);
+        }
+        else if (subscription.words != null) {
+            for (String word : foldedWords(subscription.words)) {
+                remove(byWord, word, subscription);
+            }
+        }
+        else {
+            timespans.remove(subscription);
+            pending.remove(subscription);
+            started.remove(subscription);
+        }
+    }
+
+    private static void remove(Map<String, List<Subscription>> table, String key, Subscription subscription) {
+        List<Subscription> subscriptions = table.get(key);
+        subscriptions.remove(subscription);
+        if (subscriptions.isEmpty()) {
+            table.remove(key);
+        }
+    }
+
+    private static String fold(String word) {
+        return TweetTokenizer.foldCase(word, 0, word.length());
+    }
+
+    /* Returns the distinct foldings of words, skipping words that can never match. */
+    private static Set<String> foldedWords(List<String> words) {
+        Set<String> folded = new LinkedHashSet<>();
+        for (String word : words) {
+            if (!word.isEmpty() && word.indexOf(' ') < 0) {
+                folded.add(fold(word));
+            }
+        }
+        return folded;
+    }
+}
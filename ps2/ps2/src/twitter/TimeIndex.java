@@ -0,0 +1,288 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TimeIndex is an index of the timestamps of a list of tweets, built once and
+ * then queried any number of times in place of Filter.inTimespan().
+ *
+ * The index keeps the timestamps in sorted order, as epoch seconds and
+ * nanoseconds, and cuts the sorted order into buckets of BUCKET_SIZE tweets,
+ * each with a CompressedBitmap of the positions of its tweets in the list. A
+ * timespan query finds its range of timestamps by binary search, takes the
+ * union of the buckets inside the range, and checks the tweets of the two
+ * buckets at its ends one by one. If the list is already in time order, the
+ * range of timestamps is itself a range of positions, and no buckets are kept.
+ * A TimeIndex is immutable and safe for use by multiple threads.
+ */
+public class TimeIndex {
+
+    /** Number of tweets in each bucket, in time order. */
+    static final int BUCKET_SIZE = 1 << 10;
+
+    private final List<Tweet> tweets;
+    private final long[] seconds;
+    private final int[] nanos;
+    private final CompressedBitmap[] buckets;
+    /* Rep invariant:
+     *    seconds and nanos have length tweets.size(), and (seconds[i], nanos[i])
+     *        is nondecreasing in i
+     *    let order be the permutation of [0..tweets.size()) that stably sorts
+     *        tweets by timestamp; then (seconds[i], nanos[i]) is the timestamp
+     *        of tweets.get(order[i])
+     *    buckets is null iff order[i] == i for all i; otherwise
+     *        buckets.length == ceil(tweets.size() / BUCKET_SIZE), and
+     *        buckets[b] holds order[i] for b*BUCKET_SIZE <= i < (b+1)*BUCKET_SIZE
+     * Abstraction function:
+     *    represents the index of the timestamps of tweets
+     * Thread safety argument:
+     *    all fields and bitmaps are never modified after construction, and
+     *    the bitmaps are never returned to clients
+     */
+
+    /**
+     * Make an index of the timestamps of tweets.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method; the index
+     *            keeps a copy of the list
+     */
+    public TimeIndex(List<Tweet> tweets) {
+        this(new ArrayList<>(tweets), epochSeconds(tweets), nanos(tweets));
+    }
+
+    /*
+     * Make an index of the timestamps of tweets, given the epoch seconds and
+     * nanoseconds of each, which the index owns from now on; tweets is kept
+     * without a copy, so the caller must not modify it.
+     */
+    TimeIndex(List<Tweet> tweets, long[] listSeconds, int[] listNanos) {
+        this.tweets = tweets;
+        int n = tweets.size();
+        int[] order = new int[n];
+        boolean sorted = true;
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            sorted &= i == 0 || compare(listSeconds, listNanos, i - 1, i) <= 0;
+        }
+        if (sorted) {
+            this.seconds = listSeconds;
+            this.nanos = listNanos;
+            this.buckets = null;
+            return;
+        }
+        mergeSort(order, new int[n], 0, n, listSeconds, listNanos);
+
+        this.seconds = new long[n];
+        this.nanos = new int[n];
+        for (int i = 0; i < n; i++) {
+            seconds[i] = listSeconds[order[i]];
+            nanos[i] = listNanos[order[i]];
+        }
+        this.buckets = new CompressedBitmap[(n + BUCKET_SIZE - 1) / BUCKET_SIZE];
+        for (int b = 0; b < buckets.length; b++) {
+            CompressedBitmap bucket = new CompressedBitmap();
+            for (int i = b * BUCKET_SIZE; i < Math.min(n, (b + 1) * BUCKET_SIZE); i++) {
+                bucket.add(order[i]);
+            }
+            bucket.runOptimize();
+            buckets[b] = bucket;
+        }
+    }
+
+    /**
+     * @return number of tweets in the index
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * Get the time period spanned by the tweets, as Extract.getTimespan(),
+     * in constant time.
+     *
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every tweet in the index; from the epoch to the epoch if there
+     *         are none.
+     */
+    public Timespan getTimespan() {
+        int n = seconds.length;
+        if (n == 0) {
+            return new Timespan(Instant.EPOCH, Instant.EPOCH);
+        }
+        return new Timespan(Instant.ofEpochSecond(seconds[0], nanos[0]),
+                Instant.ofEpochSecond(seconds[n - 1], nanos[n - 1]));
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return number of tweets sent during the timespan, in O(log n) time
+     */
+    public int count(Timespan timespan) {
+        return firstAfter(timespan.getEnd()) - firstAtOrAfter(timespan.getStart());
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, as
+     * Filter.inTimespan().
+     *
+     * @param timespan
+     *            timespan
+     * @return positions of all and only the tweets sent during the timespan,
+     *         in increasing order
+     */
+    public int[] positionsInTimespan(Timespan timespan) {
+        return postingsOf(timespan).toArray();
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, as
+     * Filter.inTimespan().
+     *
+     * @param timespan
+     *            timespan
+     * @return all and only the tweets in the index that were sent during the
+     *         timespan, in the same order as in the list the index was made from
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        CompressedBitmap found = postingsOf(timespan);
+        List<Tweet> result = new ArrayList<>(found.cardinality());
+        found.forEach(position -> result.add(tweets.get(position)));
+        return result;
+    }
+
+    /* Positions of the tweets sent during timespan. */
+    CompressedBitmap postingsOf(Timespan timespan) {
+        int from = firstAtOrAfter(timespan.getStart());
+        int to = firstAfter(timespan.getEnd());
+        if (from >= to) {
+            return new CompressedBitmap();
+        }
+        if (buckets == null) {
+            return CompressedBitmap.range(from, to);
+        }
+
+        int firstBucket = from / BUCKET_SIZE;
+        int lastBucket = (to - 1) / BUCKET_SIZE;
+        List<CompressedBitmap> parts = new ArrayList<>();
+        int fullFrom = from % BUCKET_SIZE == 0 ? firstBucket : firstBucket + 1;
+        int fullTo = to % BUCKET_SIZE == 0 || to == seconds.length ? lastBucket + 1 : lastBucket;
+        for (int b = fullFrom; b < fullTo; b++) {
+            parts.add(buckets[b]);
+        }
+        CompressedBitmap edges = new CompressedBitmap();
+        if (fullFrom > firstBucket) {
+            addSentDuring(buckets[firstBucket], timespan, edges);
+        }
+        if (fullTo <= lastBucket && lastBucket >= fullFrom) {
+            addSentDuring(buckets[lastBucket], timespan, edges);
+        }
+        parts.add(edges);
+        return CompressedBitmap.or(parts);
+    }
+
+    /* Adds to found the positions in bucket of tweets sent during timespan. */
+    private void addSentDuring(CompressedBitmap bucket, Timespan timespan, CompressedBitmap found) {
+        bucket.forEach(position -> {
+            Instant timestamp = tweets.get(position).getTimestamp();
+            if (!timestamp.isBefore(timespan.getStart()) && !timestamp.isAfter(timespan.getEnd())) {
+                found.add(position);
+            }
+        });
+    }
+
+    /* Returns the least i such that timestamp i >= instant, or size() if there is none. */
+    private int firstAtOrAfter(Instant instant) {
+        int low = 0;
+        int high = seconds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, instant) < 0) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /* Returns the least i such that timestamp i > instant, or size() if there is none. */
+    private int firstAfter(Instant instant) {
+        int low = 0;
+        int high = seconds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, instant) <= 0) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /* Compares timestamp i with instant. */
+    private int compare(int i, Instant instant) {
+        if (seconds[i] != instant.getEpochSecond()) {
+            return seconds[i] < instant.getEpochSecond() ? -1 : 1;
+        }
+        return Integer.compare(nanos[i], instant.getNano());
+    }
+
+    /* Epoch seconds of the timestamp of each tweet. */
+    private static long[] epochSeconds(List<Tweet> tweets) {
+        long[] seconds = new long[tweets.size()];
+        for (int i = 0; i < seconds.length; i++) {
+            seconds[i] = tweets.get(i).getTimestamp().getEpochSecond();
+        }
+        return seconds;
+    }
+
+    /* Nanoseconds of the timestamp of each tweet. */
+    private static int[] nanos(List<Tweet> tweets) {
+        int[] nanos = new int[tweets.size()];
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = tweets.get(i).getTimestamp().getNano();
+        }
+        return nanos;
+    }
+
+    /*
+     * Sorts order[from..to) by the timestamps (seconds, nanos) of its elements,
+     * keeping equal timestamps in their current order.
+     */
+    private static void mergeSort(int[] order, int[] scratch, int from, int to, long[] seconds, int[] nanos) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(order, scratch, from, middle, seconds, nanos);
+        mergeSort(order, scratch, middle, to, seconds, nanos);
+        if (compare(seconds, nanos, order[middle - 1], order[middle]) <= 0) {
+            return; // already in order
+        }
+        System.arraycopy(order, from, scratch, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compare(seconds, nanos, scratch[left], scratch[right]) <= 0)) {
+                order[i] = scratch[left++];
+            }
+            else {
+                order[i] = scratch[right++];
+            }
+        }
+    }
+
+    private static int compare(long[] seconds, int[] nanos, int a, int b) {
+        if (seconds[a] != seconds[b]) {
+            return seconds[a] < seconds[b] ? -1 : 1;
+        }
+        return Integer.compare(nanos[a], nanos[b]);
+    }
+}
@@ -0,0 +1,77 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.stream.Collector;
+
+/**
+ * TimespanAccumulator computes the time period spanned by tweets, as
+ * Extract.getTimespan(), in constant memory.
+ */
+public class TimespanAccumulator implements TweetAccumulator<Timespan, TimespanAccumulator> {
+
+    private Instant start = null;
+    private Instant end = null;
+    /* Rep invariant:
+     *    start and end are both null, or both non-null with start <= end
+     * Abstraction function:
+     *    represents the timestamps of the accumulated tweets, which all lie in [start..end]
+     *    and include start and end, or no tweets if start is null
+     */
+
+    /**
+     * Make an accumulator with no tweets.
+     */
+    public TimespanAccumulator() {
+    }
+
+    /**
+     * @return a collector that computes the timespan of the tweets of a stream
+     */
+    public static Collector<Tweet, TimespanAccumulator, Timespan> collector() {
+        return TweetAccumulator.collector(TimespanAccumulator::new);
+    }
+
+    @Override public void accept(Tweet tweet) {
+        add(tweet.getTimestamp(), tweet.getTimestamp());
+    }
+
+    @Override public void merge(TimespanAccumulator other) {
+        if (other.start != null) {
+            add(other.start, other.end);
+        }
+    }
+
+    /**
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every accumulated tweet, or an interval of length 0 if there are
+     *         none, as Extract.getTimespan().
+     */
+    @Override public Timespan result() {
+        if (start == null) {
+            return new Timespan(Instant.EPOCH, Instant.EPOCH);
+        }
+        return new Timespan(start, end);
+    }
+
+    /**
+     * @return true iff no tweets have been accumulated
+     */
+    public boolean isEmpty() {
+        return start == null;
+    }
+
+    private void add(Instant from, Instant to) {
+        if (start == null || from.isBefore(start)) {
+            start = from;
+        }
+        if (end == null || to.isAfter(end)) {
+            end = to;
+        }
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert (start == null) == (end == null);
+        assert start == null || !start.isAfter(end);
+    }
+}
@@ -0,0 +1,230 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * TopInfluencers finds the k users of a social network with the most
+ * followers, without sorting every user: follower counts are kept in an int
+ * array indexed by UsernameDictionary id, and the k best ids are selected with
+ * a bounded heap in O(n log k) time.
+ *
+ * Usernames are not case sensitive, so a user's follower count is the number
+ * of distinct users, ignoring case, who follow them in any spelling: a key
+ * that follows both "Bob" and "bob", or keys "Alyssa" and "alyssa" that both
+ * follow bob, count once. This is the in-degree of the same graph in CsrGraph
+ * form, so top(followsGraph, k) equals top(CsrGraph.fromMap(followsGraph), k).
+ * SocialNetwork.influencers() instead counts every entry of every set.
+ *
+ * Unlike SocialNetwork.influencers(), whose order among equal follower counts
+ * is unspecified, users with equal counts are ordered by lower-case username.
+ */
+public class TopInfluencers {
+
+    /**
+     * Find the k people in a social network who have the most followers.
+     *
+     * @param followsGraph
+     *            a social network as defined by SocialNetwork, not modified
+     *            by this method
+     * @param k
+     *            number of users to return, requires k >= 0
+     * @return the min(k, n) lower-case usernames with the most followers, of
+     *         the n distinct users in followsGraph, in descending order of
+     *         follower count and then in increasing order of username
+     * @throws IllegalArgumentException if k < 0
+     */
+    public static List<String> top(Map<String, Set<String>> followsGraph, int k) {
+        checkK(k);
+        // A dictionary of its own holds exactly the users of followsGraph
+        UsernameDictionary dictionary = new UsernameDictionary();
+        int[] counts = followerCounts(followsGraph, dictionary);
+        return select(counts, id -> true, dictionary, k);
+    }
+
+    /*
+     * Gives every user of followsGraph an id in dictionary, and returns an
+     * array of length dictionary.size() whose element i is the number of
+     * distinct users, ignoring case, who follow the user with id i.
+     */
+    static int[] followerCounts(Map<String, Set<String>> followsGraph, UsernameDictionary dictionary) {
+        List<Set<String>> follows = new ArrayList<>(followsGraph.size());
+        int[] followerIds = new int[followsGraph.size()];
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            followerIds[follows.size()] = dictionary.id(entry.getKey());
+            follows.add(entry.getValue());
+            for (String user : entry.getValue()) {
+                dictionary.id(user);
+            }
+        }
+        int n = dictionary.size();
+
+        // Counting sort of the keys by follower id, so that spellings of one user are adjacent
+        int[] starts = new int[n + 1];
+        for (int id : followerIds) {
+            starts[id + 1]++;
+        }
+        for (int id = 0; id < n; id++) {
+            starts[id + 1] += starts[id];
+        }
+        int[] order = new int[followerIds.length];
+        for (int i = 0; i < followerIds.length; i++) {
+            order[starts[followerIds[i]]++] = i;
+        }
+
+        // lastFollower[v] is the last follower id counted for v, so each pair counts once
+        int[] counts = new int[n];
+        int[] lastFollower = new int[n];
+        Arrays.fill(lastFollower, -1);
+        for (int i : order) {
+            for (String user : follows.get(i)) {
+                int id = dictionary.lookup(user);
+                if (lastFollower[id] != followerIds[i]) {
+                    lastFollower[id] = followerIds[i];
+                    counts[id]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Find the k people in a social network who have the most followers.
+     *
+     * @param graph
+     *            a social network
+     * @param k
+     *            number of users to return, requires k >= 0
+     * @return the min(k, n) lower-case usernames with the most followers, of
+     *         the n users in graph, in descending order of follower count and
+     *         then in increasing order of username
+     * @throws IllegalArgumentException if k < 0
+     */
+    public static List<String> top(CsrGraph graph, int k) {
+        return top(graph, k, false);
+    }
+
+    /**
+     * Find the k people in a social network who have the most followers.
+     *
+     * @param graph
+     *            a social network
+     * @param k
+     *            number of users to return, requires k >= 0
+     * @param parallel
+     *            true to count followers on all cores, for very large graphs
+     * @return the min(k, n) lower-case usernames with the most followers, of
+     *         the n users in graph, in descending order of follower count and
+     *         then in increasing order of username
+     * @throws IllegalArgumentException if k < 0
+     */
+    public static List<String> top(CsrGraph graph, int k, boolean parallel) {
+        checkK(k);
+        int[] counts = parallel ? graph.parallelFollowerCounts() : graph.followerCounts();
+        return select(counts, graph::isUser, graph.getDictionary(), k);
+    }
+
+    /*
+     * Returns the names of the k best ids i < counts.length with isUser(i),
+     * best first, best meaning the highest counts[i] and then the first name.
+     */
+    static List<String> select(int[] counts, IntPredicate isUser, UsernameDictionary dictionary, int k) {
+        return select(counts.length, isUser, dictionary, k, (a, b) -> counts[a] != counts[b]
+                ? counts[a] > counts[b]
+                : dictionary.name(a).compareTo(dictionary.name(b)) < 0);
+    }
+
+    /*
+     * Returns the names of the k best ids i < n with isUser(i), best first,
+     * as ranked by order.
+     */
+    static List<String> select(int n, IntPredicate isUser, UsernameDictionary dictionary, int k, IdOrder order) {
+        return select(n, isUser, dictionary::name, k, order);
+    }
+
+    /*
+     * Returns the names, given by name, of the k best ids i < n with
+     * isUser(i), best first, as ranked by order.
+     */
+    static List<String> select(int n, IntPredicate isUser, IntFunction<String> name, int k, IdOrder order) {
+        // Min-heap of the best ids seen so far, with the worst of them at the root
+        int[] heap = new int[Math.min(k, n)];
+        int size = 0;
+        for (int id = 0; id < n && heap.length > 0; id++) {
+            if (!isUser.test(id)) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = id;
+                siftUp(heap, size++, order);
+            }
+            else if (order.isBetter(id, heap[0])) {
+                heap[0] = id;
+                siftDown(heap, size, order);
+            }
+        }
+
+        // Remove the worst id repeatedly, filling the result from the end
+        String[] top = new String[size];
+        while (size > 0) {
+            top[size - 1] = name.apply(heap[0]);
+            heap[0] = heap[--size];
+            siftDown(heap, size, order);
+        }
+        return new ArrayList<>(Arrays.asList(top));
+    }
+
+    /**
+     * A strict total order of user ids, from best to worst.
+     */
+    interface IdOrder {
+        /**
+         * @return true iff the user with id a ranks before the user with id b
+         */
+        boolean isBetter(int a, int b);
+    }
+
+    private static void siftUp(int[] heap, int i, IdOrder order) {
+        int id = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!order.isBetter(heap[parent], id)) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = id;
+    }
+
+    private static void siftDown(int[] heap, int size, IdOrder order) {
+        if (size == 0) {
+            return;
+        }
+        int id = heap[0];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && order.isBetter(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!order.isBetter(id, heap[child])) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = id;
+    }
+
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package twitter;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * A TweetAccumulator incrementally computes a result from tweets that are
+ * given to it one at a time, so a feed of tweets can be summarized without
+ * holding all of its tweets in memory. Accumulators filled on different threads
+ * can be merged, and the result does not depend on the order of the tweets.
+ *
+ * Accumulators are mutable and not safe for use by multiple threads at once.
+ *
+ * @param <R>
+ *            type of the result
+ * @param <A>
+ *            type of the accumulator itself
+ */
+public interface TweetAccumulator<R, A extends TweetAccumulator<R, A>> extends Consumer<Tweet> {
+
+    /**
+     * Add a tweet to the accumulated tweets.
+     *
+     * @param tweet
+     *            tweet to add
+     */
+    @Override void accept(Tweet tweet);
+
+    /**
+     * Add the tweets accumulated by another accumulator to this one.
+     *
+     * @param other
+     *            accumulator to merge into this one, not modified by this
+     *            method. Requires other != this.
+     */
+    void merge(A other);
+
+    /**
+     * @return the result for all tweets accumulated so far, not shared with
+     *         this accumulator.
+     */
+    R result();
+
+    /**
+     * Add the remaining tweets of an iterator to the accumulated tweets.
+     *
+     * @param tweets
+     *            iterator over tweets to add, exhausted by this method
+     */
+    default void acceptAll(Iterator<Tweet> tweets) {
+        tweets.forEachRemaining(this);
+    }
+
+    /**
+     * Add the tweets of a stream to the accumulated tweets.
+     *
+     * @param tweets
+     *            stream of tweets to add, consumed by this method
+     */
+    default void acceptAll(Stream<Tweet> tweets) {
+        tweets.forEachOrdered(this);
+    }
+
+    /**
+     * Make a collector that accumulates the tweets of a (possibly parallel)
+     * stream, with one accumulator per split of the stream.
+     *
+     * @param supplier
+     *            makes new empty accumulators
+     * @return collector whose result is the result of the accumulated tweets
+     */
+    static <R, A extends TweetAccumulator<R, A>> Collector<Tweet, A, R> collector(Supplier<A> supplier) {
+        return Collector.of(supplier, A::accept, (left, right) -> {
+            left.merge(right);
+            return left;
+        }, A::result, Collector.Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,360 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TweetColumns is an append-only list of tweets stored as columns of
+ * primitive arrays (structure of arrays) rather than as Tweet objects, so that
+ * scans over millions of tweets read contiguous memory.
+ *
+ * Each tweet is kept as its id, epoch second and nanosecond, author id in a
+ * UsernameDictionary, and a span of one shared character arena holding all
+ * tweet texts. Tweets are rebuilt as Tweet objects only when asked for.
+ * TweetColumns is not safe for use by multiple threads while tweets are added.
+ */
+public class TweetColumns {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final UsernameDictionary dictionary;
+    private int size = 0;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] epochSeconds = new long[INITIAL_CAPACITY];
+    private int[] nanos = new int[INITIAL_CAPACITY];
+    private int[] authorIds = new int[INITIAL_CAPACITY];
+    private int[] textOffsets = new int[INITIAL_CAPACITY + 1];
+    private char[] texts = new char[INITIAL_CAPACITY * 64];
+    private final Map<Integer, String> authorSpellings = new HashMap<>();
+    /* Rep invariant:
+     *    0 <= size <= ids.length == epochSeconds.length == nanos.length == authorIds.length
+     *    textOffsets.length == ids.length + 1, textOffsets[0] == 0,
+     *        textOffsets[0..size] is nondecreasing and textOffsets[size] <= texts.length
+     *    for 0 <= i < size: 0 <= nanos[i] < 1e9, 0 <= authorIds[i] < dictionary.size()
+     *    every key of authorSpellings is in [0..size)
+     * Abstraction function:
+     *    represents the list of tweets t_0..t_size-1, where t_i has id ids[i],
+     *    timestamp epochSeconds[i] seconds + nanos[i] nanoseconds after the epoch,
+     *    text texts[textOffsets[i]..textOffsets[i+1]), and author
+     *    authorSpellings.get(i) if i is a key, else dictionary.displayName(authorIds[i])
+     */
+
+    /**
+     * Make an empty list of tweets with its own username dictionary.
+     */
+    public TweetColumns() {
+        this(new UsernameDictionary());
+    }
+
+    /**
+     * Make an empty list of tweets.
+     *
+     * @param dictionary
+     *            dictionary that assigns ids to the authors of the tweets;
+     *            it may be shared with other data structures.
+     */
+    public TweetColumns(UsernameDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Make a list of tweets in columns.
+     *
+     * @param tweets
+     *            tweets to store, not modified by this method
+     * @return a new TweetColumns holding the tweets in the same order
+     */
+    public static TweetColumns of(Iterable<Tweet> tweets) {
+        TweetColumns columns = new TweetColumns();
+        columns.addAll(tweets);
+        return columns;
+    }
+
+    /**
+     * Append a tweet.
+     *
+     * @param tweet
+     *            tweet to append
+     */
+    public void add(Tweet tweet) {
+        if (size == ids.length) {
+            grow();
+        }
+        String author = tweet.getAuthor();
+        String text = tweet.getText();
+        int authorId = dictionary.id(author);
+        int textStart = textOffsets[size];
+        if (texts.length - textStart < text.length()) {
+            long capacity = Math.max(2L * texts.length, (long) textStart + text.length());
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("tweet texts exceed the capacity of one arena");
+            }
+            texts = Arrays.copyOf(texts, (int) capacity);
+        }
+
+        ids[size] = tweet.getId();
+        epochSeconds[size] = tweet.getTimestamp().getEpochSecond();
+        nanos[size] = tweet.getTimestamp().getNano();
+        authorIds[size] = authorId;
+        text.getChars(0, text.length(), texts, textStart);
+        textOffsets[size + 1] = textStart + text.length();
+        if (!author.equals(dictionary.displayName(authorId))) {
+            authorSpellings.put(size, author);
+        }
+        size++;
+    }
+
+    /**
+     * Append tweets.
+     *
+     * @param tweets
+     *            tweets to append, in order
+     */
+    public void addAll(Iterable<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * @return number of tweets in this list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the dictionary that assigns ids to the authors of the tweets
+     */
+    public UsernameDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param i
+     *            position of a tweet, requires 0 <= i < size()
+     * @return id of the tweet at position i
+     */
+    public long getId(int i) {
+        checkPosition(i);
+        return ids[i];
+    }
+
+    /**
+     * @param i
+     *            position of a tweet, requires 0 <= i < size()
+     * @return timestamp of the tweet at position i
+     */
+    public Instant getTimestamp(int i) {
+        checkPosition(i);
+        return Instant.ofEpochSecond(epochSeconds[i], nanos[i]);
+    }
+
+    /**
+     * @param i
+     *            position of a tweet, requires 0 <= i < size()
+     * @return id in getDictionary() of the author of the tweet at position i
+     */
+    public int getAuthorId(int i) {
+        checkPosition(i);
+        return authorIds[i];
+    }
+
+    /**
+     * @param i
+     *            position of a tweet, requires 0 <= i < size()
+     * @return author of the tweet at position i, spelled as in the tweet
+     */
+    public String getAuthor(int i) {
+        checkPosition(i);
+        String spelling = authorSpellings.get(i);
+        return spelling != null ? spelling : dictionary.displayName(authorIds[i]);
+    }
+
+    /**
+     * @param i
+     *            position of a tweet, requires 0 <= i < size()
+     * @return text of the tweet at position i
+     */
+    public String getText(int i) {
+        checkPosition(i);
+        return new String(texts, textOffsets[i], textOffsets[i + 1] - textOffsets[i]);
+    }
+
+    /**
+     * @param i
+     *            position of a tweet, requires 0 <= i < size()
+     * @return the tweet at position i
+     */
+    public Tweet get(int i) {
+        return new Tweet(getId(i), getAuthor(i), getText(i), getTimestamp(i));
+    }
+
+    /**
+     * @return a new list of the tweets in this list, in the same order
+     */
+    public List<Tweet> toList() {
+        return new ArrayList<>(asList());
+    }
+
+    /**
+     * @return a read-only list view of the tweets, which makes a Tweet object
+     *         each time an element is read; it reflects tweets appended later.
+     */
+    public List<Tweet> asList() {
+        return new AbstractList<Tweet>() {
+            @Override public Tweet get(int index) {
+                return TweetColumns.this.get(index);
+            }
+
+            @Override public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Get the time period spanned by the tweets, as Extract.getTimespan().
+     *
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every tweet in this list.
+     */
+    public Timespan getTimespan() {
+        if (size == 0) {
+            return new Timespan(Instant.EPOCH, Instant.EPOCH);
+        }
+
+        int first = 0;
+        int last = 0;
+        for (int i = 1; i < size; i++) {
+            if (compareTime(i, epochSeconds[first], nanos[first]) < 0) {
+                first = i;
+            }
+            else if (compareTime(i, epochSeconds[last], nanos[last]) > 0) {
+                last = i;
+            }
+        }
+        return new Timespan(getTimestamp(first), getTimestamp(last));
+    }
+
+    /**
+     * Find tweets written by a particular user, as Filter.writtenBy().
+     *
+     * @param username
+     *            Twitter username
+     * @return positions of all and only the tweets whose author is username,
+     *         in increasing order.
+     */
+    public int[] positionsWrittenBy(String username) {
+        int authorId = dictionary.lookup(username);
+        if (authorId < 0) {
+            return new int[0];
+        }
+
+        int[] positions = new int[INITIAL_CAPACITY];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (authorIds[i] == authorId) {
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, 2 * count);
+                }
+                positions[count++] = i;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Find tweets written by a particular user, as Filter.writtenBy().
+     *
+     * @param username
+     *            Twitter username
+     * @return all and only the tweets in this list whose author is username,
+     *         in the same order as in this list.
+     */
+    public List<Tweet> writtenBy(String username) {
+        return tweetsAt(positionsWrittenBy(username));
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, as
+     * Filter.inTimespan().
+     *
+     * @param timespan
+     *            timespan
+     * @return positions of all and only the tweets that were sent during the
+     *         timespan, in increasing order.
+     */
+    public int[] positionsInTimespan(Timespan timespan) {
+        long startSecond = timespan.getStart().getEpochSecond();
+        int startNano = timespan.getStart().getNano();
+        long endSecond = timespan.getEnd().getEpochSecond();
+        int endNano = timespan.getEnd().getNano();
+
+        int[] positions = new int[INITIAL_CAPACITY];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (compareTime(i, startSecond, startNano) >= 0 && compareTime(i, endSecond, endNano) <= 0) {
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, 2 * count);
+                }
+                positions[count++] = i;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, as
+     * Filter.inTimespan().
+     *
+     * @param timespan
+     *            timespan
+     * @return all and only the tweets in this list that were sent during the
+     *         timespan, in the same order as in this list.
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        return tweetsAt(positionsInTimespan(timespan));
+    }
+
+    /**
+     * @param positions
+     *            positions of tweets in this list
+     * @return the tweets at those positions, in the same order
+     */
+    public List<Tweet> tweetsAt(int[] positions) {
+        List<Tweet> tweets = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            tweets.add(get(position));
+        }
+        return tweets;
+    }
+
+    /* Compares the timestamp of tweet i with second + nano. */
+    private int compareTime(int i, long second, int nano) {
+        if (epochSeconds[i] != second) {
+            return epochSeconds[i] < second ? -1 : 1;
+        }
+        return Integer.compare(nanos[i], nano);
+    }
+
+    private void checkPosition(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("no tweet at position " + i);
+        }
+    }
+
+    private void grow() {
+        int capacity = 2 * ids.length;
+        ids = Arrays.copyOf(ids, capacity);
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        nanos = Arrays.copyOf(nanos, capacity);
+        authorIds = Arrays.copyOf(authorIds, capacity);
+        textOffsets = Arrays.copyOf(textOffsets, capacity + 1);
+    }
+}
@@ -0,0 +1,285 @@
+package twitter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * TweetGenerator is an endless, reproducible source of synthetic tweets shaped
+ * like real traffic, for load tests and benchmarks. Tweets are made one at a
+ * time, so any number of them can be generated without holding them in memory.
+ *
+ * Authors, mentioned users and hashtags follow a Zipf distribution, so a few
+ * users and hashtags are very popular and most are rare. Timestamps are
+ * nondecreasing and arrive in bursts: the generator switches between a normal
+ * rate and a rate BURST_FACTOR times higher. Texts are at most 140 characters
+ * of words, mentions (sometimes in different case or followed by punctuation),
+ * hashtags, and email addresses such as user12@mit.edu that must not count as
+ * mentions. Two generators made with the same arguments make the same tweets.
+ */
+public class TweetGenerator implements Iterator<Tweet> {
+
+    /** Ratio of the tweet rate during a burst to the normal tweet rate. */
+    public static final double BURST_FACTOR = 20;
+
+    private static final Instant DEFAULT_START = Instant.parse("2016-02-17T10:00:00Z");
+    private static final int MAX_TEXT_LENGTH = 140;
+    private static final double ENTER_BURST_PROBABILITY = 0.0005;
+    private static final double LEAVE_BURST_PROBABILITY = 0.01;
+    private static final String[] WORDS = {
+        "the", "to", "a", "is", "in", "of", "and", "rivest", "talk", "minutes", "so", "much", "reasonable",
+        "love", "you", "great", "today", "see", "later", "what", "are", "about", "new", "lecture", "problem",
+        "set", "due", "tonight", "coffee", "6.005", "java", "tests", "pass", "fail", "RT", "lol", "wow", "yes"
+    };
+    private static final String[] PUNCTUATION = { ",", ".", ":", ";", "!", "?" };
+    private static final String[] DOMAINS = { "mit.edu", "example.com", "gmail.com" };
+
+    private final SplittableRandom random;
+    private final ZipfSampler users;
+    private final ZipfSampler hashtags;
+    private final ZipfSampler words;
+    private final double tweetsPerSecond;
+    private long nextId;
+    private long epochMillis;
+    private boolean burst = false;
+    /* Rep invariant:
+     *    tweetsPerSecond > 0
+     * Abstraction function:
+     *    represents the endless sequence of tweets drawn from random, the next
+     *    of which has id nextId and is sent no earlier than epochMillis
+     */
+
+    /**
+     * Make a generator of tweets starting at 2016-02-17T10:00:00Z with id 0.
+     *
+     * @param seed
+     *            seed of the random choices
+     * @param userCount
+     *            number of distinct users who write and are mentioned in
+     *            tweets, requires > 0
+     * @param skew
+     *            exponent of the Zipf distribution of users and hashtags,
+     *            requires > 0; about 1 for real traffic, larger is more skewed
+     * @param tweetsPerSecond
+     *            average rate of tweets outside bursts, requires > 0
+     */
+    public TweetGenerator(long seed, int userCount, double skew, double tweetsPerSecond) {
+        this(seed, userCount, skew, tweetsPerSecond, DEFAULT_START, 0);
+    }
+
+    /**
+     * Make a generator of tweets.
+     *
+     * @param seed
+     *            seed of the random choices
+     * @param userCount
+     *            number of distinct users who write and are mentioned in
+     *            tweets, requires > 0
+     * @param skew
+     *            exponent of the Zipf distribution of users and hashtags,
+     *            requires > 0; about 1 for real traffic, larger is more skewed
+     * @param tweetsPerSecond
+     *            average rate of tweets outside bursts, requires > 0
+     * @param start
+     *            time of the first tweet
+     * @param firstId
+     *            id of the first tweet; later tweets have consecutive ids
+     */
+    public TweetGenerator(long seed, int userCount, double skew, double tweetsPerSecond, Instant start,
+            long firstId) {
+        if (userCount <= 0 || skew <= 0 || tweetsPerSecond <= 0) {
+            throw new IllegalArgumentException("requires userCount, skew and tweetsPerSecond > 0");
+        }
+        this.random = new SplittableRandom(seed);
+        this.users = new ZipfSampler(userCount, skew);
+        this.hashtags = new ZipfSampler(Math.max(10, userCount / 10), skew);
+        this.words = new ZipfSampler(WORDS.length, 1.0);
+        this.tweetsPerSecond = tweetsPerSecond;
+        this.nextId = firstId;
+        this.epochMillis = start.toEpochMilli();
+    }
+
+    /**
+     * @param rank
+     *            rank of a user by popularity, 1 for the most popular
+     * @return the username of that user
+     */
+    public static String username(int rank) {
+        return "user" + rank;
+    }
+
+    /**
+     * @return true; the sequence of tweets is endless
+     */
+    @Override public boolean hasNext() {
+        return true;
+    }
+
+    /**
+     * @return the next tweet
+     */
+    @Override public Tweet next() {
+        if (random.nextDouble() < (burst ? LEAVE_BURST_PROBABILITY : ENTER_BURST_PROBABILITY)) {
+            burst = !burst;
+        }
+        double rate = burst ? tweetsPerSecond * BURST_FACTOR : tweetsPerSecond;
+        double waitSeconds = -Math.log(1 - random.nextDouble()) / rate; // exponential inter-arrival time
+        epochMillis += Math.round(waitSeconds * 1000);
+
+        String author = username(users.sample(random));
+        return new Tweet(nextId++, author, nextText(), Instant.ofEpochMilli(epochMillis));
+    }
+
+    /**
+     * @return an endless sequential stream of the tweets of this generator;
+     *         use limit() to bound it. Tweets taken from the stream are no
+     *         longer returned by next().
+     */
+    public Stream<Tweet> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+    }
+
+    /**
+     * Write the next tweets of this generator to a file, one JSON object per
+     * line, in the format of TweetJson.
+     *
+     * @param file
+     *            file to write, replaced if it exists
+     * @param count
+     *            number of tweets to write
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void writeJsonLines(Path file, long count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder(256);
+            for (long i = 0; i < count; i++) {
+                line.setLength(0);
+                TweetJson.append(next(), line);
+                line.append('\n');
+                writer.append(line);
+            }
+        }
+    }
+
+    private String nextText() {
+        int length = 20 + random.nextInt(MAX_TEXT_LENGTH - 20 + 1);
+        StringBuilder text = new StringBuilder(MAX_TEXT_LENGTH);
+        while (true) {
+            String token = nextToken();
+            int needed = text.length() == 0 ? token.length() : token.length() + 1;
+            if (text.length() > 0 && text.length() + needed > length) {
+                return text.toString(); // the first token is always kept, so no text is empty
+            }
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(token);
+        }
+    }
+
+    private String nextToken() {
+        int kind = random.nextInt(100);
+        if (kind < 10) {
+            String mention = "@" + username(users.sample(random));
+            if (random.nextInt(8) == 0) {
+                mention = mention.toUpperCase(Locale.ROOT);
+            }
+            if (random.nextInt(4) == 0) {
+                mention += PUNCTUATION[random.nextInt(PUNCTUATION.length)];
+            }
+            return mention;
+        }
+        else if (kind < 13) {
+            return username(users.sample(random)) + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+        }
+        else if (kind < 20) {
+            return "#tag" + hashtags.sample(random);
+        }
+        return WORDS[words.sample(random) - 1];
+    }
+
+    /**
+     * Samples integers 1..n with probability proportional to 1/k^exponent, in
+     * constant time and memory, by rejection-inversion (Hormann and Derflinger,
+     * "Rejection-inversion to generate variates from monotone discrete
+     * distributions", 1996).
+     */
+    private static class ZipfSampler {
+
+        private final int n;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double s;
+
+        ZipfSampler(int n, double exponent) {
+            this.n = n;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1;
+            this.hIntegralN = hIntegral(n + 0.5);
+            this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+        }
+
+        int sample(SplittableRandom random) {
+            while (true) {
+                double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInverse(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                }
+                else if (k > n) {
+                    k = n;
+                }
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1 - exponent) * logX) * logX;
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = x * (1 - exponent);
+            if (t < -1) {
+                t = -1;
+            }
+            return Math.exp(helper1(t) * x);
+        }
+
+        /* log(1 + x) / x, accurate near 0 */
+        private static double helper1(double x) {
+            if (Math.abs(x) > 1e-8) {
+                return Math.log1p(x) / x;
+            }
+            return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+        }
+
+        /* (exp(x) - 1) / x, accurate near 0 */
+        private static double helper2(double x) {
+            if (Math.abs(x) > 1e-8) {
+                return Math.expm1(x) / x;
+            }
+            return 1 + x * 0.5 * (1 + x * (1.0 / 3) * (1 + 0.25 * x));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TweetIndex indexes a list of tweets by author, timestamp, word,
+ * username-mention and hashtag, built once and then queried any number of
+ * times with Query.
+ *
+ * Authors, timestamps and words are indexed by AuthorIndex, TimeIndex and
+ * WordIndex. Mentions are indexed by lower-case username, as defined by
+ * Extract.getMentionedUsers(); hashtags are indexed exactly as written, as
+ * defined by SocialNetwork.guessFollowsGraph().
+ * A TweetIndex is immutable and safe for use by multiple threads.
+ */
+public class TweetIndex {
+
+    private static final CompressedBitmap NO_POSITIONS = new CompressedBitmap();
+
+    private final List<Tweet> tweets;
+    private final AuthorIndex authors;
+    private final TimeIndex times;
+    private final WordIndex words;
+    private final Map<String, CompressedBitmap> mentions;
+    private final Map<String, CompressedBitmap> hashtags;
+    /* Rep invariant:
+     *    authors, times and words index tweets
+     *    every key of mentions is a lower-case username, and every key of
+     *        hashtags is a word that starts with "#"
+     *    every value of mentions and hashtags is nonempty, with elements in
+     *        [0..tweets.size())
+     *    i is in mentions.get(u) iff tweets.get(i) mentions u, and i is in
+     *        hashtags.get(h) iff tweets.get(i) has hashtag h
+     * Abstraction function:
+     *    represents the index of tweets
+     * Thread safety argument:
+     *    all fields and bitmaps are never modified after construction, the
+     *    component indexes are threadsafe, and posting lists are never
+     *    returned to clients
+     */
+
+    /**
+     * Make an index of tweets, with its own username dictionary.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method; the index
+     *            keeps a copy of the list
+     */
+    public TweetIndex(List<Tweet> tweets) {
+        this(tweets, new UsernameDictionary());
+    }
+
+    /**
+     * Make an index of tweets.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method; the index
+     *            keeps a copy of the list
+     * @param dictionary
+     *            dictionary that assigns ids to the authors of the tweets;
+     *            it may be shared with other data structures.
+     */
+    public TweetIndex(List<Tweet> tweets, UsernameDictionary dictionary) {
+        // One copy of the list, shared by the component indexes, and one pass over it
+        this.tweets = new ArrayList<>(tweets);
+        int n = this.tweets.size();
+        long[] seconds = new long[n];
+        int[] nanos = new int[n];
+        Map<String, CompressedBitmap> words = new HashMap<>();
+        this.mentions = new HashMap<>();
+        this.hashtags = new HashMap<>();
+        TokenCollector collector = new TokenCollector(words, mentions, hashtags);
+        for (int i = 0; i < n; i++) {
+            Tweet tweet = this.tweets.get(i);
+            seconds[i] = tweet.getTimestamp().getEpochSecond();
+            nanos[i] = tweet.getTimestamp().getNano();
+            collector.position = i;
+            TweetTokenizer.tokenize(tweet.getText(), collector);
+        }
+        words.values().forEach(CompressedBitmap::runOptimize);
+        mentions.values().forEach(CompressedBitmap::runOptimize);
+        hashtags.values().forEach(CompressedBitmap::runOptimize);
+
+        this.authors = new AuthorIndex(this.tweets, dictionary, UserIds.authorIds(this.tweets, dictionary));
+        this.times = new TimeIndex(this.tweets, seconds, nanos);
+        this.words = new WordIndex(this.tweets, words);
+    }
+
+    /**
+     * @return number of tweets in the index
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @param position
+     *            position of a tweet, requires 0 <= position < size()
+     * @return the tweet at that position in the list the index was made from
+     */
+    public Tweet get(int position) {
+        return tweets.get(position);
+    }
+
+    /**
+     * @return the index of the authors of the tweets
+     */
+    public AuthorIndex getAuthorIndex() {
+        return authors;
+    }
+
+    /**
+     * @return the index of the timestamps of the tweets
+     */
+    public TimeIndex getTimeIndex() {
+        return times;
+    }
+
+    /**
+     * @return the index of the words of the tweets
+     */
+    public WordIndex getWordIndex() {
+        return words;
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return number of tweets that mention username
+     */
+    public int mentionCount(String username) {
+        return mentionPostings(username).cardinality();
+    }
+
+    /**
+     * Find tweets that mention a user.
+     *
+     * @param username
+     *            Twitter username
+     * @return positions of all and only the tweets that mention username, as
+     *         defined by Extract.getMentionedUsers(), in increasing order
+     */
+    public int[] positionsMentioning(String username) {
+        return mentionPostings(username).toArray();
+    }
+
+    /**
+     * @param hashtag
+     *            a word that starts with "#"
+     * @return number of tweets that have hashtag
+     */
+    public int hashtagCount(String hashtag) {
+        return hashtagPostings(hashtag).cardinality();
+    }
+
+    /**
+     * Find tweets that have a hashtag.
+     *
+     * @param hashtag
+     *            a word that starts with "#"
+     * @return positions of all and only the tweets that have hashtag as a
+     *         word, case-sensitively, in increasing order
+     */
+    public int[] positionsWithHashtag(String hashtag) {
+        return hashtagPostings(hashtag).toArray();
+    }
+
+    /**
+     * Find tweets that match a query.
+     *
+     * @param query
+     *            a query
+     * @return positions of all and only the tweets that match query, in
+     *         increasing order
+     */
+    public int[] positions(Query query) {
+        return query.evaluate(this).toArray();
+    }
+
+    /**
+     * Find tweets that match a query.
+     *
+     * @param query
+     *            a query
+     * @return all and only the tweets in the index that match query, in the
+     *         same order as in the list the index was made from
+     */
+    public List<Tweet> query(Query query) {
+        CompressedBitmap found = query.evaluate(this);
+        List<Tweet> result = new ArrayList<>(found.cardinality());
+        found.forEach(position -> result.add(tweets.get(position)));
+        return result;
+    }
+
+    /**
+     * Estimate the number of tweets that match a query, from the sizes of
+     * posting lists, without evaluating it.
+     *
+     * @param query
+     *            a query
+     * @return an estimate of the number of matching tweets, between 0 and size()
+     */
+    public int estimate(Query query) {
+        return query.estimate(this);
+    }
+
+    /* Posting list of username, not to be modified. */
+    CompressedBitmap mentionPostings(String username) {
+        CompressedBitmap list = mentions.get(MentionScanner.toLowerCase(username, 0, username.length()));
+        return list != null ? list : NO_POSITIONS;
+    }
+
+    /* Posting list of hashtag, not to be modified. */
+    CompressedBitmap hashtagPostings(String hashtag) {
+        CompressedBitmap list = hashtags.get(hashtag);
+        return list != null ? list : NO_POSITIONS;
+    }
+
+    /**
+     * Adds the position of a tweet to the posting lists of its words, mentions
+     * and hashtags.
+     */
+    private static class TokenCollector implements TweetTokenizer.Listener {
+
+        private final Map<String, CompressedBitmap> words;
+        private final Map<String, CompressedBitmap> mentions;
+        private final Map<String, CompressedBitmap> hashtags;
+        private int position = 0;
+
+        TokenCollector(Map<String, CompressedBitmap> words, Map<String, CompressedBitmap> mentions,
+                Map<String, CompressedBitmap> hashtags) {
+            this.words = words;
+            this.mentions = mentions;
+            this.hashtags = hashtags;
+        }
+
+        @Override public void word(String text, int start, int end) {
+            WordIndex.add(words, text, start, end, position);
+        }
+
+        @Override public void mention(String text, int start, int end) {
+            mentions.computeIfAbsent(MentionScanner.toLowerCase(text, start, end), user -> new CompressedBitmap())
+                    .add(position);
+        }
+
+        @Override public void hashtag(String text, int start, int end) {
+            hashtags.computeIfAbsent(text.substring(start, end), tag -> new CompressedBitmap()).add(position);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * TweetJson converts tweets to and from the JSON representation used in tweet
+ * dump files, one object per tweet:
+ *
+ *     {"id":1,"author":"alyssa","text":"...","timestamp":"2016-02-17T10:00:00Z"}
+ *
+ * where timestamp is in the ISO-8601 format of Instant.toString(). When
+ * parsing, "username" is accepted for "author", a number of milliseconds since
+ * the epoch is accepted for timestamp, and other fields are ignored.
+ */
+public class TweetJson {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * @param tweet
+     *            a tweet
+     * @return the JSON representation of tweet, on one line
+     */
+    public static String toJson(Tweet tweet) {
+        StringBuilder json = new StringBuilder(64 + tweet.getText().length());
+        append(tweet, json);
+        return json.toString();
+    }
+
+    /**
+     * Append the JSON representation of a tweet, on one line.
+     *
+     * @param tweet
+     *            a tweet
+     * @param json
+     *            builder to append to
+     */
+    public static void append(Tweet tweet, StringBuilder json) {
+        json.append("{\"id\":").append(tweet.getId()).append(",\"author\":");
+        appendString(tweet.getAuthor(), json);
+        json.append(",\"text\":");
+        appendString(tweet.getText(), json);
+        json.append(",\"timestamp\":\"").append(tweet.getTimestamp()).append("\"}");
+    }
+
+    /**
+     * Parse the JSON representation of a tweet.
+     *
+     * @param json
+     *            a JSON object with the fields of a tweet
+     * @return the tweet
+     * @throws IllegalArgumentException
+     *             if json is not a JSON object with the fields of a tweet
+     */
+    public static Tweet parse(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        Parser parser = new Parser(ByteBuffer.wrap(bytes), 0, bytes.length);
+        parser.skipWhitespace();
+        Tweet tweet = parser.readTweet();
+        parser.skipWhitespace();
+        if (parser.hasRemaining()) {
+            throw parser.error("unexpected text after tweet");
+        }
+        return tweet;
+    }
+
+    private static void appendString(String value, StringBuilder json) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xf]);
+                }
+                else {
+                    json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Parser reads tweets from UTF-8 encoded JSON in bytes[position..limit) of
+     * a buffer, without copying the buffer. It reads bytes by absolute index,
+     * so the buffer's own position and limit are not used or changed.
+     */
+    static class Parser {
+
+        private final ByteBuffer bytes;
+        private int position;
+        private int limit;
+        private byte[] scratch = new byte[256];
+        private final StringBuilder chars = new StringBuilder();
+
+        /**
+         * Make a parser of bytes[position..limit).
+         */
+        Parser(ByteBuffer bytes, int position, int limit) {
+            this.bytes = bytes;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        /**
+         * Continue parsing at another range of the same buffer.
+         */
+        void reset(int position, int limit) {
+            this.position = position;
+            this.limit = limit;
+        }
+
+        /**
+         * @return the buffer this parser reads
+         */
+        ByteBuffer bytes() {
+            return bytes;
+        }
+
+        /**
+         * @return true iff there are bytes left to parse
+         */
+        boolean hasRemaining() {
+            return position < limit;
+        }
+
+        /**
+         * Skip whitespace, and the brackets and commas of a JSON array of
+         * tweets.
+         *
+         * @return true iff there are bytes left after the skipped ones
+         */
+        boolean skipSeparators() {
+            while (position < limit) {
+                byte b = bytes.get(position);
+                if (b == '[' || b == ']' || b == ',' || isWhitespace(b)) {
+                    position++;
+                }
+                else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (position < limit && isWhitespace(bytes.get(position))) {
+                position++;
+            }
+        }
+
+        /**
+         * Read a JSON object with the fields of a tweet.
+         *
+         * @return the tweet
+         * @throws IllegalArgumentException
+         *             if the next bytes are not a JSON object with the fields
+         *             of a tweet
+         */
+        Tweet readTweet() {
+            long id = 0;
+            boolean hasId = false;
+            String author = null;
+            String text = null;
+            Instant timestamp = null;
+
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+            }
+            else {
+                while (true) {
+                    skipWhitespace();
+                    String field = readString();
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    switch (field) {
+                    case "id":
+                        id = readLong();
+                        hasId = true;
+                        break;
+                    case "author":
+                    case "username":
+                        author = readString();
+                        break;
+                    case "text":
+                        text = readString();
+                        break;
+                    case "timestamp":
+                        timestamp = readTimestamp();
+                        break;
+                    default:
+                        skipValue();
+                    }
+                    skipWhitespace();
+                    byte next = next();
+                    if (next == '}') {
+                        break;
+                    }
+                    if (next != ',') {
+                        position--;
+                        throw error("expected ',' or '}'");
+                    }
+                }
+            }
+
+            if (!hasId || author == null || text == null || timestamp == null) {
+                throw error("tweet needs id, author, text and timestamp");
+            }
+            return new Tweet(id, author, text, timestamp);
+        }
+
+        /**
+         * @return an IllegalArgumentException describing a syntax error at
+         *         the current position
+         */
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at byte " + position);
+        }
+
+        private Instant readTimestamp() {
+            if (peek() != '"') {
+                return Instant.ofEpochMilli(readLong());
+            }
+            String timestamp = readString();
+            try {
+                return Instant.parse(timestamp);
+            } catch (DateTimeParseException e) {
+                throw error("invalid timestamp \"" + timestamp + "\"");
+            }
+        }
+
+        private long readLong() {
+            int start = position;
+            boolean negative = peek() == '-';
+            if (negative) {
+                position++;
+            }
+            long value = 0;
+            while (position < limit && bytes.get(position) >= '0' && bytes.get(position) <= '9') {
+                int digit = bytes.get(position) - '0';
+                if (value > (Long.MAX_VALUE - digit) / 10) {
+                    throw error("number too large");
+                }
+                value = 10 * value + digit;
+                position++;
+            }
+            if (position == start + (negative ? 1 : 0)) {
+                throw error("expected a number");
+            }
+            if (position < limit && (bytes.get(position) == '.' || bytes.get(position) == 'e'
+                    || bytes.get(position) == 'E')) {
+                throw error("expected an integer");
+            }
+            return negative ? -value : value;
+        }
+
+        private String readString() {
+            expect('"');
+            chars.setLength(0);
+            int start = position;
+            while (true) {
+                if (position >= limit) {
+                    throw error("unterminated string");
+                }
+                byte b = bytes.get(position);
+                if (b == '"') {
+                    appendUtf8(start, position);
+                    position++;
+                    return chars.toString();
+                }
+                if (b == '\\') {
+                    appendUtf8(start, position);
+                    position++;
+                    chars.append(readEscape());
+                    start = position;
+                }
+                else {
+                    position++;
+                }
+            }
+        }
+
+        private char readEscape() {
+            byte b = next();
+            switch (b) {
+            case '"':
+                return '"';
+            case '\\':
+                return '\\';
+            case '/':
+                return '/';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) {
+                        position--;
+                        throw error("invalid \\u escape");
+                    }
+                    code = 16 * code + digit;
+                }
+                return (char) code;
+            default:
+                position--;
+                throw error("invalid escape");
+            }
+        }
+
+        /* Appends the UTF-8 decoding of bytes[from..to) to chars. */
+        private void appendUtf8(int from, int to) {
+            int length = to - from;
+            if (length == 0) {
+                return;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, 2 * scratch.length)];
+            }
+            for (int i = 0; i < length; i++) {
+                scratch[i] = bytes.get(from + i);
+            }
+            chars.append(new String(scratch, 0, length, StandardCharsets.UTF_8));
+        }
+
+        private void skipValue() {
+            byte b = peek();
+            if (b == '"') {
+                readString();
+            }
+            else if (b == '{' || b == '[') {
+                byte close = b == '{' ? (byte) '}' : (byte) ']';
+                position++;
+                skipWhitespace();
+                if (peek() == close) {
+                    position++;
+                    return;
+                }
+                while (true) {
+                    skipWhitespace();
+                    if (b == '{') {
+                        readString();
+                        skipWhitespace();
+                        expect(':');
+                        skipWhitespace();
+                    }
+                    skipValue();
+                    skipWhitespace();
+                    byte next = next();
+                    if (next == close) {
+                        return;
+                    }
+                    if (next != ',') {
+                        position--;
+                        throw error("expected ',' or '" + (char) close + "'");
+                    }
+                }
+            }
+            else {
+                // number, true, false or null
+                int start = position;
+                while (position < limit && isLiteralByte(bytes.get(position))) {
+                    position++;
+                }
+                if (position == start) {
+                    throw error("expected a value");
+                }
+            }
+        }
+
+        private byte peek() {
+            if (position >= limit) {
+                throw error("unexpected end of input");
+            }
+            return bytes.get(position);
+        }
+
+        private byte next() {
+            byte b = peek();
+            position++;
+            return b;
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("expected '" + c + "'");
+            }
+            position++;
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+        }
+
+        private static boolean isLiteralByte(byte b) {
+            return (b >= '0' && b <= '9') || (b >= 'a' && b <= 'z') || b == '-' || b == '+' || b == '.' || b == 'E';
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package twitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read tweets from files or from a web server. Uses a simplified representation
+ * for tweets (with fewer fields than the Twitter API).
+ *
+ * Tweet dump files are read incrementally through memory mappings of the file,
+ * as a stream of tweets rather than a list, so files much larger than the heap
+ * can be read. A file holds one tweet per line, in one of two formats:
+ *   - JSON_LINES: one JSON object per line, as written by TweetJson
+ *   - CSV: the fields id,author,timestamp,text per line, where timestamp is in
+ *     ISO-8601 format; fields that contain commas or quotes are enclosed in
+ *     double quotes, with quotes doubled, and an unquoted text field extends to
+ *     the end of the line. A first line starting with "id," is a header.
+ * Line breaks inside a tweet text must be escaped, since a file is split
+ * at line breaks to parse it in parallel.
+ */
+public class TweetReader {
+
+    /**
+     * Format of a tweet dump file.
+     */
+    public enum Format { JSON_LINES, CSV }
+
+    /* Largest number of bytes mapped at once; a mapping can't exceed 2 GB. */
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 30;
+    /* Smallest part of a chunk that a parallel stream splits in two. */
+    private static final int MIN_SPLIT_BYTES = 1 << 16;
+    /* Rough size of a tweet record, to estimate the number of tweets in a split. */
+    private static final int ESTIMATED_RECORD_BYTES = 200;
+
+    /**
+     * Get a list of tweets from a web server.
+     *
+     * @param url URL of server to retrieve tweets from; the server responds
+     *            with a JSON array of tweets, or with JSON objects one per line
+     * @return a list of tweets retrieved from the server.
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     or some other network-related error occurs.
+     */
+    public static List<Tweet> readTweetsFromWeb(URL url) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = url.openStream()) {
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                body.write(buffer, 0, read);
+            }
+        }
+
+        byte[] bytes = body.toByteArray();
+        TweetJson.Parser parser = new TweetJson.Parser(ByteBuffer.wrap(bytes), 0, bytes.length);
+        List<Tweet> tweets = new ArrayList<>();
+        try {
+            while (parser.skipSeparators()) {
+                tweets.add(parser.readTweet());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("malformed tweets from " + url + ": " + e.getMessage(), e);
+        }
+        return tweets;
+    }
+
+    /**
+     * Read the tweets of a dump file, in CSV format if the file name ends in
+     * ".csv" and in JSON_LINES format otherwise.
+     *
+     * @param file
+     *            tweet dump file
+     * @return a stream of the tweets in the file, in file order; it can be
+     *         made parallel, splitting the file at line breaks. A malformed
+     *         line makes the stream throw IllegalArgumentException.
+     * @throws IOException
+     *             if the file cannot be opened or mapped
+     */
+    public static Stream<Tweet> readTweets(Path file) throws IOException {
+        boolean csv = file.getFileName().toString().toLowerCase().endsWith(".csv");
+        return readTweets(file, csv ? Format.CSV : Format.JSON_LINES);
+    }
+
+    /**
+     * Read the tweets of a dump file.
+     *
+     * @param file
+     *            tweet dump file
+     * @param format
+     *            format of the file
+     * @return a stream of the tweets in the file, in file order; it can be
+     *         made parallel, splitting the file at line breaks. A malformed
+     *         line makes the stream throw IllegalArgumentException.
+     * @throws IOException
+     *             if the file cannot be opened or mapped
+     */
+    public static Stream<Tweet> readTweets(Path file, Format format) throws IOException {
+        return readTweets(file, format, DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * Read the tweets of a dump file.
+     *
+     * @param file
+     *            tweet dump file
+     * @param format
+     *            format of the file
+     * @return an iterator over the tweets in the file, in file order. A
+     *         malformed line makes the iterator throw IllegalArgumentException.
+     * @throws IOException
+     *             if the file cannot be opened or mapped
+     */
+    public static Iterator<Tweet> iterator(Path file, Format format) throws IOException {
+        return Spliterators.iterator(new RecordSpliterator(mapChunks(file, DEFAULT_CHUNK_BYTES), format));
+    }
+
+    /**
+     * Read the tweets of a dump file, mapping at most chunkBytes bytes at a
+     * time (plus the rest of a line).
+     */
+    static Stream<Tweet> readTweets(Path file, Format format, int chunkBytes) throws IOException {
+        return StreamSupport.stream(new RecordSpliterator(mapChunks(file, chunkBytes), format), false);
+    }
+
+    /*
+     * Maps a file as consecutive chunks of about chunkBytes bytes that each end
+     * just after a line break (or at the end of the file). Mappings stay valid
+     * after the channel is closed.
+     */
+    private static List<Chunk> mapChunks(Path file, int chunkBytes) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long end = start + chunkBytes >= size ? size : lineEnd(channel, start + chunkBytes, size);
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException("line too long near byte " + (start + chunkBytes));
+                }
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                chunks.add(new Chunk(buffer, 0, (int) (end - start)));
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    /* Returns the index just past the first line break at or after from, or size if there is none. */
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(4096);
+        long position = from;
+        while (position < size) {
+            block.clear();
+            int read = channel.read(block, position);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (block.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * A range bytes[from..to) of a mapped chunk of a file, made of whole lines.
+     */
+    private static class Chunk {
+
+        private final ByteBuffer bytes;
+        private int from;
+        private final int to;
+
+        Chunk(ByteBuffer bytes, int from, int to) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+        }
+
+        /* Returns the index just past the first line break at or after index, or to if there is none. */
+        int lineEnd(int index) {
+            for (int i = index; i < to; i++) {
+                if (bytes.get(i) == '\n') {
+                    return i + 1;
+                }
+            }
+            return to;
+        }
+    }
+
+    /**
+     * Parses the tweets in a list of chunks, one per line. It splits between
+     * chunks, or within a chunk at a line break, so that parallel streams
+     * parse parts of a file concurrently.
+     */
+    private static class RecordSpliterator implements Spliterator<Tweet> {
+
+        private final List<Chunk> chunks;
+        private final Format format;
+        private int first = 0;
+        private final int last;
+        private TweetJson.Parser jsonParser = null;
+        private CsvParser csvParser = null;
+        /* Rep invariant:
+         *    0 <= first <= last <= chunks.size()
+         * Abstraction function:
+         *    represents the tweets on the lines of chunks[first..last)
+         */
+
+        RecordSpliterator(List<Chunk> chunks, Format format) {
+            this(chunks, format, 0, chunks.size());
+            if (format == Format.CSV && !chunks.isEmpty()) {
+                skipHeader(chunks.get(0));
+            }
+        }
+
+        private RecordSpliterator(List<Chunk> chunks, Format format, int first, int last) {
+            this.chunks = chunks;
+            this.format = format;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override public boolean tryAdvance(Consumer<? super Tweet> action) {
+            while (first < last) {
+                Chunk chunk = chunks.get(first);
+                while (chunk.from < chunk.to) {
+                    int start = chunk.from;
+                    int end = chunk.lineEnd(start);
+                    chunk.from = end;
+                    int contentEnd = trimLineBreak(chunk.bytes, start, end);
+                    if (!isBlank(chunk.bytes, start, contentEnd)) {
+                        action.accept(parse(chunk.bytes, start, contentEnd));
+                        return true;
+                    }
+                }
+                first++;
+            }
+            return false;
+        }
+
+        @Override public Spliterator<Tweet> trySplit() {
+            if (last - first >= 2) {
+                int middle = (first + last) >>> 1;
+                RecordSpliterator prefix = new RecordSpliterator(chunks, format, first, middle);
+                first = middle;
+                return prefix;
+            }
+            if (last - first == 1) {
+                Chunk chunk = chunks.get(first);
+                if (chunk.to - chunk.from < MIN_SPLIT_BYTES) {
+                    return null;
+                }
+                int boundary = chunk.lineEnd(chunk.from + (chunk.to - chunk.from) / 2);
+                if (boundary >= chunk.to) {
+                    return null;
+                }
+                List<Chunk> prefixChunks = new ArrayList<>();
+                prefixChunks.add(new Chunk(chunk.bytes, chunk.from, boundary));
+                chunk.from = boundary;
+                return new RecordSpliterator(prefixChunks, format, 0, 1);
+            }
+            return null;
+        }
+
+        @Override public long estimateSize() {
+            long bytes = 0;
+            for (int i = first; i < last; i++) {
+                bytes += chunks.get(i).to - chunks.get(i).from;
+            }
+            return bytes / ESTIMATED_RECORD_BYTES + 1;
+        }
+
+        @Override public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+
+        private Tweet parse(ByteBuffer bytes, int start, int end) {
+            if (format == Format.JSON_LINES) {
+                if (jsonParser == null || jsonParser.bytes() != bytes) {
+                    jsonParser = new TweetJson.Parser(bytes, start, end);
+                }
+                jsonParser.reset(start, end);
+                jsonParser.skipWhitespace();
+                Tweet tweet = jsonParser.readTweet();
+                jsonParser.skipWhitespace();
+                if (jsonParser.hasRemaining()) {
+                    throw jsonParser.error("unexpected text after tweet");
+                }
+                return tweet;
+            }
+            if (csvParser == null) {
+                csvParser = new CsvParser();
+            }
+            return csvParser.parse(bytes, start, end);
+        }
+
+        private static void skipHeader(Chunk chunk) {
+            int end = chunk.lineEnd(chunk.from);
+            String header = new String(copy(chunk.bytes, chunk.from, end), StandardCharsets.UTF_8);
+            if (header.regionMatches(true, 0, "id,", 0, 3)) {
+                chunk.from = end;
+            }
+        }
+
+        private static int trimLineBreak(ByteBuffer bytes, int start, int end) {
+            if (end > start && bytes.get(end - 1) == '\n') {
+                end--;
+            }
+            if (end > start && bytes.get(end - 1) == '\r') {
+                end--;
+            }
+            return end;
+        }
+
+        private static boolean isBlank(ByteBuffer bytes, int start, int end) {
+            for (int i = start; i < end; i++) {
+                byte b = bytes.get(i);
+                if (b != ' ' && b != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Parses a line id,author,timestamp,text of a CSV tweet file.
+     */
+    private static class CsvParser {
+
+        private final StringBuilder field = new StringBuilder();
+        private byte[] scratch = new byte[256];
+        private ByteBuffer bytes;
+        private int position;
+        private int end;
+
+        Tweet parse(ByteBuffer bytes, int start, int end) {
+            this.bytes = bytes;
+            this.position = start;
+            this.end = end;
+            String id = readField(false);
+            String author = readField(false);
+            String timestamp = readField(false);
+            String text = readField(true);
+            if (text == null) {
+                throw error("tweet needs id, author, timestamp and text");
+            }
+            try {
+                return new Tweet(Long.parseLong(id.trim()), author, text, Instant.parse(timestamp.trim()));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw error("invalid id or timestamp");
+            }
+        }
+
+        /*
+         * Reads the next field, or returns null if there is none. An unquoted
+         * last field extends to the end of the line.
+         */
+        private String readField(boolean last) {
+            if (position > end) {
+                return null;
+            }
+            field.setLength(0);
+            if (position < end && bytes.get(position) == '"') {
+                position++;
+                int from = position;
+                while (true) {
+                    if (position >= end) {
+                        throw error("unterminated quoted field");
+                    }
+                    if (bytes.get(position) == '"') {
+                        appendUtf8(from, position);
+                        position++;
+                        if (position < end && bytes.get(position) == '"') {
+                            from = position; // doubled quote: keep one
+                            position++;
+                            continue;
+                        }
+                        break;
+                    }
+                    position++;
+                }
+                if (position < end && bytes.get(position) != ',') {
+                    throw error("expected ',' after quoted field");
+                }
+            }
+            else {
+                int from = position;
+                while (position < end && (last || bytes.get(position) != ',')) {
+                    position++;
+                }
+                appendUtf8(from, position);
+            }
+            position++; // skip the comma, or step past the end
+            return field.toString();
+        }
+
+        private void appendUtf8(int from, int to) {
+            int length = to - from;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, 2 * scratch.length)];
+            }
+            for (int i = 0; i < length; i++) {
+                scratch[i] = bytes.get(from + i);
+            }
+            field.append(new String(scratch, 0, length, StandardCharsets.UTF_8));
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at byte " + position);
+        }
+    }
+
+    private static byte[] copy(ByteBuffer bytes, int from, int to) {
+        byte[] copy = new byte[to - from];
+        for (int i = from; i < to; i++) {
+            copy[i - from] = bytes.get(i);
+        }
+        return copy;
+    }
+}
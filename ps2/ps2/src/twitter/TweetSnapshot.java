@@ -0,0 +1,619 @@
+package twitter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TweetSnapshot is a compact binary file of tweets, and a reader that answers
+ * queries from a memory mapping of the file without building Tweet objects for
+ * tweets that don't match.
+ *
+ * A snapshot holds its tweets in time order (tweets with equal timestamps in
+ * the order they were written), in blocks of BLOCK_ROWS tweets. Each block
+ * stores its tweets as columns: timestamps as varint deltas from the previous
+ * tweet, ids as zigzag varint deltas, authors as varint codes into a dictionary
+ * of author spellings, and texts as UTF-8 byte lengths followed by one block of
+ * UTF-8 bytes. A block index records where each block starts and the timespan
+ * of its tweets, so timespan queries skip whole blocks.
+ *
+ * File layout (all fixed-width numbers big-endian):
+ *     MAGIC
+ *     block*
+ *     dictionary: varint count, then per spelling varint length and UTF-8 bytes
+ *     index: per block, long offset, int length, int rows,
+ *            long first second, int first nano, long last second, int last nano
+ *     trailer: long dictionary offset, long index offset, int tweets, int blocks,
+ *              int VERSION, int MAGIC
+ * and a block is the varint byte lengths of its time, id and author columns and
+ * of its text lengths column, followed by those four columns and its text bytes.
+ *
+ * A TweetSnapshot is immutable and safe for use by multiple threads.
+ */
+public class TweetSnapshot {
+
+    /** Number of tweets in each block except the last. */
+    public static final int BLOCK_ROWS = 1024;
+
+    private static final int MAGIC = 0x54575354; // "TWST"
+    private static final int VERSION = 1;
+    private static final int INDEX_ENTRY_BYTES = 40;
+    private static final int TRAILER_BYTES = 32;
+    private static final long MAX_SEGMENT_BYTES = 1 << 30;
+
+    private final int size;
+    private final String[] authors;
+    private final ByteBuffer[] blockBytes;
+    private final int[] blockRows;
+    private final long[] firstSeconds;
+    private final int[] firstNanos;
+    private final long[] lastSeconds;
+    private final int[] lastNanos;
+    /* Rep invariant:
+     *    all block arrays have the same length b
+     *    sum of blockRows == size, and each blockRows[i] > 0
+     *    blockBytes[i] holds exactly the bytes of block i, starting at index 0
+     *    (firstSeconds[i], firstNanos[i]) <= (lastSeconds[i], lastNanos[i])
+     *        <= (firstSeconds[i+1], firstNanos[i+1])
+     * Abstraction function:
+     *    represents the list of tweets stored in blocks 0..b-1, in order, whose
+     *    author codes index authors
+     * Thread safety argument:
+     *    the arrays are never modified after construction, and queries read
+     *    the buffers only by absolute index, which doesn't change them
+     */
+
+    private TweetSnapshot(int size, String[] authors, ByteBuffer[] blockBytes, int[] blockRows,
+            long[] firstSeconds, int[] firstNanos, long[] lastSeconds, int[] lastNanos) {
+        this.size = size;
+        this.authors = authors;
+        this.blockBytes = blockBytes;
+        this.blockRows = blockRows;
+        this.firstSeconds = firstSeconds;
+        this.firstNanos = firstNanos;
+        this.lastSeconds = lastSeconds;
+        this.lastNanos = lastNanos;
+    }
+
+    /**
+     * Write tweets to a snapshot file.
+     *
+     * @param file
+     *            file to write, replaced if it exists
+     * @param tweets
+     *            tweets to write, not modified by this method
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public static void write(Path file, Collection<Tweet> tweets) throws IOException {
+        List<Tweet> sorted = new ArrayList<>(tweets);
+        sorted.sort(Comparator.comparing(Tweet::getTimestamp)); // stable, so equal timestamps keep their order
+
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> spellings = new ArrayList<>();
+        for (Tweet tweet : sorted) {
+            if (!codes.containsKey(tweet.getAuthor())) {
+                codes.put(tweet.getAuthor(), spellings.size());
+                spellings.add(tweet.getAuthor());
+            }
+        }
+
+        try (CountingOutputStream out = new CountingOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            ByteSink index = new ByteSink();
+            ByteSink[] columns = { new ByteSink(), new ByteSink(), new ByteSink(), new ByteSink(), new ByteSink() };
+            ByteSink lengths = new ByteSink();
+            int blocks = 0;
+            for (int start = 0; start < sorted.size(); start += BLOCK_ROWS) {
+                List<Tweet> block = sorted.subList(start, Math.min(sorted.size(), start + BLOCK_ROWS));
+                long offset = out.count();
+                encodeBlock(block, codes, columns, lengths);
+                lengths.writeTo(out);
+                for (ByteSink column : columns) {
+                    column.writeTo(out);
+                }
+
+                Instant first = block.get(0).getTimestamp();
+                Instant last = block.get(block.size() - 1).getTimestamp();
+                index.writeLong(offset);
+                index.writeInt((int) (out.count() - offset));
+                index.writeInt(block.size());
+                index.writeLong(first.getEpochSecond());
+                index.writeInt(first.getNano());
+                index.writeLong(last.getEpochSecond());
+                index.writeInt(last.getNano());
+                blocks++;
+            }
+
+            long dictionaryOffset = out.count();
+            ByteSink dictionary = new ByteSink();
+            dictionary.writeVarLong(spellings.size());
+            for (String spelling : spellings) {
+                byte[] bytes = spelling.getBytes(StandardCharsets.UTF_8);
+                dictionary.writeVarLong(bytes.length);
+                dictionary.write(bytes, 0, bytes.length);
+            }
+            dictionary.writeTo(out);
+
+            long indexOffset = out.count();
+            index.writeTo(out);
+
+            ByteSink trailer = new ByteSink();
+            trailer.writeLong(dictionaryOffset);
+            trailer.writeLong(indexOffset);
+            trailer.writeInt(sorted.size());
+            trailer.writeInt(blocks);
+            trailer.writeInt(VERSION);
+            trailer.writeInt(MAGIC);
+            trailer.writeTo(out);
+        }
+    }
+
+    /* Encodes the columns of a block: times, ids, authors, text lengths, texts; and their lengths. */
+    private static void encodeBlock(List<Tweet> block, Map<String, Integer> codes, ByteSink[] columns,
+            ByteSink lengths) {
+        for (ByteSink column : columns) {
+            column.reset();
+        }
+        lengths.reset();
+        ByteSink times = columns[0];
+        ByteSink ids = columns[1];
+        ByteSink authorCodes = columns[2];
+        ByteSink textLengths = columns[3];
+        ByteSink texts = columns[4];
+
+        long previousSecond = block.get(0).getTimestamp().getEpochSecond();
+        long previousId = 0;
+        for (Tweet tweet : block) {
+            long second = tweet.getTimestamp().getEpochSecond();
+            times.writeVarLong(second - previousSecond);
+            times.writeVarLong(tweet.getTimestamp().getNano());
+            previousSecond = second;
+            ids.writeVarLong(zigzag(tweet.getId() - previousId));
+            previousId = tweet.getId();
+            authorCodes.writeVarLong(codes.get(tweet.getAuthor()));
+            byte[] text = tweet.getText().getBytes(StandardCharsets.UTF_8);
+            textLengths.writeVarLong(text.length);
+            texts.write(text, 0, text.length);
+        }
+        for (int i = 0; i < 4; i++) {
+            lengths.writeVarLong(columns[i].size());
+        }
+    }
+
+    /**
+     * Open a snapshot file written by write().
+     *
+     * @param file
+     *            snapshot file
+     * @return a reader of the snapshot, which maps the file into memory
+     * @throws IOException
+     *             if the file cannot be read or is not a snapshot file
+     */
+    public static TweetSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < 4 + TRAILER_BYTES) {
+                throw new IOException(file + " is not a tweet snapshot");
+            }
+            ByteBuffer trailer = read(channel, fileSize - TRAILER_BYTES, TRAILER_BYTES);
+            long dictionaryOffset = trailer.getLong();
+            long indexOffset = trailer.getLong();
+            int size = trailer.getInt();
+            int blocks = trailer.getInt();
+            int version = trailer.getInt();
+            if (trailer.getInt() != MAGIC || read(channel, 0, 4).getInt() != MAGIC) {
+                throw new IOException(file + " is not a tweet snapshot");
+            }
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported snapshot version " + version);
+            }
+            if (dictionaryOffset < 4 || indexOffset < dictionaryOffset
+                    || indexOffset + (long) blocks * INDEX_ENTRY_BYTES != fileSize - TRAILER_BYTES) {
+                throw new IOException(file + " is a corrupt tweet snapshot");
+            }
+
+            Cursor dictionary = new Cursor(read(channel, dictionaryOffset, (int) (indexOffset - dictionaryOffset)), 0);
+            String[] authors = new String[(int) dictionary.readVarLong()];
+            for (int i = 0; i < authors.length; i++) {
+                int length = (int) dictionary.readVarLong();
+                authors[i] = dictionary.readUtf8(length);
+            }
+
+            ByteBuffer index = read(channel, indexOffset, blocks * INDEX_ENTRY_BYTES);
+            long[] offsets = new long[blocks];
+            int[] lengths = new int[blocks];
+            int[] rows = new int[blocks];
+            long[] firstSeconds = new long[blocks];
+            int[] firstNanos = new int[blocks];
+            long[] lastSeconds = new long[blocks];
+            int[] lastNanos = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                offsets[i] = index.getLong();
+                lengths[i] = index.getInt();
+                rows[i] = index.getInt();
+                firstSeconds[i] = index.getLong();
+                firstNanos[i] = index.getInt();
+                lastSeconds[i] = index.getLong();
+                lastNanos[i] = index.getInt();
+            }
+
+            // map consecutive blocks together, in segments of at most MAX_SEGMENT_BYTES (or one block)
+            ByteBuffer[] blockBytes = new ByteBuffer[blocks];
+            int first = 0;
+            while (first < blocks) {
+                int last = first + 1;
+                while (last < blocks && offsets[last] + lengths[last] - offsets[first] <= MAX_SEGMENT_BYTES) {
+                    last++;
+                }
+                long segmentStart = offsets[first];
+                long segmentEnd = offsets[last - 1] + lengths[last - 1];
+                ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentEnd - segmentStart);
+                for (int i = first; i < last; i++) {
+                    segment.limit((int) (offsets[i] + lengths[i] - segmentStart));
+                    segment.position((int) (offsets[i] - segmentStart));
+                    blockBytes[i] = segment.slice();
+                }
+                first = last;
+            }
+            return new TweetSnapshot(size, authors, blockBytes, rows, firstSeconds, firstNanos, lastSeconds,
+                    lastNanos);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of snapshot file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @return the number of tweets in this snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the time period spanned by the tweets, read from the block index.
+     *
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every tweet in this snapshot; from the epoch to the epoch if there
+     *         are none.
+     */
+    public Timespan getTimespan() {
+        if (size == 0) {
+            return new Timespan(Instant.EPOCH, Instant.EPOCH);
+        }
+        int last = blockRows.length - 1;
+        return new Timespan(Instant.ofEpochSecond(firstSeconds[0], firstNanos[0]),
+                Instant.ofEpochSecond(lastSeconds[last], lastNanos[last]));
+    }
+
+    /**
+     * @return all the tweets of this snapshot, in time order
+     */
+    public List<Tweet> toList() {
+        List<Tweet> tweets = new ArrayList<>(size);
+        for (int block = 0; block < blockRows.length; block++) {
+            BlockCursor cursor = new BlockCursor(block);
+            for (int row = 0; row < blockRows[block]; row++) {
+                cursor.advance();
+                tweets.add(cursor.tweet());
+            }
+        }
+        return tweets;
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, like
+     * Filter.inTimespan(). Blocks outside the timespan are skipped, and only
+     * matching tweets are built as Tweet objects.
+     *
+     * @param timespan
+     *            timespan
+     * @return all and only the tweets of this snapshot that were sent during
+     *         the timespan, in time order.
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        Instant start = timespan.getStart();
+        Instant end = timespan.getEnd();
+        List<Tweet> tweets = new ArrayList<>();
+        for (int block = firstBlockEndingAtOrAfter(start); block < blockRows.length; block++) {
+            if (compare(firstSeconds[block], firstNanos[block], end) > 0) {
+                break;
+            }
+            BlockCursor cursor = new BlockCursor(block);
+            for (int row = 0; row < blockRows[block]; row++) {
+                cursor.advance();
+                if (compare(cursor.second, cursor.nano, end) > 0) {
+                    break;
+                }
+                if (compare(cursor.second, cursor.nano, start) >= 0) {
+                    tweets.add(cursor.tweet());
+                }
+            }
+        }
+        return tweets;
+    }
+
+    /**
+     * Find tweets written by a particular user, like Filter.writtenBy(). Only
+     * matching tweets are built as Tweet objects.
+     *
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return all and only the tweets of this snapshot whose author is
+     *         username, in time order.
+     */
+    public List<Tweet> writtenBy(String username) {
+        boolean[] matches = new boolean[authors.length];
+        boolean any = false;
+        for (int code = 0; code < authors.length; code++) {
+            matches[code] = authors[code].equalsIgnoreCase(username);
+            any |= matches[code];
+        }
+        List<Tweet> tweets = new ArrayList<>();
+        if (!any) {
+            return tweets;
+        }
+        for (int block = 0; block < blockRows.length; block++) {
+            BlockCursor cursor = new BlockCursor(block);
+            for (int row = 0; row < blockRows[block]; row++) {
+                cursor.advanceAuthor();
+                if (matches[cursor.author]) {
+                    cursor.advanceRest();
+                    tweets.add(cursor.tweet());
+                }
+                else {
+                    cursor.skipRest();
+                }
+            }
+        }
+        return tweets;
+    }
+
+    /* Returns the first block whose last tweet is at or after instant, or the number of blocks if none is. */
+    private int firstBlockEndingAtOrAfter(Instant instant) {
+        int low = 0;
+        int high = blockRows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(lastSeconds[middle], lastNanos[middle], instant) < 0) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(long second, int nano, Instant instant) {
+        int bySecond = Long.compare(second, instant.getEpochSecond());
+        return bySecond != 0 ? bySecond : Integer.compare(nano, instant.getNano());
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads the rows of one block in order, one cursor per column, decoding
+     * only the columns of the current row that are asked for.
+     */
+    private class BlockCursor {
+
+        private final Cursor times;
+        private final Cursor ids;
+        private final Cursor authorCodes;
+        private final Cursor textLengths;
+        private final Cursor texts;
+        private long second;
+        private int nano;
+        private long id = 0;
+        private int author;
+        private String text;
+
+        BlockCursor(int block) {
+            ByteBuffer bytes = blockBytes[block];
+            Cursor header = new Cursor(bytes, 0);
+            int timesLength = (int) header.readVarLong();
+            int idsLength = (int) header.readVarLong();
+            int authorsLength = (int) header.readVarLong();
+            int textLengthsLength = (int) header.readVarLong();
+            int start = header.position;
+            times = new Cursor(bytes, start);
+            ids = new Cursor(bytes, start += timesLength);
+            authorCodes = new Cursor(bytes, start += idsLength);
+            textLengths = new Cursor(bytes, start += authorsLength);
+            texts = new Cursor(bytes, start + textLengthsLength);
+            second = firstSeconds[block];
+        }
+
+        /* Decodes all the columns of the next row. */
+        void advance() {
+            advanceAuthor();
+            advanceRest();
+        }
+
+        /* Decodes the author of the next row; must be followed by advanceRest() or skipRest(). */
+        void advanceAuthor() {
+            author = (int) authorCodes.readVarLong();
+        }
+
+        /* Decodes the columns of the current row other than the author. */
+        void advanceRest() {
+            advanceTimeAndId();
+            text = texts.readUtf8((int) textLengths.readVarLong());
+        }
+
+        /* Steps past the columns of the current row other than the author, without decoding its text. */
+        void skipRest() {
+            advanceTimeAndId();
+            texts.position += (int) textLengths.readVarLong();
+        }
+
+        private void advanceTimeAndId() {
+            second += times.readVarLong();
+            nano = (int) times.readVarLong();
+            id += unzigzag(ids.readVarLong());
+        }
+
+        Tweet tweet() {
+            return new Tweet(id, authors[author], text, Instant.ofEpochSecond(second, nano));
+        }
+    }
+
+    /**
+     * Reads varints and UTF-8 strings from a buffer by absolute index.
+     */
+    private static class Cursor {
+
+        private final ByteBuffer bytes;
+        private int position;
+
+        Cursor(ByteBuffer bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = bytes.get(position++);
+                value |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("corrupt varint in tweet snapshot");
+        }
+
+        String readUtf8(int length) {
+            byte[] utf8 = new byte[length];
+            for (int i = 0; i < length; i++) {
+                utf8[i] = bytes.get(position + i);
+            }
+            position += length;
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A growable byte array that encodes fixed-width numbers and varints.
+     */
+    private static class ByteSink {
+
+        private byte[] bytes = new byte[1024];
+        private int size = 0;
+
+        int size() {
+            return size;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        void write(byte[] source, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7fL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (bytes.length - size < extra) {
+                byte[] grown = new byte[Math.max(2 * bytes.length, size + extra)];
+                System.arraycopy(bytes, 0, grown, 0, size);
+                bytes = grown;
+            }
+        }
+    }
+
+    /**
+     * An output stream that counts the bytes written to it.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        long count() {
+            return count;
+        }
+
+        void writeInt(int value) throws IOException {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                write(value >>> shift);
+            }
+        }
+
+        @Override public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override public void close() throws IOException {
+            out.close();
+        }
+    }
+}
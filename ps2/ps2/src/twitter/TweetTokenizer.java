@@ -0,0 +1,132 @@
+package twitter;
+
+/**
+ * TweetTokenizer walks the text of a tweet once and reports the words,
+ * username-mentions and hashtags in it as spans of the text, so that no
+ * substring is allocated unless a listener keeps a token.
+ *
+ * A word is a nonempty sequence of nonspace characters bounded by space
+ * characters and the ends of the text, as in Filter.containing(). A hashtag is
+ * a word that starts with "#", as in SocialNetwork.guessFollowsGraph(). A
+ * username-mention is defined by Extract.getMentionedUsers() and found by
+ * MentionScanner; it need not be a whole word.
+ */
+public class TweetTokenizer {
+
+    /**
+     * Receives the tokens of a tweet text. Each method is called with the
+     * text and a span [start..end) of it; spans of the same kind are reported
+     * in order of appearance.
+     */
+    public interface Listener {
+
+        /**
+         * Receive a word; text[start..end) is nonempty and has no space.
+         */
+        default void word(String text, int start, int end) {
+        }
+
+        /**
+         * Receive a username-mention; text[start..end) is the username,
+         * without the "@" at text[start-1].
+         */
+        default void mention(String text, int start, int end) {
+        }
+
+        /**
+         * Receive a hashtag; text[start..end) is a word that starts with "#".
+         * The same span is also given to word().
+         */
+        default void hashtag(String text, int start, int end) {
+        }
+    }
+
+    /**
+     * Report the tokens of a tweet text to a listener.
+     *
+     * @param text
+     *            tweet text
+     * @param listener
+     *            receives every word, username-mention and hashtag of text
+     */
+    public static void tokenize(String text, Listener listener) {
+        int length = text.length();
+        int wordStart = -1;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                if (wordStart >= 0) {
+                    endWord(text, wordStart, i, listener);
+                    wordStart = -1;
+                }
+                continue;
+            }
+            if (wordStart < 0) {
+                wordStart = i;
+            }
+            if (c == '@') {
+                int end = MentionScanner.mentionEnd(text, i);
+                if (end >= 0) {
+                    listener.mention(text, i + 1, end);
+                }
+            }
+        }
+        if (wordStart >= 0) {
+            endWord(text, wordStart, length, listener);
+        }
+    }
+
+    /**
+     * Compare a word with a span of a text, ignoring case as
+     * String.equalsIgnoreCase().
+     *
+     * @param word
+     *            a word
+     * @param text
+     *            a text
+     * @param start
+     *            index of the first character of the span
+     * @param end
+     *            index just past the last character of the span
+     * @return true iff word.equalsIgnoreCase(text.substring(start, end))
+     */
+    public static boolean equalsIgnoreCase(String word, String text, int start, int end) {
+        return word.length() == end - start && text.regionMatches(true, start, word, 0, end - start);
+    }
+
+    /**
+     * Fold the case of a span of a text, so that two spans are equal ignoring
+     * case, as String.equalsIgnoreCase(), iff their foldings are equal.
+     *
+     * @param text
+     *            a text
+     * @param start
+     *            index of the first character of the span
+     * @param end
+     *            index just past the last character of the span
+     * @return text[start..end) with each character c replaced by
+     *         Character.toLowerCase(Character.toUpperCase(c))
+     */
+    public static String foldCase(String text, int start, int end) {
+        char[] folded = null;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            char f = Character.toLowerCase(Character.toUpperCase(c));
+            if (f != c && folded == null) {
+                folded = new char[end - start];
+                text.getChars(start, i, folded, 0);
+            }
+            if (folded != null) {
+                folded[i - start] = f;
+            }
+        }
+        return folded == null ? text.substring(start, end) : new String(folded);
+    }
+
+    private static void endWord(String text, int start, int end, Listener listener) {
+        listener.word(text, start, end);
+        if (text.charAt(start) == '#') {
+            listener.hashtag(text, start, end);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * UserIds provides versions of the Extract, Filter and SocialNetwork operations
+ * that identify users by their id in a UsernameDictionary, so that each author
+ * and mention is case-folded and hashed once instead of on every comparison.
+ */
+public class UserIds {
+
+    /**
+     * Get the author ids of a list of tweets.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method.
+     * @param dictionary
+     *            dictionary that gives each author an id, adding authors that
+     *            have none yet.
+     * @return an array whose element i is the id of the author of tweets[i]
+     */
+    public static int[] authorIds(List<Tweet> tweets, UsernameDictionary dictionary) {
+        int[] authorIds = new int[tweets.size()];
+        int i = 0;
+        for (Tweet tweet : tweets) {
+            authorIds[i++] = dictionary.id(tweet.getAuthor());
+        }
+        return authorIds;
+    }
+
+    /**
+     * Find tweets written by a particular user, as Filter.writtenBy().
+     *
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param authorIds
+     *            author ids of the tweets, as returned by authorIds(tweets, dictionary)
+     * @param userId
+     *            id of a username in the same dictionary
+     * @return all and only the tweets in the list whose author has id userId,
+     *         in the same order as in the input list.
+     */
+    public static List<Tweet> writtenBy(List<Tweet> tweets, int[] authorIds, int userId) {
+        List<Tweet> tweetsBy = new ArrayList<>();
+        int i = 0;
+        for (Tweet tweet : tweets) {
+            if (authorIds[i++] == userId) {
+                tweetsBy.add(tweet);
+            }
+        }
+        return tweetsBy;
+    }
+
+    /**
+     * Get usernames mentioned in a list of tweets, as Extract.getMentionedUsers().
+     *
+     * @param tweets
+     *            list of tweets, not modified by this method.
+     * @param dictionary
+     *            dictionary that gives each mentioned user an id, adding users
+     *            that have none yet.
+     * @return the set of ids of the usernames who are mentioned in the text of
+     *         the tweets, as defined by Extract.getMentionedUsers().
+     */
+    public static BitSet mentionedUserIds(List<Tweet> tweets, UsernameDictionary dictionary) {
+        BitSet users = new BitSet();
+        for (Tweet tweet : tweets) {
+            // Look up each mention in place as it is found; only users new to the dictionary are copied
+            MentionScanner.scan(tweet.getText(), (text, start, end) -> users.set(dictionary.id(text, start, end)));
+        }
+        return users;
+    }
+
+    /**
+     * Count the followers of each user in a social network.
+     *
+     * @param followsGraph
+     *            a social network as defined by SocialNetwork
+     * @param dictionary
+     *            dictionary that gives each user of followsGraph an id, adding
+     *            users that have none yet.
+     * @return an array of length dictionary.size() whose element i is the
+     *         number of users who follow the user with id i.
+     */
+    public static int[] followerCounts(Map<String, Set<String>> followsGraph, UsernameDictionary dictionary) {
+        int[] counts = new int[dictionary.size()];
+        for (String user : followsGraph.keySet()) {
+            dictionary.id(user);
+        }
+        for (Set<String> follows : followsGraph.values()) {
+            for (String user : follows) {
+                int id = dictionary.id(user);
+                if (id >= counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(2 * counts.length, id + 1));
+                }
+                counts[id]++;
+            }
+        }
+        return Arrays.copyOf(counts, dictionary.size());
+    }
+
+    /**
+     * Find the people in a social network who have the greatest influence, as
+     * SocialNetwork.influencers().
+     *
+     * @param followsGraph
+     *            a social network as defined by SocialNetwork
+     * @param dictionary
+     *            dictionary that gives each user of followsGraph an id, adding
+     *            users that have none yet.
+     * @return a list of all distinct Twitter usernames in followsGraph, in lower
+     *         case, in descending order of follower count.
+     */
+    public static List<String> influencers(Map<String, Set<String>> followsGraph, UsernameDictionary dictionary) {
+        int[] counts = followerCounts(followsGraph, dictionary);
+
+        // Mark the ids that occur in followsGraph; the dictionary may hold other users too
+        BitSet users = new BitSet(counts.length);
+        for (String user : followsGraph.keySet()) {
+            users.set(dictionary.lookup(user));
+        }
+        int maxCount = 0;
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                users.set(id);
+                maxCount = Math.max(maxCount, counts[id]);
+            }
+        }
+
+        // Counting sort of the ids by follower count, in reverse order
+        int[] starts = new int[maxCount + 2];
+        for (int id = users.nextSetBit(0); id >= 0; id = users.nextSetBit(id + 1)) {
+            starts[maxCount - counts[id] + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        String[] sorted = new String[users.cardinality()];
+        for (int id = users.nextSetBit(0); id >= 0; id = users.nextSetBit(id + 1)) {
+            sorted[starts[maxCount - counts[id]]++] = dictionary.name(id);
+        }
+
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+}
@@ -0,0 +1,226 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A UsernameDictionary assigns each Twitter username a dense integer id, so
+ * that usernames are case-folded and hashed once, and can then be compared as
+ * ints and used to index arrays.
+ *
+ * Twitter usernames are case-insensitive, so "ernie" and "ERNie" get the same
+ * id. Ids are assigned in order of first appearance, starting from 0.
+ * A username can also be looked up as a span of a larger text, such as a
+ * mention in a tweet, without copying it: the names are also kept in an
+ * open-addressing table hashed by their lower-case characters.
+ * A dictionary is safe for use by multiple threads; looking up a username that
+ * already has an id does not lock.
+ */
+public class UsernameDictionary {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private volatile String[] displayNames = new String[16];
+    private volatile int size = 0;
+    private volatile AtomicIntegerArray slots = new AtomicIntegerArray(32);
+    /* Rep invariant:
+     *    0 <= size <= names.length == displayNames.length
+     *    for 0 <= i < size, names[i] is the lower-case form of displayNames[i],
+     *        names are distinct, and ids.get(names[i]) == i
+     *    every key of ids is a spelling of names[ids.get(key)]
+     *    slots.length() is a power of two, >= 2 * size; each slot holds 0 or
+     *        i + 1 for an id i < size, and i + 1 is placed by linear probing
+     *        from hash(names[i]) with no 0 in between
+     * Abstraction function:
+     *    represents the usernames names[0..size), where username i was first
+     *    spelled displayNames[i]
+     * Thread safety argument:
+     *    new ids are assigned while holding the lock on this, which writes names
+     *    and displayNames before publishing the id through the concurrent map
+     *    and the volatile size; readers that see an id therefore see its names.
+     *    Slots are written with volatile semantics after the names, and a
+     *    larger table is filled before it is published, so a reader of slots
+     *    that finds an id sees its name, and one that misses a new name falls
+     *    back to id(String).
+     */
+
+    /**
+     * Make an empty dictionary.
+     */
+    public UsernameDictionary() {
+    }
+
+    /**
+     * Get the id of a username, assigning it a new id if it has none yet.
+     *
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return the id of username, the same for all spellings of username
+     */
+    public int id(String username) {
+        Integer id = ids.get(username);
+        if (id != null) {
+            return id;
+        }
+
+        String name = MentionScanner.toLowerCase(username, 0, username.length());
+        synchronized (this) {
+            id = ids.get(name);
+            if (id == null) {
+                id = add(name, username);
+            }
+        }
+        ids.putIfAbsent(username, id); // look up this spelling without case folding next time
+        return id;
+    }
+
+    /**
+     * Get the id of a username that is a span of a text, assigning it a new
+     * id if it has none yet. A username that already has an id is found
+     * without copying the span.
+     *
+     * @param text
+     *            text containing a username
+     * @param start
+     *            index of the first character of the username
+     * @param end
+     *            index just past the last character of the username,
+     *            requires start < end and text[start..end) is a valid
+     *            Twitter username
+     * @return the id of text[start..end), the same for all its spellings
+     */
+    public int id(String text, int start, int end) {
+        AtomicIntegerArray table = slots;
+        int mask = table.length() - 1;
+        for (int i = hash(text, start, end) & mask;; i = (i + 1) & mask) {
+            int slot = table.get(i);
+            if (slot == 0) {
+                break;
+            }
+            if (matches(names[slot - 1], text, start, end)) {
+                return slot - 1;
+            }
+        }
+        return id(text.substring(start, end));
+    }
+
+    /**
+     * Get the id of a username, without assigning new ids.
+     *
+     * @param username
+     *            Twitter username
+     * @return the id of username, or -1 if username has no id in this
+     *         dictionary.
+     */
+    public int lookup(String username) {
+        Integer id = ids.get(username);
+        if (id == null) {
+            id = ids.get(MentionScanner.toLowerCase(username, 0, username.length()));
+        }
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id
+     *            id of a username in this dictionary, requires 0 <= id < size()
+     * @return the username with that id, in lower case
+     */
+    public String name(int id) {
+        checkId(id);
+        return names[id];
+    }
+
+    /**
+     * @param id
+     *            id of a username in this dictionary, requires 0 <= id < size()
+     * @return the username with that id, spelled as when it was first given
+     *         an id
+     */
+    public String displayName(int id) {
+        checkId(id);
+        return displayNames[id];
+    }
+
+    /**
+     * @return number of usernames in this dictionary; their ids are
+     *         0..size()-1
+     */
+    public int size() {
+        return size;
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("no username with id " + id);
+        }
+    }
+
+    /* Requires the lock on this, and name has no id yet. */
+    private int add(String name, String displayName) {
+        int id = size;
+        if (id == names.length) {
+            displayNames = Arrays.copyOf(displayNames, 2 * id);
+            names = Arrays.copyOf(names, 2 * id);
+        }
+        names[id] = name;
+        displayNames[id] = displayName;
+        size = id + 1;
+        ids.put(name, id);
+        addSlot(id);
+        return id;
+    }
+
+    /* Requires the lock on this; places id in slots, publishing a larger table if it is full. */
+    private void addSlot(int id) {
+        AtomicIntegerArray table = slots;
+        if (2 * (id + 1) > table.length()) {
+            table = new AtomicIntegerArray(2 * table.length());
+            for (int i = 0; i < id; i++) {
+                place(table, i);
+            }
+            place(table, id);
+            slots = table;
+        }
+        else {
+            place(table, id);
+        }
+    }
+
+    private void place(AtomicIntegerArray table, int id) {
+        String name = names[id];
+        int mask = table.length() - 1;
+        int i = hash(name, 0, name.length()) & mask;
+        while (table.get(i) != 0) {
+            i = (i + 1) & mask;
+        }
+        table.set(i, id + 1);
+    }
+
+    /* Hash of text[start..end) in lower case, as MentionScanner.toLowerCase() folds it. */
+    private static int hash(String text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + toLowerCase(text.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /* Returns true iff name is text[start..end) in lower case. */
+    private static boolean matches(String name, String text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (name.charAt(i - start) != toLowerCase(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,205 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * VersionedCorpus is a growing corpus of tweets that answers the Filter,
+ * Extract and SocialNetwork operations on its current contents through a
+ * ResultCache.
+ *
+ * Every append gives the corpus a new version, and results are cached under
+ * the version they were computed for, so an append makes every older result
+ * unreachable; append() also removes them from the cache. Arguments that
+ * give the same result share a cache entry: usernames are compared ignoring
+ * case, and the words of containing() ignoring case and order.
+ * Every result is unmodifiable, since it is shared by every caller that asks
+ * for it. A VersionedCorpus is safe for use by multiple threads; an operation
+ * running concurrently with an append answers for the corpus either before or
+ * after the append.
+ */
+public class VersionedCorpus {
+
+    private final ResultCache cache;
+    private Tweet[] tweets = new Tweet[16];
+    private int size = 0;
+    private long version = 0;
+    /* Rep invariant:
+     *    0 <= size <= tweets.length
+     *    version is the number of calls to append() that added tweets
+     * Abstraction function:
+     *    represents the corpus tweets[0..size) at version
+     * Thread safety argument:
+     *    tweets, size and version are guarded by the lock of this corpus;
+     *    tweets[0..size) is never modified after it is written, and a larger
+     *    array replaces tweets rather than being copied into it, so a snapshot
+     *    list over tweets[0..size) stays valid after the lock is released;
+     *    the cache is threadsafe
+     */
+
+    /**
+     * Make an empty corpus.
+     *
+     * @param cache
+     *            cache of results; it may be shared with other corpora
+     */
+    public VersionedCorpus(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Add tweets to the end of the corpus, giving it a new version if any
+     * are added.
+     *
+     * @param newTweets
+     *            tweets to add, in order
+     * @return the version of the corpus after adding them
+     */
+    public long append(Collection<Tweet> newTweets) {
+        long current;
+        synchronized (this) {
+            if (newTweets.isEmpty()) {
+                return version;
+            }
+            if (size + newTweets.size() > tweets.length) {
+                tweets = Arrays.copyOf(tweets, Math.max(2 * tweets.length, size + newTweets.size()));
+            }
+            for (Tweet tweet : newTweets) {
+                tweets[size++] = tweet;
+            }
+            current = ++version;
+        }
+        cache.invalidateBefore(this, current);
+        return current;
+    }
+
+    /**
+     * @return the current version of the corpus; 0 if nothing was ever appended
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * @return an unmodifiable snapshot of the tweets in the corpus, in order
+     */
+    public synchronized List<Tweet> tweets() {
+        return Collections.unmodifiableList(Arrays.asList(tweets).subList(0, size));
+    }
+
+    /**
+     * @return the cache of results
+     */
+    public ResultCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return Filter.writtenBy() of the corpus, unmodifiable
+     */
+    public List<Tweet> writtenBy(String username) {
+        String folded = TweetTokenizer.foldCase(username, 0, username.length());
+        return get("writtenBy", Arrays.asList(folded),
+                tweets -> Collections.unmodifiableList(Filter.writtenBy(tweets, username)));
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return Filter.inTimespan() of the corpus, unmodifiable
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        return get("inTimespan", Arrays.asList(timespan),
+                tweets -> Collections.unmodifiableList(Filter.inTimespan(tweets, timespan)));
+    }
+
+    /**
+     * @param words
+     *            a list of words, each a nonempty sequence of nonspace characters
+     * @return Filter.containing() of the corpus, unmodifiable
+     */
+    public List<Tweet> containing(List<String> words) {
+        List<String> copy = new ArrayList<>(words);
+        Set<String> folded = new TreeSet<>();
+        for (String word : copy) {
+            folded.add(TweetTokenizer.foldCase(word, 0, word.length()));
+        }
+        return get("containing", new ArrayList<>(folded),
+                tweets -> Collections.unmodifiableList(Filter.containing(tweets, copy)));
+    }
+
+    /**
+     * @return Extract.getTimespan() of the corpus
+     */
+    public Timespan getTimespan() {
+        return get("getTimespan", Collections.emptyList(), Extract::getTimespan);
+    }
+
+    /**
+     * @return Extract.getMentionedUsers() of the corpus, unmodifiable
+     */
+    public Set<String> getMentionedUsers() {
+        return get("getMentionedUsers", Collections.emptyList(),
+                tweets -> Collections.unmodifiableSet(Extract.getMentionedUsers(tweets)));
+    }
+
+    /**
+     * @return SocialNetwork.guessFollowsGraph() of the corpus, with the map
+     *         and each of its sets unmodifiable
+     */
+    public Map<String, Set<String>> guessFollowsGraph() {
+        List<Tweet> snapshot;
+        long current;
+        synchronized (this) {
+            snapshot = tweets();
+            current = version;
+        }
+        return followsGraph(snapshot, current);
+    }
+
+    /**
+     * @return SocialNetwork.influencers() of guessFollowsGraph(), unmodifiable
+     */
+    public List<String> influencers() {
+        return get("influencers", Collections.emptyList(), (tweets, version) ->
+                Collections.unmodifiableList(SocialNetwork.influencers(followsGraph(tweets, version))));
+    }
+
+    /* Returns the cached follows graph of tweets, the corpus at version, computing it on a miss. */
+    private Map<String, Set<String>> followsGraph(List<Tweet> tweets, long version) {
+        return cache.get(this, "guessFollowsGraph", Collections.emptyList(), version, () -> {
+            Map<String, Set<String>> graph = new HashMap<>();
+            for (Map.Entry<String, Set<String>> entry : SocialNetwork.guessFollowsGraph(tweets).entrySet()) {
+                graph.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(graph);
+        });
+    }
+
+    /* Returns the cached result of operation on the current version, computing it from a snapshot on a miss. */
+    private <T> T get(String operation, List<?> arguments, Function<List<Tweet>, T> compute) {
+        return get(operation, arguments, (tweets, version) -> compute.apply(tweets));
+    }
+
+    /* As get(), with a computation that also takes the version of its snapshot. */
+    private <T> T get(String operation, List<?> arguments, BiFunction<List<Tweet>, Long, T> compute) {
+        List<Tweet> snapshot;
+        long current;
+        synchronized (this) {
+            snapshot = tweets();
+            current = version;
+        }
+        return cache.get(this, operation, arguments, current, () -> compute.apply(snapshot, current));
+    }
+}
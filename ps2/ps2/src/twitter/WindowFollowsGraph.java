@@ -0,0 +1,584 @@
+package twitter;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * WindowFollowsGraph keeps the follows graph guessed from the tweets of a
+ * SlidingWindow up to date as tweets enter and expire, so that the window
+ * never has to be read again.
+ *
+ * After any sequence of additions and removals the graph equals
+ * FollowsGraphBuilder.build() of the tweets added and not removed, which is
+ * SocialNetwork.guessFollowsGraph(). For each author, ignoring case, the
+ * graph counts the tweets of each of their spellings and their mentions and
+ * hashtags. For each hashtag it keeps the authors who used it, and for each
+ * pair of authors the number of hashtags they share. When a tweet is removed,
+ * each count that drops to zero checks the edges it supported, and removes
+ * those for which no other evidence remains. IncrementalFollowsGraph, whose
+ * history only grows, does without this counting.
+ *
+ * Follower counts are kept in lower case, as TopInfluencers counts them:
+ * the follower count of a user is the number of distinct users, ignoring
+ * case, among the keys of the graph whose sets hold the user in any spelling.
+ * Users and authors are numbered by ids that are given back once they leave
+ * the graph, so memory and the time of influencers() grow with the most
+ * users the window has held at once, not with every user the stream has had.
+ * A WindowFollowsGraph is not safe for use by multiple threads.
+ */
+public class WindowFollowsGraph {
+
+    private static final long EMPTY = -1;
+
+    private final Map<String, Author> authors = new HashMap<>();
+    private final Map<String, Author> spellingAuthors = new HashMap<>();
+    private final Deque<Integer> freeAuthorIds = new ArrayDeque<>();
+    private final Map<String, Set<Author>> hashtagAuthors = new HashMap<>();
+    private final PairCounts sharedHashtags = new PairCounts();
+    private final PairCounts followSpellings = new PairCounts();
+    private final Map<String, Set<String>> followsGraph = new HashMap<>();
+    private final Map<String, Integer> userIds = new HashMap<>();
+    private final Deque<Integer> freeUserIds = new ArrayDeque<>();
+    private String[] names = new String[16];
+    private int[] keyCounts = new int[16];
+    private int[] followerCounts = new int[16];
+    private int idCount = 0;
+    private int edgeCount = 0;
+    private int tweetCount = 0;
+    /* Rep invariant:
+     *    authors maps the case-folded name of each author of the tweets in
+     *        the graph to their Author, whose ids are distinct, and are
+     *        authors.size() + freeAuthorIds.size() distinct ids in all
+     *    spellingAuthors maps each spelling of an Author to the Author
+     *    hashtagAuthors.get(h) is the nonempty set of Authors with hashtag h
+     *    the count of (a, b) in sharedHashtags is the number of hashtags
+     *        Authors with ids a < b have in common
+     *    b is in a.partners iff a != b and they have more than one hashtag in common
+     *    followsGraph is FollowsGraphBuilder.build() of the tweets in the graph
+     *    edgeCount is the total size of the sets of followsGraph
+     *    userIds maps the lower-case name of each user of followsGraph to an
+     *        id u < idCount with names[u] that name; every other id < idCount
+     *        is in freeUserIds once, with names[u] null
+     *    names, keyCounts and followerCounts have the same length >= idCount,
+     *        with 0 counts at ids not in userIds
+     *    keyCounts[u] is the number of keys of followsGraph with id u
+     *    the count of (f, u) in followSpellings is the number of edges of
+     *        followsGraph from a key with id f to a user with id u
+     *    followerCounts[u] is the number of f with a count of (f, u) in
+     *        followSpellings
+     *    so keyCounts[u] > 0 or followerCounts[u] > 0 for every u in userIds
+     * Abstraction function:
+     *    represents the tweets added and not removed, and the follows graph
+     *    guessed from them
+     */
+
+    /**
+     * Make a graph of no tweets.
+     */
+    public WindowFollowsGraph() {
+    }
+
+    /*
+     * Adds a tweet to the graph, given its author, its mentions in lower case
+     * and its hashtags.
+     */
+    void add(String author, String[] mentions, String[] hashtags) {
+        Author writer = addAuthor(author);
+        for (String user : mentions) {
+            addMention(writer, user);
+        }
+        for (String hashtag : hashtags) {
+            addHashtag(writer, hashtag);
+        }
+    }
+
+    /*
+     * Removes a tweet from the graph, given the same arguments it was added
+     * with by add(author, mentions, hashtags).
+     */
+    void remove(String author, String[] mentions, String[] hashtags) {
+        Author writer = authors.get(TweetTokenizer.foldCase(author, 0, author.length()));
+        for (String hashtag : hashtags) {
+            removeHashtag(writer, hashtag);
+        }
+        for (String user : mentions) {
+            removeMention(writer, user);
+        }
+        removeAuthor(writer, author);
+    }
+
+    /* Counts a tweet by spelling, adding the edges of the spelling if it is new. */
+    private Author addAuthor(String spelling) {
+        tweetCount++;
+        String folded = TweetTokenizer.foldCase(spelling, 0, spelling.length());
+        Author author = authors.get(folded);
+        if (author == null) {
+            author = new Author(freeAuthorIds.isEmpty() ? authors.size() : freeAuthorIds.pop());
+            authors.put(folded, author);
+        }
+        author.tweetCount++;
+        if (author.spellings.merge(spelling, 1, Integer::sum) > 1) {
+            return author;
+        }
+
+        spellingAuthors.put(spelling, author);
+        followsGraph.put(spelling, new HashSet<>());
+        int id = acquireId(spelling); // before indexing keyCounts, which acquireId() may replace
+        keyCounts[id]++;
+        for (String user : author.mentions.keySet()) {
+            if (!user.equals(spelling)) {
+                addEdge(spelling, user);
+            }
+        }
+        Set<String> newSpelling = Collections.singleton(spelling);
+        for (Author partner : author.partners) {
+            addEdges(newSpelling, partner.spellings.keySet());
+            addEdges(partner.spellings.keySet(), newSpelling);
+        }
+        if (author.hashtags.size() > 1) {
+            for (String other : author.spellings.keySet()) {
+                if (!other.equals(spelling)) {
+                    addEdge(spelling, other);
+                    addEdge(other, spelling);
+                }
+            }
+        }
+        return author;
+    }
+
+    /* Uncounts a tweet by spelling, removing the spelling and its edges if it has no tweets left. */
+    private void removeAuthor(Author author, String spelling) {
+        tweetCount--;
+        if (--author.tweetCount == 0) {
+            authors.remove(TweetTokenizer.foldCase(spelling, 0, spelling.length()));
+            freeAuthorIds.push(author.id);
+        }
+        if (decrement(author.spellings, spelling) > 0) {
+            return;
+        }
+
+        spellingAuthors.remove(spelling);
+        for (String user : followsGraph.remove(spelling)) {
+            uncountFollower(spelling, user);
+        }
+        for (Author partner : author.partners) {
+            for (String follower : partner.spellings.keySet()) {
+                removeUnsupportedEdge(follower, spelling);
+            }
+        }
+        if (author.hashtags.size() > 1) {
+            for (String follower : author.spellings.keySet()) {
+                removeUnsupportedEdge(follower, spelling);
+            }
+        }
+        // Only now, when no edge of the spelling is left to uncount, may its id be given back
+        int id = idOf(spelling);
+        keyCounts[id]--;
+        releaseIfUnused(id);
+    }
+
+    /* Counts a mention by author, adding its edges if it is new. */
+    private void addMention(Author author, String user) {
+        if (author.mentions.merge(user, 1, Integer::sum) > 1) {
+            return;
+        }
+        for (String follower : author.spellings.keySet()) {
+            if (!follower.equals(user)) {
+                addEdge(follower, user);
+            }
+        }
+    }
+
+    /* Uncounts a mention by author, removing the edges it alone supported if it has none left. */
+    private void removeMention(Author author, String user) {
+        if (decrement(author.mentions, user) > 0) {
+            return;
+        }
+        for (String follower : author.spellings.keySet()) {
+            removeUnsupportedEdge(follower, user);
+        }
+    }
+
+    /* Counts a hashtag of author, adding the edges of a hashtag new to author. */
+    private void addHashtag(Author author, String hashtag) {
+        if (author.hashtags.merge(hashtag, 1, Integer::sum) > 1) {
+            return;
+        }
+        if (author.hashtags.size() == 2) {
+            // the author's spellings now share more than one hashtag with each other
+            for (String follower : author.spellings.keySet()) {
+                for (String user : author.spellings.keySet()) {
+                    if (!follower.equals(user)) {
+                        addEdge(follower, user);
+                    }
+                }
+            }
+        }
+        Set<Author> others = hashtagAuthors.computeIfAbsent(hashtag, key -> new HashSet<>());
+        for (Author other : others) {
+            if (sharedHashtags.increment(Math.min(author.id, other.id), Math.max(author.id, other.id)) == 2) {
+                author.partners.add(other);
+                other.partners.add(author);
+                addEdges(author.spellings.keySet(), other.spellings.keySet());
+                addEdges(other.spellings.keySet(), author.spellings.keySet());
+            }
+        }
+        others.add(author);
+    }
+
+    /* Uncounts a hashtag of author, removing the edges it alone supported if author has none left. */
+    private void removeHashtag(Author author, String hashtag) {
+        if (decrement(author.hashtags, hashtag) > 0) {
+            return;
+        }
+        if (author.hashtags.size() == 1) {
+            // the author's spellings no longer share more than one hashtag with each other
+            for (String follower : author.spellings.keySet()) {
+                for (String user : author.spellings.keySet()) {
+                    removeUnsupportedEdge(follower, user);
+                }
+            }
+        }
+        Set<Author> others = hashtagAuthors.get(hashtag);
+        others.remove(author);
+        if (others.isEmpty()) {
+            hashtagAuthors.remove(hashtag);
+        }
+        for (Author other : others) {
+            if (sharedHashtags.decrement(Math.min(author.id, other.id), Math.max(author.id, other.id)) == 1) {
+                author.partners.remove(other);
+                other.partners.remove(author);
+                removeUnsupportedEdges(author.spellings.keySet(), other.spellings.keySet());
+                removeUnsupportedEdges(other.spellings.keySet(), author.spellings.keySet());
+            }
+        }
+    }
+
+    /* Makes each of followers follow each of users, looking up each follower's set once. */
+    private void addEdges(Set<String> followers, Set<String> users) {
+        for (String follower : followers) {
+            Set<String> follows = followsGraph.get(follower);
+            for (String user : users) {
+                if (follows.add(user)) {
+                    countFollower(follower, user);
+                }
+            }
+        }
+    }
+
+    private void addEdge(String follower, String user) {
+        if (followsGraph.get(follower).add(user)) {
+            countFollower(follower, user);
+        }
+    }
+
+    private void removeUnsupportedEdges(Set<String> followers, Set<String> users) {
+        for (String follower : followers) {
+            for (String user : users) {
+                removeUnsupportedEdge(follower, user);
+            }
+        }
+    }
+
+    /* Removes the edge from key follower to user, if it is in the graph and no evidence for it remains. */
+    private void removeUnsupportedEdge(String follower, String user) {
+        if (!isSupported(follower, user) && followsGraph.get(follower).remove(user)) {
+            uncountFollower(follower, user);
+        }
+    }
+
+    /* Returns true iff the tweets in the graph are evidence that key follower follows user. */
+    private boolean isSupported(String follower, String user) {
+        if (follower.equals(user)) {
+            return false;
+        }
+        Author author = spellingAuthors.get(follower);
+        if (author.mentions.containsKey(user)) {
+            return true;
+        }
+        Author other = spellingAuthors.get(user);
+        return other == author ? author.hashtags.size() > 1 : author.partners.contains(other);
+    }
+
+    /* Counts a new edge, and a new follower of user unless another spelling of follower follows another spelling of user. */
+    private void countFollower(String follower, String user) {
+        edgeCount++;
+        int userId = acquireId(user);
+        if (followSpellings.increment(idOf(follower), userId) == 1) {
+            followerCounts[userId]++;
+        }
+    }
+
+    /* Uncounts a removed edge, and the follower of user if no other spelling of follower follows user. */
+    private void uncountFollower(String follower, String user) {
+        edgeCount--;
+        int userId = idOf(user);
+        if (followSpellings.decrement(idOf(follower), userId) == 0 && --followerCounts[userId] == 0) {
+            releaseIfUnused(userId);
+        }
+    }
+
+    /* Returns the id of username, giving it a free one, with room in the arrays, if it has none. */
+    private int acquireId(String username) {
+        String name = MentionScanner.toLowerCase(username, 0, username.length());
+        Integer id = userIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        int newId;
+        if (!freeUserIds.isEmpty()) {
+            newId = freeUserIds.pop();
+        }
+        else {
+            if (idCount == names.length) {
+                int capacity = 2 * names.length;
+                names = Arrays.copyOf(names, capacity);
+                keyCounts = Arrays.copyOf(keyCounts, capacity);
+                followerCounts = Arrays.copyOf(followerCounts, capacity);
+            }
+            newId = idCount++;
+        }
+        names[newId] = name;
+        userIds.put(name, newId);
+        return newId;
+    }
+
+    /* Returns the id of a user of the graph. */
+    private int idOf(String username) {
+        return userIds.get(MentionScanner.toLowerCase(username, 0, username.length()));
+    }
+
+    /* Gives back id if it is in use but neither a key nor followed any more. */
+    private void releaseIfUnused(int id) {
+        if (names[id] != null && keyCounts[id] == 0 && followerCounts[id] == 0) {
+            userIds.remove(names[id]);
+            names[id] = null;
+            freeUserIds.push(id);
+        }
+    }
+
+    /* Subtracts one from the positive counts.get(key) and returns the new count, removing key at zero. */
+    private static int decrement(Map<String, Integer> counts, String key) {
+        int count = counts.get(key) - 1;
+        if (count == 0) {
+            counts.remove(key);
+        }
+        else {
+            counts.put(key, count);
+        }
+        return count;
+    }
+
+    /**
+     * @return number of tweets in the graph
+     */
+    public int tweetCount() {
+        return tweetCount;
+    }
+
+    /**
+     * @return number of edges in the graph
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return number of distinct users of the graph, ignoring case
+     */
+    public int userCount() {
+        return userIds.size();
+    }
+
+    /*
+     * Returns the length of the arrays indexed by user id, which grows with
+     * the most users the graph has held at once.
+     */
+    int idCapacity() {
+        return names.length;
+    }
+
+    /**
+     * @return a new follows graph equal to
+     *         SocialNetwork.guessFollowsGraph() of the tweets in the graph
+     */
+    public Map<String, Set<String>> getFollowsGraph() {
+        Map<String, Set<String>> copy = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            copy.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * @param username
+     *            a key of the graph, spelled exactly
+     * @return an unmodifiable view of the users that username follows, empty
+     *         if username is not a key of the graph
+     */
+    public Set<String> follows(String username) {
+        Set<String> follows = followsGraph.get(username);
+        return follows == null ? Collections.emptySet() : Collections.unmodifiableSet(follows);
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return number of distinct users, ignoring case, among the keys of the
+     *         graph that follow username in any spelling
+     */
+    public int followerCount(String username) {
+        Integer id = userIds.get(MentionScanner.toLowerCase(username, 0, username.length()));
+        return id == null ? 0 : followerCounts[id];
+    }
+
+    /**
+     * Find the k users of the graph with the most followers, as
+     * TopInfluencers.top(getFollowsGraph(), k), without copying the graph.
+     *
+     * @param k
+     *            number of users to return, requires k >= 0
+     * @return the min(k, n) lower-case usernames with the most followers, of
+     *         the n users in the graph, in descending order of follower count
+     *         and then in increasing order of username
+     * @throws IllegalArgumentException if k < 0
+     */
+    public List<String> influencers(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
+        return TopInfluencers.select(idCount, id -> names[id] != null, id -> names[id], k,
+                (a, b) -> followerCounts[a] != followerCounts[b]
+                        ? followerCounts[a] > followerCounts[b]
+                        : names[a].compareTo(names[b]) < 0);
+    }
+
+    /**
+     * One author, ignoring case, of the tweets in the graph.
+     */
+    private static class Author {
+
+        private final int id;
+        private int tweetCount = 0;
+        private final Map<String, Integer> spellings = new HashMap<>();
+        private final Map<String, Integer> mentions = new HashMap<>();
+        private final Map<String, Integer> hashtags = new HashMap<>();
+        private final Set<Author> partners = new HashSet<>();
+        /* Rep invariant:
+         *    tweetCount is the number of the author's tweets in the graph
+         *    spellings maps each spelling of the author in the tweets to its
+         *        number of tweets, mentions each lower-case user they mention
+         *        to its number of tweets, and hashtags each hashtag they
+         *        used to its number of tweets; every count is positive
+         */
+
+        Author(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * A positive counter for each of some ordered pairs of ids, in an
+     * open-addressing table with linear probing.
+     */
+    private static class PairCounts {
+
+        private long[] keys = newKeys(16);
+        private int[] counts = new int[16];
+        private int size = 0;
+        /* Rep invariant:
+         *    keys.length == counts.length, a power of two, > 2 * size
+         *    keys[i] is EMPTY or (a << 32 | b) for a pair (a, b) whose count is
+         *        counts[i] > 0, placed by linear probing from slot(keys[i])
+         *        with no EMPTY slot in between
+         *    size is the number of i with keys[i] != EMPTY
+         */
+
+        /* Adds one to the count of (a, b) and returns the new count. */
+        int increment(int a, int b) {
+            long key = (long) a << 32 | b;
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) {
+                    return ++counts[i];
+                }
+                i = (i + 1) & mask;
+            }
+            if (2 * (size + 1) >= keys.length) {
+                grow();
+                mask = keys.length - 1;
+                i = slot(key, mask);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+            }
+            keys[i] = key;
+            counts[i] = 1;
+            size++;
+            return 1;
+        }
+
+        /* Subtracts one from the positive count of (a, b) and returns the new count, removing the pair at zero. */
+        int decrement(int a, int b) {
+            long key = (long) a << 32 | b;
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (--counts[i] > 0) {
+                return counts[i];
+            }
+
+            // Shift back each later pair of the probe run that may fill the hole, then empty the hole
+            int hole = i;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                if (((j - slot(keys[j], mask)) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    counts[hole] = counts[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = EMPTY;
+            counts[hole] = 0;
+            size--;
+            return 0;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = newKeys(2 * oldKeys.length);
+            counts = new int[2 * oldKeys.length];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) {
+                    int i = slot(oldKeys[j], mask);
+                    while (keys[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    counts[i] = oldCounts[j];
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
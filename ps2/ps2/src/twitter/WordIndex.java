@@ -0,0 +1,168 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WordIndex is an inverted index of the words of a list of tweets, built once
+ * and then queried any number of times in place of Filter.containing().
+ *
+ * For each word, case-folded by TweetTokenizer.foldCase(), the index keeps the
+ * positions of the tweets that contain it as a CompressedBitmap (its posting
+ * list). A query reads only the posting lists of its words.
+ * A WordIndex is immutable and safe for use by multiple threads.
+ */
+public class WordIndex {
+
+    private static final CompressedBitmap NO_POSITIONS = new CompressedBitmap();
+
+    private final List<Tweet> tweets;
+    private final Map<String, CompressedBitmap> postings;
+    /* Rep invariant:
+     *    every key of postings is a case-folded word with no space
+     *    every value of postings is nonempty, with elements in [0..tweets.size())
+     *    i is in postings.get(w) iff tweets.get(i) has a word whose folding is w
+     * Abstraction function:
+     *    represents the index of the words of tweets
+     * Thread safety argument:
+     *    tweets, postings and NO_POSITIONS are never modified after
+     *    construction, and posting lists are never returned to clients
+     */
+
+    /**
+     * Make an index of the words of tweets.
+     *
+     * @param tweets
+     *            a list of tweets, not modified by this method; the index
+     *            keeps a copy of the list
+     */
+    public WordIndex(List<Tweet> tweets) {
+        this(new ArrayList<>(tweets), new HashMap<>());
+        for (int i = 0; i < this.tweets.size(); i++) {
+            int position = i;
+            TweetTokenizer.tokenize(this.tweets.get(i).getText(), new TweetTokenizer.Listener() {
+                @Override public void word(String text, int start, int end) {
+                    add(postings, text, start, end, position);
+                }
+            });
+        }
+        for (CompressedBitmap list : postings.values()) {
+            list.runOptimize();
+        }
+    }
+
+    /*
+     * Make an index of the words of tweets from its posting lists, which the
+     * caller has built and will not modify; neither is copied.
+     */
+    WordIndex(List<Tweet> tweets, Map<String, CompressedBitmap> postings) {
+        this.tweets = tweets;
+        this.postings = postings;
+    }
+
+    /* Adds position to the posting list of the word text[start..end). */
+    static void add(Map<String, CompressedBitmap> postings, String text, int start, int end, int position) {
+        postings.computeIfAbsent(TweetTokenizer.foldCase(text, start, end), word -> new CompressedBitmap())
+                .add(position);
+    }
+
+    /**
+     * @return number of tweets in the index
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return number of distinct case-folded words in the tweets
+     */
+    public int wordCount() {
+        return postings.size();
+    }
+
+    /**
+     * @param word
+     *            a nonempty sequence of nonspace characters
+     * @return number of tweets that contain word, ignoring case
+     */
+    public int frequency(String word) {
+        return postingsOf(word).cardinality();
+    }
+
+    /**
+     * Find tweets that contain a word.
+     *
+     * @param word
+     *            a nonempty sequence of nonspace characters
+     * @return positions of all and only the tweets whose text includes word,
+     *         ignoring case, in increasing order
+     */
+    public int[] positionsContaining(String word) {
+        return postingsOf(word).toArray();
+    }
+
+    /**
+     * Find tweets that contain certain words, as Filter.containing().
+     *
+     * @param words
+     *            a list of words, each a nonempty sequence of nonspace characters
+     * @return positions of all and only the tweets whose text includes at least
+     *         one of the words, ignoring case, in increasing order
+     */
+    public int[] positionsContaining(List<String> words) {
+        return union(words).toArray();
+    }
+
+    /**
+     * Find tweets that contain certain words, as Filter.containing().
+     *
+     * @param words
+     *            a list of words, each a nonempty sequence of nonspace characters
+     * @return all and only the tweets in the index whose text includes at
+     *         least one of the words, ignoring case, in the same order as in
+     *         the list the index was made from
+     */
+    public List<Tweet> containing(List<String> words) {
+        CompressedBitmap positions = union(words);
+        List<Tweet> found = new ArrayList<>(positions.cardinality());
+        positions.forEach(position -> found.add(tweets.get(position)));
+        return found;
+    }
+
+    /* Union of the posting lists of words, not to be modified. */
+    CompressedBitmap union(List<String> words) {
+        List<CompressedBitmap> lists = new ArrayList<>();
+        for (String word : words) {
+            CompressedBitmap list = postingsOf(word);
+            if (!list.isEmpty() && !containsSame(lists, list)) {
+                lists.add(list);
+            }
+        }
+        switch (lists.size()) {
+        case 0:
+            return NO_POSITIONS;
+        case 1:
+            return lists.get(0);
+        default:
+            return CompressedBitmap.or(lists);
+        }
+    }
+
+    /* Posting list of word, not to be modified. */
+    CompressedBitmap postingsOf(String word) {
+        CompressedBitmap list = postings.get(TweetTokenizer.foldCase(word, 0, word.length()));
+        return list != null ? list : NO_POSITIONS;
+    }
+
+    /* Returns true iff lists has list itself, as when a query repeats a word in another case. */
+    private static boolean containsSame(List<CompressedBitmap> lists, CompressedBitmap list) {
+        for (CompressedBitmap other : lists) {
+            if (other == list) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
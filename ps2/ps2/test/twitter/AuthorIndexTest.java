@@ -0,0 +1,83 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class AuthorIndexTest {
+
+    /*
+     * Testing strategy for AuthorIndex
+     *
+     * Input partitions:
+     * tweets: none, one, many
+     * username: absent, same spelling, different case, author with several spellings
+     * dictionary: own, shared with ids for users without tweets
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "ALYSSA", "rivest talk now", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers tweets none, username absent
+    @Test
+    public void testEmpty() {
+        AuthorIndex index = new AuthorIndex(Collections.emptyList());
+
+        assertEquals("expected no tweets", 0, index.size());
+        assertEquals("expected no authors", 0, index.authorCount());
+        assertEquals("expected no tweets", Collections.emptyList(), index.writtenBy("alyssa"));
+    }
+
+    // Covers tweets one, same spelling, different case
+    @Test
+    public void testOneTweet() {
+        AuthorIndex index = new AuthorIndex(Arrays.asList(tweet2));
+
+        assertEquals("expected tweet", Arrays.asList(tweet2), index.writtenBy("bbitdiddle"));
+        assertEquals("expected tweet", Arrays.asList(tweet2), index.writtenBy("BBitDiddle"));
+        assertEquals("expected no tweets", 0, index.count("alyssa"));
+    }
+
+    // Covers several spellings, shared dictionary with users without tweets
+    @Test
+    public void testSharedDictionary() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        dictionary.id("nobody");
+        AuthorIndex index = new AuthorIndex(Arrays.asList(tweet1, tweet2, tweet3), dictionary);
+        dictionary.id("latecomer");
+
+        assertEquals("expected tweets in order", Arrays.asList(tweet1, tweet3), index.writtenBy("Alyssa"));
+        assertArrayEquals("expected positions", new int[] { 0, 2 }, index.positionsWrittenBy("alyssa"));
+        assertEquals("expected authors", Arrays.asList("alyssa", "bbitdiddle"), index.authors());
+        assertEquals("expected no tweets", Collections.emptyList(), index.writtenBy("nobody"));
+        assertEquals("expected no tweets", Collections.emptyList(), index.writtenBy("latecomer"));
+    }
+
+    // Covers tweets many
+    @Test
+    public void testSameAsFilter() {
+        List<Tweet> tweets = new TweetGenerator(8, 200, 1, 5).stream().limit(4000).collect(Collectors.toList());
+        AuthorIndex index = new AuthorIndex(tweets);
+
+        for (String username : Arrays.asList("user1", "USER2", "User150", "user999")) {
+            assertEquals("expected same tweets as Filter", Filter.writtenBy(tweets, username), index.writtenBy(username));
+        }
+    }
+}
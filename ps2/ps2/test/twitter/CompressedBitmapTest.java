@@ -0,0 +1,172 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CompressedBitmapTest {
+
+    /*
+     * Testing strategy for CompressedBitmap
+     *
+     * Input partitions:
+     * contents: empty, sparse (array containers), dense (bitmap containers),
+     *           consecutive (run containers after runOptimize), several chunks
+     * add(): increasing order, any order, repeated value, array container full, negative value
+     * and(), or(), andNot(), or(Collection): every pair of container kinds,
+     *           disjoint chunks, empty result
+     * range(): empty, within one chunk, across chunks
+     * observers: contains, cardinality, toArray, forEach, equals, sizeInBytes
+     *
+     * Covering each part
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers empty, range() empty
+    @Test
+    public void testEmpty() {
+        CompressedBitmap empty = new CompressedBitmap();
+
+        assertTrue("expected empty", empty.isEmpty());
+        assertEquals("expected no elements", 0, empty.cardinality());
+        assertFalse("expected no element", empty.contains(0));
+        assertArrayEquals("expected no elements", new int[0], empty.toArray());
+        assertEquals("expected equal", empty, CompressedBitmap.range(5, 5));
+        assertEquals("expected empty", empty, CompressedBitmap.of(1, 2).and(CompressedBitmap.of(3)));
+    }
+
+    // Covers add() in any order, repeated value, several chunks, contains
+    @Test
+    public void testAdd() {
+        CompressedBitmap bitmap = CompressedBitmap.of(70000, 3, 3, 1, 65536, 65535);
+
+        assertArrayEquals("expected sorted elements", new int[] { 1, 3, 65535, 65536, 70000 }, bitmap.toArray());
+        assertTrue("expected element", bitmap.contains(65536));
+        assertFalse("expected no element", bitmap.contains(2));
+        assertFalse("expected no element", bitmap.contains(-1));
+        assertEquals("expected string", "{1, 3, 65535, 65536, 70000}", bitmap.toString());
+    }
+
+    // Covers negative value
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNegative() {
+        new CompressedBitmap().add(-5);
+    }
+
+    // Covers add() in increasing order, array container full, dense, forEach
+    @Test
+    public void testDense() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 3 * CompressedBitmap.ARRAY_MAX; i += 2) {
+            bitmap.add(i);
+            expected.set(i);
+        }
+        List<Integer> visited = new ArrayList<>();
+        bitmap.forEach(visited::add);
+
+        assertArrayEquals("expected elements", expected.stream().toArray(), bitmap.toArray());
+        assertEquals("expected cardinality", expected.cardinality(), bitmap.cardinality());
+        assertEquals("expected elements in order", expected.cardinality(), visited.size());
+        assertEquals("expected last element", Integer.valueOf(3 * CompressedBitmap.ARRAY_MAX - 2), visited.get(visited.size() - 1));
+    }
+
+    // Covers consecutive, runOptimize, range() within and across chunks, sizeInBytes
+    @Test
+    public void testRuns() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 1000; i < 200000; i++) {
+            bitmap.add(i);
+        }
+        long before = bitmap.sizeInBytes();
+        bitmap.runOptimize();
+
+        assertEquals("expected same elements", CompressedBitmap.range(1000, 200000), bitmap);
+        assertTrue("expected smaller", bitmap.sizeInBytes() < before / 100);
+        assertEquals("expected cardinality", 199000, bitmap.cardinality());
+        assertTrue("expected element", bitmap.contains(131072));
+        assertFalse("expected no element", bitmap.contains(200000));
+        assertArrayEquals("expected elements", new int[] { 7, 8, 9 }, CompressedBitmap.range(7, 10).toArray());
+    }
+
+    // Covers every pair of container kinds, disjoint chunks, or(Collection)
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(15);
+        List<BitSet> sets = new ArrayList<>();
+        List<CompressedBitmap> bitmaps = new ArrayList<>();
+        for (int kind = 0; kind < 6; kind++) {
+            BitSet set = new BitSet();
+            CompressedBitmap bitmap = new CompressedBitmap();
+            int chunks = 1 + random.nextInt(3);
+            for (int i = 0; i < 200000; i++) {
+                boolean in;
+                switch (kind % 3) {
+                case 0: // sparse
+                    in = random.nextInt(100) == 0;
+                    break;
+                case 1: // dense
+                    in = random.nextInt(3) == 0;
+                    break;
+                default: // runs
+                    in = (i / 1000) % 3 == kind % 2;
+                }
+                if (in && i < chunks * 65536) {
+                    set.set(i);
+                    bitmap.add(i);
+                }
+            }
+            if (kind >= 3) {
+                bitmap.runOptimize();
+            }
+            sets.add(set);
+            bitmaps.add(bitmap);
+        }
+
+        BitSet union = new BitSet();
+        for (int a = 0; a < sets.size(); a++) {
+            union.or(sets.get(a));
+            for (int b = 0; b < sets.size(); b++) {
+                BitSet and = (BitSet) sets.get(a).clone();
+                and.and(sets.get(b));
+                BitSet or = (BitSet) sets.get(a).clone();
+                or.or(sets.get(b));
+                BitSet andNot = (BitSet) sets.get(a).clone();
+                andNot.andNot(sets.get(b));
+                String pair = " for " + a + ", " + b;
+
+                assertArrayEquals("expected and" + pair, and.stream().toArray(), bitmaps.get(a).and(bitmaps.get(b)).toArray());
+                assertArrayEquals("expected or" + pair, or.stream().toArray(), bitmaps.get(a).or(bitmaps.get(b)).toArray());
+                assertArrayEquals("expected andNot" + pair, andNot.stream().toArray(),
+                        bitmaps.get(a).andNot(bitmaps.get(b)).toArray());
+                assertEquals("expected cardinality" + pair, and.cardinality(), bitmaps.get(a).and(bitmaps.get(b)).cardinality());
+            }
+        }
+        assertArrayEquals("expected union", union.stream().toArray(), CompressedBitmap.or(bitmaps).toArray());
+    }
+
+    // Covers operations leave operands unchanged, equals
+    @Test
+    public void testOperandsUnchanged() {
+        CompressedBitmap a = CompressedBitmap.of(1, 2, 3);
+        CompressedBitmap b = CompressedBitmap.of(3, 4);
+        CompressedBitmap union = a.or(b);
+        union.add(10);
+
+        assertEquals("expected unchanged", CompressedBitmap.of(1, 2, 3), a);
+        assertEquals("expected unchanged", CompressedBitmap.of(3, 4), b);
+        assertEquals("expected union", CompressedBitmap.of(1, 2, 3, 4, 10), union);
+        assertEquals("expected union", CompressedBitmap.of(1, 2, 3, 4), CompressedBitmap.or(Arrays.asList(a, b)));
+        assertEquals("expected same hash code", CompressedBitmap.of(3, 2, 1).hashCode(), a.hashCode());
+    }
+}
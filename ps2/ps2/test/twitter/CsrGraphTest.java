@@ -0,0 +1,164 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class CsrGraphTest {
+
+    /*
+     * Testing strategy for CsrGraph
+     *
+     * Input partitions:
+     * fromMap(): empty map, users only followed, users following nobody,
+     *            keys or follows equal ignoring case, shared dictionary
+     * following(): unknown user, no follows, several follows
+     * influencers(): no users, equal follower counts, different counts
+     * transpose(): empty, several edges
+     * toMap(): round trip through fromMap()
+     *
+     * Covering each part, and comparing with SocialNetwork on generated tweets
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers empty map, influencers() no users, transpose() empty
+    @Test
+    public void testEmpty() {
+        CsrGraph graph = CsrGraph.fromMap(new HashMap<>());
+
+        assertEquals("expected no users", 0, graph.userCount());
+        assertEquals("expected no edges", 0, graph.edgeCount());
+        assertEquals("expected no influencers", Collections.emptyList(), graph.influencers());
+        assertEquals("expected empty map", Collections.emptyMap(), graph.transpose().toMap());
+    }
+
+    // Covers users only followed, users following nobody, following() all parts
+    @Test
+    public void testFollowing() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("alyssa", new HashSet<>(Arrays.asList("bbitdiddle", "eva")));
+        followsGraph.put("ben", new HashSet<>());
+        CsrGraph graph = CsrGraph.fromMap(followsGraph);
+        UsernameDictionary dictionary = graph.getDictionary();
+
+        assertEquals("expected users", 4, graph.userCount());
+        assertEquals("expected edges", 2, graph.edgeCount());
+        assertEquals("expected follows", new HashSet<>(Arrays.asList("bbitdiddle", "eva")), graph.following("Alyssa"));
+        assertEquals("expected no follows", Collections.emptySet(), graph.following("eva"));
+        assertEquals("expected no follows", Collections.emptySet(), graph.following("nobody"));
+        assertEquals("expected following count", 2, graph.followingCount(dictionary.lookup("alyssa")));
+        assertTrue("expected user", graph.isUser(dictionary.lookup("ben")));
+        assertFalse("expected not user", graph.isUser(-1));
+        int[] follows = graph.following(dictionary.lookup("alyssa"));
+        assertEquals("expected ids", 2, follows.length);
+        assertTrue("expected increasing ids", follows[0] < follows[1]);
+    }
+
+    // Covers keys or follows equal ignoring case, influencers() equal and different counts
+    @Test
+    public void testCaseInsensitive() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("Alyssa", new HashSet<>(Arrays.asList("bbitdiddle", "BBitdiddle")));
+        followsGraph.put("alyssa", new HashSet<>(Arrays.asList("Eva", "bbitdiddle")));
+        followsGraph.put("ben", new HashSet<>(Arrays.asList("eva")));
+        CsrGraph graph = CsrGraph.fromMap(followsGraph);
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("alyssa", new HashSet<>(Arrays.asList("bbitdiddle", "eva")));
+        expected.put("ben", new HashSet<>(Arrays.asList("eva")));
+        expected.put("bbitdiddle", new HashSet<>());
+        expected.put("eva", new HashSet<>());
+        assertEquals("expected merged users", expected, graph.toMap());
+        assertEquals("expected edges counted once", 3, graph.edgeCount());
+        List<String> influencers = graph.influencers();
+        assertEquals("expected most followed first", "eva", influencers.get(0));
+        assertEquals("expected followed next", "bbitdiddle", influencers.get(1));
+        assertEquals("expected all users", 4, influencers.size());
+    }
+
+    // Covers shared dictionary, transpose() several edges
+    @Test
+    public void testTranspose() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        dictionary.id("unrelated");
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("alyssa", new HashSet<>(Arrays.asList("bbitdiddle", "eva")));
+        followsGraph.put("ben", new HashSet<>(Arrays.asList("eva")));
+        CsrGraph graph = CsrGraph.fromMap(followsGraph, dictionary);
+        CsrGraph followers = graph.transpose();
+
+        assertSame("expected shared dictionary", dictionary, graph.getDictionary());
+        assertFalse("expected not user", graph.isUser(dictionary.lookup("unrelated")));
+        assertEquals("expected same users", graph.userCount(), followers.userCount());
+        assertEquals("expected same edge count", graph.edgeCount(), followers.edgeCount());
+        assertEquals("expected followers", new HashSet<>(Arrays.asList("alyssa", "ben")), followers.following("eva"));
+        assertEquals("expected followers", new HashSet<>(Arrays.asList("alyssa")), followers.following("bbitdiddle"));
+        assertEquals("expected no followers", Collections.emptySet(), followers.following("alyssa"));
+        assertEquals("expected original graph", graph.toMap(), followers.transpose().toMap());
+        assertFalse("expected no influencer", graph.influencers().contains("unrelated"));
+        dictionary.id("newcomer");
+        int[] counts = graph.followerCounts();
+        assertEquals("expected a count up to the largest user id", 5, counts.length);
+        assertEquals("expected followers", 2, counts[dictionary.lookup("eva")]);
+        assertArrayEquals("expected same counts", counts, graph.parallelFollowerCounts());
+    }
+
+    // Covers toMap() round trip, comparing with SocialNetwork on generated tweets
+    @Test
+    public void testSameAsSocialNetwork() {
+        for (int seed = 0; seed < 5; seed++) {
+            List<Tweet> tweets = new TweetGenerator(seed, 40, 1, 2).stream().limit(300).collect(Collectors.toList());
+            Map<String, Set<String>> followsGraph = lowerCase(SocialNetwork.guessFollowsGraph(tweets));
+            CsrGraph graph = CsrGraph.fromMap(followsGraph);
+
+            assertEquals("expected round trip", graph.toMap(), CsrGraph.fromMap(graph.toMap()).toMap());
+            int edges = 0;
+            for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+                assertEquals("expected follows of " + entry.getKey(), entry.getValue(), graph.following(entry.getKey()));
+                edges += entry.getValue().size();
+            }
+            assertEquals("expected edge count", edges, graph.edgeCount());
+
+            List<String> expected = SocialNetwork.influencers(followsGraph);
+            List<String> actual = graph.influencers();
+            int[] counts = graph.followerCounts();
+            assertEquals("expected same users", new HashSet<>(expected), new HashSet<>(actual));
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals("expected same follower count at " + i,
+                        counts[graph.getDictionary().lookup(expected.get(i))],
+                        counts[graph.getDictionary().lookup(actual.get(i))]);
+            }
+        }
+    }
+
+    /* Merges keys and follows equal ignoring case, as a well-formed graph would have. */
+    private static Map<String, Set<String>> lowerCase(Map<String, Set<String>> followsGraph) {
+        Map<String, Set<String>> lowerCase = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            String user = toLowerCase(entry.getKey());
+            Set<String> follows = lowerCase.computeIfAbsent(user, key -> new HashSet<>());
+            for (String followed : entry.getValue()) {
+                follows.add(toLowerCase(followed));
+            }
+            follows.remove(user);
+        }
+        return lowerCase;
+    }
+
+    private static String toLowerCase(String username) {
+        return MentionScanner.toLowerCase(username, 0, username.length());
+    }
+}
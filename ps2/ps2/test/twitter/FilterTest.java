@@ -3,6 +3,7 @@ package twitter;
 import static org.junit.Assert.*;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
@@ -38,6 +39,7 @@ public class FilterTest {
      * words.size(): 0, 1, >1
      * tweet.text in tweets: No tweet contains word in words, one tweet contains word in words, multiple tweets contain a word in words,
      * multiple tweets contain multiple words in words, tweet contains word with different cases
+     * repeated calls: same word list, same list modified between calls
      * 
      */
     
@@ -301,6 +303,17 @@ public class FilterTest {
         assertTrue("expected empty list", containing.isEmpty());
     }
     
+    // Covers repeated calls with the same word list, and with the list modified between calls
+    @Test
+    public void testContainingRepeatedCalls() {
+        List<String> words = new ArrayList<>(Arrays.asList("minutes"));
+        
+        assertEquals("expected tweet2", Arrays.asList(tweet2), Filter.containing(Arrays.asList(tweet1, tweet2), words));
+        assertEquals("expected same result", Arrays.asList(tweet2), Filter.containing(Arrays.asList(tweet1, tweet2), words));
+        words.set(0, "reasonable");
+        assertEquals("expected tweet1", Arrays.asList(tweet1), Filter.containing(Arrays.asList(tweet1, tweet2), words));
+    }
+    
     /*
      * Warning: all the tests you write here must be runnable against any Filter
      * class that follows the spec. It will be run against several staff
@@ -0,0 +1,139 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class FollowsGraphBuilderTest {
+
+    /*
+     * Testing strategy for FollowsGraphBuilder.build()
+     *
+     * Input partitions:
+     * tweets: none, one, many
+     * author spellings: one per author, several equal ignoring case
+     * mentions: none, other user, self spelled exactly, self in another case
+     * shared hashtags with another author: none, one, more than one,
+     *                                      same hashtag in another case
+     * shared hashtags within one author's spellings: one, more than one
+     *
+     * Covering each part, and comparing with a direct implementation of
+     * SocialNetwork.guessFollowsGraph()'s definition on generated tweets
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers tweets none
+    @Test
+    public void testEmpty() {
+        assertEquals("expected empty graph", Collections.emptyMap(), FollowsGraphBuilder.build(new ArrayList<>()));
+    }
+
+    // Covers tweets one, mentions other user, self spelled exactly
+    @Test
+    public void testMentions() {
+        List<Tweet> tweets = Arrays.asList(new Tweet(1, "alyssa", "@bbitdiddle @alyssa hi", d1));
+
+        assertEquals("expected mention", Collections.singletonMap("alyssa", new HashSet<>(Arrays.asList("bbitdiddle"))),
+                FollowsGraphBuilder.build(tweets));
+    }
+
+    // Covers several spellings, self in another case, shared within one author's spellings more than one
+    @Test
+    public void testSpellings() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "Alyssa", "@alyssa #a", d1),
+                new Tweet(2, "alyssa", "#b", d1));
+        Map<String, Set<String>> graph = FollowsGraphBuilder.build(tweets);
+
+        assertEquals("expected same as definition", guessFollowsGraph(tweets), graph);
+        assertEquals("expected own mention and other spelling", new HashSet<>(Arrays.asList("alyssa")), graph.get("Alyssa"));
+        assertEquals("expected other spelling", new HashSet<>(Arrays.asList("Alyssa")), graph.get("alyssa"));
+    }
+
+    // Covers shared hashtags none, one, more than one, same hashtag in another case, within spellings one
+    @Test
+    public void testSharedHashtags() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "#a #b #c", d1),
+                new Tweet(2, "bbitdiddle", "#a #b", d1),
+                new Tweet(3, "BBitdiddle", "#x", d1),
+                new Tweet(4, "ben", "#a #B", d1),
+                new Tweet(5, "eva", "#c", d1));
+        Map<String, Set<String>> graph = FollowsGraphBuilder.build(tweets);
+
+        assertEquals("expected same as definition", guessFollowsGraph(tweets), graph);
+        assertEquals("expected both spellings", new HashSet<>(Arrays.asList("bbitdiddle", "BBitdiddle")),
+                graph.get("alyssa"));
+        assertEquals("expected no follows", Collections.emptySet(), graph.get("ben"));
+    }
+
+    // Covers tweets many
+    @Test
+    public void testSameAsDefinition() {
+        List<Tweet> tweets = new TweetGenerator(21, 60, 1, 2).stream().limit(3000).collect(Collectors.toList());
+        Random random = new Random(21);
+        List<Tweet> mixed = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            String author = random.nextInt(10) == 0 ? tweet.getAuthor().toUpperCase() : tweet.getAuthor();
+            mixed.add(new Tweet(tweet.getId(), author, tweet.getText(), tweet.getTimestamp()));
+        }
+
+        assertEquals("expected same as definition", guessFollowsGraph(mixed), FollowsGraphBuilder.build(mixed));
+    }
+
+    /* SocialNetwork.guessFollowsGraph() as first written, one author spelling at a time. */
+    private static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
+        Set<String> authors = new HashSet<>();
+        for (Tweet tweet : tweets) {
+            authors.add(tweet.getAuthor());
+        }
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (String user : authors) {
+            List<Tweet> tweetsBy = Filter.writtenBy(tweets, user);
+            Set<String> follows = Extract.getMentionedUsers(tweetsBy);
+            follows.remove(user);
+            Set<String> hashtags = hashtags(tweetsBy);
+            for (String other : authors) {
+                if (!other.equals(user)) {
+                    Set<String> shared = hashtags(Filter.writtenBy(tweets, other));
+                    shared.retainAll(hashtags);
+                    if (shared.size() > 1) {
+                        follows.add(other);
+                    }
+                }
+            }
+            graph.put(user, follows);
+        }
+        return graph;
+    }
+
+    private static Set<String> hashtags(List<Tweet> tweets) {
+        Set<String> hashtags = new HashSet<>();
+        for (Tweet tweet : tweets) {
+            for (String word : tweet.getText().split(" ")) {
+                if (word.startsWith("#")) {
+                    hashtags.add(word);
+                }
+            }
+        }
+        return hashtags;
+    }
+}
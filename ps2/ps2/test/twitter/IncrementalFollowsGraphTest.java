@@ -0,0 +1,156 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class IncrementalFollowsGraphTest {
+
+    /*
+     * Testing strategy for IncrementalFollowsGraph
+     *
+     * Input partitions:
+     * batches: none, empty, one tweet, many tweets, many batches
+     * new evidence in a batch: none, mention, new spelling of an author,
+     *          second shared hashtag with another author, second hashtag of
+     *          an author with several spellings, evidence already known
+     * add() result: no edges, edges already in the graph left out
+     * follower counts: user with none, followed by several spellings of one
+     *         user, following several spellings of one user
+     * influencers(): k 0, k > users, negative
+     *
+     * Covering each part, and comparing with FollowsGraphBuilder on
+     * generated tweets split into random batches
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers batches none and empty, add() no edges
+    @Test
+    public void testEmpty() {
+        IncrementalFollowsGraph graph = new IncrementalFollowsGraph();
+
+        assertEquals("expected empty graph", Collections.emptyMap(), graph.getFollowsGraph());
+        assertEquals("expected no edges", Collections.emptyMap(), graph.add(new ArrayList<>()));
+        assertEquals("expected no tweets", 0, graph.tweetCount());
+        assertEquals("expected no influencers", Collections.emptyList(), graph.influencers(3));
+    }
+
+    // Covers one tweet, new evidence none and mention, follower counts none
+    @Test
+    public void testMention() {
+        IncrementalFollowsGraph graph = new IncrementalFollowsGraph();
+        Map<String, Set<String>> first = graph.add(Arrays.asList(new Tweet(1, "alyssa", "hello", d1)));
+        Map<String, Set<String>> second = graph.add(Arrays.asList(new Tweet(2, "alyssa", "@BBitdiddle @alyssa", d1)));
+
+        assertEquals("expected no edges", Collections.emptyMap(), first);
+        assertEquals("expected mention", Collections.singletonMap("alyssa", Collections.singleton("bbitdiddle")), second);
+        assertEquals("expected one follower", 1, graph.followerCount("BBitdiddle"));
+        assertEquals("expected no followers", 0, graph.followerCount("alyssa"));
+        assertEquals("expected follows", Collections.singleton("bbitdiddle"), graph.follows("alyssa"));
+        assertEquals("expected no follows", Collections.emptySet(), graph.follows("nobody"));
+        assertEquals("expected edge count", 1, graph.edgeCount());
+    }
+
+    // Covers new spelling of an author, evidence already known, followed by several spellings
+    @Test
+    public void testSpelling() {
+        IncrementalFollowsGraph graph = new IncrementalFollowsGraph();
+        graph.add(Arrays.asList(new Tweet(1, "alyssa", "@eva #a", d1)));
+        Map<String, Set<String>> added = graph.add(Arrays.asList(
+                new Tweet(2, "Alyssa", "@eva #a", d1),
+                new Tweet(3, "eva", "#a", d1)));
+
+        assertEquals("expected new spelling's mention only",
+                Collections.singletonMap("Alyssa", Collections.singleton("eva")), added);
+        assertEquals("expected one follower for both spellings", 1, graph.followerCount("eva"));
+        assertEquals("expected influencers", Arrays.asList("eva", "alyssa"), graph.influencers(5));
+        assertEquals("expected no influencers", Collections.emptyList(), graph.influencers(0));
+    }
+
+    // Covers second shared hashtag with another author, second hashtag of an author with several spellings
+    @Test
+    public void testSharedHashtags() {
+        IncrementalFollowsGraph graph = new IncrementalFollowsGraph();
+        graph.add(Arrays.asList(
+                new Tweet(1, "alyssa", "#a", d1),
+                new Tweet(2, "Alyssa", "hi", d1),
+                new Tweet(3, "ben", "#a #b", d1)));
+        Map<String, Set<String>> added = graph.add(Arrays.asList(new Tweet(4, "alyssa", "#b", d1)));
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("alyssa", new HashSet<>(Arrays.asList("Alyssa", "ben")));
+        expected.put("Alyssa", new HashSet<>(Arrays.asList("alyssa", "ben")));
+        expected.put("ben", new HashSet<>(Arrays.asList("alyssa", "Alyssa")));
+        assertEquals("expected hashtag edges", expected, added);
+        assertEquals("expected whole graph", expected, graph.getFollowsGraph());
+        assertEquals("expected followers counted once per user", 2, graph.followerCount("ALYSSA"));
+    }
+
+    // Covers influencers() k negative
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeK() {
+        new IncrementalFollowsGraph().influencers(-1);
+    }
+
+    // Covers many tweets, many batches, comparing with FollowsGraphBuilder
+    @Test
+    public void testSameAsBuilder() {
+        List<Tweet> tweets = new TweetGenerator(25, 60, 1, 2).stream().limit(3000).collect(Collectors.toList());
+        Random random = new Random(25);
+        List<Tweet> mixed = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            String author = random.nextInt(10) == 0 ? tweet.getAuthor().toUpperCase() : tweet.getAuthor();
+            mixed.add(new Tweet(tweet.getId(), author, tweet.getText(), tweet.getTimestamp()));
+        }
+
+        IncrementalFollowsGraph graph = new IncrementalFollowsGraph();
+        Map<String, Set<String>> previous = new HashMap<>();
+        int start = 0;
+        while (start < mixed.size()) {
+            int end = Math.min(mixed.size(), start + 1 + random.nextInt(400));
+            Map<String, Set<String>> added = graph.add(mixed.subList(start, end));
+            Map<String, Set<String>> expected = FollowsGraphBuilder.build(mixed.subList(0, end));
+
+            assertEquals("expected same as builder after " + end, expected, graph.getFollowsGraph());
+            assertEquals("expected new edges after " + end, difference(expected, previous), added);
+            UsernameDictionary dictionary = graph.getDictionary();
+            int[] counts = TopInfluencers.followerCounts(expected, dictionary);
+            assertArrayEquals("expected follower counts after " + end, counts, graph.followerCounts());
+            assertEquals("expected same influencers", TopInfluencers.top(expected, 20), graph.influencers(20));
+            previous = expected;
+            start = end;
+        }
+        assertEquals("expected every tweet", mixed.size(), graph.tweetCount());
+    }
+
+    /* Returns the edges of graph that are not in previous. */
+    private static Map<String, Set<String>> difference(Map<String, Set<String>> graph, Map<String, Set<String>> previous) {
+        Map<String, Set<String>> difference = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : graph.entrySet()) {
+            Set<String> follows = new HashSet<>(entry.getValue());
+            follows.removeAll(previous.getOrDefault(entry.getKey(), Collections.emptySet()));
+            if (!follows.isEmpty()) {
+                difference.put(entry.getKey(), follows);
+            }
+        }
+        return difference;
+    }
+}
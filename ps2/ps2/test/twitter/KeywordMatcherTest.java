@@ -0,0 +1,107 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class KeywordMatcherTest {
+
+    /*
+     * Testing strategy for KeywordMatcher
+     *
+     * Input partitions:
+     * keywords: none, one, many (thousands), repeated ignoring case,
+     *           empty or with a space, one a prefix of another
+     * text: empty, only spaces, one word, many words, leading/trailing/repeated spaces
+     * matching word: none, first, last, several, differs only in case,
+     *                non-ASCII case, keyword is a prefix or extension of the word
+     * methods: matchesAny, idOf, find, keyword, keywordCount
+     *
+     * Covering each part
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers keywords none, text empty, only spaces
+    @Test
+    public void testNoKeywords() {
+        KeywordMatcher matcher = new KeywordMatcher(Collections.<String>emptyList());
+
+        assertEquals("expected no keywords", 0, matcher.keywordCount());
+        assertFalse("expected no match", matcher.matchesAny(""));
+        assertFalse("expected no match", matcher.matchesAny("   "));
+        assertFalse("expected no match", matcher.matchesAny("rivest talk"));
+    }
+
+    // Covers keywords one, one word, differs only in case, prefix or extension of the word
+    @Test
+    public void testOneKeyword() {
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("Rivest"));
+
+        assertTrue("expected match", matcher.matchesAny("rIVEST"));
+        assertFalse("expected no match on longer word", matcher.matchesAny("rivests talk"));
+        assertFalse("expected no match on shorter word", matcher.matchesAny("rives talk"));
+        assertFalse("expected no match inside word", matcher.matchesAny("@rivest"));
+        assertEquals("expected id", 0, matcher.idOf("xRIVESTx", 1, 7));
+        assertEquals("expected no id", -1, matcher.idOf("rivest", 0, 5));
+    }
+
+    // Covers repeated ignoring case, empty or with a space, prefix of another, several, find, leading/trailing/repeated spaces
+    @Test
+    public void testFind() {
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("talk", "", "two words", "TALK", "talks", "#hype"));
+        List<String> found = new ArrayList<>();
+        matcher.find("  talks  in 30 minutes TALK #hype ", (id, text, start, end) ->
+                found.add(matcher.keyword(id) + "=" + text.substring(start, end)));
+
+        assertEquals("expected distinct keywords", 3, matcher.keywordCount());
+        assertEquals("expected first spelling", "talk", matcher.keyword(0));
+        assertEquals("expected matches in order", Arrays.asList("talks=talks", "talk=TALK", "#hype=#hype"), found);
+        assertFalse("expected no match for word with space", matcher.matchesAny("two words"));
+    }
+
+    // Covers non-ASCII case
+    @Test
+    public void testNonAsciiCase() {
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("caf\u00e9", "\u0131i", "stra\u00dfe"));
+
+        assertTrue("expected match", matcher.matchesAny("CAF\u00c9 open"));
+        assertEquals("expected same as equalsIgnoreCase", "\u0131i".equalsIgnoreCase("Ii"), matcher.matchesAny("Ii"));
+        assertEquals("expected same as equalsIgnoreCase", "stra\u00dfe".equalsIgnoreCase("STRASSE"),
+                matcher.matchesAny("STRASSE"));
+    }
+
+    // Covers keywords many, text many words, matching word none/first/last/several
+    @Test
+    public void testSameAsEqualsIgnoreCase() {
+        List<Tweet> tweets = new TweetGenerator(17, 100, 1, 2).stream().limit(2000).collect(Collectors.toList());
+        Random random = new Random(17);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            words.add("w" + Integer.toString(random.nextInt(1 << 20), 36));
+        }
+        words.addAll(Arrays.asList("Rivest", "coffee", "6.005"));
+        KeywordMatcher matcher = new KeywordMatcher(words);
+
+        for (Tweet tweet : tweets) {
+            boolean expected = false;
+            for (String word : tweet.getText().split(" ")) {
+                for (String keyword : words) {
+                    expected |= keyword.equalsIgnoreCase(word);
+                }
+            }
+            assertEquals("expected same as equalsIgnoreCase for " + tweet.getText(), expected,
+                    matcher.matchesAny(tweet.getText()));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class LazyFilterTest {
+
+    /*
+     * Testing strategy for LazyFilter
+     *
+     * Input partitions:
+     * tweets: none, one, many
+     * list: random access, sequential access
+     * matches: none, some, all
+     * use of the result: collect, count, limit / findFirst, iterate twice,
+     *                    parallel stream
+     * condition: writtenBy, inTimespan, containing, composed
+     * list appended to: after the stream is made and before it is traversed
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers tweets none, matches none, collect
+    @Test
+    public void testEmpty() {
+        List<Tweet> tweets = new ArrayList<>();
+
+        assertEquals("expected no tweets", 0, LazyFilter.writtenBy(tweets, "alyssa").count());
+        assertFalse("expected no tweets", LazyFilter.iterable(tweets, tweet -> true).iterator().hasNext());
+    }
+
+    // Covers random access, list appended to after the stream is made
+    @Test
+    public void testAppendBeforeTraversal() {
+        List<Tweet> tweets = new ArrayList<>(Arrays.asList(tweet1));
+        Stream<Tweet> stream = LazyFilter.stream(tweets, tweet -> true);
+        Iterable<Tweet> iterable = LazyFilter.iterable(tweets, tweet -> true);
+        tweets.add(tweet2);
+
+        assertEquals("expected appended tweet", Arrays.asList(tweet1, tweet2), stream.collect(Collectors.toList()));
+        List<Tweet> iterated = new ArrayList<>();
+        iterable.forEach(iterated::add);
+        assertEquals("expected appended tweet", Arrays.asList(tweet1, tweet2), iterated);
+    }
+
+    // Covers tweets one, random access, matches some, writtenBy, inTimespan, containing
+    @Test
+    public void testEachCondition() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2);
+
+        assertEquals("expected tweet1", Arrays.asList(tweet1),
+                LazyFilter.writtenBy(tweets, "ALYSSA").collect(Collectors.toList()));
+        assertEquals("expected tweet2", Arrays.asList(tweet2),
+                LazyFilter.inTimespan(tweets, new Timespan(d2, d2)).collect(Collectors.toList()));
+        assertEquals("expected tweet1", Arrays.asList(tweet1),
+                LazyFilter.containing(tweets, Arrays.asList("Reasonable")).collect(Collectors.toList()));
+        assertEquals("expected tweet2", Arrays.asList(tweet2), LazyFilter.containing(Collections.singletonList(tweet2),
+                Arrays.asList("talk")).collect(Collectors.toList()));
+    }
+
+    // Covers tweets many, sequential access, matches all, iterate twice, composed
+    @Test
+    public void testIterable() {
+        List<Tweet> tweets = new LinkedList<>(Arrays.asList(tweet1, tweet2));
+        Iterable<Tweet> view = LazyFilter.iterable(tweets,
+                LazyFilter.isContaining(Arrays.asList("rivest")).and(LazyFilter.isInTimespan(new Timespan(d1, d2))));
+        List<Tweet> first = new ArrayList<>();
+        view.forEach(first::add);
+        List<Tweet> second = new ArrayList<>();
+        view.forEach(second::add);
+
+        assertEquals("expected all tweets", tweets, first);
+        assertEquals("expected same tweets again", first, second);
+        Iterator<Tweet> iterator = view.iterator();
+        iterator.next();
+        iterator.next();
+        try {
+            iterator.next();
+            fail("expected NoSuchElementException");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    // Covers limit / findFirst: tweets past the first matches are never read
+    @Test
+    public void testShortCircuit() {
+        List<Tweet> tweets = new AbstractList<Tweet>() {
+            @Override public Tweet get(int index) {
+                if (index >= 10) {
+                    throw new AssertionError("read past the first matches: " + index);
+                }
+                return index % 2 == 0 ? tweet1 : tweet2;
+            }
+
+            @Override public int size() {
+                return 1000000;
+            }
+        };
+
+        assertEquals("expected first match", tweet2, LazyFilter.writtenBy(tweets, "bbitdiddle").findFirst().get());
+        assertEquals("expected three matches", Arrays.asList(tweet1, tweet1, tweet1),
+                LazyFilter.writtenBy(tweets, "alyssa").limit(3).collect(Collectors.toList()));
+    }
+
+    // Covers tweets many, parallel stream
+    @Test
+    public void testSameAsFilter() {
+        List<Tweet> tweets = new TweetGenerator(16, 50, 1, 2).stream().limit(20000).collect(Collectors.toList());
+        String author = TweetGenerator.username(1);
+        List<String> words = Arrays.asList("Rivest", "coffee");
+        Timespan timespan = new Timespan(tweets.get(5000).getTimestamp(), tweets.get(15000).getTimestamp());
+
+        assertEquals("expected same tweets as Filter", Filter.writtenBy(tweets, author),
+                LazyFilter.writtenBy(tweets, author).parallel().collect(Collectors.toList()));
+        assertEquals("expected same tweets as Filter", Filter.inTimespan(tweets, timespan),
+                LazyFilter.inTimespan(tweets, timespan).parallel().collect(Collectors.toList()));
+        assertEquals("expected same tweets as Filter", Filter.containing(tweets, words),
+                LazyFilter.containing(tweets, words).parallel().collect(Collectors.toList()));
+        assertEquals("expected same count as Filter", Filter.containing(tweets, words).size(),
+                LazyFilter.containing(tweets, words).count());
+
+        Spliterator<Tweet> spliterator = LazyFilter.writtenBy(tweets, author).spliterator();
+        long size = spliterator.estimateSize();
+        assertNotNull("expected split", spliterator.trySplit());
+        assertEquals("expected split in half", size / 2, spliterator.estimateSize());
+    }
+}
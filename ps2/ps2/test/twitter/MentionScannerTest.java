@@ -0,0 +1,104 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MentionScannerTest {
+
+    /*
+     * Testing strategy for scan()
+     *
+     * Input partitions:
+     * text: no '@', one mention, multiple mentions, mention at beginning, mention at end
+     * character before '@': none, username character, other character, another '@'
+     * character after '@': none, username character, other character
+     * text after mention: space before next '@', no space before next '@', only '@'s up to the end
+     * username case: lower case, mixed case
+     * output: collection of lower-case usernames, listener of spans
+     *
+     * Testing strategy for toLowerCase()
+     *
+     * Input partitions:
+     * range: already lower case, upper case characters, part of a longer string
+     *
+     * Covering each part
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers no '@'
+    @Test
+    public void testScanNoMention() {
+        assertEquals("expected no mentions", Arrays.asList(), scan("is it reasonable to talk about rivest so much?"));
+    }
+
+    // Covers mention at beginning and at end, multiple mentions, other character after mention
+    @Test
+    public void testScanMultipleMentions() {
+        assertEquals("expected mentions in order", Arrays.asList("alyssa", "bbit-diddle", "mvg180"),
+                scan("@alyssa: How are you? @bbit-diddle; @mvg180"));
+    }
+
+    // Covers username character before '@', e.g. an email address
+    @Test
+    public void testScanEmailAddress() {
+        assertEquals("expected no mentions", Arrays.asList(), scan("Fake adress great@mvg, _@alyssa -@bbit"));
+    }
+
+    // Covers other character before '@' and another '@' before '@'
+    @Test
+    public void testScanOtherCharacterBefore() {
+        assertEquals("expected mentions", Arrays.asList("alyssa", "bbit"), scan("see you later ,@alyssa @@bbit"));
+    }
+
+    // Covers no character and other character after '@'
+    @Test
+    public void testScanNoUsernameAfter() {
+        assertEquals("expected no mentions", Arrays.asList(), scan("a @ b @; c @"));
+    }
+
+    // Covers no space before next '@' and only '@'s up to the end
+    @Test
+    public void testScanAddressAfterMention() {
+        assertEquals("expected no mentions", Arrays.asList(), scan("mail @alyssa@mit.edu"));
+        assertEquals("expected mention", Arrays.asList("alyssa"), scan("mail @alyssa, @ me"));
+        assertEquals("expected mention", Arrays.asList("alyssa"), scan("mail @alyssa@@"));
+    }
+
+    // Covers mixed case username
+    @Test
+    public void testScanMixedCase() {
+        assertEquals("expected lower case mention", Arrays.asList("bbit-diddle"), scan("Shut up. @BBit-dIddlE"));
+    }
+
+    // Covers listener of spans
+    @Test
+    public void testScanListener() {
+        List<String> spans = new ArrayList<>();
+        MentionScanner.scan("hi @Alyssa, me@mit.edu @bbit", (text, start, end) -> spans.add(text.substring(start, end)));
+
+        assertEquals("expected spans as spelled", Arrays.asList("Alyssa", "bbit"), spans);
+    }
+
+    // Covers already lower case, upper case characters, part of a longer string
+    @Test
+    public void testToLowerCase() {
+        assertEquals("expected same username", "alyssa", MentionScanner.toLowerCase("alyssa", 0, 6));
+        assertEquals("expected lower case username", "bbit-diddle", MentionScanner.toLowerCase("@BBit-dIddlE", 1, 12));
+        assertEquals("expected part of username", "ddl", MentionScanner.toLowerCase("@BBit-dIddlE", 8, 11));
+    }
+
+    private static List<String> scan(String text) {
+        List<String> mentions = new ArrayList<>();
+        MentionScanner.scan(text, mentions);
+        return mentions;
+    }
+}
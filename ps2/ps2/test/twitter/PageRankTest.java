@@ -0,0 +1,195 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PageRankTest {
+
+    /*
+     * Testing strategy for PageRank
+     *
+     * Input partitions:
+     * graph: empty, cycle, users who follow nobody, dictionary with other
+     *        users, large enough to split across tasks
+     * rank(), personalized(): damping 0, in (0, 1), out of range;
+     *        tolerance reached, maxIterations reached; tolerance, maxIterations out of range
+     * personalized() seeds: one, several, unknown only, unknown among known
+     * Result: score() of user, of unknown user; top() k 0, < users, negative
+     *
+     * Covering each part, and comparing with a direct power iteration
+     */
+
+    private static final double EPSILON = 1e-9;
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers graph empty
+    @Test
+    public void testEmpty() {
+        PageRank.Result result = new PageRank(CsrGraph.fromMap(new HashMap<>())).rank(PageRank.DEFAULT_DAMPING, 1e-6, 10);
+
+        assertEquals("expected no users", Collections.emptyList(), result.top(5));
+        assertEquals("expected no score", 0, result.score("alyssa"), 0);
+    }
+
+    // Covers cycle, tolerance reached, top() k 0 and < users
+    @Test
+    public void testCycle() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("a", new HashSet<>(Arrays.asList("b")));
+        followsGraph.put("b", new HashSet<>(Arrays.asList("c")));
+        followsGraph.put("c", new HashSet<>(Arrays.asList("a")));
+        PageRank.Result result = new PageRank(CsrGraph.fromMap(followsGraph)).rank(PageRank.DEFAULT_DAMPING, 1e-9, 100);
+
+        assertTrue("expected converged", result.converged());
+        assertEquals("expected equal scores", 1.0 / 3, result.score("A"), EPSILON);
+        assertEquals("expected ties by name", Arrays.asList("a", "b"), result.top(2));
+        assertEquals("expected no users", Collections.emptyList(), result.top(0));
+    }
+
+    // Covers users who follow nobody, damping 0, score() of unknown user
+    @Test
+    public void testDangling() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("alyssa", new HashSet<>(Arrays.asList("eva")));
+        followsGraph.put("ben", new HashSet<>(Arrays.asList("eva")));
+        PageRank engine = new PageRank(CsrGraph.fromMap(followsGraph));
+        PageRank.Result result = engine.rank(0.5, 1e-12, 1000);
+
+        assertEquals("expected scores summing to 1",
+                1, result.score("alyssa") + result.score("ben") + result.score("eva"), EPSILON);
+        assertEquals("expected most followed first", "eva", result.top(1).get(0));
+        assertEquals("expected no score", 0, result.score("nobody"), 0);
+        assertEquals("expected uniform scores", 1.0 / 3, engine.rank(0, 1e-12, 10).score("eva"), EPSILON);
+    }
+
+    // Covers maxIterations reached
+    @Test
+    public void testMaxIterations() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("alyssa", new HashSet<>(Arrays.asList("eva")));
+        PageRank.Result result = new PageRank(CsrGraph.fromMap(followsGraph)).rank(0.85, 1e-12, 1);
+
+        assertEquals("expected one iteration", 1, result.iterations());
+        assertFalse("expected not converged", result.converged());
+    }
+
+    // Covers personalized() seeds one and unknown among known, dictionary with other users
+    @Test
+    public void testPersonalized() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        dictionary.id("unrelated");
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("alyssa", new HashSet<>(Arrays.asList("ben")));
+        followsGraph.put("ben", new HashSet<>(Arrays.asList("carl")));
+        followsGraph.put("eva", new HashSet<>(Arrays.asList("dora")));
+        PageRank.Result result = new PageRank(CsrGraph.fromMap(followsGraph, dictionary))
+                .personalized(Arrays.asList("Alyssa", "nobody"), 0.85, 1e-12, 1000);
+
+        assertEquals("expected no score out of reach", 0, result.score("dora"), 0);
+        assertEquals("expected no score out of reach", 0, result.score("eva"), 0);
+        assertEquals("expected no score for other user", 0, result.score("unrelated"), 0);
+        assertTrue("expected score in reach", result.score("carl") > 0);
+        assertEquals("expected seed first", Arrays.asList("alyssa", "ben", "carl"), result.top(3));
+    }
+
+    // Covers personalized() seeds unknown only
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnknownSeeds() {
+        Map<String, Set<String>> followsGraph = Collections.singletonMap("alyssa", new HashSet<>(Arrays.asList("ben")));
+        new PageRank(CsrGraph.fromMap(followsGraph)).personalized(Arrays.asList("nobody"), 0.85, 1e-6, 10);
+    }
+
+    // Covers damping, tolerance, maxIterations out of range, top() k negative
+    @Test
+    public void testParameters() {
+        Map<String, Set<String>> followsGraph = Collections.singletonMap("alyssa", new HashSet<>(Arrays.asList("ben")));
+        PageRank engine = new PageRank(CsrGraph.fromMap(followsGraph));
+        Runnable[] calls = {
+            () -> engine.rank(1, 1e-6, 10),
+            () -> engine.rank(-0.1, 1e-6, 10),
+            () -> engine.rank(Double.NaN, 1e-6, 10),
+            () -> engine.rank(0.85, 0, 10),
+            () -> engine.rank(0.85, 1e-6, 0),
+            () -> engine.rank(0.85, 1e-6, 10).top(-1),
+        };
+        for (Runnable call : calls) {
+            try {
+                call.run();
+                fail("expected IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    // Covers graph large enough to split across tasks, seeds several, damping in (0, 1)
+    @Test
+    public void testSameAsPowerIteration() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        BitSet users = new BitSet();
+        int userCount = 30000;
+        for (int id = 0; id < userCount; id++) {
+            users.set(dictionary.id(TweetGenerator.username(id + 1)));
+        }
+        Random random = new Random(24);
+        int edgeCount = 150000;
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            sources[i] = random.nextInt(userCount / 2) * 2; // odd ids follow nobody
+            targets[i] = (int) Math.sqrt(random.nextInt(userCount * userCount));
+        }
+        CsrGraph graph = CsrGraph.fromEdges(dictionary, users, sources, targets, edgeCount);
+        PageRank engine = new PageRank(graph);
+
+        double[] uniform = new double[userCount];
+        Arrays.fill(uniform, 1.0 / userCount);
+        assertArrayEquals("expected same scores", powerIteration(graph, uniform, 0.85, 30),
+                engine.rank(0.85, 1e-300, 30).scores(), EPSILON);
+        double[] seeded = new double[userCount];
+        seeded[dictionary.lookup(TweetGenerator.username(1))] = 0.5;
+        seeded[dictionary.lookup(TweetGenerator.username(8))] = 0.5;
+        assertArrayEquals("expected same personalized scores", powerIteration(graph, seeded, 0.7, 30),
+                engine.personalized(Arrays.asList(TweetGenerator.username(1), TweetGenerator.username(8)),
+                        0.7, 1e-300, 30).scores(), EPSILON);
+    }
+
+    /* Runs PageRank by its definition, pushing each user's score along their edges. */
+    private static double[] powerIteration(CsrGraph graph, double[] teleport, double damping, int iterations) {
+        int n = teleport.length;
+        double[] scores = teleport.clone();
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double[] next = new double[n];
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                int[] following = graph.following(u);
+                if (following.length == 0) {
+                    dangling += scores[u];
+                }
+                for (int v : following) {
+                    next[v] += damping * scores[u] / following.length;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                next[v] += (1 - damping + damping * dangling) * teleport[v];
+            }
+            scores = next;
+        }
+        return scores;
+    }
+}
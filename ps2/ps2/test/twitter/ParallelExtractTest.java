@@ -0,0 +1,88 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ParallelExtractTest {
+
+    /*
+     * Testing strategy for getTimespan() and getMentionedUsers()
+     *
+     * Input partitions:
+     * tweets.size(): 0, < SEQUENTIAL_THRESHOLD, several times SEQUENTIAL_THRESHOLD
+     * tweets: random access list, linked list
+     * pool: common pool, pool with one thread
+     *
+     * Results are compared with Extract, covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbit-diddle", "rivest talk in 30 minutes @Alyssa", d1.plusSeconds(60));
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers tweets.size() = 0
+    @Test
+    public void testNoTweets() {
+        assertEquals("expected empty timespan", Extract.getTimespan(Arrays.asList()), ParallelExtract.getTimespan(Arrays.asList()));
+        assertTrue("expected empty set", ParallelExtract.getMentionedUsers(Arrays.asList()).isEmpty());
+    }
+
+    // Covers tweets.size() < SEQUENTIAL_THRESHOLD
+    @Test
+    public void testSmallList() {
+        List<Tweet> tweets = Arrays.asList(tweet2, tweet1);
+
+        assertEquals("expected timespan", Extract.getTimespan(tweets), ParallelExtract.getTimespan(tweets));
+        assertEquals("expected mentions", Extract.getMentionedUsers(tweets), ParallelExtract.getMentionedUsers(tweets));
+    }
+
+    // Covers large random access list, common pool
+    @Test
+    public void testLargeList() {
+        List<Tweet> tweets = makeTweets(5 * ParallelExtract.SEQUENTIAL_THRESHOLD + 17);
+
+        assertEquals("expected timespan", Extract.getTimespan(tweets), ParallelExtract.getTimespan(tweets));
+        assertEquals("expected mentions", Extract.getMentionedUsers(tweets), ParallelExtract.getMentionedUsers(tweets));
+    }
+
+    // Covers large linked list, pool with one thread
+    @Test
+    public void testLargeLinkedListOneThread() {
+        List<Tweet> tweets = new LinkedList<>(makeTweets(3 * ParallelExtract.SEQUENTIAL_THRESHOLD));
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            assertEquals("expected timespan", Extract.getTimespan(tweets), ParallelExtract.getTimespan(tweets, pool));
+            assertEquals("expected mentions", Extract.getMentionedUsers(tweets), ParallelExtract.getMentionedUsers(tweets, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /*
+     * Make tweets whose timestamps go back and forth, with the earliest and
+     * latest tweets in the middle of the list, and mentions of many users.
+     */
+    private static List<Tweet> makeTweets(int size) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            long offset = (i * 7919L) % size;
+            String text = "@user" + (i % 1000) + " and @USER" + (i % 777) + " or mail@mit.edu";
+            tweets.add(new Tweet(i, "user" + (i % 100), text, d1.plusSeconds(offset)));
+        }
+        return tweets;
+    }
+}
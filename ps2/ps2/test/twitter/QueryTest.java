@@ -0,0 +1,152 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class QueryTest {
+
+    /*
+     * Testing strategy for Query
+     *
+     * Input partitions:
+     * condition: writtenBy, inTimespan, containing, mentioning, withHashtag
+     * combination: and, or, not, nested
+     * and() parts: most selective first or last, empty intermediate result,
+     *              few positions left (checked tweet by tweet), many left (intersected)
+     * construction: valid, and() with no parts, invalid hashtag
+     * observers: equals and hashCode, estimate
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much? #mit", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype @alyssa", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "see you later", d2);
+
+    private static final List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers each condition
+    @Test
+    public void testConditions() {
+        TweetIndex index = new TweetIndex(tweets);
+
+        assertEquals("expected tweets", Arrays.asList(tweet1, tweet3), index.query(Query.writtenBy("ALYSSA")));
+        assertEquals("expected tweets", Arrays.asList(tweet2, tweet3), index.query(Query.inTimespan(new Timespan(d2, d2))));
+        assertEquals("expected tweets", Arrays.asList(tweet1, tweet3), index.query(Query.containing("later", "Much?")));
+        assertEquals("expected tweets", Arrays.asList(tweet2), index.query(Query.mentioning("Alyssa")));
+        assertEquals("expected tweets", Arrays.asList(tweet1), index.query(Query.withHashtag("#mit")));
+        assertEquals("expected no tweets", Collections.emptyList(), index.query(Query.withHashtag("#MIT")));
+    }
+
+    // Covers and, or, not, nested, empty intermediate result
+    @Test
+    public void testCombinations() {
+        TweetIndex index = new TweetIndex(tweets);
+
+        assertEquals("expected tweets", Arrays.asList(tweet3),
+                index.query(Query.and(Query.writtenBy("alyssa"), Query.inTimespan(new Timespan(d2, d2)))));
+        assertEquals("expected tweets", Arrays.asList(tweet1, tweet2),
+                index.query(Query.or(Query.withHashtag("#mit"), Query.mentioning("alyssa"))));
+        assertEquals("expected tweets", Arrays.asList(tweet2), index.query(Query.not(Query.writtenBy("alyssa"))));
+        assertEquals("expected no tweets", Collections.emptyList(),
+                index.query(Query.and(Query.containing("nothing"), Query.writtenBy("alyssa"))));
+        assertArrayEquals("expected positions", new int[] { 0 }, index.positions(Query.and(Query.writtenBy("alyssa"),
+                Query.not(Query.or(Query.containing("later"), Query.mentioning("bbitdiddle"))))));
+    }
+
+    // Covers and() with few and many positions left, most selective part first or last
+    @Test
+    public void testSameAsBruteForce() {
+        List<Tweet> many = new TweetGenerator(13, 100, 1, 5).stream().limit(5000).collect(Collectors.toList());
+        TweetIndex index = new TweetIndex(many);
+        Timespan all = Extract.getTimespan(many);
+        Timespan half = new Timespan(all.getStart(), many.get(many.size() / 2).getTimestamp());
+        Random random = new Random(13);
+
+        for (int i = 0; i < 300; i++) {
+            Query query = randomQuery(random, 3, half);
+            List<Tweet> expected = new ArrayList<>();
+            for (int position = 0; position < many.size(); position++) {
+                if (query.matches(index, position)) {
+                    expected.add(many.get(position));
+                }
+            }
+            assertEquals("expected same tweets for " + query, expected, index.query(query));
+        }
+    }
+
+    // Covers estimate
+    @Test
+    public void testEstimate() {
+        TweetIndex index = new TweetIndex(tweets);
+
+        assertEquals("expected exact count", 2, index.estimate(Query.writtenBy("alyssa")));
+        assertEquals("expected sum of counts", 3, index.estimate(Query.containing("rivest", "talk", "later")));
+        assertEquals("expected minimum", 1, index.estimate(Query.and(Query.writtenBy("alyssa"), Query.withHashtag("#mit"))));
+        assertEquals("expected complement", 2, index.estimate(Query.not(Query.mentioning("alyssa"))));
+    }
+
+    // Covers equals and hashCode
+    @Test
+    public void testEquality() {
+        Query query = Query.and(Query.writtenBy("alyssa"), Query.containing("Rivest"));
+        Query same = Query.and(Query.writtenBy("ALYSSA"), Query.containing(Arrays.asList("rivest")));
+
+        assertEquals("expected equal", query, same);
+        assertEquals("expected same hash code", query.hashCode(), same.hashCode());
+        assertNotEquals("expected different", query, Query.or(Query.writtenBy("alyssa"), Query.containing("Rivest")));
+        assertNotEquals("expected different", Query.withHashtag("#mit"), Query.withHashtag("#MIT"));
+    }
+
+    // Covers and() with no parts
+    @Test(expected=IllegalArgumentException.class)
+    public void testAndNoParts() {
+        Query.and();
+    }
+
+    // Covers invalid hashtag
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidHashtag() {
+        Query.withHashtag("mit");
+    }
+
+    private static Query randomQuery(Random random, int depth, Timespan half) {
+        int kind = random.nextInt(depth > 0 ? 8 : 5);
+        switch (kind) {
+        case 0:
+            return Query.writtenBy(TweetGenerator.username(1 + random.nextInt(20)));
+        case 1:
+            return Query.inTimespan(half);
+        case 2:
+            return Query.containing("the", "RIVEST", "#tag" + (1 + random.nextInt(5)));
+        case 3:
+            return Query.mentioning(TweetGenerator.username(1 + random.nextInt(20)));
+        case 4:
+            return Query.withHashtag("#tag" + (1 + random.nextInt(10)));
+        case 5:
+            return Query.and(randomQuery(random, depth - 1, half), randomQuery(random, depth - 1, half),
+                    randomQuery(random, depth - 1, half));
+        case 6:
+            return Query.or(randomQuery(random, depth - 1, half), randomQuery(random, depth - 1, half));
+        default:
+            return Query.not(randomQuery(random, depth - 1, half));
+        }
+    }
+}
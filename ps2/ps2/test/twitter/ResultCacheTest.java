@@ -0,0 +1,118 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class ResultCacheTest {
+
+    /*
+     * Testing strategy for ResultCache
+     *
+     * Input partitions:
+     * maxEntries: nonpositive, one, more
+     * get(): miss, hit, same operation with other arguments or version,
+     *        evicts the least recently used entry
+     * invalidateBefore(): removes none, some, of one corpus only, during a computation
+     * corpus: one, several sharing the cache
+     * statistics: hits, misses, evictions, size
+     *
+     * Covering each part
+     */
+
+    private static final Object CORPUS = "corpus";
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers maxEntries nonpositive
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoEntries() {
+        new ResultCache(0);
+    }
+
+    // Covers maxEntries more, miss, hit, other arguments or version, hits, misses
+    @Test
+    public void testHitAndMiss() {
+        ResultCache cache = new ResultCache(10);
+        int[] computed = { 0 };
+
+        assertEquals("expected computed", "a1", cache.get(CORPUS, "op", Arrays.asList("a"), 1, () -> "a" + ++computed[0]));
+        assertEquals("expected cached", "a1", cache.get(CORPUS, "op", Arrays.asList("a"), 1, () -> "a" + ++computed[0]));
+        assertEquals("expected computed for new version", "a2",
+                cache.get(CORPUS, "op", Arrays.asList("a"), 2, () -> "a" + ++computed[0]));
+        assertEquals("expected computed for new arguments", "b3",
+                cache.get(CORPUS, "op", Arrays.asList("b"), 1, () -> "b" + ++computed[0]));
+        assertEquals("expected computed for new operation", "c4",
+                cache.get(CORPUS, "other", Arrays.asList("a"), 1, () -> "c" + ++computed[0]));
+        assertEquals("expected one hit", 1, cache.hitCount());
+        assertEquals("expected four misses", 4, cache.missCount());
+        assertEquals("expected four entries", 4, cache.size());
+        assertEquals("expected no evictions", 0, cache.evictionCount());
+    }
+
+    // Covers maxEntries one, evicts the least recently used entry, evictions
+    @Test
+    public void testEviction() {
+        ResultCache one = new ResultCache(1);
+        one.get(CORPUS, "op", Collections.emptyList(), 1, () -> "x");
+        one.get(CORPUS, "op", Collections.emptyList(), 2, () -> "y");
+
+        assertEquals("expected one entry", 1, one.size());
+        assertEquals("expected one eviction", 1, one.evictionCount());
+
+        ResultCache two = new ResultCache(2);
+        two.get(CORPUS, "a", Collections.emptyList(), 1, () -> "a");
+        two.get(CORPUS, "b", Collections.emptyList(), 1, () -> "b");
+        two.get(CORPUS, "a", Collections.emptyList(), 1, () -> "a again");
+        two.get(CORPUS, "c", Collections.emptyList(), 1, () -> "c");
+
+        assertEquals("expected a kept as recently used", "a", two.get(CORPUS, "a", Collections.emptyList(), 1, () -> "new a"));
+        assertEquals("expected b evicted", "new b", two.get(CORPUS, "b", Collections.emptyList(), 1, () -> "new b"));
+    }
+
+    // Covers invalidateBefore removes none, some
+    @Test
+    public void testInvalidateBefore() {
+        ResultCache cache = new ResultCache(10);
+        cache.get(CORPUS, "op", Collections.emptyList(), 1, () -> "v1");
+        cache.get(CORPUS, "op", Collections.emptyList(), 2, () -> "v2");
+
+        assertEquals("expected none removed", 0, cache.invalidateBefore(CORPUS, 1));
+        assertEquals("expected one removed", 1, cache.invalidateBefore(CORPUS, 2));
+        assertEquals("expected one entry", 1, cache.size());
+        assertEquals("expected invalidation not counted as eviction", 0, cache.evictionCount());
+    }
+
+    // Covers invalidateBefore of one corpus only, several corpora sharing the cache
+    @Test
+    public void testSeveralCorpora() {
+        ResultCache cache = new ResultCache(10);
+        Object other = "other corpus";
+        cache.get(CORPUS, "op", Collections.emptyList(), 1, () -> "mine");
+
+        assertEquals("expected own result", "theirs", cache.get(other, "op", Collections.emptyList(), 1, () -> "theirs"));
+        assertEquals("expected other corpus kept", 1, cache.invalidateBefore(CORPUS, 2));
+        assertEquals("expected cached", "theirs", cache.get(other, "op", Collections.emptyList(), 1, () -> "new"));
+    }
+
+    // Covers invalidateBefore during a computation
+    @Test
+    public void testInvalidatedWhileComputing() {
+        ResultCache cache = new ResultCache(10);
+        String result = cache.get(CORPUS, "op", Collections.emptyList(), 1, () -> {
+            cache.invalidateBefore(CORPUS, 2);
+            return "stale";
+        });
+
+        assertEquals("expected result returned", "stale", result);
+        assertEquals("expected result not stored", 0, cache.size());
+        cache.get(CORPUS, "op", Collections.emptyList(), 2, () -> "fresh");
+        assertEquals("expected current version stored", 1, cache.size());
+    }
+}
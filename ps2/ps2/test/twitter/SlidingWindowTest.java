@@ -0,0 +1,215 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class SlidingWindowTest {
+
+    /*
+     * Testing strategy for SlidingWindow
+     *
+     * Input partitions:
+     * length: negative, zero, positive
+     * window: empty, one tweet, many tweets (buffer grows, wraps around)
+     * add(): same time as newest, later, earlier (rejected),
+     *        expires none, some, all; tweet exactly at the window's start
+     * advanceTo(): expires some, earlier (rejected)
+     * tweet text: no mentions, repeated mention, self-mention, hashtags
+     * follows graph: mentions, authors sharing more than one hashtag, several
+     *                spellings of one author; evidence expires
+     * observers: getTimespan, mentionCount, getMentionedUsers, hashtagCount,
+     *            hashtagCounts, guessFollowsGraph, followerCount, influencers, tweets
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "@bbitdiddle @BBitdiddle #mit #hype talk", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "@Alyssa @bbitdiddle see you #mit", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "@bbitdiddle rivest talk now", d3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers length negative
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeLength() {
+        new SlidingWindow(Duration.ofMinutes(-1));
+    }
+
+    // Covers length zero
+    @Test(expected=IllegalArgumentException.class)
+    public void testZeroLength() {
+        new SlidingWindow(Duration.ZERO);
+    }
+
+    // Covers window empty
+    @Test
+    public void testEmpty() {
+        SlidingWindow window = new SlidingWindow(Duration.ofHours(1));
+
+        assertEquals("expected no tweets", 0, window.size());
+        assertEquals("expected empty timespan", new Timespan(Instant.EPOCH, Instant.EPOCH), window.getTimespan());
+        assertEquals("expected no users", Collections.emptySet(), window.getMentionedUsers());
+        assertEquals("expected no influencers", Collections.emptyList(), window.influencers());
+    }
+
+    // Covers one tweet, repeated mention, hashtags
+    @Test
+    public void testOneTweet() {
+        SlidingWindow window = new SlidingWindow(Duration.ofHours(1));
+        window.add(tweet1);
+
+        assertEquals("expected one tweet", Arrays.asList(tweet1), window.tweets());
+        assertEquals("expected timespan of tweet", new Timespan(d1, d1), window.getTimespan());
+        assertEquals("expected one mention per tweet", 1, window.mentionCount("BBITDIDDLE"));
+        assertEquals("expected mentioned user", new HashSet<>(Arrays.asList("bbitdiddle")), window.getMentionedUsers());
+        assertEquals("expected hashtag counts", 1, window.hashtagCount("#mit"));
+        assertEquals("expected case-sensitive hashtag", 0, window.hashtagCount("#MIT"));
+        assertEquals("expected two hashtags", 2, window.hashtagCounts().size());
+        assertEquals("expected one follower", 1, window.followerCount("bbitdiddle"));
+        assertEquals("expected influencers", Arrays.asList("bbitdiddle", "alyssa"), window.influencers());
+        assertEquals("expected follows graph", Collections.singletonMap("alyssa", Collections.singleton("bbitdiddle")),
+                window.guessFollowsGraph());
+    }
+
+    // Covers same time as newest, later, expires some, tweet exactly at the window's start, self-mention
+    @Test
+    public void testExpire() {
+        SlidingWindow window = new SlidingWindow(Duration.ofHours(1));
+        window.add(tweet1);
+        window.add(tweet1);
+        window.add(tweet2);
+
+        assertEquals("expected tweet at the start kept", Arrays.asList(tweet1, tweet1, tweet2), window.tweets());
+        assertEquals("expected one follower per author", 1, window.followerCount("bbitdiddle"));
+        assertEquals("expected follower", 1, window.followerCount("alyssa"));
+
+        window.add(tweet3);
+
+        assertEquals("expected tweets from d2", Arrays.asList(tweet2, tweet3), window.tweets());
+        assertEquals("expected timespan", new Timespan(d2, d3), window.getTimespan());
+        assertEquals("expected no self-follow", 1, window.followerCount("bbitdiddle"));
+        assertEquals("expected mentions", 2, window.mentionCount("bbitdiddle"));
+        assertEquals("expected hashtag from tweet2 only", 1, window.hashtagCount("#mit"));
+        assertEquals("expected hashtag expired", 0, window.hashtagCount("#hype"));
+        assertEquals("expected follows graph", SocialNetwork.guessFollowsGraph(Arrays.asList(tweet2, tweet3)),
+                window.guessFollowsGraph());
+    }
+
+    // Covers follows graph authors sharing more than one hashtag, several spellings of one author, evidence expires
+    @Test
+    public void testHashtagEvidence() {
+        SlidingWindow window = new SlidingWindow(Duration.ofMinutes(30));
+        window.add(new Tweet(4, "alyssa", "#a #b", d1));
+        window.add(new Tweet(5, "ben", "#b #a @carol", d1));
+        window.add(new Tweet(6, "Alyssa", "hi", d1));
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("alyssa", new HashSet<>(Arrays.asList("ben", "Alyssa")));
+        expected.put("Alyssa", new HashSet<>(Arrays.asList("ben", "alyssa")));
+        expected.put("ben", new HashSet<>(Arrays.asList("carol", "alyssa", "Alyssa")));
+        assertEquals("expected hashtag edges", expected, window.guessFollowsGraph());
+        assertEquals("expected followers counted once per user", 2, window.followerCount("ALYSSA"));
+        assertEquals("expected one follower", 1, window.followerCount("ben"));
+        assertEquals("expected influencers", Arrays.asList("alyssa", "ben", "carol"), window.influencers());
+
+        window.add(new Tweet(7, "ben", "#c", d2));
+
+        assertEquals("expected evidence expired", Collections.singletonMap("ben", Collections.emptySet()),
+                window.guessFollowsGraph());
+        assertEquals("expected no followers", 0, window.followerCount("alyssa"));
+        assertEquals("expected influencers", Arrays.asList("ben"), window.influencers());
+    }
+
+    // Covers advanceTo expires all, earlier rejected
+    @Test
+    public void testAdvanceTo() {
+        SlidingWindow window = new SlidingWindow(Duration.ofMinutes(10));
+        window.add(tweet1);
+        window.advanceTo(d2);
+
+        assertEquals("expected no tweets", 0, window.size());
+        assertEquals("expected no mentions", 0, window.mentionCount("bbitdiddle"));
+        assertEquals("expected no hashtags", Collections.emptyMap(), window.hashtagCounts());
+        try {
+            window.add(tweet1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            window.advanceTo(d1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    // Covers many tweets, buffer grows and wraps around, all observers against Extract and SocialNetwork
+    @Test
+    public void testSameAsExtract() {
+        List<Tweet> generated = new TweetGenerator(19, 50, 1, 2).stream().limit(5000).collect(Collectors.toList());
+        Random random = new Random(19);
+        List<Tweet> stream = new ArrayList<>();
+        for (Tweet tweet : generated) {
+            String author = random.nextInt(10) == 0 ? tweet.getAuthor().toUpperCase() : tweet.getAuthor();
+            stream.add(new Tweet(tweet.getId(), author, tweet.getText(), tweet.getTimestamp()));
+        }
+        Duration length = Duration.ofSeconds(300);
+        SlidingWindow window = new SlidingWindow(length);
+        int from = 0;
+        for (int i = 0; i < stream.size(); i++) {
+            window.add(stream.get(i));
+            Instant start = stream.get(i).getTimestamp().minus(length);
+            while (stream.get(from).getTimestamp().isBefore(start)) {
+                from++;
+            }
+            if (i % 250 != 0) {
+                continue;
+            }
+            List<Tweet> expected = stream.subList(from, i + 1);
+
+            assertEquals("expected window tweets", expected, window.tweets());
+            assertEquals("expected timespan", Extract.getTimespan(expected), window.getTimespan());
+            assertEquals("expected mentioned users", Extract.getMentionedUsers(expected), window.getMentionedUsers());
+
+            Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(expected);
+            assertEquals("expected follows graph", followsGraph, window.guessFollowsGraph());
+            assertEquals("expected same users as influencers()",
+                    new HashSet<>(SocialNetwork.influencers(followsGraph)), new HashSet<>(window.influencers()));
+            assertEquals("expected influencers in order", TopInfluencers.top(followsGraph, Integer.MAX_VALUE),
+                    window.influencers());
+            for (String user : window.influencers()) {
+                Set<String> followers = new HashSet<>();
+                for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+                    for (String followed : entry.getValue()) {
+                        if (followed.equalsIgnoreCase(user)) {
+                            followers.add(entry.getKey().toLowerCase());
+                        }
+                    }
+                }
+                assertEquals("expected follower count of " + user, followers.size(), window.followerCount(user));
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class StandingQueryEngineTest {
+
+    /*
+     * Testing strategy for StandingQueryEngine
+     *
+     * Input partitions:
+     * subscriptions: none, one, many; writtenBy, containing, inTimespan
+     * tweet vs query: no match, match differing in case, several words of one
+     *                 containing query, timespan ends
+     * timespan vs stream: subscribed before its start, during it, after its end
+     * stream order: nondecreasing time, out of order
+     * cancel: before any push, during a push by the listener, twice
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "rivest talk now", d3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers subscriptions none
+    @Test
+    public void testNoSubscriptions() {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        engine.push(tweet1);
+
+        assertEquals("expected no subscriptions", 0, engine.subscriptionCount());
+    }
+
+    // Covers writtenBy, no match, match differing in case, cancel twice
+    @Test
+    public void testWrittenBy() {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        List<Tweet> found = new ArrayList<>();
+        StandingQueryEngine.Subscription subscription = engine.writtenBy("ALYSSA", found::add);
+        engine.push(tweet1);
+        engine.push(tweet2);
+        engine.push(tweet3);
+        subscription.cancel();
+        subscription.cancel();
+        engine.push(tweet1);
+
+        assertEquals("expected tweets by alyssa", Arrays.asList(tweet1, tweet3), found);
+        assertFalse("expected cancelled", subscription.isActive());
+        assertEquals("expected no subscriptions", 0, engine.subscriptionCount());
+    }
+
+    // Covers containing, several words of one containing query, cancel before any push
+    @Test
+    public void testContaining() {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        List<Tweet> found = new ArrayList<>();
+        List<Tweet> cancelled = new ArrayList<>();
+        engine.containing(Arrays.asList("TALK", "rivest", "talk", "two words"), found::add);
+        engine.containing(Arrays.asList("talk"), cancelled::add).cancel();
+        engine.push(tweet1);
+        engine.push(tweet2);
+
+        assertEquals("expected each tweet once", Arrays.asList(tweet1, tweet2), found);
+        assertEquals("expected nothing after cancel", Collections.emptyList(), cancelled);
+        assertEquals("expected one subscription", 1, engine.subscriptionCount());
+    }
+
+    // Covers inTimespan, timespan ends, subscribed before its start, during it, after its end
+    @Test
+    public void testInTimespan() {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        List<Tweet> before = new ArrayList<>();
+        List<Tweet> during = new ArrayList<>();
+        List<Tweet> after = new ArrayList<>();
+        engine.inTimespan(new Timespan(d2, d3), before::add);
+        engine.push(tweet1);
+        engine.inTimespan(new Timespan(d1, d2), during::add);
+        engine.inTimespan(new Timespan(d1, d1.plusSeconds(1)), after::add);
+        engine.push(tweet2);
+        engine.push(tweet3);
+
+        assertEquals("expected tweets from d2 to d3", Arrays.asList(tweet2, tweet3), before);
+        assertEquals("expected tweet at d2", Arrays.asList(tweet2), during);
+        assertEquals("expected no tweets", Collections.emptyList(), after);
+    }
+
+    // Covers out of order
+    @Test
+    public void testOutOfOrder() {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        List<Tweet> found = new ArrayList<>();
+        engine.inTimespan(new Timespan(d1, d2), found::add);
+        engine.push(tweet3);
+        engine.push(tweet1);
+        engine.push(tweet2);
+
+        assertEquals("expected tweets from d1 to d2", Arrays.asList(tweet1, tweet2), found);
+    }
+
+    // Covers cancel during a push by the listener
+    @Test
+    public void testCancelInListener() {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        List<Tweet> found = new ArrayList<>();
+        StandingQueryEngine.Subscription[] subscription = { null };
+        subscription[0] = engine.containing(Arrays.asList("rivest"), tweet -> {
+            found.add(tweet);
+            subscription[0].cancel();
+            engine.writtenBy("bbitdiddle", found::add);
+        });
+        engine.push(tweet1);
+        engine.push(tweet2);
+
+        assertEquals("expected one tweet each", Arrays.asList(tweet1, tweet2), found);
+    }
+
+    // Covers subscriptions many, nondecreasing time
+    @Test
+    public void testSameAsFilter() {
+        List<Tweet> tweets = new TweetGenerator(18, 100, 1, 2).stream().limit(5000).collect(Collectors.toList());
+        Random random = new Random(18);
+        StandingQueryEngine engine = new StandingQueryEngine();
+        List<List<Tweet>> expected = new ArrayList<>();
+        List<List<Tweet>> actual = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            List<Tweet> found = new ArrayList<>();
+            actual.add(found);
+            switch (i % 3) {
+            case 0:
+                String author = TweetGenerator.username(1 + random.nextInt(100));
+                engine.writtenBy(author.toUpperCase(), found::add);
+                expected.add(Filter.writtenBy(tweets, author));
+                break;
+            case 1:
+                List<String> words = Arrays.asList("rivest", "#topic" + random.nextInt(20), "w" + i);
+                engine.containing(words, found::add);
+                expected.add(Filter.containing(tweets, words));
+                break;
+            default:
+                Instant a = tweets.get(random.nextInt(tweets.size())).getTimestamp();
+                Instant b = tweets.get(random.nextInt(tweets.size())).getTimestamp();
+                Timespan timespan = a.isBefore(b) ? new Timespan(a, b) : new Timespan(b, a);
+                engine.inTimespan(timespan, found::add);
+                expected.add(Filter.inTimespan(tweets, timespan));
+            }
+        }
+        tweets.forEach(engine::push);
+
+        assertEquals("expected same tweets as Filter", expected, actual);
+    }
+}
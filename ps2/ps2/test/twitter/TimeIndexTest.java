@@ -0,0 +1,127 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class TimeIndexTest {
+
+    /*
+     * Testing strategy for TimeIndex
+     *
+     * Input partitions:
+     * tweets: none, one, many
+     * order of tweets: time order, out of time order, equal timestamps
+     * timespan vs tweets: before all, after all, covers all, inside,
+     *                     start or end equal to a timestamp, start == end,
+     *                     differs only in nanoseconds
+     * timespan vs buckets: within one bucket, across buckets, starts or ends
+     *                      at a bucket boundary, last partial bucket
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "rivest talk now", d3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers tweets none
+    @Test
+    public void testEmpty() {
+        TimeIndex index = new TimeIndex(Collections.emptyList());
+
+        assertEquals("expected no tweets", 0, index.size());
+        assertEquals("expected empty timespan", Instant.EPOCH, index.getTimespan().getEnd());
+        assertEquals("expected no tweets", Collections.emptyList(), index.inTimespan(new Timespan(d1, d3)));
+    }
+
+    // Covers tweets one, start == end equal to a timestamp, differs only in nanoseconds
+    @Test
+    public void testOneTweet() {
+        TimeIndex index = new TimeIndex(Arrays.asList(tweet2));
+
+        assertEquals("expected tweet", Arrays.asList(tweet2), index.inTimespan(new Timespan(d2, d2)));
+        assertEquals("expected no tweets", Collections.emptyList(),
+                index.inTimespan(new Timespan(d2.plusNanos(1), d3)));
+        assertEquals("expected no tweets", 0, index.count(new Timespan(d1, d2.minusNanos(1))));
+    }
+
+    // Covers out of time order, equal timestamps, before all, after all, covers all, inside
+    @Test
+    public void testOutOfOrder() {
+        Tweet tweet4 = new Tweet(4, "ben", "same time as tweet1", d1);
+        List<Tweet> tweets = Arrays.asList(tweet3, tweet1, tweet2, tweet4);
+        TimeIndex index = new TimeIndex(tweets);
+
+        assertEquals("expected timespan", new Timespan(d1, d3), index.getTimespan());
+        assertEquals("expected input order", tweets, index.inTimespan(new Timespan(Instant.EPOCH, d3)));
+        assertEquals("expected input order", Arrays.asList(tweet1, tweet2, tweet4), index.inTimespan(new Timespan(d1, d2)));
+        assertArrayEquals("expected positions", new int[] { 0, 2 }, index.positionsInTimespan(new Timespan(d2, d3)));
+        assertEquals("expected no tweets", 0, index.count(new Timespan(Instant.EPOCH, d1.minusSeconds(1))));
+        assertEquals("expected no tweets", 0, index.count(new Timespan(d3.plusSeconds(1), d3.plusSeconds(2))));
+    }
+
+    // Covers tweets many, time order and shuffled
+    @Test
+    public void testSameAsFilter() {
+        List<Tweet> inOrder = new TweetGenerator(6, 100, 1, 2).stream().limit(3000).collect(Collectors.toList());
+        List<Tweet> shuffled = new ArrayList<>(inOrder);
+        Collections.shuffle(shuffled, new Random(6));
+        Random random = new Random(7);
+
+        for (List<Tweet> tweets : Arrays.asList(inOrder, shuffled)) {
+            TimeIndex index = new TimeIndex(tweets);
+            for (int i = 0; i < 50; i++) {
+                Instant a = inOrder.get(random.nextInt(inOrder.size())).getTimestamp().plusMillis(random.nextInt(3) - 1);
+                Instant b = inOrder.get(random.nextInt(inOrder.size())).getTimestamp();
+                Timespan timespan = a.isBefore(b) ? new Timespan(a, b) : new Timespan(b, a);
+                List<Tweet> expected = Filter.inTimespan(tweets, timespan);
+
+                assertEquals("expected same tweets as Filter", expected, index.inTimespan(timespan));
+                assertEquals("expected count", expected.size(), index.count(timespan));
+            }
+        }
+    }
+
+    // Covers out of time order, within one bucket, across buckets, starts or ends at a bucket boundary, last partial bucket
+    @Test
+    public void testBucketBoundaries() {
+        int n = 3 * TimeIndex.BUCKET_SIZE + 100;
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            tweets.add(new Tweet(i, "alyssa", "tweet " + i, d1.plusSeconds(i)));
+        }
+        Collections.shuffle(tweets, new Random(8));
+        TimeIndex index = new TimeIndex(tweets);
+        int[] ranks = { 0, 1, TimeIndex.BUCKET_SIZE - 1, TimeIndex.BUCKET_SIZE, TimeIndex.BUCKET_SIZE + 1,
+                2 * TimeIndex.BUCKET_SIZE, 3 * TimeIndex.BUCKET_SIZE, n - 1 };
+
+        for (int from : ranks) {
+            for (int to : ranks) {
+                if (from <= to) {
+                    Timespan timespan = new Timespan(d1.plusSeconds(from), d1.plusSeconds(to));
+
+                    assertEquals("expected same tweets as Filter for " + from + ".." + to,
+                            Filter.inTimespan(tweets, timespan), index.inTimespan(timespan));
+                }
+            }
+        }
+    }
+}
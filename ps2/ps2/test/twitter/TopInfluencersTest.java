@@ -0,0 +1,151 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class TopInfluencersTest {
+
+    /*
+     * Testing strategy for TopInfluencers.top()
+     *
+     * Input partitions:
+     * graph: empty, users only followed, usernames equal ignoring case, generated
+ * spellings: follows equal ignoring case in one set, keys equal ignoring case
+     * k: negative, 0, 1, < number of users, >= number of users
+     * follower counts: all different, some equal
+     * graph form: Map, CsrGraph sequential, CsrGraph parallel in one task or several
+     *
+     * Covering each part, and comparing with a full sort on generated graphs
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers graph empty, k 0 and 1
+    @Test
+    public void testEmpty() {
+        assertEquals("expected no users", Collections.emptyList(), TopInfluencers.top(new HashMap<>(), 0));
+        assertEquals("expected no users", Collections.emptyList(), TopInfluencers.top(new HashMap<>(), 1));
+        assertEquals("expected no users", Collections.emptyList(),
+                TopInfluencers.top(CsrGraph.fromMap(new HashMap<>()), 1, true));
+    }
+
+    // Covers k negative
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeK() {
+        TopInfluencers.top(new HashMap<>(), -1);
+    }
+
+    // Covers users only followed, usernames equal ignoring case, counts some equal, k < and >= users
+    @Test
+    public void testTies() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("Alyssa", new HashSet<>(Arrays.asList("eva", "Ben")));
+        followsGraph.put("ben", new HashSet<>(Arrays.asList("eva")));
+        followsGraph.put("carl", new HashSet<>(Arrays.asList("ben")));
+
+        assertEquals("expected most followed", Arrays.asList("ben", "eva"), TopInfluencers.top(followsGraph, 2));
+        assertEquals("expected all users", Arrays.asList("ben", "eva", "alyssa", "carl"),
+                TopInfluencers.top(followsGraph, 10));
+        assertEquals("expected same for CSR", Arrays.asList("ben", "eva", "alyssa"),
+                TopInfluencers.top(CsrGraph.fromMap(followsGraph), 3));
+    }
+
+    // Covers follows equal ignoring case, keys equal ignoring case, Map and CsrGraph agree
+    @Test
+    public void testSpellingsCountOnce() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "Bob", "#x #y", d1),
+                new Tweet(2, "alice", "#x #y @bob", d1));
+        Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+        followsGraph.put("Alice", new HashSet<>(Arrays.asList("bob")));
+
+        assertEquals("expected spellings counted once", Arrays.asList("alice", "bob"), TopInfluencers.top(followsGraph, 3));
+        assertEquals("expected same for CSR", TopInfluencers.top(followsGraph, 3),
+                TopInfluencers.top(CsrGraph.fromMap(followsGraph), 3));
+    }
+
+    // Covers generated graph, counts all different and some equal, every graph form
+    @Test
+    public void testSameAsFullSort() {
+        for (int seed = 0; seed < 5; seed++) {
+            Random random = new Random(seed);
+            List<Tweet> tweets = new ArrayList<>();
+            for (Tweet tweet : new TweetGenerator(seed, 60, 1, 2).stream().limit(500).collect(Collectors.toList())) {
+                String author = random.nextInt(10) == 0 ? tweet.getAuthor().toUpperCase() : tweet.getAuthor();
+                tweets.add(new Tweet(tweet.getId(), author, tweet.getText(), tweet.getTimestamp()));
+            }
+            Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+            Set<String> users = new HashSet<>();
+            Set<List<String>> edges = new HashSet<>();
+            for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+                users.add(entry.getKey().toLowerCase());
+                for (String user : entry.getValue()) {
+                    users.add(user.toLowerCase());
+                    edges.add(Arrays.asList(entry.getKey().toLowerCase(), user.toLowerCase()));
+                }
+            }
+            Map<String, Integer> counts = new HashMap<>();
+            for (String user : users) {
+                counts.put(user, 0);
+            }
+            for (List<String> edge : edges) {
+                counts.merge(edge.get(1), 1, Integer::sum);
+            }
+            List<String> sorted = counts.keySet().stream()
+                    .sorted(Comparator.comparing((String user) -> -counts.get(user)).thenComparing(user -> user))
+                    .collect(Collectors.toList());
+            CsrGraph graph = CsrGraph.fromMap(followsGraph);
+
+            for (int k : new int[] { 1, 5, sorted.size() - 1, sorted.size() }) {
+                assertEquals("expected first " + k, sorted.subList(0, k), TopInfluencers.top(followsGraph, k));
+                assertEquals("expected same for CSR " + k, sorted.subList(0, k), TopInfluencers.top(graph, k));
+            }
+            assertArrayEquals("expected same counts", graph.followerCounts(), graph.parallelFollowerCounts());
+            assertEquals("expected same in parallel", TopInfluencers.top(graph, 20), TopInfluencers.top(graph, 20, true));
+        }
+    }
+
+    // Covers graph large enough to count in several tasks, CsrGraph parallel
+    @Test
+    public void testParallel() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        BitSet users = new BitSet();
+        int userCount = 5000;
+        for (int id = 0; id < userCount; id++) {
+            users.set(dictionary.id(TweetGenerator.username(id + 1)));
+        }
+        Random random = new Random(23);
+        int edgeCount = 500000;
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            sources[i] = random.nextInt(userCount);
+            targets[i] = (int) Math.sqrt(random.nextInt(userCount * userCount));
+        }
+        CsrGraph graph = CsrGraph.fromEdges(dictionary, users, sources, targets, edgeCount);
+
+        assertArrayEquals("expected same counts", graph.followerCounts(), graph.parallelFollowerCounts());
+        assertEquals("expected same top users", TopInfluencers.top(graph, 100), TopInfluencers.top(graph, 100, true));
+        assertEquals("expected same as full ranking", graph.influencers().subList(0, 1), TopInfluencers.top(graph, 1, true));
+    }
+}
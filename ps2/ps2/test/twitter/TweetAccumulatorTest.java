@@ -0,0 +1,102 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TweetAccumulatorTest {
+
+    /*
+     * Testing strategy for TimespanAccumulator, MentionAccumulator and HashtagAccumulator
+     *
+     * Input partitions:
+     * tweets accumulated: 0, 1, >1
+     * how tweets are given: accept(), acceptAll(Iterator), acceptAll(Stream), collector() on a parallel stream
+     * merge(): with empty accumulator, with nonempty accumulator
+     * hashtags: none, at beginning of text, in the middle of a word, duplicate hashtags
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-03-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d2);
+    private static final Tweet tweet2 = new Tweet(2, "bbit-diddle", "#hype rivest talk in 30 minutes #hype", d3);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "Get off me. @bbit-diddle; a#b #Rivest", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers 0 tweets
+    @Test
+    public void testNoTweets() {
+        assertEquals("expected same timespan as Extract", Extract.getTimespan(Arrays.asList()), new TimespanAccumulator().result());
+        assertTrue("expected empty set", new MentionAccumulator().result().isEmpty());
+        assertTrue("expected empty set", new HashtagAccumulator().result().isEmpty());
+    }
+
+    // Covers 1 tweet given by accept(), no hashtags
+    @Test
+    public void testAcceptOneTweet() {
+        TimespanAccumulator timespan = new TimespanAccumulator();
+        HashtagAccumulator hashtags = new HashtagAccumulator();
+        timespan.accept(tweet1);
+        hashtags.accept(tweet1);
+
+        assertEquals("expected timespan", new Timespan(d2, d2), timespan.result());
+        assertTrue("expected empty set", hashtags.result().isEmpty());
+    }
+
+    // Covers >1 tweets given by acceptAll(Iterator) and acceptAll(Stream), hashtags at beginning, in word, duplicate
+    @Test
+    public void testAcceptAllMultipleTweets() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        TimespanAccumulator timespan = new TimespanAccumulator();
+        MentionAccumulator mentions = new MentionAccumulator();
+        HashtagAccumulator hashtags = new HashtagAccumulator();
+        timespan.acceptAll(tweets.iterator());
+        mentions.acceptAll(tweets.stream());
+        hashtags.acceptAll(tweets.iterator());
+
+        assertEquals("expected same timespan as Extract", Extract.getTimespan(tweets), timespan.result());
+        assertEquals("expected same mentions as Extract", Extract.getMentionedUsers(tweets), mentions.result());
+        assertEquals("expected hashtags", new HashSet<>(Arrays.asList("#hype", "#Rivest")), hashtags.result());
+    }
+
+    // Covers merge() with empty and nonempty accumulators
+    @Test
+    public void testMerge() {
+        TimespanAccumulator first = new TimespanAccumulator();
+        TimespanAccumulator second = new TimespanAccumulator();
+        first.accept(tweet2);
+        first.merge(new TimespanAccumulator());
+        second.accept(tweet1);
+        second.accept(tweet3);
+        first.merge(second);
+
+        assertEquals("expected merged timespan", new Timespan(d1, d3), first.result());
+    }
+
+    // Covers collector() on a parallel stream
+    @Test
+    public void testCollectorParallelStream() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet1, tweet2, tweet3);
+        Set<String> mentions = tweets.parallelStream().collect(MentionAccumulator.collector());
+        Set<String> hashtags = tweets.parallelStream().collect(HashtagAccumulator.collector());
+        Timespan timespan = tweets.parallelStream().collect(TimespanAccumulator.collector());
+
+        assertEquals("expected same mentions as Extract", Extract.getMentionedUsers(tweets), mentions);
+        assertEquals("expected hashtags", new HashSet<>(Arrays.asList("#hype", "#Rivest")), hashtags);
+        assertEquals("expected same timespan as Extract", Extract.getTimespan(tweets), timespan);
+    }
+}
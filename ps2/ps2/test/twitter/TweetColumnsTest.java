@@ -0,0 +1,102 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetColumnsTest {
+
+    /*
+     * Testing strategy for TweetColumns
+     *
+     * Input partitions:
+     * size(): 0, 1, > initial capacity
+     * timestamps: whole seconds, with nanoseconds
+     * authors: same spelling, different spellings of the same user
+     * writtenBy(): unknown user, user with 1 and >1 tweets, different case
+     * inTimespan(): timespan of size 0, timespan covering no, one and multiple tweets, endpoints with nanoseconds
+     *
+     * Results are compared with Filter and Extract, covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00.000000500Z");
+    private static final Instant d3 = Instant.parse("2016-03-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbit-diddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "", d3);
+    private static final List<Tweet> tweets = Arrays.asList(tweet3, tweet1, tweet2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers size() = 0
+    @Test
+    public void testEmpty() {
+        TweetColumns columns = new TweetColumns();
+
+        assertEquals("expected empty", 0, columns.size());
+        assertEquals("expected same timespan as Extract", Extract.getTimespan(Arrays.asList()), columns.getTimespan());
+        assertTrue("expected no tweets", columns.writtenBy("alyssa").isEmpty());
+    }
+
+    // Covers conversion to and from lists, nanoseconds, different spellings
+    @Test
+    public void testRoundTrip() {
+        TweetColumns columns = TweetColumns.of(tweets);
+        List<Tweet> list = columns.toList();
+
+        assertEquals("expected same tweets", tweets, list);
+        for (int i = 0; i < tweets.size(); i++) {
+            assertEquals("expected same author", tweets.get(i).getAuthor(), list.get(i).getAuthor());
+            assertEquals("expected same text", tweets.get(i).getText(), list.get(i).getText());
+            assertEquals("expected same timestamp", tweets.get(i).getTimestamp(), list.get(i).getTimestamp());
+        }
+        assertEquals("expected same author id", columns.getAuthorId(0), columns.getAuthorId(1));
+        assertEquals("expected list view", tweets, columns.asList());
+    }
+
+    // Covers size() > initial capacity
+    @Test
+    public void testManyTweets() {
+        TweetColumns columns = new TweetColumns();
+        for (int i = 0; i < 1000; i++) {
+            columns.add(new Tweet(i, "user" + (i % 7), "tweet number " + i, d1.plusSeconds(i)));
+        }
+
+        assertEquals("expected size", 1000, columns.size());
+        assertEquals("expected text", "tweet number 999", columns.getText(999));
+        assertEquals("expected timespan", new Timespan(d1, d1.plusSeconds(999)), columns.getTimespan());
+        assertEquals("expected tweets by user", Filter.writtenBy(columns.asList(), "USER3"), columns.writtenBy("user3"));
+    }
+
+    // Covers writtenBy() unknown user, 1 and >1 tweets, different case
+    @Test
+    public void testWrittenBy() {
+        TweetColumns columns = TweetColumns.of(tweets);
+
+        assertTrue("expected no tweets", columns.writtenBy("mvg180").isEmpty());
+        assertEquals("expected tweets", Filter.writtenBy(tweets, "bbit-diddle"), columns.writtenBy("bbit-diddle"));
+        assertEquals("expected tweets", Filter.writtenBy(tweets, "ALYSSA"), columns.writtenBy("ALYSSA"));
+    }
+
+    // Covers inTimespan() size 0, no, one and multiple tweets, nanoseconds
+    @Test
+    public void testInTimespan() {
+        TweetColumns columns = TweetColumns.of(tweets);
+        List<Timespan> timespans = Arrays.asList(new Timespan(d1, d1), new Timespan(d3.plusSeconds(1), d3.plusSeconds(2)),
+                new Timespan(d2, d2), new Timespan(d1, d2.minusNanos(1)), new Timespan(d1, d3));
+
+        for (Timespan timespan : timespans) {
+            assertEquals("expected tweets in " + timespan, Filter.inTimespan(tweets, timespan), columns.inTimespan(timespan));
+        }
+        assertEquals("expected same timespan as Extract", Extract.getTimespan(tweets), columns.getTimespan());
+    }
+}
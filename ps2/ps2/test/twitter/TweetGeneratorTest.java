@@ -0,0 +1,101 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class TweetGeneratorTest {
+
+    /*
+     * Testing strategy for TweetGenerator
+     *
+     * Input partitions:
+     * seed: same seed twice, different seeds
+     * userCount: 1, >1, large enough that an email address is over 20 characters
+     * skew: 1, > 1
+     * output: next(), stream(), writeJsonLines()
+     *
+     * Checked properties: ids consecutive, valid authors, texts nonempty and at most 140 characters,
+     * nondecreasing timestamps, popular users write more tweets, email addresses present
+     *
+     * Covering each part
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers same seed twice, different seeds, stream()
+    @Test
+    public void testDeterministic() {
+        List<String> first = new TweetGenerator(7, 100, 1, 10).stream().limit(500).map(Tweet::toString).collect(Collectors.toList());
+        List<String> second = new TweetGenerator(7, 100, 1, 10).stream().limit(500).map(Tweet::toString).collect(Collectors.toList());
+        List<String> other = new TweetGenerator(8, 100, 1, 10).stream().limit(500).map(Tweet::toString).collect(Collectors.toList());
+
+        assertEquals("expected same tweets", first, second);
+        assertNotEquals("expected different tweets", first, other);
+    }
+
+    // Covers next(), userCount > 1, skew > 1
+    @Test
+    public void testTweetProperties() {
+        TweetGenerator generator = new TweetGenerator(1, 1000, 1.2, 5);
+        Map<String, Integer> tweetsByAuthor = new HashMap<>();
+        Tweet previous = null;
+        boolean emailAddress = false;
+        for (int i = 0; i < 20000; i++) {
+            Tweet tweet = generator.next();
+            assertEquals("expected consecutive ids", i, tweet.getId());
+            assertTrue("expected valid author", tweet.getAuthor().matches("[A-Za-z0-9_-]+"));
+            assertTrue("expected at most 140 characters", tweet.getText().length() <= 140);
+            assertFalse("expected nonempty text", tweet.getText().isEmpty());
+            if (previous != null) {
+                assertFalse("expected nondecreasing timestamps", tweet.getTimestamp().isBefore(previous.getTimestamp()));
+            }
+            emailAddress |= tweet.getText().matches(".*[a-z0-9]@[a-z]+\\.(edu|com).*");
+            tweetsByAuthor.merge(tweet.getAuthor(), 1, Integer::sum);
+            previous = tweet;
+        }
+
+        assertTrue("expected email addresses", emailAddress);
+        assertTrue("expected skewed authors", tweetsByAuthor.get(TweetGenerator.username(1))
+                > 10 * tweetsByAuthor.getOrDefault(TweetGenerator.username(500), 1));
+    }
+
+    // Covers userCount large enough that an email address is over 20 characters
+    @Test
+    public void testLongTokens() {
+        TweetGenerator generator = new TweetGenerator(2, 100000000, 0.5, 5);
+        for (int i = 0; i < 20000; i++) {
+            String text = generator.next().getText();
+            assertFalse("expected nonempty text", text.isEmpty());
+            assertTrue("expected at most 140 characters", text.length() <= 140);
+        }
+    }
+
+    // Covers userCount = 1, skew = 1, writeJsonLines()
+    @Test
+    public void testWriteJsonLines() throws IOException {
+        Path file = Files.createTempFile("tweets", ".jsonl");
+        try {
+            new TweetGenerator(3, 1, 1, 1).writeJsonLines(file, 100);
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+            assertEquals("expected one line per tweet", 100, lines.size());
+            assertEquals("expected first tweet", TweetJson.toJson(new TweetGenerator(3, 1, 1, 1).next()), lines.get(0));
+            assertTrue("expected only one author", lines.stream().allMatch(line -> line.contains("\"author\":\"user1\"")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
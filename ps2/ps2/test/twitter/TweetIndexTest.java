@@ -0,0 +1,97 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetIndexTest {
+
+    /*
+     * Testing strategy for TweetIndex
+     *
+     * Input partitions:
+     * tweets: none, many, in time order, out of time order, list modified after construction
+     * mentions: absent, present in several tweets, different case, twice in one tweet, email address
+     * hashtags: absent, present, different case
+     * component indexes: author, time, word
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "@BBitDiddle talk about rivest #MIT @bbitdiddle", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype #mit", d2);
+    private static final Tweet tweet3 = new Tweet(3, "ben", "mail alyssa@mit.edu or @bbitdiddle", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers tweets none
+    @Test
+    public void testEmpty() {
+        TweetIndex index = new TweetIndex(Collections.emptyList());
+
+        assertEquals("expected no tweets", 0, index.size());
+        assertEquals("expected no mentions", 0, index.mentionCount("alyssa"));
+        assertEquals("expected no tweets", Collections.emptyList(), index.query(Query.containing("talk")));
+    }
+
+    // Covers mentions absent, several tweets, different case, twice in one tweet, email address
+    @Test
+    public void testMentions() {
+        TweetIndex index = new TweetIndex(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertArrayEquals("expected positions", new int[] { 0, 2 }, index.positionsMentioning("BBITDIDDLE"));
+        assertEquals("expected no mentions", 0, index.mentionCount("alyssa"));
+    }
+
+    // Covers hashtags absent, present, different case
+    @Test
+    public void testHashtags() {
+        TweetIndex index = new TweetIndex(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertArrayEquals("expected positions", new int[] { 0 }, index.positionsWithHashtag("#MIT"));
+        assertArrayEquals("expected positions", new int[] { 1 }, index.positionsWithHashtag("#mit"));
+        assertEquals("expected no tweets", 0, index.hashtagCount("#nothing"));
+    }
+
+    // Covers component indexes, tweets in time order
+    @Test
+    public void testComponentIndexes() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        UsernameDictionary dictionary = new UsernameDictionary();
+        TweetIndex index = new TweetIndex(tweets, dictionary);
+
+        assertSame("expected shared dictionary", dictionary, index.getAuthorIndex().getDictionary());
+        assertEquals("expected tweets", Arrays.asList(tweet3), index.getAuthorIndex().writtenBy("Ben"));
+        assertEquals("expected tweets", Arrays.asList(tweet2, tweet3), index.getTimeIndex().inTimespan(new Timespan(d2, d2)));
+        assertEquals("expected tweets", Arrays.asList(tweet1, tweet2), index.getWordIndex().containing(Arrays.asList("RIVEST")));
+        assertSame("expected tweet", tweet2, index.get(1));
+    }
+
+    // Covers tweets out of time order, list modified after construction
+    @Test
+    public void testComponentsShareCopy() {
+        List<Tweet> tweets = new ArrayList<>(Arrays.asList(tweet3, tweet1, tweet2));
+        TweetIndex index = new TweetIndex(tweets);
+        tweets.clear();
+
+        assertEquals("expected size", 3, index.size());
+        assertEquals("expected tweets", Arrays.asList(tweet3, tweet2), index.getTimeIndex().inTimespan(new Timespan(d2, d2)));
+        assertEquals("expected timespan", new Timespan(d1, d2), index.getTimeIndex().getTimespan());
+        assertEquals("expected tweets", Arrays.asList(tweet1), index.getAuthorIndex().writtenBy("ALYSSA"));
+        assertEquals("expected tweets", Arrays.asList(tweet1, tweet2), index.getWordIndex().containing(Arrays.asList("talk")));
+        assertEquals("expected words as WordIndex", new WordIndex(Arrays.asList(tweet3, tweet1, tweet2)).wordCount(),
+                index.getWordIndex().wordCount());
+    }
+}
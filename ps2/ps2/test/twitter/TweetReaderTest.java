@@ -0,0 +1,194 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class TweetReaderTest {
+
+    /*
+     * Testing strategy for TweetReader and TweetJson
+     *
+     * Input partitions:
+     * format: JSON_LINES, CSV, JSON array (readTweetsFromWeb)
+     * file: empty, one tweet, many tweets spanning several chunks
+     * lines: blank lines, \r\n line breaks, no final line break
+     * CSV fields: unquoted, quoted with commas and doubled quotes, header line
+     * JSON strings: escapes, non-ASCII characters, unknown fields, epoch-millis timestamp
+     * stream: sequential, parallel, iterator
+     * input: valid, malformed
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers JSON strings with escapes and non-ASCII characters
+    @Test
+    public void testJsonRoundTrip() {
+        Tweet tweet = new Tweet(-5, "alyssa", "\"quoted\" back\\slash\nnew line\ttab \u0001 caf\u00e9 \u4e2d", d1);
+        String json = TweetJson.toJson(tweet);
+
+        assertFalse("expected one line", json.contains("\n"));
+        assertEquals("expected same tweet", tweet, TweetJson.parse(json));
+    }
+
+    // Covers unknown fields, epoch-millis timestamp, username field
+    @Test
+    public void testJsonLenientFields() {
+        Tweet tweet = TweetJson.parse(" {\"retweets\":[1,{\"a\":null}],\"id\":1,\"username\":\"alyssa\","
+                + "\"text\":\"caf\\u00e9\",\"timestamp\":" + d1.toEpochMilli() + ",\"ok\":true} ");
+
+        assertEquals("expected tweet", new Tweet(1, "alyssa", "caf\u00e9", d1), tweet);
+    }
+
+    // Covers input malformed
+    @Test
+    public void testJsonMalformed() {
+        for (String json : Arrays.asList("{\"id\":1}", "{\"id\":1.5,\"author\":\"a\",\"text\":\"\",\"timestamp\":0}",
+                "{\"id\":1,\"author\":\"a\",\"text\":\"unterminated}", "[]", "")) {
+            try {
+                TweetJson.parse(json);
+                fail("expected IllegalArgumentException for " + json);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    // Covers JSON_LINES, many tweets spanning several chunks, sequential and parallel
+    @Test
+    public void testJsonLinesChunks() throws IOException {
+        Path file = Files.createTempFile("tweets", ".jsonl");
+        try {
+            new TweetGenerator(5, 100, 1, 10).writeJsonLines(file, 3000);
+            List<Tweet> expected = new TweetGenerator(5, 100, 1, 10).stream().limit(3000).collect(Collectors.toList());
+
+            assertEquals("expected all tweets", expected, collect(TweetReader.readTweets(file)));
+            assertEquals("expected all tweets across chunks", expected,
+                    collect(TweetReader.readTweets(file, TweetReader.Format.JSON_LINES, 1000)));
+            assertEquals("expected all tweets in order in parallel", expected,
+                    collect(TweetReader.readTweets(file, TweetReader.Format.JSON_LINES, 4096).parallel()));
+            assertEquals("expected all tweets in order in parallel", expected,
+                    collect(TweetReader.readTweets(file).parallel()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Covers empty file, blank lines, \r\n line breaks, no final line break, iterator
+    @Test
+    public void testJsonLinesLineBreaks() throws IOException {
+        Path file = Files.createTempFile("tweets", ".jsonl");
+        try {
+            assertEquals("expected no tweets", Collections.emptyList(), collect(TweetReader.readTweets(file)));
+
+            write(file, "\r\n" + TweetJson.toJson(tweet1) + "\r\n\n  \n" + TweetJson.toJson(tweet2));
+            Iterator<Tweet> tweets = TweetReader.iterator(file, TweetReader.Format.JSON_LINES);
+
+            assertEquals("expected first tweet", tweet1, tweets.next());
+            assertEquals("expected second tweet", tweet2, tweets.next());
+            assertFalse("expected no more tweets", tweets.hasNext());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Covers CSV, header line, unquoted and quoted fields, one tweet
+    @Test
+    public void testCsv() throws IOException {
+        Path file = Files.createTempFile("tweets", ".csv");
+        try {
+            write(file, "id,author,timestamp,text\n"
+                    + "1,alyssa,2016-02-17T10:00:00Z,is it reasonable to talk about rivest so much?\n"
+                    + "2,\"bbitdiddle\",2016-02-17T11:00:00Z,\"say \"\"hi\"\", caf\u00e9\"\r\n"
+                    + "3,ben,2016-02-17T11:00:00Z,commas, unquoted, are kept\n");
+
+            List<Tweet> tweets = collect(TweetReader.readTweets(file));
+
+            assertEquals("expected tweets", Arrays.asList(tweet1,
+                    new Tweet(2, "bbitdiddle", "say \"hi\", caf\u00e9", d2),
+                    new Tweet(3, "ben", "commas, unquoted, are kept", d2)), tweets);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Covers CSV across chunks, parallel
+    @Test
+    public void testCsvParallel() throws IOException {
+        Path file = Files.createTempFile("tweets", ".csv");
+        try {
+            List<Tweet> expected = new TweetGenerator(9, 50, 1, 10).stream().limit(2000).collect(Collectors.toList());
+            write(file, expected.stream()
+                    .map(tweet -> tweet.getId() + "," + tweet.getAuthor() + "," + tweet.getTimestamp() + ",\""
+                            + tweet.getText().replace("\"", "\"\"") + "\"\n")
+                    .collect(Collectors.joining()));
+
+            assertEquals("expected all tweets in order", expected,
+                    collect(TweetReader.readTweets(file, TweetReader.Format.CSV, 2048).parallel()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Covers input malformed
+    @Test
+    public void testMalformedLine() throws IOException {
+        Path file = Files.createTempFile("tweets", ".csv");
+        try {
+            write(file, "1,alyssa,yesterday,hello\n");
+            try {
+                collect(TweetReader.readTweets(file));
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Covers JSON array (readTweetsFromWeb)
+    @Test
+    public void testReadFromUrl() throws IOException {
+        Path file = Files.createTempFile("tweets", ".json");
+        try {
+            write(file, "[\n  " + TweetJson.toJson(tweet1) + ",\n  " + TweetJson.toJson(tweet2) + "\n]\n");
+
+            assertEquals("expected tweets", Arrays.asList(tweet1, tweet2),
+                    TweetReader.readTweetsFromWeb(file.toUri().toURL()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<Tweet> collect(Stream<Tweet> tweets) {
+        return tweets.collect(Collectors.toList());
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
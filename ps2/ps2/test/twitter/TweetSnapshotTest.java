@@ -0,0 +1,124 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class TweetSnapshotTest {
+
+    /*
+     * Testing strategy for TweetSnapshot
+     *
+     * Input partitions:
+     * tweets: none, one, several blocks (> BLOCK_ROWS)
+     * order of tweets written: time order, out of time order, equal timestamps
+     * ids: increasing, decreasing, negative, Long.MIN_VALUE/MAX_VALUE
+     * texts: empty, ASCII, non-ASCII
+     * inTimespan: before all tweets, covers all, inside one block, spans blocks, start == end
+     * writtenBy: no such author, author in different case, author with several spellings
+     * file: written by write(), not a snapshot
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00.000000001Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers tweets none
+    @Test
+    public void testEmpty() throws IOException {
+        TweetSnapshot snapshot = roundTrip(Collections.<Tweet>emptyList());
+
+        assertEquals("expected no tweets", 0, snapshot.size());
+        assertEquals("expected no tweets", Collections.emptyList(), snapshot.toList());
+        assertEquals("expected empty timespan", Instant.EPOCH, snapshot.getTimespan().getStart());
+        assertEquals("expected no tweets", Collections.emptyList(), snapshot.writtenBy("alyssa"));
+        assertEquals("expected no tweets", Collections.emptyList(), snapshot.inTimespan(new Timespan(d1, d2)));
+    }
+
+    // Covers tweets one and out of time order, extreme and decreasing ids, empty and non-ASCII texts
+    @Test
+    public void testRoundTripSortsByTime() throws IOException {
+        Tweet tweet1 = new Tweet(Long.MAX_VALUE, "alyssa", "", d3);
+        Tweet tweet2 = new Tweet(Long.MIN_VALUE, "bbitdiddle", "caf\u00e9 \u4e2d @alyssa", d1);
+        Tweet tweet3 = new Tweet(-7, "ALYSSA", "same time", d1);
+        TweetSnapshot single = roundTrip(Arrays.asList(tweet1));
+        TweetSnapshot snapshot = roundTrip(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals("expected one tweet", Arrays.asList(tweet1), single.toList());
+        assertEquals("expected tweets in time order", Arrays.asList(tweet2, tweet3, tweet1), snapshot.toList());
+        assertEquals("expected timespan start", d1, snapshot.getTimespan().getStart());
+        assertEquals("expected timespan end", d3, snapshot.getTimespan().getEnd());
+    }
+
+    // Covers several blocks, inTimespan before all, covers all, inside one block, spans blocks, start == end
+    @Test
+    public void testInTimespan() throws IOException {
+        List<Tweet> tweets = new TweetGenerator(11, 200, 1, 5).stream().limit(5000).collect(Collectors.toList());
+        TweetSnapshot snapshot = roundTrip(tweets);
+        Timespan all = Extract.getTimespan(tweets);
+
+        assertEquals("expected all tweets", tweets, snapshot.toList());
+        assertEquals("expected no tweets", Collections.emptyList(),
+                snapshot.inTimespan(new Timespan(Instant.EPOCH, d1.minusSeconds(1))));
+        assertEquals("expected all tweets", tweets, snapshot.inTimespan(all));
+        for (int[] range : new int[][] { { 10, 20 }, { 900, 2100 }, { 1023, 1024 }, { 3000, 3000 } }) {
+            Timespan timespan = new Timespan(tweets.get(range[0]).getTimestamp(),
+                    tweets.get(range[1]).getTimestamp());
+            assertEquals("expected same tweets as Filter", Filter.inTimespan(tweets, timespan),
+                    snapshot.inTimespan(timespan));
+        }
+    }
+
+    // Covers writtenBy no such author, different case, several spellings
+    @Test
+    public void testWrittenBy() throws IOException {
+        List<Tweet> tweets = new ArrayList<>(new TweetGenerator(12, 50, 1, 5).stream().limit(3000)
+                .collect(Collectors.toList()));
+        tweets.add(new Tweet(-1, "User1", "spelled differently", tweets.get(tweets.size() - 1).getTimestamp()));
+        tweets.sort(Comparator.comparing(Tweet::getTimestamp));
+        TweetSnapshot snapshot = roundTrip(tweets);
+
+        assertEquals("expected no tweets", Collections.emptyList(), snapshot.writtenBy("nobody"));
+        assertEquals("expected same tweets as Filter", Filter.writtenBy(tweets, "USER1"), snapshot.writtenBy("USER1"));
+        assertEquals("expected same tweets as Filter", Filter.writtenBy(tweets, "user7"), snapshot.writtenBy("user7"));
+    }
+
+    // Covers file not a snapshot
+    @Test(expected=IOException.class)
+    public void testNotASnapshot() throws IOException {
+        Path file = Files.createTempFile("tweets", ".snapshot");
+        try {
+            Files.write(file, "{\"id\":1,\"author\":\"alyssa\",\"text\":\"hi\",\"timestamp\":0}\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            TweetSnapshot.open(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static TweetSnapshot roundTrip(List<Tweet> tweets) throws IOException {
+        Path file = Files.createTempFile("tweets", ".snapshot");
+        file.toFile().deleteOnExit(); // a mapped file can't be deleted on some platforms
+        TweetSnapshot.write(file, tweets);
+        return TweetSnapshot.open(file);
+    }
+}
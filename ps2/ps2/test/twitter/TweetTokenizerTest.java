@@ -0,0 +1,101 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetTokenizerTest {
+
+    /*
+     * Testing strategy for tokenize()
+     *
+     * Input partitions:
+     * text: empty, only spaces, one word, multiple words, consecutive spaces, leading and trailing spaces
+     * hashtags: none, whole word "#", hashtag at end, '#' inside a word
+     * mentions: none, mention inside a word after punctuation, email address
+     *
+     * Testing strategy for equalsIgnoreCase()
+     *
+     * Input partitions:
+     * span: same word, same word in different case, different length, prefix of word
+     *
+     * Testing strategy for foldCase()
+     *
+     * Input partitions:
+     * span: empty, already folded, upper case, non-ASCII case pairs, part of text
+     *
+     * Covering each part
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers empty text, only spaces
+    @Test
+    public void testTokenizeNoWords() {
+        assertEquals("expected no tokens", Arrays.asList(), tokens(""));
+        assertEquals("expected no tokens", Arrays.asList(), tokens("   "));
+    }
+
+    // Covers multiple words, consecutive, leading and trailing spaces, no hashtags or mentions
+    @Test
+    public void testTokenizeWords() {
+        assertEquals("expected words", Arrays.asList("w:rivest", "w:talk", "w:in", "w:30"), tokens("  rivest talk   in 30 "));
+    }
+
+    // Covers hashtags "#", at end and inside a word
+    @Test
+    public void testTokenizeHashtags() {
+        assertEquals("expected words and hashtags", Arrays.asList("w:#", "h:#", "w:a#b", "w:#hype", "h:#hype"),
+                tokens("# a#b #hype"));
+    }
+
+    // Covers mention after punctuation, email address, one word
+    @Test
+    public void testTokenizeMentions() {
+        assertEquals("expected words and mention", Arrays.asList("m:alyssa", "w:later,@alyssa", "w:bitdiddle@mit.edu"),
+                tokens("later,@alyssa bitdiddle@mit.edu"));
+        assertEquals("expected word and mention", Arrays.asList("m:BBit", "w:@BBit"), tokens("@BBit"));
+    }
+
+    // Covers same word, different case, different length, prefix
+    @Test
+    public void testEqualsIgnoreCase() {
+        assertTrue("expected equal", TweetTokenizer.equalsIgnoreCase("talk", "rivest talk", 7, 11));
+        assertTrue("expected equal", TweetTokenizer.equalsIgnoreCase("TaLK", "rivest talk", 7, 11));
+        assertFalse("expected not equal", TweetTokenizer.equalsIgnoreCase("rivest", "rivest talk", 0, 11));
+        assertFalse("expected not equal", TweetTokenizer.equalsIgnoreCase("riv", "rivest talk", 0, 6));
+    }
+
+    // Covers foldCase empty, already folded, upper case, non-ASCII, part of text
+    @Test
+    public void testFoldCase() {
+        assertEquals("expected empty", "", TweetTokenizer.foldCase("rivest", 3, 3));
+        assertEquals("expected same word", "talk", TweetTokenizer.foldCase("rivest talk", 7, 11));
+        assertEquals("expected lower case", "#mit", TweetTokenizer.foldCase("go #MIT!", 3, 7));
+        assertEquals("expected same folding as equalsIgnoreCase", TweetTokenizer.foldCase("\u00c9t\u00c9", 0, 3),
+                TweetTokenizer.foldCase("\u00e9T\u00e9", 0, 3));
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        TweetTokenizer.tokenize(text, new TweetTokenizer.Listener() {
+            @Override public void word(String text, int start, int end) {
+                tokens.add("w:" + text.substring(start, end));
+            }
+            @Override public void mention(String text, int start, int end) {
+                tokens.add("m:" + text.substring(start, end));
+            }
+            @Override public void hashtag(String text, int start, int end) {
+                tokens.add("h:" + text.substring(start, end));
+            }
+        });
+        return tokens;
+    }
+}
@@ -0,0 +1,88 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class UserIdsTest {
+
+    /*
+     * Testing strategy for UserIds
+     *
+     * Input partitions:
+     * writtenBy(): 0, 1, >1 tweets by the user, author spelled with different case
+     * mentionedUserIds(): no mentions, mentions of authors, mentions of users that are not authors
+     * influencers(): empty graph, users only as keys, users followed in different case, dictionary with other users
+     *
+     * Results are compared with Extract, Filter and SocialNetwork, covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbit-diddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "Get off me. @bbit-diddle; @MVG180", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers writtenBy() with 0, 1 and >1 tweets, different case
+    @Test
+    public void testWrittenBy() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        UsernameDictionary dictionary = new UsernameDictionary();
+        int[] authorIds = UserIds.authorIds(tweets, dictionary);
+
+        assertEquals("expected tweets", Filter.writtenBy(tweets, "alyssa"),
+                UserIds.writtenBy(tweets, authorIds, dictionary.id("ALYSSA")));
+        assertEquals("expected tweet", Arrays.asList(tweet2), UserIds.writtenBy(tweets, authorIds, dictionary.id("bbit-diddle")));
+        assertTrue("expected no tweets", UserIds.writtenBy(tweets, authorIds, dictionary.id("mvg180")).isEmpty());
+    }
+
+    // Covers no mentions, mentions of authors and of other users
+    @Test
+    public void testMentionedUserIds() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        UserIds.authorIds(Arrays.asList(tweet1, tweet2), dictionary);
+
+        assertTrue("expected no mentions", UserIds.mentionedUserIds(Arrays.asList(tweet1), dictionary).isEmpty());
+        BitSet mentioned = UserIds.mentionedUserIds(Arrays.asList(tweet3), dictionary);
+        Set<String> names = new HashSet<>();
+        mentioned.stream().forEach(id -> names.add(dictionary.name(id)));
+        assertEquals("expected mentions", Extract.getMentionedUsers(Arrays.asList(tweet3)), names);
+    }
+
+    // Covers empty graph
+    @Test
+    public void testInfluencersEmpty() {
+        assertTrue("expected empty list", UserIds.influencers(new HashMap<>(), new UsernameDictionary()).isEmpty());
+    }
+
+    // Covers keys only, followed in different case, dictionary with other users
+    @Test
+    public void testInfluencers() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        dictionary.id("guess_not");
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("alyssa", new HashSet<>(Arrays.asList("BBit-diddle", "mvg180")));
+        followsGraph.put("mvg180", new HashSet<>(Arrays.asList("bbit-diddle")));
+        followsGraph.put("pdc", new HashSet<>());
+        List<String> influencers = UserIds.influencers(followsGraph, dictionary);
+
+        assertEquals("expected all users", new HashSet<>(SocialNetwork.influencers(followsGraph)), new HashSet<>(influencers));
+        assertEquals("expected list of size 4", 4, influencers.size());
+        assertEquals("expected descending order", "bbit-diddle", influencers.get(0));
+        assertEquals("expected descending order", "mvg180", influencers.get(1));
+    }
+}
@@ -0,0 +1,118 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class UsernameDictionaryTest {
+
+    /*
+     * Testing strategy for UsernameDictionary
+     *
+     * Input partitions:
+     * id(): new username, known username with same spelling, known username with different case
+     * id() of a span: new username, known username with different case, many usernames
+     * lookup(): known username, known username with different case, unknown username
+     * name(), displayName(): valid id, invalid id
+     * threads assigning ids: 1, >1
+     *
+     * Covering each part
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers new username, same spelling, different case, valid ids
+    @Test
+    public void testIdCaseInsensitive() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+
+        assertEquals("expected first id", 0, dictionary.id("BBit-Diddle"));
+        assertEquals("expected second id", 1, dictionary.id("alyssa"));
+        assertEquals("expected same id", 0, dictionary.id("BBit-Diddle"));
+        assertEquals("expected same id", 0, dictionary.id("bbit-diddle"));
+        assertEquals("expected two usernames", 2, dictionary.size());
+        assertEquals("expected lower case name", "bbit-diddle", dictionary.name(0));
+        assertEquals("expected first spelling", "BBit-Diddle", dictionary.displayName(0));
+    }
+
+    // Covers id() of a span of a new username, a known username with different case, many usernames
+    @Test
+    public void testIdOfSpan() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        String text = "hi @Alyssa and @bbit-diddle";
+
+        assertEquals("expected first id", 0, dictionary.id(text, 4, 10));
+        assertEquals("expected lower case name", "alyssa", dictionary.name(0));
+        assertEquals("expected first spelling", "Alyssa", dictionary.displayName(0));
+        assertEquals("expected second id", 1, dictionary.id(text, 16, 27));
+        assertEquals("expected same id", 0, dictionary.id("ALYSSA"));
+        assertEquals("expected same id for other case", 1, dictionary.id("to @BBIT-DIDDLE", 4, 15));
+        for (int i = 0; i < 1000; i++) {
+            dictionary.id("user" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            String mention = "@User" + i + " ";
+            assertEquals("expected same id as whole name", dictionary.lookup("user" + i),
+                    dictionary.id(mention, 1, mention.length() - 1));
+        }
+        assertEquals("expected no new ids", 1002, dictionary.size());
+    }
+
+    // Covers lookup() of known, different case and unknown usernames
+    @Test
+    public void testLookup() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        dictionary.id("alyssa");
+
+        assertEquals("expected id", 0, dictionary.lookup("alyssa"));
+        assertEquals("expected id", 0, dictionary.lookup("ALYSSA"));
+        assertEquals("expected no id", -1, dictionary.lookup("mvg180"));
+        assertEquals("expected no new ids", 1, dictionary.size());
+    }
+
+    // Covers invalid id
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testNameInvalidId() {
+        new UsernameDictionary().name(0);
+    }
+
+    // Covers >1 threads assigning ids
+    @Test
+    public void testConcurrentIds() throws InterruptedException {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final boolean upper = t % 2 == 0;
+            final boolean span = t >= 2;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    String name = upper ? "USER" + i : "user" + i;
+                    if (span) {
+                        String text = "@" + name + " ";
+                        dictionary.id(text, 1, text.length() - 1);
+                    }
+                    else {
+                        dictionary.id(name);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals("expected one id per username", 1000, dictionary.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("expected name of id", "user" + i, dictionary.name(dictionary.lookup("User" + i)));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class VersionedCorpusTest {
+
+    /*
+     * Testing strategy for VersionedCorpus
+     *
+     * Input partitions:
+     * corpus: empty, one append, several appends
+     * append(): no tweets, some tweets
+     * operation: writtenBy, inTimespan, containing, getTimespan,
+     *            getMentionedUsers, guessFollowsGraph, influencers
+     * repeated call: same arguments, equivalent arguments (case, word order),
+     *                after an append
+     * result: modified by a caller (rejected)
+     * cache: own, shared with another corpus
+     * cache statistics: one hit or miss per call, nested lookup of the graph
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about @rivest so much? #a #b", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #a #b @alyssa", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers corpus empty, append no tweets, getTimespan
+    @Test
+    public void testEmpty() {
+        VersionedCorpus corpus = new VersionedCorpus(new ResultCache(10));
+
+        assertEquals("expected version 0", 0, corpus.append(Collections.emptyList()));
+        assertEquals("expected no tweets", Collections.emptyList(), corpus.tweets());
+        assertEquals("expected Extract timespan", Extract.getTimespan(Collections.emptyList()), corpus.getTimespan());
+    }
+
+    // Covers one append, every operation, same arguments, equivalent arguments
+    @Test
+    public void testSameAsOperations() {
+        VersionedCorpus corpus = new VersionedCorpus(new ResultCache(100));
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2);
+        corpus.append(tweets);
+        Timespan timespan = new Timespan(d1, d1);
+
+        assertEquals("expected writtenBy", Filter.writtenBy(tweets, "alyssa"), corpus.writtenBy("alyssa"));
+        assertSame("expected cached for other case", corpus.writtenBy("alyssa"), corpus.writtenBy("ALYSSA"));
+        assertEquals("expected inTimespan", Filter.inTimespan(tweets, timespan), corpus.inTimespan(timespan));
+        assertEquals("expected containing", Filter.containing(tweets, Arrays.asList("rivest", "minutes")),
+                corpus.containing(Arrays.asList("rivest", "minutes")));
+        assertSame("expected cached for other order and case", corpus.containing(Arrays.asList("rivest", "minutes")),
+                corpus.containing(Arrays.asList("Minutes", "RIVEST")));
+        assertEquals("expected getTimespan", Extract.getTimespan(tweets), corpus.getTimespan());
+        assertEquals("expected getMentionedUsers", Extract.getMentionedUsers(tweets), corpus.getMentionedUsers());
+        assertEquals("expected guessFollowsGraph", SocialNetwork.guessFollowsGraph(tweets), corpus.guessFollowsGraph());
+        assertEquals("expected influencers", SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(tweets)).size(),
+                corpus.influencers().size());
+        long misses = corpus.getCache().missCount();
+        corpus.getMentionedUsers();
+        assertEquals("expected hit", misses, corpus.getCache().missCount());
+    }
+
+    // Covers several appends, after an append
+    @Test
+    public void testAppend() {
+        VersionedCorpus corpus = new VersionedCorpus(new ResultCache(100));
+        long first = corpus.append(Arrays.asList(tweet1));
+        List<Tweet> before = corpus.writtenBy("bbitdiddle");
+        List<Tweet> snapshot = corpus.tweets();
+        long second = corpus.append(Arrays.asList(tweet2));
+
+        assertTrue("expected new version", second > first);
+        assertEquals("expected no tweets before", Collections.emptyList(), before);
+        assertEquals("expected new tweet", Arrays.asList(tweet2), corpus.writtenBy("bbitdiddle"));
+        assertEquals("expected snapshot unchanged", Arrays.asList(tweet1), snapshot);
+        assertEquals("expected old results removed", 1, corpus.getCache().size());
+    }
+
+    // Covers cache shared with another corpus
+    @Test
+    public void testSharedCache() {
+        ResultCache cache = new ResultCache(100);
+        VersionedCorpus first = new VersionedCorpus(cache);
+        VersionedCorpus second = new VersionedCorpus(cache);
+        first.append(Arrays.asList(tweet1));
+        second.append(Arrays.asList(tweet2));
+
+        assertEquals("expected own tweets", Arrays.asList(tweet1), first.writtenBy("alyssa"));
+        assertEquals("expected own tweets", Collections.emptyList(), second.writtenBy("alyssa"));
+        assertEquals("expected own mentions", Collections.singleton("rivest"), first.getMentionedUsers());
+        assertEquals("expected own mentions", Collections.singleton("alyssa"), second.getMentionedUsers());
+        first.append(Arrays.asList(tweet2));
+        assertEquals("expected other corpus's results kept", Collections.singleton("alyssa"), second.getMentionedUsers());
+        assertEquals("expected hit", 4, cache.missCount());
+    }
+
+    // Covers guessFollowsGraph, influencers, cache statistics
+    @Test
+    public void testOneLookupPerCall() {
+        VersionedCorpus corpus = new VersionedCorpus(new ResultCache(100));
+        corpus.append(Arrays.asList(tweet1, tweet2));
+        corpus.guessFollowsGraph();
+
+        assertEquals("expected one miss", 1, corpus.getCache().missCount());
+        assertEquals("expected no hits", 0, corpus.getCache().hitCount());
+        corpus.guessFollowsGraph();
+        assertEquals("expected one hit", 1, corpus.getCache().hitCount());
+        corpus.influencers();
+        assertEquals("expected miss for influencers only", 2, corpus.getCache().missCount());
+        assertEquals("expected hit for its graph", 2, corpus.getCache().hitCount());
+    }
+
+    // Covers result modified by a caller
+    @Test
+    public void testImmutableResults() {
+        VersionedCorpus corpus = new VersionedCorpus(new ResultCache(100));
+        corpus.append(Arrays.asList(tweet1, tweet2));
+        List<Tweet> tweets = corpus.writtenBy("alyssa");
+        Set<String> users = corpus.getMentionedUsers();
+        Map<String, Set<String>> graph = corpus.guessFollowsGraph();
+
+        assertRejected(() -> tweets.clear());
+        assertRejected(() -> users.add("mallory"));
+        assertRejected(() -> graph.get("alyssa").add("mallory"));
+        assertRejected(() -> corpus.influencers().add("mallory"));
+        assertEquals("expected results intact", Filter.writtenBy(Arrays.asList(tweet1, tweet2), "alyssa"),
+                corpus.writtenBy("alyssa"));
+    }
+
+    private static void assertRejected(Runnable modification) {
+        try {
+            modification.run();
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+}
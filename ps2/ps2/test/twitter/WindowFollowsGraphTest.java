@@ -0,0 +1,192 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class WindowFollowsGraphTest {
+
+    /*
+     * Testing strategy for WindowFollowsGraph
+     *
+     * Input partitions:
+     * tweets: none, one, many
+     * remove(): last tweet of a mention, of a hashtag shared with a partner,
+     *           of a spelling, of an author; evidence still supported
+     * follower counts: user with none, followed by several spellings of one
+     *         user, kept by a mention after a hashtag partner leaves
+     * influencers(): k 0, k > users, negative
+     * user ids: reused after users leave, over a long stream of new users
+     *
+     * Covering each part, and comparing with FollowsGraphBuilder on random
+     * sequences of added and removed tweets
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers tweets none, influencers() k > users
+    @Test
+    public void testEmpty() {
+        WindowFollowsGraph graph = new WindowFollowsGraph();
+
+        assertEquals("expected empty graph", Collections.emptyMap(), graph.getFollowsGraph());
+        assertEquals("expected no tweets", 0, graph.tweetCount());
+        assertEquals("expected no users", 0, graph.userCount());
+        assertEquals("expected no followers", 0, graph.followerCount("alyssa"));
+        assertEquals("expected no influencers", Collections.emptyList(), graph.influencers(3));
+    }
+
+    // Covers tweets one, follower counts none
+    @Test
+    public void testMention() {
+        WindowFollowsGraph graph = new WindowFollowsGraph();
+        graph.add("alyssa", new String[] { "bbitdiddle", "alyssa" }, new String[0]);
+
+        assertEquals("expected mention", Collections.singletonMap("alyssa", Collections.singleton("bbitdiddle")),
+                graph.getFollowsGraph());
+        assertEquals("expected one follower", 1, graph.followerCount("BBitdiddle"));
+        assertEquals("expected no followers", 0, graph.followerCount("alyssa"));
+        assertEquals("expected follows", Collections.singleton("bbitdiddle"), graph.follows("alyssa"));
+        assertEquals("expected no follows", Collections.emptySet(), graph.follows("nobody"));
+        assertEquals("expected edge count", 1, graph.edgeCount());
+        assertEquals("expected users", 2, graph.userCount());
+        assertEquals("expected no influencers", Collections.emptyList(), graph.influencers(0));
+    }
+
+    // Covers remove() last tweet of a mention, of a shared hashtag, of a spelling, of an author, still supported;
+    // follower counts several spellings, kept by a mention
+    @Test
+    public void testRemove() {
+        WindowFollowsGraph graph = new WindowFollowsGraph();
+        graph.add("alyssa", new String[] { "ben" }, new String[] { "#a", "#b" });
+        graph.add("ben", new String[0], new String[] { "#a", "#b" });
+        graph.add("Alyssa", new String[] { "ben" }, new String[0]);
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("alyssa", new HashSet<>(Arrays.asList("Alyssa", "ben")));
+        expected.put("Alyssa", new HashSet<>(Arrays.asList("alyssa", "ben")));
+        expected.put("ben", new HashSet<>(Arrays.asList("alyssa", "Alyssa")));
+        assertEquals("expected whole graph", expected, graph.getFollowsGraph());
+        assertEquals("expected followers counted once per user", 2, graph.followerCount("ALYSSA"));
+
+        graph.remove("ben", new String[0], new String[] { "#a", "#b" });
+        expected.remove("ben");
+        assertEquals("expected mentions still supported", expected, graph.getFollowsGraph());
+        assertEquals("expected follower kept by mention", 1, graph.followerCount("ben"));
+
+        graph.remove("alyssa", new String[] { "ben" }, new String[] { "#a", "#b" });
+        assertEquals("expected spelling removed", Collections.singletonMap("Alyssa", Collections.singleton("ben")),
+                graph.getFollowsGraph());
+        assertEquals("expected influencers", Arrays.asList("ben", "alyssa"), graph.influencers(5));
+
+        graph.remove("Alyssa", new String[] { "ben" }, new String[0]);
+        assertEquals("expected empty graph", Collections.emptyMap(), graph.getFollowsGraph());
+        assertEquals("expected no edges", 0, graph.edgeCount());
+        assertEquals("expected no tweets", 0, graph.tweetCount());
+        assertEquals("expected no users", 0, graph.userCount());
+        assertEquals("expected no influencers", Collections.emptyList(), graph.influencers(5));
+    }
+
+    // Covers influencers() k negative
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeK() {
+        new WindowFollowsGraph().influencers(-1);
+    }
+
+    // Covers user ids reused over a long stream of new users
+    @Test
+    public void testIdsBounded() {
+        WindowFollowsGraph graph = new WindowFollowsGraph();
+        int window = 10;
+        for (int i = 0; i < 100000; i++) {
+            graph.add("author" + i, new String[] { "user" + i }, new String[] { "#a", "#tag" + i % 3 });
+            if (i >= window) {
+                int old = i - window;
+                graph.remove("author" + old, new String[] { "user" + old }, new String[] { "#a", "#tag" + old % 3 });
+            }
+        }
+
+        assertEquals("expected window of tweets", window, graph.tweetCount());
+        assertEquals("expected authors and mentions of the window", 2 * window, graph.userCount());
+        assertTrue("expected ids bounded by the window, got capacity " + graph.idCapacity(),
+                graph.idCapacity() <= 4 * window);
+        assertEquals("expected only users in the window",
+                TopInfluencers.top(graph.getFollowsGraph(), Integer.MAX_VALUE), graph.influencers(Integer.MAX_VALUE));
+    }
+
+    // Covers tweets many, random sequences of added and removed tweets, comparing with FollowsGraphBuilder
+    @Test
+    public void testAddAndRemoveSameAsBuilder() {
+        List<Tweet> tweets = new TweetGenerator(27, 40, 1, 2).stream().limit(3000).collect(Collectors.toList());
+        Random random = new Random(27);
+        WindowFollowsGraph graph = new WindowFollowsGraph();
+        List<Tweet> history = new ArrayList<>();
+        for (int step = 0; step < tweets.size(); step++) {
+            if (!history.isEmpty() && random.nextInt(5) < 2) {
+                Tweet tweet = history.remove(random.nextInt(history.size()));
+                graph.remove(tweet.getAuthor(), mentions(tweet), hashtags(tweet));
+            }
+            else {
+                Tweet tweet = tweets.get(step);
+                if (random.nextInt(10) == 0) {
+                    tweet = new Tweet(tweet.getId(), tweet.getAuthor().toUpperCase(), tweet.getText(), tweet.getTimestamp());
+                }
+                history.add(tweet);
+                graph.add(tweet.getAuthor(), mentions(tweet), hashtags(tweet));
+            }
+            if (step % 100 != 0) {
+                continue;
+            }
+            Map<String, Set<String>> expected = FollowsGraphBuilder.build(history);
+
+            assertEquals("expected same as builder after " + step, expected, graph.getFollowsGraph());
+            assertEquals("expected tweets after " + step, history.size(), graph.tweetCount());
+            int edges = 0;
+            for (Set<String> follows : expected.values()) {
+                edges += follows.size();
+            }
+            assertEquals("expected edges after " + step, edges, graph.edgeCount());
+            UsernameDictionary dictionary = new UsernameDictionary();
+            int[] counts = TopInfluencers.followerCounts(expected, dictionary);
+            assertEquals("expected users after " + step, dictionary.size(), graph.userCount());
+            for (int id = 0; id < counts.length; id++) {
+                assertEquals("expected follower count after " + step,
+                        counts[id], graph.followerCount(dictionary.name(id)));
+            }
+            assertEquals("expected same influencers", TopInfluencers.top(expected, 20), graph.influencers(20));
+        }
+    }
+
+    /* Returns the distinct lower-case mentions of tweet. */
+    private static String[] mentions(Tweet tweet) {
+        Set<String> users = new LinkedHashSet<>();
+        MentionScanner.scan(tweet.getText(), users);
+        return users.toArray(new String[users.size()]);
+    }
+
+    /* Returns the hashtags of tweet, with repeats. */
+    private static String[] hashtags(Tweet tweet) {
+        List<String> found = new ArrayList<>();
+        TweetTokenizer.tokenize(tweet.getText(), new TweetTokenizer.Listener() {
+            @Override public void hashtag(String text, int start, int end) {
+                found.add(text.substring(start, end));
+            }
+        });
+        return found.toArray(new String[found.size()]);
+    }
+}
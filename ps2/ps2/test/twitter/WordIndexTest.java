@@ -0,0 +1,87 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class WordIndexTest {
+
+    /*
+     * Testing strategy for WordIndex
+     *
+     * Input partitions:
+     * tweets: none, one, many
+     * words: empty list, one word, many words, word repeated in different case,
+     *        word absent, word present in several tweets, word twice in one tweet
+     * word vs text: same case, different case, word is part of a longer word
+     * union: few positions (sorted), many positions (bitset)
+     *
+     * Covering each part
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "Talk talk TALK talking", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // Covers tweets none, words empty list
+    @Test
+    public void testEmpty() {
+        WordIndex index = new WordIndex(Collections.emptyList());
+
+        assertEquals("expected no tweets", 0, index.size());
+        assertEquals("expected no words", 0, index.wordCount());
+        assertEquals("expected no tweets", Collections.emptyList(), index.containing(Arrays.asList("talk")));
+        assertEquals("expected no tweets", Collections.emptyList(),
+                new WordIndex(Arrays.asList(tweet1)).containing(Collections.emptyList()));
+    }
+
+    // Covers one word, different case, word twice in one tweet, part of a longer word
+    @Test
+    public void testOneWord() {
+        WordIndex index = new WordIndex(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals("expected tweets in order", Arrays.asList(tweet1, tweet2, tweet3),
+                index.containing(Arrays.asList("TALK")));
+        assertEquals("expected one posting per tweet", 3, index.frequency("talk"));
+        assertArrayEquals("expected positions", new int[] { 2 }, index.positionsContaining("Talking"));
+        assertEquals("expected no tweets", Collections.emptyList(), index.containing(Arrays.asList("tal")));
+    }
+
+    // Covers many words, repeated word, word absent, tweets one
+    @Test
+    public void testManyWords() {
+        WordIndex index = new WordIndex(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals("expected tweets in order", Arrays.asList(tweet1, tweet2),
+                index.containing(Arrays.asList("#hype", "nothing", "rivest", "RIVEST")));
+        assertEquals("expected one tweet", Arrays.asList(tweet2),
+                new WordIndex(Arrays.asList(tweet2)).containing(Arrays.asList("30", "minutes")));
+    }
+
+    // Covers tweets many, union few and many positions
+    @Test
+    public void testSameAsFilter() {
+        List<Tweet> tweets = new TweetGenerator(4, 300, 1, 10).stream().limit(5000).collect(Collectors.toList());
+        WordIndex index = new WordIndex(tweets);
+
+        for (List<String> words : Arrays.asList(Arrays.asList("#tag1", "#TAG2", "the"),
+                Arrays.asList("#tag20", "#tag21", "@user30"), Arrays.asList("Rivest", "talk", "#MIT", "nothing"))) {
+            assertEquals("expected same tweets as Filter for " + words, Filter.containing(tweets, words),
+                    index.containing(words));
+        }
+    }
+}